@@ -8,6 +8,7 @@ plugins {
     alias(libs.plugins.changelog) // Gradle Changelog Plugin
     alias(libs.plugins.qodana) // Gradle Qodana Plugin
     alias(libs.plugins.kover) // Gradle Kover Plugin
+    alias(libs.plugins.jmh) // Gradle JMH Plugin
 }
 
 group = providers.gradleProperty("pluginGroup").get()
@@ -128,6 +129,13 @@ kover {
     }
 }
 
+// Configure Gradle JMH Plugin - read more: https://github.com/melix/jmh-gradle-plugin
+// Benchmarks live in src/jmh/java and only touch plain Swing text APIs, so they run without an IDE instance.
+jmh {
+    jmhVersion = "1.37"
+    resultFormat = "JSON"
+}
+
 tasks {
     wrapper {
         gradleVersion = providers.gradleProperty("gradleVersion").get()
@@ -0,0 +1,62 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.StyledDocument;
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Markdown 渲染基准测试：原正则渲染器与单遍扫描渲染器在大段 AI 回复上的对比
+ * 运行方式：./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarkdownRendererBenchmark {
+
+    /**
+     * 回复中重复的段落组数，每组约 700 个字符
+     */
+    @Param({"10", "100", "1000"})
+    public int sections;
+
+    private String answer;
+    private MarkdownStyles styles;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sections; i++) {
+            sb.append("## 第 ").append(i).append(" 部分\n\n");
+            sb.append("这里是对 **关键概念** 的说明，其中包含 *强调内容* 和行内代码 `ctx.Done()`，")
+                    .append("以及一段较长的普通文本，用来模拟模型输出中常见的解释性段落。")
+                    .append("Goroutine 通过 `channel` 通信，**不要通过共享内存来通信**，而要通过通信来共享内存。\n\n");
+            sb.append("- 第一项：使用 `sync.WaitGroup` 等待任务完成\n");
+            sb.append("- 第二项：用 **context** 传递取消信号\n");
+            sb.append("1. 编号列表中的 *斜体* 内容\n\n");
+            sb.append("```go\nfunc worker(ctx context.Context, jobs <-chan int) {\n")
+                    .append("    for j := range jobs {\n        process(j)\n    }\n}\n```\n\n");
+        }
+        answer = sb.toString();
+        styles = new MarkdownStyles(new Color(50, 50, 50), new Color(245, 245, 245), new Color(50, 50, 50));
+    }
+
+    @Benchmark
+    public StyledDocument legacyRegexRenderer() {
+        StyledDocument doc = new DefaultStyledDocument();
+        LegacyMarkdownRenderer.renderMarkdown(answer, doc, false);
+        return doc;
+    }
+
+    @Benchmark
+    public StyledDocument singlePassRenderer() {
+        StyledDocument doc = new DefaultStyledDocument();
+        MarkdownRenderer.appendMarkdown(answer, doc, styles);
+        return doc;
+    }
+}
@@ -1,16 +1,13 @@
 package com.github.johnnyhooyo.dsaiassist.command;
 
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
-import com.intellij.psi.search.FilenameIndex;
-import com.intellij.psi.search.GlobalSearchScope;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -22,19 +19,27 @@ public class CommandProcessor {
     private final Runnable onClearChat;
     private final Runnable onNewChat;
     private final Consumer<String> onAddAttachment;
+    private final Consumer<String> onBenchmark;
 
     // 支持的命令列表
     private static final List<CommandInfo> COMMANDS = Arrays.asList(
         new CommandInfo("/clear", "清除当前聊天记录"),
         new CommandInfo("/newchat", "创建新的聊天标签页"),
-        new CommandInfo("/@", "选择文件或文件夹")
+        new CommandInfo("/@", "选择文件或文件夹"),
+        new CommandInfo("/bench", "模型延迟基准测试（n= c= models= endpoints= prompts= csv=）")
     );
 
     public CommandProcessor(Project project, Runnable onClearChat, Runnable onNewChat, Consumer<String> onAddAttachment) {
+        this(project, onClearChat, onNewChat, onAddAttachment, args -> {});
+    }
+
+    public CommandProcessor(Project project, Runnable onClearChat, Runnable onNewChat,
+                            Consumer<String> onAddAttachment, Consumer<String> onBenchmark) {
         this.project = project;
         this.onClearChat = onClearChat;
         this.onNewChat = onNewChat;
         this.onAddAttachment = onAddAttachment;
+        this.onBenchmark = onBenchmark;
     }
     
     /**
@@ -61,6 +66,10 @@ public class CommandProcessor {
         } else if (command.startsWith("/@")) {
             handleFileSelection(command);
             return true;
+        } else if (command.equals("/bench") || command.startsWith("/bench ")) {
+            // 参数原样交给调用方解析，解析错误需要在聊天中提示
+            onBenchmark.accept(command.substring("/bench".length()).trim());
+            return true;
         }
 
         return false;
@@ -78,94 +87,32 @@ public class CommandProcessor {
                 suggestions.add(cmd.command + " - " + cmd.description);
             }
         } else if (input.startsWith("/")) {
-            // 过滤匹配的命令
+            // 模糊匹配命令，按得分从高到低排列
+            FuzzyMatcher matcher = new FuzzyMatcher(input);
+            List<CommandInfo> matched = new ArrayList<>();
+            Map<CommandInfo, Integer> scores = new HashMap<>();
             for (CommandInfo cmd : COMMANDS) {
-                if (cmd.command.startsWith(input)) {
-                    suggestions.add(cmd.command + " - " + cmd.description);
+                int score = matcher.score(cmd.command, 0);
+                if (score != FuzzyMatcher.NO_MATCH) {
+                    matched.add(cmd);
+                    scores.put(cmd, score);
                 }
             }
-        }
-        
-        // 如果是文件选择命令，添加文件建议
-        if (input.startsWith("/@")) {
-            suggestions.addAll(getFileSuggestions(input.substring(2)));
-        }
-        
-        return suggestions;
-    }
-    
-    /**
-     * 获取文件建议
-     */
-    private List<String> getFileSuggestions(String query) {
-        List<String> suggestions = new ArrayList<>();
-        
-        if (project == null) {
-            return suggestions;
-        }
-        
-        try {
-            // 搜索项目中的文件
-            Collection<VirtualFile> files = FilenameIndex.getAllFilesByExt(
-                project, 
-                "java", 
-                GlobalSearchScope.projectScope(project)
-            );
-            
-            // 添加Go文件
-            files.addAll(FilenameIndex.getAllFilesByExt(
-                project, 
-                "go", 
-                GlobalSearchScope.projectScope(project)
-            ));
-            
-            // 添加其他常见文件类型
-            String[] extensions = {"kt", "js", "ts", "py", "md", "txt", "xml", "json", "yml", "yaml"};
-            for (String ext : extensions) {
-                files.addAll(FilenameIndex.getAllFilesByExt(
-                    project, 
-                    ext, 
-                    GlobalSearchScope.projectScope(project)
-                ));
-            }
-            
-            // 过滤和格式化建议
-            for (VirtualFile file : files) {
-                String fileName = file.getName();
-                String filePath = file.getPath();
-                
-                if (query.isEmpty() || fileName.toLowerCase().contains(query.toLowerCase())) {
-                    // 显示相对路径
-                    String relativePath = getRelativePath(filePath);
-                    suggestions.add("/@" + relativePath);
-                    
-                    // 限制建议数量
-                    if (suggestions.size() >= 10) {
-                        break;
-                    }
-                }
+            matched.sort(Comparator.comparingInt(cmd -> -scores.get(cmd)));
+            for (CommandInfo cmd : matched) {
+                suggestions.add(cmd.command + " - " + cmd.description);
             }
-        } catch (Exception e) {
-            // 忽略错误，返回空建议
         }
         
         return suggestions;
     }
-    
+
     /**
-     * 获取相对路径
+     * 文件选择命令中 /@ 之后的查询文本，不是文件选择命令时返回 null
+     * 文件建议由 {@link FileFinder} 在后台查找，不在这里同步查询索引
      */
-    private String getRelativePath(String fullPath) {
-        if (project == null || project.getBasePath() == null) {
-            return fullPath;
-        }
-        
-        String basePath = project.getBasePath();
-        if (fullPath.startsWith(basePath)) {
-            return fullPath.substring(basePath.length() + 1);
-        }
-        
-        return fullPath;
+    public String getFileQuery(String input) {
+        return input.startsWith("/@") ? input.substring(2) : null;
     }
     
     /**
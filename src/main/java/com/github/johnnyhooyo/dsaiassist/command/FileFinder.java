@@ -0,0 +1,240 @@
+package com.github.johnnyhooyo.dsaiassist.command;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * /@ 文件补全的后台查找
+ * 输入停顿 {@link #DEBOUNCE_MILLIS} 后才开始查找；查找是后台线程上的普通任务，遍历 {@link ProjectFileCache} 中的路径，
+ * 不需要读操作，新的输入会中断上一次查找。文件列表由缓存自己的后台任务加载，查找被中断不影响加载进度。每个文件按 {@link FuzzyMatcher} 评分，已在编辑器中打开和最近添加为附件的文件加分，
+ * 用大小固定的最小堆保留得分最高的 {@link #MAX_RESULTS} 个。排名边查找边交给回调，查找结束时再交一次完整结果。
+ * search 和 cancel 只在 EDT 上调用，回调也在 EDT 上执行。
+ */
+public final class FileFinder implements Disposable {
+
+    static final int DEBOUNCE_MILLIS = 120;
+    static final int MAX_RESULTS = 1000;
+    static final int BOOST_OPEN = 25;
+    // 最近一次添加的附件加分最多，之后依次递减
+    static final int BOOST_RECENT = 30;
+    // 查找过程中两次推送部分结果的最小间隔
+    static final long PUBLISH_INTERVAL_MILLIS = 50;
+
+    // 得分高的在前；同分时路径短的在前，再按路径排序保证结果稳定
+    private static final Comparator<Match> BETTER_FIRST = Comparator.<Match>comparingInt(match -> -match.score)
+            .thenComparingInt(match -> match.path.length())
+            .thenComparing(match -> match.path);
+
+    private final Project project;
+    private final Timer debounceTimer;
+
+    private String pendingQuery;
+    private Consumer<List<String>> pendingCallback;
+    private Future<?> running;
+    // 每次查找或取消时递增，过期查找的结果不再交给回调
+    private int generation;
+
+    public FileFinder(Project project) {
+        this.project = project;
+        this.debounceTimer = new Timer(DEBOUNCE_MILLIS, e -> start());
+        this.debounceTimer.setRepeats(false);
+    }
+
+    /**
+     * 按 query 模糊查找文件，回调收到按得分从高到低排列的相对路径；未打开项目时不查找
+     */
+    public void search(String query, Consumer<List<String>> onResults) {
+        cancel();
+        if (project == null || project.isDisposed()) {
+            return;
+        }
+        pendingQuery = query;
+        pendingCallback = onResults;
+        debounceTimer.restart();
+    }
+
+    /**
+     * 取消尚未开始和正在进行的查找
+     */
+    public void cancel() {
+        generation++;
+        debounceTimer.stop();
+        pendingQuery = null;
+        pendingCallback = null;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    /**
+     * 记录添加为附件的文件，之后的查找中排在前面
+     */
+    public void recordAttached(String path) {
+        if (project != null && !project.isDisposed()) {
+            ProjectFileCache.getInstance(project).recordAttached(path);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+    }
+
+    private void start() {
+        String query = pendingQuery;
+        Consumer<List<String>> onResults = pendingCallback;
+        if (query == null || onResults == null) {
+            return;
+        }
+        int searchGeneration = generation;
+        ProjectFileCache cache = ProjectFileCache.getInstance(project);
+        // 打开的文件只能在 EDT 上读取，查找开始前收集
+        List<String> openFiles = new ArrayList<>();
+        for (VirtualFile file : FileEditorManager.getInstance(project).getOpenFiles()) {
+            openFiles.add(ProjectFileCache.relativePath(project.getBasePath(), file.getPath()));
+        }
+        Map<String, Integer> boosts = boosts(openFiles, cache.getRecentlyAttached());
+        running = AppExecutorUtil.getAppExecutorService().submit(() -> {
+            Matches matches = new Matches(query, MAX_RESULTS, boosts);
+            long[] lastPublish = {System.currentTimeMillis()};
+            int[] published = {0};
+            boolean complete = cache.processPaths(path -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                matches.test(path);
+                long now = System.currentTimeMillis();
+                if (matches.getVersion() != published[0] && now - lastPublish[0] >= PUBLISH_INTERVAL_MILLIS) {
+                    lastPublish[0] = now;
+                    published[0] = matches.getVersion();
+                    publish(searchGeneration, matches.snapshot(), onResults, false);
+                }
+                return true;
+            });
+            if (complete) {
+                publish(searchGeneration, matches.snapshot(), onResults, true);
+            }
+        });
+    }
+
+    /**
+     * 在 EDT 上把排名交给回调，期间已开始新查找或已取消时丢弃
+     * @param last 是否为查找结束时的完整结果
+     */
+    private void publish(int searchGeneration, List<String> results, Consumer<List<String>> onResults, boolean last) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (searchGeneration == generation) {
+                if (last) {
+                    running = null;
+                }
+                onResults.accept(results);
+            }
+        }, ModalityState.any());
+    }
+
+    /**
+     * 打开的文件和最近的附件对应的加分
+     */
+    static Map<String, Integer> boosts(List<String> openFiles, List<String> recentlyAttached) {
+        Map<String, Integer> boosts = new HashMap<>();
+        for (String path : openFiles) {
+            boosts.merge(path, BOOST_OPEN, Integer::sum);
+        }
+        for (int i = 0; i < recentlyAttached.size(); i++) {
+            boosts.merge(recentlyAttached.get(i), Math.max(1, BOOST_RECENT - i), Integer::sum);
+        }
+        return boosts;
+    }
+
+    /**
+     * 匹配的路径和得分
+     */
+    private static final class Match {
+        final String path;
+        final int score;
+
+        Match(String path, int score) {
+            this.path = path;
+            this.score = score;
+        }
+    }
+
+    /**
+     * 对路径模糊评分，用最小堆保留得分最高的 limit 个
+     */
+    static final class Matches implements Predicate<String> {
+
+        private final FuzzyMatcher matcher;
+        private final int limit;
+        private final Map<String, Integer> boosts;
+        // 堆顶是当前保留的结果中最差的一个
+        private final PriorityQueue<Match> heap;
+        // 保留的结果每变化一次加一
+        private int version;
+
+        Matches(String query, int limit, Map<String, Integer> boosts) {
+            this.matcher = new FuzzyMatcher(query);
+            this.limit = limit;
+            this.boosts = boosts;
+            this.heap = new PriorityQueue<>(Math.min(limit, 64) + 1, BETTER_FIRST.reversed());
+        }
+
+        /**
+         * @return 总是继续查找，排名需要看过所有文件
+         */
+        @Override
+        public boolean test(String path) {
+            int score = matcher.scorePath(path);
+            if (score == FuzzyMatcher.NO_MATCH) {
+                return true;
+            }
+            score += boosts.getOrDefault(path, 0);
+            if (heap.size() >= limit) {
+                Match worst = heap.peek();
+                if (score < worst.score || score == worst.score && path.length() >= worst.path.length()) {
+                    return true;
+                }
+            }
+            heap.add(new Match(path, score));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+            version++;
+            return true;
+        }
+
+        int getVersion() {
+            return version;
+        }
+
+        /**
+         * 当前排名，得分高的在前
+         */
+        List<String> snapshot() {
+            List<Match> sorted = new ArrayList<>(heap);
+            sorted.sort(BETTER_FIRST);
+            List<String> paths = new ArrayList<>(sorted.size());
+            for (Match match : sorted) {
+                paths.add(match.path);
+            }
+            return paths;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.johnnyhooyo.dsaiassist.command;
+
+/**
+ * 命令和文件路径的模糊匹配评分
+ * 查询字符按顺序（不要求连续、不区分大小写）出现在文本中即为匹配；落在单词开头（路径分隔符、
+ * 下划线等之后，或驼峰的大写字母）和连续匹配的字符得分更高，间隔越长扣分越多。
+ * 文件路径优先匹配文件名，文件名不匹配或查询中带 / 时匹配整个路径。
+ * 评分时只比较字符，不创建字符串；实例复用内部数组，不能在多个线程间共享。
+ */
+public final class FuzzyMatcher {
+
+    public static final int NO_MATCH = Integer.MIN_VALUE;
+
+    static final int SCORE_MATCH = 16;
+    static final int BONUS_BOUNDARY = 10;
+    static final int BONUS_CAMEL = 8;
+    static final int BONUS_CONSECUTIVE = 8;
+    static final int PENALTY_GAP_START = 3;
+    static final int PENALTY_GAP_EXTENSION = 1;
+    // 在文件名中匹配比跨目录匹配更相关
+    static final int BONUS_FILE_NAME = 40;
+
+    private static final int NEG = Integer.MIN_VALUE / 2;
+
+    private final char[] pattern;
+    private final boolean matchWholePath;
+    private int[] previous = new int[64];
+    private int[] current = new int[64];
+
+    public FuzzyMatcher(String pattern) {
+        this.pattern = pattern.toCharArray();
+        this.matchWholePath = pattern.indexOf('/') >= 0;
+    }
+
+    /**
+     * 文件路径的得分，不匹配时返回 {@link #NO_MATCH}
+     */
+    public int scorePath(String path) {
+        if (!matchWholePath) {
+            int nameScore = score(path, path.lastIndexOf('/') + 1);
+            if (nameScore != NO_MATCH) {
+                return nameScore + BONUS_FILE_NAME;
+            }
+        }
+        return score(path, 0);
+    }
+
+    /**
+     * 文本从 from 开始部分的得分，不匹配时返回 {@link #NO_MATCH}
+     */
+    public int score(String text, int from) {
+        int m = pattern.length;
+        if (m == 0) {
+            return 0;
+        }
+        int n = text.length() - from;
+        if (n < m || !isSubsequence(text, from)) {
+            return NO_MATCH;
+        }
+        if (previous.length < n) {
+            previous = new int[n];
+            current = new int[n];
+        }
+
+        // previous[j]：查询的前 i 个字符匹配完、第 i 个字符落在 text[from + j] 时的最高得分
+        for (int j = 0; j < n; j++) {
+            previous[j] = matches(pattern[0], text.charAt(from + j))
+                    ? SCORE_MATCH + bonus(text, from, j) + exactCase(pattern[0], text.charAt(from + j)) - Math.min(j, 20)
+                    : NEG;
+        }
+        for (int i = 1; i < m; i++) {
+            // gapBest：上一个字符落在 j - 2 及之前位置、中间有间隔时的最高得分
+            int gapBest = NEG;
+            for (int j = 0; j < n; j++) {
+                if (j >= 2 && previous[j - 2] > NEG) {
+                    gapBest = Math.max(gapBest - PENALTY_GAP_EXTENSION, previous[j - 2] - PENALTY_GAP_START);
+                } else if (gapBest > NEG) {
+                    gapBest -= PENALTY_GAP_EXTENSION;
+                }
+                char c = text.charAt(from + j);
+                if (!matches(pattern[i], c)) {
+                    current[j] = NEG;
+                    continue;
+                }
+                int best = gapBest;
+                if (j >= 1 && previous[j - 1] > NEG) {
+                    best = Math.max(best, previous[j - 1] + BONUS_CONSECUTIVE);
+                }
+                current[j] = best > NEG ? best + SCORE_MATCH + bonus(text, from, j) + exactCase(pattern[i], c) : NEG;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        int result = NEG;
+        for (int j = 0; j < n; j++) {
+            result = Math.max(result, previous[j]);
+        }
+        return result > NEG ? result : NO_MATCH;
+    }
+
+    private boolean isSubsequence(String text, int from) {
+        int i = 0;
+        for (int j = from; j < text.length() && i < pattern.length; j++) {
+            if (matches(pattern[i], text.charAt(j))) {
+                i++;
+            }
+        }
+        return i == pattern.length;
+    }
+
+    private static boolean matches(char patternChar, char textChar) {
+        return patternChar == textChar || Character.toLowerCase(patternChar) == Character.toLowerCase(textChar);
+    }
+
+    private static int exactCase(char patternChar, char textChar) {
+        return patternChar == textChar ? 1 : 0;
+    }
+
+    /**
+     * 单词开头的加分：文本开头、分隔符之后为边界，小写之后的大写字母为驼峰
+     */
+    private static int bonus(String text, int from, int j) {
+        if (j == 0) {
+            return BONUS_BOUNDARY;
+        }
+        char prev = text.charAt(from + j - 1);
+        char c = text.charAt(from + j);
+        if (prev == '/' || prev == '\\' || prev == '_' || prev == '-' || prev == '.' || prev == ' ') {
+            return BONUS_BOUNDARY;
+        }
+        if (Character.isLowerCase(prev) && Character.isUpperCase(c)) {
+            return BONUS_CAMEL;
+        }
+        if (!Character.isDigit(prev) && Character.isDigit(c)) {
+            return BONUS_CAMEL / 2;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,429 @@
+package com.github.johnnyhooyo.dsaiassist.command;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 项目文件列表缓存（项目级服务），供 /@ 文件补全查询
+ * 第一次查询时启动后台加载任务（每个项目同时只有一个），逐个目录遍历项目内容，记录所有非二进制文件相对项目根目录的路径。
+ * 每批目录在一次短的读操作中遍历，写操作只需等待当前一批，加载不会被输入或写操作取消；
+ * 查询不拥有遍历过程，只读取已加载的部分并等待后续加载的路径。
+ * 之后按 VFS 事件增量更新文件和目录的新增、复制、删除、移动和重命名，只处理项目内容根目录下的事件；
+ * 项目根变化时丢弃缓存，下次查询重新加载。
+ * 路径集合是并发集合，查询、加载和 VFS 事件可以同时读写。
+ * 另外记录最近添加为附件的文件，文件补全时排在前面。
+ */
+public final class ProjectFileCache implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(ProjectFileCache.class);
+    static final int RECENT_LIMIT = 20;
+    // 每次读操作中遍历的目录数
+    static final int DIRECTORIES_PER_READ_ACTION = 64;
+
+    private final Project project;
+    // 当前的加载任务（加载中或已完成），尚未加载或已失效时为 null
+    private volatile Loader loader;
+    // 最近添加为附件的文件，最近的在前
+    private final Deque<String> recentlyAttached = new ArrayDeque<>();
+
+    public ProjectFileCache(Project project) {
+        this.project = project;
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(List<? extends VFileEvent> events) {
+                applyEvents(events);
+            }
+        });
+        connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(ModuleRootEvent event) {
+                invalidate();
+            }
+        });
+    }
+
+    public static ProjectFileCache getInstance(Project project) {
+        return project.getService(ProjectFileCache.class);
+    }
+
+    @Override
+    public void dispose() {
+        invalidate();
+    }
+
+    /**
+     * 依次处理项目中所有文件的相对路径，processor 返回 false 时停止；不需要读操作，不能在 EDT 上调用
+     * 缓存尚未加载时启动后台加载，先处理已加载的部分，再等待并处理后续加载的路径，直到加载完成
+     * @return 是否处理完所有文件；processor 返回 false、等待时线程被中断或缓存中途失效时返回 false
+     */
+    public boolean processPaths(Predicate<String> processor) {
+        Loader current = loader;
+        if (current == null) {
+            current = startLoading();
+        }
+        return current.process(processor);
+    }
+
+    /**
+     * 记录添加为附件的文件（相对路径）
+     */
+    public void recordAttached(String path) {
+        synchronized (recentlyAttached) {
+            recentlyAttached.remove(path);
+            recentlyAttached.addFirst(path);
+            while (recentlyAttached.size() > RECENT_LIMIT) {
+                recentlyAttached.removeLast();
+            }
+        }
+    }
+
+    /**
+     * 最近添加为附件的文件，最近的在前
+     */
+    public List<String> getRecentlyAttached() {
+        synchronized (recentlyAttached) {
+            return new ArrayList<>(recentlyAttached);
+        }
+    }
+
+    /**
+     * 丢弃缓存并停止正在进行的加载，下次查询时重新加载
+     */
+    public void invalidate() {
+        Loader current;
+        synchronized (this) {
+            current = loader;
+            loader = null;
+        }
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    /**
+     * 丢弃加载失败的任务，下次查询时重新加载
+     */
+    private void discard(Loader failed) {
+        synchronized (this) {
+            if (loader == failed) {
+                loader = null;
+            }
+        }
+        failed.stop();
+    }
+
+    private synchronized Loader startLoading() {
+        if (loader == null && !project.isDisposed()) {
+            Loader started = new Loader(this);
+            loader = started;
+            AppExecutorUtil.getAppExecutorService().execute(started);
+            return started;
+        }
+        // 已被其他查询启动，或项目已关闭（此时返回一个已结束的空任务）
+        return loader != null ? loader : Loader.finished(this);
+    }
+
+    private void applyEvents(List<? extends VFileEvent> events) {
+        Loader currentLoader = loader;
+        if (currentLoader == null || project.isDisposed()) {
+            return;
+        }
+        // 加载中的部分结果也按事件更新：事件发生在已遍历的目录时由这里处理，未遍历的目录由加载任务看到最新状态
+        Set<String> current = currentLoader.paths;
+        // 事件来自整个 VFS，其他项目和构建输出等项目外的变化直接忽略
+        List<String> roots = contentRootPaths();
+        String basePath = project.getBasePath();
+        for (VFileEvent event : events) {
+            if (event instanceof VFileDeleteEvent) {
+                VirtualFile file = event.getFile();
+                remove(current, roots, basePath, event.getPath(), file == null || file.isDirectory());
+                continue;
+            }
+            String oldPath = null;
+            VirtualFile file;
+            if (event instanceof VFileMoveEvent) {
+                oldPath = ((VFileMoveEvent) event).getOldPath();
+                file = event.getFile();
+            } else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent) event).isRename()) {
+                oldPath = ((VFilePropertyChangeEvent) event).getOldPath();
+                file = event.getFile();
+            } else if (event instanceof VFileCreateEvent) {
+                file = event.getFile();
+            } else if (event instanceof VFileCopyEvent) {
+                // 复制事件的 getFile 是源文件，新文件在目标目录下
+                VFileCopyEvent copy = (VFileCopyEvent) event;
+                VirtualFile parent = copy.getNewParent();
+                file = parent != null ? parent.findChild(copy.getNewChildName()) : null;
+            } else {
+                // 内容和其他属性的变化不影响文件列表
+                continue;
+            }
+            if (oldPath != null) {
+                remove(current, roots, basePath, oldPath, file == null || file.isDirectory());
+            }
+            if (file != null) {
+                addTree(current, roots, basePath, file);
+            }
+        }
+    }
+
+    /**
+     * 移除文件，或目录下的所有文件；只有目录才需要遍历整个集合
+     */
+    private static void remove(Set<String> current, List<String> roots, String basePath, String path, boolean directory) {
+        if (!isUnder(path, roots)) {
+            return;
+        }
+        String relative = relativePath(basePath, path);
+        if (!current.remove(relative) && directory) {
+            String prefix = relative + "/";
+            current.removeIf(p -> p.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 加入文件，或目录下的所有项目内容文件
+     */
+    private void addTree(Set<String> current, List<String> roots, String basePath, VirtualFile file) {
+        if (!file.isValid() || !isUnder(file.getPath(), roots) || !ProjectFileIndex.getInstance(project).isInContent(file)) {
+            return;
+        }
+        if (!file.isDirectory()) {
+            if (isIndexable(file)) {
+                current.add(relativePath(basePath, file.getPath()));
+            }
+            return;
+        }
+        Deque<VirtualFile> pending = new ArrayDeque<>();
+        pending.push(file);
+        while (!pending.isEmpty()) {
+            current.addAll(Loader.walk(project, pending));
+        }
+    }
+
+    private List<String> contentRootPaths() {
+        VirtualFile[] roots = ProjectRootManager.getInstance(project).getContentRoots();
+        List<String> paths = new ArrayList<>(roots.length);
+        for (VirtualFile root : roots) {
+            paths.add(root.getPath());
+        }
+        return paths;
+    }
+
+    /**
+     * path 是否为某个根目录或在其下
+     */
+    static boolean isUnder(String path, List<String> roots) {
+        for (String root : roots) {
+            if (path.startsWith(root) && (path.length() == root.length() || path.charAt(root.length()) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIndexable(VirtualFile file) {
+        return !file.isDirectory() && !file.getFileType().isBinary();
+    }
+
+    /**
+     * 项目内容根目录，去掉嵌套在其他内容根目录下的（遍历外层目录时会经过）
+     */
+    private static List<VirtualFile> topLevelRoots(VirtualFile[] roots) {
+        List<VirtualFile> topLevel = new ArrayList<>();
+        for (VirtualFile root : roots) {
+            boolean nested = false;
+            for (VirtualFile other : roots) {
+                if (other != root && root.getPath().startsWith(other.getPath() + "/")) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                topLevel.add(root);
+            }
+        }
+        return topLevel;
+    }
+
+    /**
+     * 后台加载任务：逐批遍历目录，把路径加入并发集合，同时按加载顺序记录，供等待中的查询继续处理
+     */
+    private static final class Loader implements Runnable {
+
+        private final ProjectFileCache owner;
+        final Set<String> paths = ConcurrentHashMap.newKeySet();
+        // 按加载顺序记录的路径，以及加载是否已结束（完成或停止），由 this 保护
+        private final List<String> loaded = new ArrayList<>();
+        private boolean done;
+        private volatile boolean stopped;
+
+        Loader(ProjectFileCache owner) {
+            this.owner = owner;
+        }
+
+        static Loader finished(ProjectFileCache owner) {
+            Loader loader = new Loader(owner);
+            loader.done = true;
+            return loader;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Project project = owner.project;
+                Deque<VirtualFile> pending = new ArrayDeque<>(ReadAction.compute(() -> project.isDisposed()
+                        ? List.<VirtualFile>of()
+                        : topLevelRoots(ProjectRootManager.getInstance(project).getContentRoots())));
+                while (!pending.isEmpty() && !stopped) {
+                    // 在同一个读操作中加入集合，之后的删除事件一定能看到这些路径
+                    List<String> batch = ReadAction.compute(() -> {
+                        if (project.isDisposed()) {
+                            return null;
+                        }
+                        List<String> walked = walk(project, pending);
+                        paths.addAll(walked);
+                        return walked;
+                    });
+                    if (batch == null) {
+                        break;
+                    }
+                    synchronized (this) {
+                        loaded.addAll(batch);
+                        notifyAll();
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("加载项目文件列表失败", e);
+                owner.discard(this);
+            } finally {
+                synchronized (this) {
+                    done = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * 遍历一批目录（在读操作中调用），子目录放回待遍历队列
+         */
+        private static List<String> walk(Project project, Deque<VirtualFile> pending) {
+            ProjectFileIndex index = ProjectFileIndex.getInstance(project);
+            String basePath = project.getBasePath();
+            List<String> batch = new ArrayList<>();
+            for (int i = 0; i < DIRECTORIES_PER_READ_ACTION && !pending.isEmpty(); i++) {
+                VirtualFile directory = pending.pop();
+                if (!directory.isValid()) {
+                    continue;
+                }
+                for (VirtualFile child : directory.getChildren()) {
+                    // 排除和忽略的文件、目录不属于项目内容
+                    if (!index.isInContent(child)) {
+                        continue;
+                    }
+                    if (child.isDirectory()) {
+                        pending.push(child);
+                    } else if (isIndexable(child)) {
+                        batch.add(relativePath(basePath, child.getPath()));
+                    }
+                }
+            }
+            return batch;
+        }
+
+        void stop() {
+            stopped = true;
+            synchronized (this) {
+                done = true;
+                notifyAll();
+            }
+        }
+
+        /**
+         * 处理路径：加载已完成时直接遍历路径集合；否则按加载顺序处理，跟上加载进度后等待新的路径，
+         * 加载结束后再补上加载期间由 VFS 事件加入的路径
+         */
+        boolean process(Predicate<String> processor) {
+            synchronized (this) {
+                if (done && !stopped) {
+                    return processAll(processor, null);
+                }
+            }
+            Set<String> seen = new HashSet<>();
+            int next = 0;
+            while (true) {
+                List<String> chunk;
+                boolean finished;
+                synchronized (this) {
+                    while (next == loaded.size() && !done) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                    }
+                    chunk = new ArrayList<>(loaded.subList(next, loaded.size()));
+                    finished = done;
+                }
+                next += chunk.size();
+                for (String path : chunk) {
+                    seen.add(path);
+                    // 加载后又被删除的文件不再交给查询
+                    if (paths.contains(path) && !processor.test(path)) {
+                        return false;
+                    }
+                }
+                if (finished && chunk.isEmpty()) {
+                    return !stopped && processAll(processor, seen);
+                }
+            }
+        }
+
+        private boolean processAll(Predicate<String> processor, Set<String> skip) {
+            for (String path : paths) {
+                if ((skip == null || !skip.contains(path)) && !processor.test(path)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 相对项目根目录的路径，不在项目根目录下时返回完整路径
+     */
+    static String relativePath(String basePath, String fullPath) {
+        if (basePath != null && fullPath.startsWith(basePath + "/")) {
+            return fullPath.substring(basePath.length() + 1);
+        }
+        return fullPath;
+    }
+}
@@ -11,6 +11,7 @@ public class ChatMessage {
     private String reasoningContent; // 推理内容，支持流式更新
     private final boolean isUser; // true表示用户消息，false表示AI回复
     private final LocalDateTime timestamp;
+    private boolean localOnly; // true表示只在本地显示，不作为对话上下文发送给API
 
     public ChatMessage(String content, boolean isUser) {
         this.content = content;
@@ -52,6 +53,14 @@ public class ChatMessage {
         return timestamp;
     }
 
+    public boolean isLocalOnly() {
+        return localOnly;
+    }
+
+    public void setLocalOnly(boolean localOnly) {
+        this.localOnly = localOnly;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
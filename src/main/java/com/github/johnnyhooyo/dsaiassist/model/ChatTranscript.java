@@ -0,0 +1,132 @@
+package com.github.johnnyhooyo.dsaiassist.model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 聊天标签页的会话快照：全部消息和输入框中未发送的草稿
+ * 标签页休眠时写入 gzip 压缩的 JSON 文件，恢复时读回。
+ */
+public final class ChatTranscript {
+
+    private final List<ChatMessage> messages;
+    private final String draft;
+
+    public ChatTranscript(List<ChatMessage> messages, String draft) {
+        this.messages = List.copyOf(messages);
+        this.draft = draft != null ? draft : "";
+    }
+
+    public List<ChatMessage> getMessages() {
+        return messages;
+    }
+
+    public String getDraft() {
+        return draft;
+    }
+
+    /**
+     * 写入文件（gzip 压缩的 JSON）
+     */
+    public void writeTo(Path file) throws IOException {
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("draft").value(draft);
+            writer.name("messages").beginArray();
+            for (ChatMessage message : messages) {
+                writer.beginObject();
+                writer.name("user").value(message.isUser());
+                writer.name("time").value(message.getTimestamp().toString());
+                writer.name("content").value(message.getContent());
+                if (message.getReasoningContent() != null) {
+                    writer.name("reasoning").value(message.getReasoningContent());
+                }
+                if (message.isLocalOnly()) {
+                    writer.name("local").value(true);
+                }
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+    }
+
+    /**
+     * 从 {@link #writeTo(Path)} 写入的文件读取
+     */
+    public static ChatTranscript readFrom(Path file) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String draft = "";
+            List<ChatMessage> messages = new ArrayList<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("draft".equals(name)) {
+                    draft = reader.nextString();
+                } else if ("messages".equals(name)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        messages.add(readMessage(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new ChatTranscript(messages, draft);
+        } catch (IllegalStateException | DateTimeParseException e) {
+            throw new IOException("会话快照格式错误: " + file, e);
+        }
+    }
+
+    private static ChatMessage readMessage(JsonReader reader) throws IOException {
+        boolean user = false;
+        LocalDateTime time = null;
+        String content = "";
+        String reasoning = null;
+        boolean local = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            if ("user".equals(name)) {
+                user = reader.nextBoolean();
+            } else if ("time".equals(name)) {
+                time = LocalDateTime.parse(reader.nextString());
+            } else if ("content".equals(name)) {
+                content = reader.nextString();
+            } else if ("reasoning".equals(name)) {
+                reasoning = reader.nextString();
+            } else if ("local".equals(name)) {
+                local = reader.nextBoolean();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        ChatMessage message = new ChatMessage(content, user, time != null ? time : LocalDateTime.now());
+        message.setReasoningContent(reasoning);
+        message.setLocalOnly(local);
+        return message;
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.johnnyhooyo.dsaiassist.service;
+
+/**
+ * 连接健康探测结果
+ * 记录收到响应头和读完响应的耗时（毫秒，未测量时为 -1）。
+ * 探测经由 HttpClient 发送，可能复用已有连接或经过代理，DNS、连接和 TLS 各阶段耗时不可见。
+ */
+public final class ConnectionHealth {
+
+    private final String endpoint;
+    private final int statusCode;
+    private final long headersMillis;
+    private final long totalMillis;
+    private final String error;
+    private final long checkedAtMillis;
+
+    public ConnectionHealth(String endpoint, int statusCode, long headersMillis, long totalMillis, String error) {
+        this.endpoint = endpoint;
+        this.statusCode = statusCode;
+        this.headersMillis = headersMillis;
+        this.totalMillis = totalMillis;
+        this.error = error;
+        this.checkedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * 探测失败（网络不可达、超时等）
+     */
+    public static ConnectionHealth failure(String endpoint, long totalMillis, String error) {
+        return new ConnectionHealth(endpoint, -1, -1, totalMillis, error);
+    }
+
+    /**
+     * 端点可达且API Key有效
+     */
+    public boolean isHealthy() {
+        return statusCode == 200;
+    }
+
+    /**
+     * 端点可达（收到了HTTP响应，不论状态码）
+     */
+    public boolean isReachable() {
+        return statusCode > 0;
+    }
+
+    /**
+     * 端点可达但API Key被拒绝
+     */
+    public boolean isUnauthorized() {
+        return statusCode == 401 || statusCode == 403;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 发出请求到收到响应头的耗时，包含可能的建立连接和代理转发
+     */
+    public long getHeadersMillis() {
+        return headersMillis;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getCheckedAtMillis() {
+        return checkedAtMillis;
+    }
+
+    /**
+     * 是否已超过给定的有效期
+     */
+    public boolean isExpired(long ttlMillis) {
+        return System.currentTimeMillis() - checkedAtMillis > ttlMillis;
+    }
+
+    /**
+     * 生成结果概要，用于界面展示
+     */
+    public String getSummary() {
+        String headline;
+        if (isHealthy()) {
+            headline = "连接成功！";
+        } else if (isUnauthorized()) {
+            headline = "连接失败，API Key无效（状态码: " + statusCode + "）";
+        } else if (isReachable()) {
+            headline = "连接异常，状态码: " + statusCode;
+        } else {
+            headline = "连接失败：" + error;
+        }
+        String timings = describeTimings();
+        if (timings.isEmpty()) {
+            return headline;
+        }
+        return headline + "\n" + timings + "\n（按 IDE 代理设置经由 HttpClient 探测，DNS、连接和 TLS 耗时无法单独测量）";
+    }
+
+    /**
+     * 生成耗时明细，用于界面展示
+     */
+    public String describeTimings() {
+        StringBuilder sb = new StringBuilder();
+        appendTiming(sb, "响应头", headersMillis);
+        appendTiming(sb, "总计", totalMillis);
+        return sb.toString();
+    }
+
+    private static void appendTiming(StringBuilder sb, String label, long millis) {
+        if (millis < 0) {
+            return;
+        }
+        if (sb.length() > 0) {
+            sb.append(" · ");
+        }
+        sb.append(label).append(' ').append(millis).append("ms");
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionHealth{" +
+                "endpoint='" + endpoint + '\'' +
+                ", statusCode=" + statusCode +
+                ", timings=" + describeTimings() +
+                (error != null ? ", error='" + error + '\'' : "") +
+                '}';
+    }
+}
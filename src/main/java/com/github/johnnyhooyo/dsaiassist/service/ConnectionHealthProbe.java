@@ -0,0 +1,118 @@
+package com.github.johnnyhooyo.dsaiassist.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 轻量级连接健康探测
+ * 使用 GET /models 代替真实的对话补全，不消耗 token；
+ * 请求经由对话请求使用的同一个 HttpClient 发送，与真实流量走相同的代理设置和连接池。
+ * 因此只能测量收到响应头和读完响应的耗时，DNS、TCP 连接和 TLS 握手不可单独观测。
+ * 结果按端点和 API Key 缓存一小段时间，供测试连接、端点选择和预热逻辑复用。
+ */
+public final class ConnectionHealthProbe {
+
+    private static final Logger LOG = Logger.getInstance(ConnectionHealthProbe.class);
+
+    public static final long DEFAULT_TTL_MILLIS = 30_000;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient httpClient;
+    private final String endpoint;
+    private final long ttlMillis;
+    private final Map<String, ConnectionHealth> cache = new ConcurrentHashMap<>();
+
+    public ConnectionHealthProbe(HttpClient httpClient, String endpoint) {
+        this(httpClient, endpoint, DEFAULT_TTL_MILLIS);
+    }
+
+    public ConnectionHealthProbe(HttpClient httpClient, String endpoint, long ttlMillis) {
+        this.httpClient = httpClient;
+        this.endpoint = endpoint;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 探测端点健康状况，有效期内直接返回缓存结果
+     */
+    public ConnectionHealth probe(String apiKey, boolean forceRefresh) {
+        String key = cacheKey(apiKey);
+        if (!forceRefresh) {
+            ConnectionHealth cached = cache.get(key);
+            if (cached != null && !cached.isExpired(ttlMillis)) {
+                return cached;
+            }
+        }
+
+        ConnectionHealth health = doProbe(apiKey);
+        cache.put(key, health);
+        LOG.info("DeepSeek 连接探测: " + health);
+        return health;
+    }
+
+    /**
+     * 获取仍在有效期内的缓存结果，没有则返回 null
+     */
+    public ConnectionHealth getCached(String apiKey) {
+        ConnectionHealth cached = cache.get(cacheKey(apiKey));
+        return cached != null && !cached.isExpired(ttlMillis) ? cached : null;
+    }
+
+    /**
+     * 清除所有缓存结果（例如 API Key 变更后）
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    private String cacheKey(String apiKey) {
+        // 不在内存中保留 API Key 明文
+        String trimmed = apiKey != null ? apiKey.trim() : "";
+        return endpoint + "#" + Integer.toHexString(trimmed.hashCode());
+    }
+
+    private ConnectionHealth doProbe(String apiKey) {
+        long start = System.nanoTime();
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(endpoint))
+                    .timeout(TIMEOUT)
+                    .header("Accept", "application/json")
+                    .GET();
+            if (apiKey != null && !apiKey.trim().isEmpty()) {
+                request.header("Authorization", "Bearer " + apiKey.trim());
+            }
+
+            // send 在收到响应头后返回，响应体随后读完
+            HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            long headersMillis = elapsedMillis(start);
+            try (InputStream body = response.body()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            return new ConnectionHealth(endpoint, response.statusCode(), headersMillis, elapsedMillis(start), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ConnectionHealth.failure(endpoint, elapsedMillis(start), "探测已取消");
+        } catch (Exception e) {
+            LOG.warn("DeepSeek 连接探测失败", e);
+            return ConnectionHealth.failure(endpoint, elapsedMillis(start),
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
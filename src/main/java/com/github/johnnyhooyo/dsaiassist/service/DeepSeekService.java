@@ -1,53 +1,87 @@
 package com.github.johnnyhooyo.dsaiassist.service;
 
 import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.github.johnnyhooyo.dsaiassist.service.benchmark.BenchmarkConfig;
+import com.github.johnnyhooyo.dsaiassist.service.benchmark.BenchmarkReport;
+import com.github.johnnyhooyo.dsaiassist.service.benchmark.LatencyBenchmark;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.ApiException;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.CacheInterceptor;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.ChatRequest;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.ChatResponseStream;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.HttpTransport;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.MetricsInterceptor;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.RateLimitInterceptor;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.RedactionInterceptor;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.RequestPipeline;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.RetryInterceptor;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.TracingInterceptor;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.TransportStats;
 import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.diagnostic.Logger;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 /**
  * DeepSeek API 服务
+ * 所有阻塞式网络调用都运行在服务自有的虚拟线程执行器上，插件卸载时随服务一起关闭。
+ * 各入口统一构造 ChatRequest，经由请求管道（追踪、指标、脱敏、缓存、限流、重试）发送。
  */
 @Service
-public final class DeepSeekService {
-    
+public final class DeepSeekService implements Disposable {
+
     private static final Logger LOG = Logger.getInstance(DeepSeekService.class);
     private static final String DEEPSEEK_API_URL = "https://api.deepseek.com/v1/chat/completions";
-    
+    private static final String DEEPSEEK_MODELS_URL = "https://api.deepseek.com/v1/models";
+    private static final String API_KEY_MISSING = "DeepSeek API Key未设置，请在设置中配置";
+
+    private final NetworkExecutor ioExecutor;
     private final HttpClient httpClient;
     private final Gson gson;
-    
+    private final ConnectionHealthProbe healthProbe;
+    private final HttpTransport transport;
+    private final RequestPipeline pipeline;
+
     public DeepSeekService() {
+        this.ioExecutor = new NetworkExecutor("DeepSeek-IO-");
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(30))
+                .executor(ioExecutor)
                 .build();
         this.gson = new Gson();
+        this.healthProbe = new ConnectionHealthProbe(httpClient, DEEPSEEK_MODELS_URL);
+
+        this.transport = new HttpTransport(httpClient, gson,
+                () -> PluginSettings.getInstance().getCompressionThresholdBytes());
+
+        // 拦截器顺序：由外到内
+        this.pipeline = new RequestPipeline(transport)
+                .addInterceptor(new TracingInterceptor())
+                .addInterceptor(new MetricsInterceptor())
+                .addInterceptor(new RedactionInterceptor())
+                .addInterceptor(new CacheInterceptor(() -> PluginSettings.getInstance().isEnableResponseCache()))
+                .addInterceptor(new RateLimitInterceptor(4, 200))
+                .addInterceptor(new RetryInterceptor(2, 500));
     }
-    
+
     /**
      * 发送消息到DeepSeek API
      */
     public CompletableFuture<String> sendMessage(String message, String apiKey) {
-        return CompletableFuture.supplyAsync(() -> {
+        return ioExecutor.supply(() -> {
             try {
                 return sendMessageSync(message, apiKey);
             } catch (Exception e) {
@@ -56,12 +90,12 @@ public final class DeepSeekService {
             }
         });
     }
-    
+
     /**
      * 异步发送消息并通过回调返回结果
      */
     public void sendMessageAsync(String message, String apiKey, Consumer<String> onSuccess, Consumer<String> onError) {
-        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+        runOnIoThread(onError, () -> {
             try {
                 String response = sendMessageSync(message, apiKey);
                 ApplicationManager.getApplication().invokeLater(() -> onSuccess.accept(response));
@@ -88,13 +122,25 @@ public final class DeepSeekService {
                                              Consumer<String> onReasoningChunk,
                                              Consumer<String> onComplete,
                                              Consumer<String> onError) {
-        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+        ChatResponseStream uiStream = new EdtResponseStream(onContentChunk, onReasoningChunk, onComplete, onError);
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            uiStream.onError(API_KEY_MISSING);
+            return;
+        }
+
+        ChatRequest request = newChatRequest(messages, apiKey, true);
+        runOnIoThread(onError, () -> {
             try {
-                sendMessageStreamSyncWithReasoningArray(messages, apiKey, onContentChunk, onReasoningChunk, onComplete, onError);
+                pipeline.execute(request, uiStream);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uiStream.onError("请求已取消");
+            } catch (ApiException e) {
+                LOG.warn("DeepSeek 流式API调用失败", e);
+                uiStream.onError(e.getMessage());
             } catch (Exception e) {
                 LOG.error("DeepSeek 流式API调用失败", e);
-                ApplicationManager.getApplication().invokeLater(() ->
-                    onError.accept("抱歉，AI服务暂时不可用：" + e.getMessage()));
+                uiStream.onError("抱歉，AI服务暂时不可用：" + e.getMessage());
             }
         });
     }
@@ -107,561 +153,253 @@ public final class DeepSeekService {
                                              Consumer<String> onReasoningChunk,
                                              Consumer<String> onComplete,
                                              Consumer<String> onError) {
-        ApplicationManager.getApplication().executeOnPooledThread(() -> {
-            try {
-                sendMessageStreamSyncWithReasoning(message, apiKey, onContentChunk, onReasoningChunk, onComplete, onError);
-            } catch (Exception e) {
-                LOG.error("DeepSeek 流式API调用失败", e);
-                ApplicationManager.getApplication().invokeLater(() ->
-                    onError.accept("抱歉，AI服务暂时不可用：" + e.getMessage()));
-            }
-        });
+        sendMessageStreamWithReasoning(ChatRequest.singleUserMessage(message), apiKey,
+                onContentChunk, onReasoningChunk, onComplete, onError);
     }
 
     /**
-     * 转换消息到deepseek所需要的格式
+     * 按当前设置构造请求
      */
-    public JsonArray parseMessages(List<ChatMessage> messages) {
-        JsonArray jsonArray = new JsonArray();
-        for (ChatMessage msg : messages) {
-            JsonObject jsonObject = new JsonObject();
-            jsonObject.addProperty("role", msg.isUser() ? "user" : "assistant");
-            jsonObject.addProperty("content", msg.getContent());
-            jsonArray.add(jsonObject);
-        }
-        return jsonArray;
+    public ChatRequest newChatRequest(JsonArray messages, String apiKey, boolean stream) {
+        PluginSettings settings = PluginSettings.getInstance();
+        return new ChatRequest(DEEPSEEK_API_URL, apiKey, settings.getDeepSeekModel(), messages,
+                settings.getMaxTokens(), settings.getTemperature(), stream);
     }
-    
+
     /**
-     * 同步发送消息到DeepSeek API（非流式）
+     * 在当前线程上通过请求管道执行请求，回调不切换线程
      */
-    private String sendMessageSync(String message, String apiKey) throws IOException, InterruptedException {
-        if (apiKey == null || apiKey.trim().isEmpty()) {
-            throw new IllegalArgumentException("DeepSeek API Key未设置，请在设置中配置");
-        }
-
-        // 构建请求体（非流式）
-        JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", PluginSettings.getInstance().getDeepSeekModel());
-        requestBody.addProperty("max_tokens", 2048);
-        requestBody.addProperty("temperature", 0.7);
-        requestBody.addProperty("stream", false); // 非流式
-
-        JsonArray messages = new JsonArray();
-        JsonObject userMessage = new JsonObject();
-        userMessage.addProperty("role", "user");
-        userMessage.addProperty("content", message);
-        messages.add(userMessage);
-
-        requestBody.add("messages", messages);
-
-        // 创建HTTP请求
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(DEEPSEEK_API_URL))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + apiKey.trim())
-                .timeout(Duration.ofSeconds(60))
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
-                .build();
-
-        // 发送请求
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public void execute(ChatRequest request, ChatResponseStream response) throws IOException, InterruptedException {
+        pipeline.execute(request, response);
+    }
 
-        // 处理响应
-        if (response.statusCode() == 200) {
-            return parseResponse(response.body());
-        } else {
-            throw new IOException("API请求失败，状态码: " + response.statusCode() + ", 响应: " + response.body());
-        }
+    /**
+     * 聊天接口地址
+     */
+    public String getChatEndpoint() {
+        return DEEPSEEK_API_URL;
     }
 
     /**
-     * 流式发送消息到DeepSeek API
+     * 在网络I/O线程上执行延迟基准测试，进度和结果在EDT上回调
+     * 基准请求直接交给传输层，不经过缓存、限流和重试，测得的是端点本身的延迟。
+     * prompts 文件在后台线程上读取，读取失败时通过错误回调通知。
+     * @param csvFile 导出原始测量值的 CSV 文件，为 null 时不导出；导出成功时记录在报告的 {@link BenchmarkReport#getCsvFile()} 中
      */
-    private void sendMessageStreamSync(JsonArray message, String apiKey, Consumer<String> onChunk, Consumer<String> onComplete, Consumer<String> onError) throws IOException, InterruptedException {
+    public void runBenchmark(BenchmarkConfig config, String apiKey, Path csvFile,
+                             Consumer<String> onProgress,
+                             Consumer<BenchmarkReport> onComplete,
+                             Consumer<String> onError) {
         if (apiKey == null || apiKey.trim().isEmpty()) {
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("DeepSeek API Key未设置，请在设置中配置"));
+            ApplicationManager.getApplication().invokeLater(() -> onError.accept(API_KEY_MISSING));
             return;
         }
 
-        // 构建请求体（流式）
-        JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", PluginSettings.getInstance().getDeepSeekModel());
-        requestBody.addProperty("max_tokens", 2048);
-        requestBody.addProperty("temperature", 0.7);
-        requestBody.addProperty("stream", true); // 流式
-
-        requestBody.add("messages", message);
-
-        // 创建HTTP请求
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(DEEPSEEK_API_URL))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + apiKey.trim())
-                .header("Accept", "text/event-stream")
-                .timeout(Duration.ofSeconds(120))
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
-                .build();
+        PluginSettings settings = PluginSettings.getInstance();
+        LatencyBenchmark benchmark = new LatencyBenchmark(transport, ioExecutor);
+        runOnIoThread(onError, () -> {
+            BenchmarkConfig loaded;
+            try {
+                loaded = config.loadPrompts();
+            } catch (IOException | IllegalArgumentException e) {
+                ApplicationManager.getApplication().invokeLater(() -> onError.accept(e.getMessage()));
+                return;
+            }
+            try {
+                BenchmarkReport measured = benchmark.run(loaded, apiKey, settings.getMaxTokens(), settings.getTemperature(),
+                        progress -> ApplicationManager.getApplication().invokeLater(() -> onProgress.accept(progress)));
+                BenchmarkReport report = measured;
+                if (csvFile != null) {
+                    try {
+                        measured.writeCsv(csvFile);
+                        report = measured.withCsvFile(csvFile);
+                    } catch (IOException e) {
+                        LOG.warn("导出基准测试结果失败: " + csvFile, e);
+                    }
+                }
+                BenchmarkReport result = report;
+                ApplicationManager.getApplication().invokeLater(() -> onComplete.accept(result));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ApplicationManager.getApplication().invokeLater(() -> onError.accept("基准测试已取消"));
+            } catch (Exception e) {
+                LOG.error("基准测试失败", e);
+                ApplicationManager.getApplication().invokeLater(() -> onError.accept("基准测试失败：" + e.getMessage()));
+            }
+        });
+    }
 
-        // 发送请求并处理流式响应
-        HttpResponse<java.io.InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    /**
+     * 获取请求管道，可用于增删、调整拦截器
+     */
+    public RequestPipeline getPipeline() {
+        return pipeline;
+    }
 
-        if (response.statusCode() == 200) {
-            parseStreamResponseInputStream(response.body(), onChunk, onComplete, onError);
-        } else {
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("API请求失败，状态码: " + response.statusCode()));
-        }
+    /**
+     * 获取传输层统计（请求/响应的线路字节数与压缩耗时），用于调整压缩阈值
+     */
+    public TransportStats getTransportStats() {
+        return transport.getStats();
     }
 
     /**
-     * 流式发送消息到DeepSeek API（支持推理内容）
+     * 在网络I/O线程上执行任务，服务已关闭时通过错误回调通知
      */
-    private void sendMessageStreamSyncWithReasoning(String message, String apiKey,
-                                                   Consumer<String> onContentChunk,
-                                                   Consumer<String> onReasoningChunk,
-                                                   Consumer<String> onComplete,
-                                                   Consumer<String> onError) throws IOException, InterruptedException {
-        if (apiKey == null || apiKey.trim().isEmpty()) {
+    private void runOnIoThread(Consumer<String> onError, Runnable task) {
+        try {
+            ioExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("DeepSeek 服务已关闭，忽略网络请求", e);
             ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("DeepSeek API Key未设置，请在设置中配置"));
-            return;
+                onError.accept("抱歉，AI服务暂时不可用：服务已关闭"));
         }
+    }
 
-        // 构建请求体（流式）
-        JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", PluginSettings.getInstance().getDeepSeekModel());
-        requestBody.addProperty("max_tokens", 2048);
-        requestBody.addProperty("temperature", 0.7);
-        requestBody.addProperty("stream", true); // 流式
-
-        JsonArray messages = new JsonArray();
-        JsonObject userMessage = new JsonObject();
-        userMessage.addProperty("role", "user");
-        userMessage.addProperty("content", message);
-        messages.add(userMessage);
-
-        requestBody.add("messages", messages);
-
-        // 创建HTTP请求
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(DEEPSEEK_API_URL))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + apiKey.trim())
-                .header("Accept", "text/event-stream")
-                .timeout(Duration.ofSeconds(120))
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
-                .build();
+    /**
+     * 获取网络I/O执行器（活动任务数、排队任务数等指标）
+     */
+    public NetworkExecutor getIoExecutor() {
+        return ioExecutor;
+    }
 
-        // 发送请求并处理流式响应
-        HttpResponse<java.io.InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    @Override
+    public void dispose() {
+        ioExecutor.shutdownNow();
+    }
 
-        if (response.statusCode() == 200) {
-            parseStreamResponseWithReasoningInputStream(response.body(), onContentChunk, onReasoningChunk, onComplete, onError);
-        } else {
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("API请求失败，状态码: " + response.statusCode()));
+    /**
+     * 转换消息到deepseek所需要的格式
+     */
+    public JsonArray parseMessages(List<ChatMessage> messages) {
+        JsonArray jsonArray = new JsonArray();
+        for (ChatMessage msg : messages) {
+            if (msg.isLocalOnly()) {
+                // 基准测试结果等只在本地显示的消息不属于对话上下文
+                continue;
+            }
+            JsonObject jsonObject = new JsonObject();
+            jsonObject.addProperty("role", msg.isUser() ? "user" : "assistant");
+            jsonObject.addProperty("content", msg.getContent());
+            jsonArray.add(jsonObject);
         }
+        return jsonArray;
     }
 
     /**
-     * 流式发送消息到DeepSeek API（支持推理内容，JsonArray版本）
+     * 同步发送消息到DeepSeek API（非流式）
      */
-    private void sendMessageStreamSyncWithReasoningArray(JsonArray messages, String apiKey,
-                                                       Consumer<String> onContentChunk,
-                                                       Consumer<String> onReasoningChunk,
-                                                       Consumer<String> onComplete,
-                                                       Consumer<String> onError) throws IOException, InterruptedException {
+    private String sendMessageSync(String message, String apiKey) throws IOException, InterruptedException {
         if (apiKey == null || apiKey.trim().isEmpty()) {
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("DeepSeek API Key未设置，请在设置中配置"));
-            return;
+            throw new IllegalArgumentException(API_KEY_MISSING);
         }
 
-        // 构建请求体（流式）
-        JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", PluginSettings.getInstance().getDeepSeekModel());
-        requestBody.addProperty("max_tokens", 2048);
-        requestBody.addProperty("temperature", 0.7);
-        requestBody.addProperty("stream", true); // 流式
-
-        requestBody.add("messages", messages);
-
-        // 创建HTTP请求
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(DEEPSEEK_API_URL))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + apiKey.trim())
-                .header("Accept", "text/event-stream")
-                .timeout(Duration.ofSeconds(120))
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
-                .build();
-
-        // 发送请求并处理流式响应
-        HttpResponse<java.io.InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        ChatRequest request = newChatRequest(ChatRequest.singleUserMessage(message), apiKey, false);
+        CollectingResponseStream collector = new CollectingResponseStream();
+        pipeline.execute(request, collector);
 
-        if (response.statusCode() == 200) {
-            parseStreamResponseWithReasoningInputStream(response.body(), onContentChunk, onReasoningChunk, onComplete, onError);
-        } else {
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("API请求失败，状态码: " + response.statusCode()));
+        if (collector.error != null) {
+            throw new IOException(collector.error);
         }
+        return collector.content.toString();
     }
-    
+
     /**
-     * 解析API响应（非流式）
+     * 测试API连接
      */
-    private String parseResponse(String responseBody) {
-        try {
-            JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-
-            if (jsonResponse.has("error")) {
-                JsonObject error = jsonResponse.getAsJsonObject("error");
-                String errorMessage = error.get("message").getAsString();
-                throw new RuntimeException("API错误: " + errorMessage);
-            }
-
-            JsonArray choices = jsonResponse.getAsJsonArray("choices");
-            if (!choices.isEmpty()) {
-                JsonObject firstChoice = choices.get(0).getAsJsonObject();
-                JsonObject message = firstChoice.getAsJsonObject("message");
-                return message.get("content").getAsString();
-            } else {
-                throw new RuntimeException("API响应中没有找到回复内容");
-            }
-        } catch (Exception e) {
-            LOG.error("解析API响应失败", e);
-            throw new RuntimeException("解析API响应失败: " + e.getMessage());
-        }
+    public CompletableFuture<Boolean> testConnection(String apiKey) {
+        return checkHealth(apiKey, true).thenApply(ConnectionHealth::isHealthy);
     }
 
     /**
-     * 解析流式API响应
+     * 轻量级健康探测（GET /models），不消耗 token
+     * @param forceRefresh 为 false 时复用短时间内的缓存结果
      */
-    private void parseStreamResponse(String responseBody, Consumer<String> onChunk, Consumer<String> onComplete, Consumer<String> onError) {
-        try {
-            StringBuilder fullContent = new StringBuilder();
-            BufferedReader reader = new BufferedReader(new StringReader(responseBody));
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("data: ")) {
-                    String data = line.substring(6); // 移除 "data: " 前缀
-
-                    if ("[DONE]".equals(data.trim())) {
-                        // 流式响应结束
-                        ApplicationManager.getApplication().invokeLater(() ->
-                            onComplete.accept(fullContent.toString()));
-                        return;
-                    }
-
-                    try {
-                        JsonObject jsonChunk = gson.fromJson(data, JsonObject.class);
-
-                        if (jsonChunk.has("error")) {
-                            JsonObject error = jsonChunk.getAsJsonObject("error");
-                            String errorMessage = error.get("message").getAsString();
-                            ApplicationManager.getApplication().invokeLater(() ->
-                                onError.accept("API错误: " + errorMessage));
-                            return;
-                        }
-
-                        JsonArray choices = jsonChunk.getAsJsonArray("choices");
-                        if (!choices.isEmpty()) {
-                            JsonObject firstChoice = choices.get(0).getAsJsonObject();
-                            if (firstChoice.has("delta")) {
-                                JsonObject delta = firstChoice.getAsJsonObject("delta");
-                                if (delta.has("reasoning_content")) {
-                                    String content = delta.get("reasoning_content").getAsString();
-                                    fullContent.append(content);
-
-                                    // 在UI线程中更新界面
-                                    ApplicationManager.getApplication().invokeLater(() ->
-                                            onChunk.accept(content));
-                                } else if (delta.has("content")) {
-                                    String content = delta.get("content").getAsString();
-                                    fullContent.append(content);
-
-                                    // 在UI线程中更新界面
-                                    ApplicationManager.getApplication().invokeLater(() ->
-                                        onChunk.accept(content));
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        LOG.warn("解析流式响应片段失败: " + data, e);
-                        // 继续处理下一个片段
-                    }
-                }
-            }
-
-            // 如果没有收到 [DONE] 信号，也要调用完成回调
-            ApplicationManager.getApplication().invokeLater(() ->
-                onComplete.accept(fullContent.toString()));
-
-        } catch (Exception e) {
-            LOG.error("解析流式API响应失败", e);
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("解析流式API响应失败: " + e.getMessage()));
-        }
+    public CompletableFuture<ConnectionHealth> checkHealth(String apiKey, boolean forceRefresh) {
+        return ioExecutor.supply(() -> healthProbe.probe(apiKey, forceRefresh));
     }
 
     /**
-     * 解析流式API响应（支持推理内容）
+     * 获取健康探测器，供端点选择和预热逻辑复用缓存结果
      */
-    private void parseStreamResponseWithReasoning(String responseBody,
-                                                Consumer<String> onContentChunk,
-                                                Consumer<String> onReasoningChunk,
-                                                Consumer<String> onComplete,
-                                                Consumer<String> onError) {
-        try {
-            StringBuilder fullContent = new StringBuilder();
-            StringBuilder reasoningContent = new StringBuilder();
-            BufferedReader reader = new BufferedReader(new StringReader(responseBody));
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("data: ")) {
-                    String data = line.substring(6); // 移除 "data: " 前缀
-
-                    if ("[DONE]".equals(data.trim())) {
-                        System.out.println("流式响应结束" + fullContent);
-                        // 流式响应结束
-                        ApplicationManager.getApplication().invokeLater(() ->
-                            onComplete.accept(fullContent.toString()));
-                        return;
-                    }
-
-                    try {
-                        JsonObject jsonChunk = gson.fromJson(data, JsonObject.class);
-
-                        if (jsonChunk.has("error")) {
-                            JsonObject error = jsonChunk.getAsJsonObject("error");
-                            String errorMessage = error.get("message").getAsString();
-                            ApplicationManager.getApplication().invokeLater(() ->
-                                onError.accept("API错误: " + errorMessage));
-                            return;
-                        }
-
-                        JsonArray choices = jsonChunk.getAsJsonArray("choices");
-                        if (!choices.isEmpty()) {
-                            JsonObject firstChoice = choices.get(0).getAsJsonObject();
-                            if (firstChoice.has("delta")) {
-                                JsonObject delta = firstChoice.getAsJsonObject("delta");
-
-                                // 处理推理内容
-                                if (delta.has("reasoning_content")) {
-                                    String content = delta.get("reasoning_content").getAsString();
-                                    reasoningContent.append(content);
-
-                                    // 只有在设置允许且有回调时才处理推理内容
-                                    if (onReasoningChunk != null && PluginSettings.getInstance().isShowReasoningContent()) {
-                                        ApplicationManager.getApplication().invokeLater(() ->
-                                            onReasoningChunk.accept(content));
-                                    }
-                                }
-
-                                // 处理正式内容
-                                if (delta.has("content")) {
-                                    String content = delta.get("content").getAsString();
-                                    fullContent.append(content);
-                                    System.out.println("正式内容: " + fullContent);
-
-                                    // 在UI线程中更新界面
-                                    ApplicationManager.getApplication().invokeLater(() ->
-                                        onContentChunk.accept(content));
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        LOG.warn("解析流式响应片段失败: " + data, e);
-                        // 继续处理下一个片段
-                    }
-                }
-            }
-            System.out.println("没有收到 [DONE] 信号,流式响应结束" + fullContent);
-            // 如果没有收到 [DONE] 信号，也要调用完成回调
-            ApplicationManager.getApplication().invokeLater(() ->
-                onComplete.accept(fullContent.toString()));
-
-        } catch (Exception e) {
-            LOG.error("解析流式API响应失败", e);
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("解析流式API响应失败: " + e.getMessage()));
-        }
+    public ConnectionHealthProbe getHealthProbe() {
+        return healthProbe;
     }
-    
+
     /**
-     * 测试API连接
+     * 验证API Key格式
      */
-    public CompletableFuture<Boolean> testConnection(String apiKey) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                sendMessageSync("Hello", apiKey);
-                return true;
-            } catch (Exception e) {
-                LOG.warn("DeepSeek API连接测试失败", e);
-                return false;
-            }
-        });
+    public boolean isValidApiKey(String apiKey) {
+        return apiKey != null &&
+                apiKey.trim().startsWith("sk-") &&
+                apiKey.trim().length() > 10;
     }
-    
+
     /**
-     * 真正的流式响应处理（使用InputStream实时处理）
+     * 收集非流式响应
      */
-    private void parseStreamResponseInputStream(java.io.InputStream inputStream, Consumer<String> onChunk, Consumer<String> onComplete, Consumer<String> onError) {
-        try {
-            StringBuilder fullContent = new StringBuilder();
-            BufferedReader reader = new BufferedReader(new java.io.InputStreamReader(inputStream, java.nio.charset.StandardCharsets.UTF_8));
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("data: ")) {
-                    String data = line.substring(6); // 移除 "data: " 前缀
-
-                    if ("[DONE]".equals(data.trim())) {
-                        // 流式响应结束
-                        ApplicationManager.getApplication().invokeLater(() ->
-                            onComplete.accept(fullContent.toString()));
-                        return;
-                    }
+    private static final class CollectingResponseStream implements ChatResponseStream {
+        final StringBuilder content = new StringBuilder();
+        String error;
 
-                    try {
-                        JsonObject jsonChunk = gson.fromJson(data, JsonObject.class);
-
-                        if (jsonChunk.has("error")) {
-                            JsonObject error = jsonChunk.getAsJsonObject("error");
-                            String errorMessage = error.get("message").getAsString();
-                            ApplicationManager.getApplication().invokeLater(() ->
-                                onError.accept("API错误: " + errorMessage));
-                            return;
-                        }
-
-                        JsonArray choices = jsonChunk.getAsJsonArray("choices");
-                        if (!choices.isEmpty()) {
-                            JsonObject firstChoice = choices.get(0).getAsJsonObject();
-                            if (firstChoice.has("delta")) {
-                                JsonObject delta = firstChoice.getAsJsonObject("delta");
-                                if (delta.has("content")) {
-                                    String content = delta.get("content").getAsString();
-                                    fullContent.append(content);
-
-                                    // 立即在UI线程中更新界面
-                                    ApplicationManager.getApplication().invokeLater(() ->
-                                        onChunk.accept(content));
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        LOG.warn("解析流式响应片段失败: " + data, e);
-                        // 继续处理下一个片段
-                    }
-                }
-            }
+        @Override
+        public void onContent(String chunk) {
+            content.append(chunk);
+        }
 
-            // 如果没有收到 [DONE] 信号，也要调用完成回调
-            ApplicationManager.getApplication().invokeLater(() ->
-                onComplete.accept(fullContent.toString()));
+        @Override
+        public void onComplete(String fullContent) {
+        }
 
-        } catch (Exception e) {
-            LOG.error("解析流式API响应失败", e);
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("解析流式API响应失败: " + e.getMessage()));
+        @Override
+        public void onError(String message) {
+            error = message;
         }
     }
 
     /**
-     * 真正的流式响应处理（支持推理内容，使用InputStream实时处理）
+     * 将响应回调切换到UI线程，并保证结束回调只触发一次
      */
-    private void parseStreamResponseWithReasoningInputStream(java.io.InputStream inputStream,
-                                                           Consumer<String> onContentChunk,
-                                                           Consumer<String> onReasoningChunk,
-                                                           Consumer<String> onComplete,
-                                                           Consumer<String> onError) {
-        try {
-            StringBuilder fullContent = new StringBuilder();
-            StringBuilder reasoningContent = new StringBuilder();
-            BufferedReader reader = new BufferedReader(new java.io.InputStreamReader(inputStream, java.nio.charset.StandardCharsets.UTF_8));
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("data: ")) {
-                    String data = line.substring(6); // 移除 "data: " 前缀
-
-                    if ("[DONE]".equals(data.trim())) {
-                        // 流式响应结束
-                        ApplicationManager.getApplication().invokeLater(() ->
-                            onComplete.accept(fullContent.toString()));
-                        return;
-                    }
+    private static final class EdtResponseStream implements ChatResponseStream {
+        private final Consumer<String> onContentChunk;
+        private final Consumer<String> onReasoningChunk;
+        private final Consumer<String> onComplete;
+        private final Consumer<String> onError;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        EdtResponseStream(Consumer<String> onContentChunk, Consumer<String> onReasoningChunk,
+                          Consumer<String> onComplete, Consumer<String> onError) {
+            this.onContentChunk = onContentChunk;
+            this.onReasoningChunk = onReasoningChunk;
+            this.onComplete = onComplete;
+            this.onError = onError;
+        }
 
-                    try {
-                        JsonObject jsonChunk = gson.fromJson(data, JsonObject.class);
-
-                        if (jsonChunk.has("error")) {
-                            JsonObject error = jsonChunk.getAsJsonObject("error");
-                            String errorMessage = error.get("message").getAsString();
-                            ApplicationManager.getApplication().invokeLater(() ->
-                                onError.accept("API错误: " + errorMessage));
-                            return;
-                        }
-
-                        JsonArray choices = jsonChunk.getAsJsonArray("choices");
-                        if (!choices.isEmpty()) {
-                            JsonObject firstChoice = choices.get(0).getAsJsonObject();
-                            if (firstChoice.has("delta")) {
-                                JsonObject delta = firstChoice.getAsJsonObject("delta");
-
-                                // 处理推理内容
-                                JsonElement reasoningResp = delta.get("reasoning_content");
-                                if (delta.has("reasoning_content") && !reasoningResp.isJsonNull()) {
-                                    String content = reasoningResp.getAsString();
-                                    reasoningContent.append(content);
-
-                                    // 只有在设置允许且有回调时才处理推理内容
-                                    if (onReasoningChunk != null && PluginSettings.getInstance().isShowReasoningContent()) {
-                                        ApplicationManager.getApplication().invokeLater(() ->
-                                            onReasoningChunk.accept(content));
-                                    }
-                                }
-
-                                // 处理正式内容
-                                JsonElement element = delta.get("content");
-                                if (delta.has("content") && !element.isJsonNull()) {
-                                    String content = element.getAsString();
-                                    fullContent.append(content);
-
-                                    // 立即在UI线程中更新界面
-                                    ApplicationManager.getApplication().invokeLater(() ->
-                                            onContentChunk.accept(content));
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        LOG.warn("解析流式响应片段失败: " + data, e);
-                        // 继续处理下一个片段
-                    }
-                }
-            }
+        @Override
+        public void onContent(String chunk) {
+            ApplicationManager.getApplication().invokeLater(() -> onContentChunk.accept(chunk));
+        }
 
-            // 如果没有收到 [DONE] 信号，也要调用完成回调
-            ApplicationManager.getApplication().invokeLater(() ->
-                onComplete.accept(fullContent.toString()));
+        @Override
+        public void onReasoning(String chunk) {
+            // 只有在设置允许且有回调时才处理推理内容
+            if (onReasoningChunk != null && PluginSettings.getInstance().isShowReasoningContent()) {
+                ApplicationManager.getApplication().invokeLater(() -> onReasoningChunk.accept(chunk));
+            }
+        }
 
-        } catch (Exception e) {
-            LOG.error("解析流式API响应失败", e);
-            ApplicationManager.getApplication().invokeLater(() ->
-                onError.accept("解析流式API响应失败: " + e.getMessage()));
+        @Override
+        public void onComplete(String fullContent) {
+            if (finished.compareAndSet(false, true)) {
+                ApplicationManager.getApplication().invokeLater(() -> onComplete.accept(fullContent));
+            }
         }
-    }
 
-    /**
-     * 验证API Key格式
-     */
-    public boolean isValidApiKey(String apiKey) {
-        return apiKey != null &&
-                apiKey.trim().startsWith("sk-") &&
-                apiKey.trim().length() > 10;
+        @Override
+        public void onError(String message) {
+            if (finished.compareAndSet(false, true)) {
+                ApplicationManager.getApplication().invokeLater(() -> onError.accept(message));
+            }
+        }
     }
 }
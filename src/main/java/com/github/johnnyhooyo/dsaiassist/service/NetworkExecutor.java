@@ -0,0 +1,96 @@
+package com.github.johnnyhooyo.dsaiassist.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 网络 I/O 执行器
+ * 每个任务一个命名虚拟线程，避免阻塞式网络读写占用 ForkJoin 公共池或 IDE 的共享线程池。
+ * 提供活动任务数与排队任务数指标；插件卸载时立即关闭，不等待进行中的请求。
+ */
+public final class NetworkExecutor implements Executor {
+
+    private static final Logger LOG = Logger.getInstance(NetworkExecutor.class);
+
+    private final ExecutorService delegate;
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    private final AtomicLong completedTasks = new AtomicLong();
+
+    public NetworkExecutor(String threadNamePrefix) {
+        this.delegate = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queuedTasks.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queuedTasks.decrementAndGet();
+                activeTasks.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    activeTasks.decrementAndGet();
+                    completedTasks.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 在 I/O 线程上异步计算结果
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this);
+    }
+
+    /**
+     * 正在执行的任务数
+     */
+    public int getActiveTaskCount() {
+        return activeTasks.get();
+    }
+
+    /**
+     * 已提交但尚未开始执行的任务数
+     */
+    public int getQueueDepth() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * 已完成的任务总数
+     */
+    public long getCompletedTaskCount() {
+        return completedTasks.get();
+    }
+
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    /**
+     * 立即关闭：停止接收新任务并中断进行中的请求，不等待它们结束
+     * 服务释放发生在 EDT 上（插件卸载、IDE 退出），不能阻塞；被中断的请求在各自的虚拟线程上收尾
+     */
+    public void shutdownNow() {
+        int active = activeTasks.get();
+        delegate.shutdownNow();
+        if (active > 0) {
+            LOG.info("关闭网络执行器，中断 " + active + " 个进行中的任务");
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.github.johnnyhooyo.dsaiassist.service.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 延迟基准测试配置
+ * 由 /bench 命令参数解析而来：
+ * <pre>
+ * /bench [n=5] [c=2] [models=a,b] [endpoints=url1,url2] [prompts=文件] [csv=文件] [提示词...]
+ * </pre>
+ * 未指定提示词时使用内置的提示词集合；prompts 文件中每个非空行是一条提示词。
+ * 解析参数时不读取 prompts 文件（可能在 EDT 上解析），运行前在后台线程调用 {@link #loadPrompts()} 读取。
+ * csv 指定原始测量值的导出位置，未指定时由调用方决定。
+ */
+public final class BenchmarkConfig {
+
+    public static final String USAGE = "用法: /bench [n=运行次数] [c=并发数] [models=模型1,模型2] " +
+            "[endpoints=地址1,地址2] [prompts=提示词文件] [csv=导出文件] [提示词]";
+
+    static final List<String> DEFAULT_PROMPTS = List.of(
+            "用一句话解释什么是闭包。",
+            "写一个 Go 函数，判断字符串是否为回文。",
+            "列出三条编写单元测试的建议。"
+    );
+
+    private static final int DEFAULT_RUNS = 5;
+    private static final int DEFAULT_CONCURRENCY = 2;
+    private static final int MAX_RUNS = 100;
+    private static final int MAX_CONCURRENCY = 8;
+
+    private final List<String> models;
+    private final List<String> endpoints;
+    private final List<String> prompts;
+    // 尚未读取的提示词文件，读取后为 null
+    private final Path promptsFile;
+    private final int runs;
+    private final int concurrency;
+    private final Path csvFile;
+
+    public BenchmarkConfig(List<String> models, List<String> endpoints, List<String> prompts, int runs, int concurrency) {
+        this(models, endpoints, prompts, runs, concurrency, null);
+    }
+
+    public BenchmarkConfig(List<String> models, List<String> endpoints, List<String> prompts, int runs, int concurrency,
+                           Path csvFile) {
+        this(models, endpoints, prompts, null, runs, concurrency, csvFile);
+    }
+
+    private BenchmarkConfig(List<String> models, List<String> endpoints, List<String> prompts, Path promptsFile,
+                            int runs, int concurrency, Path csvFile) {
+        if (models.isEmpty() || endpoints.isEmpty() || prompts.isEmpty() && promptsFile == null) {
+            throw new IllegalArgumentException("模型、地址和提示词都不能为空");
+        }
+        this.models = List.copyOf(models);
+        this.endpoints = List.copyOf(endpoints);
+        this.prompts = List.copyOf(prompts);
+        this.promptsFile = promptsFile;
+        this.runs = runs;
+        this.concurrency = concurrency;
+        this.csvFile = csvFile;
+    }
+
+    /**
+     * 解析 /bench 命令参数
+     * @param args 去掉 "/bench" 之后的参数
+     * @param defaultModel 未指定 models 时使用的模型
+     * @param defaultEndpoint 未指定 endpoints 时使用的地址
+     * @param baseDir 解析相对路径 prompts 和 csv 文件的目录，可为 null
+     * @throws IllegalArgumentException 参数不合法时抛出，消息可直接展示给用户
+     */
+    public static BenchmarkConfig parse(String args, String defaultModel, String defaultEndpoint, Path baseDir) {
+        List<String> models = List.of(defaultModel);
+        List<String> endpoints = List.of(defaultEndpoint);
+        List<String> prompts = DEFAULT_PROMPTS;
+        Path promptsFile = null;
+        int runs = DEFAULT_RUNS;
+        int concurrency = DEFAULT_CONCURRENCY;
+        Path csvFile = null;
+
+        String[] tokens = args.trim().isEmpty() ? new String[0] : args.trim().split("\\s+");
+        int i = 0;
+        for (; i < tokens.length; i++) {
+            int eq = tokens[i].indexOf('=');
+            if (eq <= 0) {
+                break; // 第一个不是 key=value 的参数开始视为提示词
+            }
+            String key = tokens[i].substring(0, eq);
+            String value = tokens[i].substring(eq + 1);
+            switch (key) {
+                case "n" -> runs = parseInt(key, value, 1, MAX_RUNS);
+                case "c" -> concurrency = parseInt(key, value, 1, MAX_CONCURRENCY);
+                case "models" -> models = splitList(key, value);
+                case "endpoints" -> endpoints = splitList(key, value);
+                case "prompts" -> promptsFile = resolve(value, baseDir);
+                case "csv" -> csvFile = resolve(value, baseDir);
+                default -> throw new IllegalArgumentException("未知参数: " + key + "\n" + USAGE);
+            }
+        }
+        if (i < tokens.length) {
+            prompts = List.of(String.join(" ", Arrays.copyOfRange(tokens, i, tokens.length)));
+            promptsFile = null;
+        } else if (promptsFile != null) {
+            prompts = List.of();
+        }
+
+        return new BenchmarkConfig(models, endpoints, prompts, promptsFile, runs, concurrency, csvFile);
+    }
+
+    private static int parseInt(String key, String value, int min, int max) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min || parsed > max) {
+                throw new IllegalArgumentException(key + " 取值范围为 " + min + "-" + max);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " 必须是整数: " + value);
+        }
+    }
+
+    private static List<String> splitList(String key, String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException(key + " 不能为空");
+        }
+        return items;
+    }
+
+    private static Path resolve(String file, Path baseDir) {
+        Path path = Path.of(file);
+        return !path.isAbsolute() && baseDir != null ? baseDir.resolve(path) : path;
+    }
+
+    /**
+     * 读取 prompts 参数指定的文件，返回包含这些提示词的配置；没有需要读取的文件时返回自身。会读文件，不要在 EDT 上调用
+     * @throws IOException 文件无法读取时抛出，消息可直接展示给用户
+     * @throws IllegalArgumentException 文件中没有提示词时抛出
+     */
+    public BenchmarkConfig loadPrompts() throws IOException {
+        if (promptsFile == null) {
+            return this;
+        }
+        List<String> loaded = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(promptsFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    loaded.add(line.trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException("无法读取提示词文件: " + promptsFile, e);
+        }
+        if (loaded.isEmpty()) {
+            throw new IllegalArgumentException("提示词文件为空: " + promptsFile);
+        }
+        return new BenchmarkConfig(models, endpoints, loaded, null, runs, concurrency, csvFile);
+    }
+
+    public List<String> getModels() {
+        return models;
+    }
+
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 提示词；指定了 prompts 文件时在 {@link #loadPrompts()} 之前为空
+     */
+    public List<String> getPrompts() {
+        return prompts;
+    }
+
+    /**
+     * 尚未读取的 prompts 文件，没有时为 null
+     */
+    public Path getPromptsFile() {
+        return promptsFile;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * csv 参数指定的导出文件，未指定时为 null
+     */
+    public Path getCsvFile() {
+        return csvFile;
+    }
+
+    /**
+     * 每个模型 × 地址组合的请求次数
+     */
+    public int getRequestsPerTarget() {
+        return runs * prompts.size();
+    }
+
+    @Override
+    public String toString() {
+        String promptsText = promptsFile != null ? "提示词文件 " + promptsFile.getFileName() : "提示词 " + prompts.size() + " 条";
+        return "模型 " + models + "，地址 " + endpoints.size() + " 个，" + promptsText +
+                " × " + runs + " 次，并发 " + concurrency;
+    }
+}
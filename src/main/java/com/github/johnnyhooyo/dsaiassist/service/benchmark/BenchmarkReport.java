@@ -0,0 +1,175 @@
+package com.github.johnnyhooyo.dsaiassist.service.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试报告
+ * 按 地址 × 模型 分组汇总 TTFT、tokens/sec 和总耗时的 p50/p90/p99，可输出为等宽表格或 CSV。
+ * 导出成功后由 {@link #withCsvFile(Path)} 记录导出位置，调用方不必再访问文件系统确认。
+ */
+public final class BenchmarkReport {
+
+    private static final String CSV_HEADER =
+            "endpoint,model,prompt_index,run,ttft_ms,total_ms,chunks,tokens_per_sec,error";
+
+    private final BenchmarkConfig config;
+    private final List<BenchmarkSample> samples;
+    private final Path csvFile;
+
+    BenchmarkReport(BenchmarkConfig config, List<BenchmarkSample> samples) {
+        this(config, samples, null);
+    }
+
+    private BenchmarkReport(BenchmarkConfig config, List<BenchmarkSample> samples, Path csvFile) {
+        this.config = config;
+        this.samples = List.copyOf(samples);
+        this.csvFile = csvFile;
+    }
+
+    public BenchmarkConfig getConfig() {
+        return config;
+    }
+
+    public List<BenchmarkSample> getSamples() {
+        return samples;
+    }
+
+    /**
+     * 已导出的 CSV 文件，未导出或导出失败时为 null
+     */
+    public Path getCsvFile() {
+        return csvFile;
+    }
+
+    /**
+     * 记录导出位置后的报告
+     */
+    public BenchmarkReport withCsvFile(Path file) {
+        return new BenchmarkReport(config, samples, file);
+    }
+
+    /**
+     * 按 地址 × 模型 分组（保持配置中的顺序）
+     */
+    public Map<String, List<BenchmarkSample>> groupByTarget() {
+        Map<String, List<BenchmarkSample>> groups = new LinkedHashMap<>();
+        for (BenchmarkSample sample : samples) {
+            groups.computeIfAbsent(targetName(sample), k -> new ArrayList<>()).add(sample);
+        }
+        return groups;
+    }
+
+    /**
+     * 生成等宽文本表格，适合放在聊天消息的代码块中显示
+     */
+    public String toTable() {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"目标", "成功", "TTFT p50/p90/p99 (ms)", "tok/s p50/p90/p99", "总耗时 p50/p90/p99 (ms)"});
+
+        for (Map.Entry<String, List<BenchmarkSample>> group : groupByTarget().entrySet()) {
+            List<BenchmarkSample> succeeded = group.getValue().stream().filter(BenchmarkSample::isSuccess).toList();
+            double[] ttft = succeeded.stream().filter(s -> s.getTtftMillis() >= 0)
+                    .mapToDouble(BenchmarkSample::getTtftMillis).toArray();
+            double[] tokensPerSecond = succeeded.stream().mapToDouble(BenchmarkSample::getTokensPerSecond)
+                    .filter(v -> v > 0).toArray();
+            double[] total = succeeded.stream().mapToDouble(BenchmarkSample::getTotalMillis).toArray();
+
+            rows.add(new String[]{
+                    group.getKey(),
+                    succeeded.size() + "/" + group.getValue().size(),
+                    formatPercentiles(LatencyStats.of(ttft), "%.0f"),
+                    formatPercentiles(LatencyStats.of(tokensPerSecond), "%.1f"),
+                    formatPercentiles(LatencyStats.of(total), "%.0f")
+            });
+        }
+
+        int[] widths = new int[rows.get(0).length];
+        for (String[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                widths[i] = Math.max(widths[i], displayWidth(row[i]));
+            }
+        }
+
+        StringBuilder table = new StringBuilder();
+        for (int r = 0; r < rows.size(); r++) {
+            String[] row = rows.get(r);
+            for (int i = 0; i < row.length; i++) {
+                table.append(row[i]).append(" ".repeat(widths[i] - displayWidth(row[i])));
+                table.append(i < row.length - 1 ? " | " : "\n");
+            }
+            if (r == 0) {
+                for (int i = 0; i < widths.length; i++) {
+                    table.append("-".repeat(widths[i])).append(i < widths.length - 1 ? "-+-" : "\n");
+                }
+            }
+        }
+        return table.toString();
+    }
+
+    /**
+     * 以 CSV 格式导出每一次请求的原始测量值
+     */
+    public void writeCsv(Path file) throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            for (BenchmarkSample sample : samples) {
+                writer.write(String.join(",",
+                        csv(sample.getEndpoint()),
+                        csv(sample.getModel()),
+                        String.valueOf(sample.getPromptIndex()),
+                        String.valueOf(sample.getRun()),
+                        String.valueOf(sample.getTtftMillis()),
+                        String.valueOf(sample.getTotalMillis()),
+                        String.valueOf(sample.getChunkCount()),
+                        String.format("%.2f", sample.getTokensPerSecond()),
+                        csv(sample.getError() != null ? sample.getError() : "")));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private String targetName(BenchmarkSample sample) {
+        // 只有一个地址时省略地址，表格更紧凑
+        return config.getEndpoints().size() > 1 ? sample.getModel() + " @ " + sample.getEndpoint() : sample.getModel();
+    }
+
+    private static String formatPercentiles(LatencyStats stats, String format) {
+        if (stats.getCount() == 0) {
+            return "-";
+        }
+        return String.format(format, stats.getP50()) + " / " + String.format(format, stats.getP90()) +
+                " / " + String.format(format, stats.getP99());
+    }
+
+    /**
+     * 等宽字体下的显示宽度（中日韩字符占两列）
+     */
+    static int displayWidth(String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            width += Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN || (c >= '＀' && c <= '￯') ? 2 : 1;
+        }
+        return width;
+    }
+
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
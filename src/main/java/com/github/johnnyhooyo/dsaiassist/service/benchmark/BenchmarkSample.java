@@ -0,0 +1,79 @@
+package com.github.johnnyhooyo.dsaiassist.service.benchmark;
+
+/**
+ * 单次基准请求的测量结果
+ * 流式响应不带 token 用量，tokens/sec 按收到的流式片段数估算（DeepSeek 每个片段约为一个 token）。
+ */
+public final class BenchmarkSample {
+
+    private final String endpoint;
+    private final String model;
+    private final int promptIndex;
+    private final int run;
+    private final long ttftMillis;
+    private final long totalMillis;
+    private final int chunkCount;
+    private final String error;
+
+    BenchmarkSample(String endpoint, String model, int promptIndex, int run,
+                    long ttftMillis, long totalMillis, int chunkCount, String error) {
+        this.endpoint = endpoint;
+        this.model = model;
+        this.promptIndex = promptIndex;
+        this.run = run;
+        this.ttftMillis = ttftMillis;
+        this.totalMillis = totalMillis;
+        this.chunkCount = chunkCount;
+        this.error = error;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getPromptIndex() {
+        return promptIndex;
+    }
+
+    public int getRun() {
+        return run;
+    }
+
+    /**
+     * 首个片段到达耗时，未收到任何片段时为 -1
+     */
+    public long getTtftMillis() {
+        return ttftMillis;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * 首个片段之后的生成速度，无法计算时为 0
+     */
+    public double getTokensPerSecond() {
+        long generationMillis = totalMillis - ttftMillis;
+        if (ttftMillis < 0 || chunkCount <= 1 || generationMillis <= 0) {
+            return 0;
+        }
+        return (chunkCount - 1) * 1000.0 / generationMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.johnnyhooyo.dsaiassist.service.benchmark;
+
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.ChatRequest;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.ChatResponseStream;
+import com.github.johnnyhooyo.dsaiassist.service.pipeline.RequestInterceptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * 模型延迟基准测试
+ * 对每个 地址 × 模型 组合依次执行 提示词 × 运行次数 个流式请求，组合内按配置的并发数并行，
+ * 记录首字延迟（TTFT）、生成速度和总耗时。
+ * run 方法会阻塞到全部请求结束，应在网络 I/O 线程上调用。
+ */
+public final class LatencyBenchmark {
+
+    private final RequestInterceptor.Chain chain;
+    private final Executor executor;
+
+    /**
+     * @param chain 执行请求的链路；基准测试应绕过缓存、限流和重试，直接测量端点本身
+     * @param executor 执行单个请求的执行器
+     */
+    public LatencyBenchmark(RequestInterceptor.Chain chain, Executor executor) {
+        this.chain = chain;
+        this.executor = executor;
+    }
+
+    /**
+     * 执行基准测试
+     * @param progress 每个组合完成后的进度消息，在调用线程上回调
+     */
+    public BenchmarkReport run(BenchmarkConfig config, String apiKey, int maxTokens, double temperature,
+                               Consumer<String> progress) throws InterruptedException {
+        List<BenchmarkSample> samples = Collections.synchronizedList(new ArrayList<>());
+        int targetCount = config.getEndpoints().size() * config.getModels().size();
+        int finishedTargets = 0;
+
+        for (String endpoint : config.getEndpoints()) {
+            for (String model : config.getModels()) {
+                Semaphore permits = new Semaphore(config.getConcurrency());
+                CountDownLatch done = new CountDownLatch(config.getRequestsPerTarget());
+
+                for (int run = 1; run <= config.getRuns(); run++) {
+                    for (int p = 0; p < config.getPrompts().size(); p++) {
+                        ChatRequest request = new ChatRequest(endpoint, apiKey, model,
+                                ChatRequest.singleUserMessage(config.getPrompts().get(p)), maxTokens, temperature, true);
+                        int promptIndex = p;
+                        int runIndex = run;
+
+                        permits.acquire();
+                        executor.execute(() -> {
+                            try {
+                                samples.add(measure(request, promptIndex, runIndex));
+                            } finally {
+                                permits.release();
+                                done.countDown();
+                            }
+                        });
+                    }
+                }
+
+                done.await();
+                finishedTargets++;
+                progress.accept("已完成 " + finishedTargets + "/" + targetCount + "：" + model +
+                        (config.getEndpoints().size() > 1 ? " @ " + endpoint : ""));
+            }
+        }
+
+        List<BenchmarkSample> ordered = new ArrayList<>(samples);
+        ordered.sort(Comparator.comparingInt((BenchmarkSample s) -> config.getEndpoints().indexOf(s.getEndpoint()))
+                .thenComparingInt(s -> config.getModels().indexOf(s.getModel()))
+                .thenComparingInt(BenchmarkSample::getPromptIndex)
+                .thenComparingInt(BenchmarkSample::getRun));
+        return new BenchmarkReport(config, ordered);
+    }
+
+    private BenchmarkSample measure(ChatRequest request, int promptIndex, int run) {
+        TimingStream timing = new TimingStream();
+        long start = System.nanoTime();
+        try {
+            chain.proceed(request, timing);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timing.error = "已取消";
+        } catch (Exception e) {
+            timing.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        long end = System.nanoTime();
+
+        long ttftMillis = timing.firstChunkNanos > 0 ? (timing.firstChunkNanos - start) / 1_000_000 : -1;
+        return new BenchmarkSample(request.getEndpoint(), request.getModel(), promptIndex, run,
+                ttftMillis, (end - start) / 1_000_000, timing.chunkCount, timing.error);
+    }
+
+    /**
+     * 只记录时间和片段数，不保留内容
+     */
+    private static final class TimingStream implements ChatResponseStream {
+        long firstChunkNanos;
+        int chunkCount;
+        String error;
+
+        private void onChunk() {
+            if (chunkCount++ == 0) {
+                firstChunkNanos = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void onContent(String chunk) {
+            onChunk();
+        }
+
+        @Override
+        public void onReasoning(String chunk) {
+            onChunk();
+        }
+
+        @Override
+        public void onComplete(String fullContent) {
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.johnnyhooyo.dsaiassist.service.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * 一组测量值的分位数统计（最近秩法）
+ */
+public final class LatencyStats {
+
+    private static final LatencyStats EMPTY = new LatencyStats(0, 0, 0, 0, 0);
+
+    private final int count;
+    private final double mean;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+
+    private LatencyStats(int count, double mean, double p50, double p90, double p99) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public static LatencyStats of(double[] values) {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (double value : sorted) {
+            sum += value;
+        }
+        return new LatencyStats(sorted.length, sum / sorted.length,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99));
+    }
+
+    /**
+     * 最近秩法：取第 ceil(p/100 × n) 个值
+     */
+    static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import java.io.IOException;
+
+/**
+ * API 返回非 200 状态码
+ */
+public class ApiException extends IOException {
+
+    private final int statusCode;
+
+    public ApiException(int statusCode, String responseBody) {
+        super("API请求失败，状态码: " + statusCode +
+                (responseBody != null && !responseBody.isEmpty() ? ", 响应: " + responseBody : ""));
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 限流或服务端临时故障，可以重试
+     */
+    public boolean isRetryable() {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502
+                || statusCode == 503 || statusCode == 504;
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 响应缓存拦截器
+ * 以模型、参数和完整消息列表的摘要为键，缓存已完成的回复；命中时直接回放，不再发起网络请求。
+ * 只缓存成功结束的响应，容量按 LRU 淘汰。
+ */
+public final class CacheInterceptor implements RequestInterceptor {
+
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final BooleanSupplier enabled;
+    private final Map<String, CachedResponse> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public CacheInterceptor(BooleanSupplier enabled) {
+        this(enabled, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CacheInterceptor(BooleanSupplier enabled, int maxEntries) {
+        this.enabled = enabled;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public void intercept(ChatRequest request, ChatResponseStream response, Chain chain)
+            throws IOException, InterruptedException {
+        if (!enabled.getAsBoolean()) {
+            chain.proceed(request, response);
+            return;
+        }
+
+        String key = cacheKey(request);
+        CachedResponse cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            if (!cached.reasoning.isEmpty()) {
+                response.onReasoning(cached.reasoning);
+            }
+            response.onContent(cached.content);
+            response.onComplete(cached.content);
+            return;
+        }
+
+        missCount.incrementAndGet();
+        StringBuilder reasoning = new StringBuilder();
+        chain.proceed(request, new ChatResponseStream.Forwarding(response) {
+            @Override
+            public void onReasoning(String chunk) {
+                reasoning.append(chunk);
+                super.onReasoning(chunk);
+            }
+
+            @Override
+            public void onComplete(String fullContent) {
+                synchronized (cache) {
+                    cache.put(key, new CachedResponse(fullContent, reasoning.toString()));
+                }
+                super.onComplete(fullContent);
+            }
+        });
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static String cacheKey(ChatRequest request) {
+        String material = request.getEndpoint() + '\n' + request.getModel() + '\n' + request.getMaxTokens() + '\n' +
+                request.getTemperature() + '\n' + request.getMessages();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 是 JDK 必备算法，不会发生
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedResponse {
+        final String content;
+        final String reasoning;
+
+        CachedResponse(String content, String reasoning) {
+            this.content = content;
+            this.reasoning = reasoning;
+        }
+    }
+}
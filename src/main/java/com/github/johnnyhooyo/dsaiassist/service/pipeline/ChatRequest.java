@@ -0,0 +1,139 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对话请求模型
+ * 所有入口（流式/非流式、单条/多轮）统一构造为 ChatRequest 后交给请求管道处理。
+ * 对象不可变，拦截器通过 withXxx 方法派生新的请求。
+ */
+public final class ChatRequest {
+
+    private final String endpoint;
+    private final String apiKey;
+    private final String model;
+    private final JsonArray messages;
+    private final int maxTokens;
+    private final double temperature;
+    private final boolean stream;
+    private final Map<String, String> headers;
+
+    public ChatRequest(String endpoint, String apiKey, String model, JsonArray messages,
+                       int maxTokens, double temperature, boolean stream) {
+        this(endpoint, apiKey, model, messages, maxTokens, temperature, stream, Collections.emptyMap());
+    }
+
+    private ChatRequest(String endpoint, String apiKey, String model, JsonArray messages,
+                        int maxTokens, double temperature, boolean stream, Map<String, String> headers) {
+        this.endpoint = endpoint;
+        this.apiKey = apiKey != null ? apiKey.trim() : "";
+        this.model = model;
+        this.messages = messages.deepCopy();
+        this.maxTokens = maxTokens;
+        this.temperature = temperature;
+        this.stream = stream;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+    }
+
+    /**
+     * 构造只包含一条用户消息的消息列表
+     */
+    public static JsonArray singleUserMessage(String content) {
+        JsonArray messages = new JsonArray();
+        JsonObject userMessage = new JsonObject();
+        userMessage.addProperty("role", "user");
+        userMessage.addProperty("content", content);
+        messages.add(userMessage);
+        return messages;
+    }
+
+    public ChatRequest withMessages(JsonArray newMessages) {
+        return new ChatRequest(endpoint, apiKey, model, newMessages, maxTokens, temperature, stream, headers);
+    }
+
+    public ChatRequest withEndpoint(String newEndpoint) {
+        return new ChatRequest(newEndpoint, apiKey, model, messages, maxTokens, temperature, stream, headers);
+    }
+
+    public ChatRequest withModel(String newModel) {
+        return new ChatRequest(endpoint, apiKey, newModel, messages, maxTokens, temperature, stream, headers);
+    }
+
+    public ChatRequest withHeader(String name, String value) {
+        Map<String, String> newHeaders = new LinkedHashMap<>(headers);
+        newHeaders.put(name, value);
+        return new ChatRequest(endpoint, apiKey, model, messages, maxTokens, temperature, stream, newHeaders);
+    }
+
+    /**
+     * 生成 DeepSeek chat/completions 请求体
+     */
+    public JsonObject toRequestBody() {
+        JsonObject requestBody = new JsonObject();
+        requestBody.addProperty("model", model);
+        requestBody.addProperty("max_tokens", maxTokens);
+        requestBody.addProperty("temperature", temperature);
+        requestBody.addProperty("stream", stream);
+        requestBody.add("messages", messages.deepCopy());
+        return requestBody;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * 返回消息列表的副本
+     */
+    public JsonArray getMessages() {
+        return messages.deepCopy();
+    }
+
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public boolean isStream() {
+        return stream;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public String toString() {
+        // 不输出 API Key 和消息正文
+        return "ChatRequest{" +
+                "endpoint='" + endpoint + '\'' +
+                ", model='" + model + '\'' +
+                ", messages=" + messages.size() +
+                ", stream=" + stream +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+/**
+ * 对话响应流
+ * 流式请求按片段回调，非流式请求一次性回调完整内容；
+ * onComplete 与 onError 二者只会被调用其一，且只调用一次。
+ */
+public interface ChatResponseStream {
+
+    /**
+     * 正式内容片段
+     */
+    void onContent(String chunk);
+
+    /**
+     * 推理内容片段（deepseek-reasoner）
+     */
+    default void onReasoning(String chunk) {
+    }
+
+    /**
+     * 响应结束，参数为完整的正式内容
+     */
+    void onComplete(String fullContent);
+
+    /**
+     * 响应出错（API 返回的错误或解析失败）
+     */
+    void onError(String message);
+
+    /**
+     * 转发所有回调的基础实现，拦截器可只覆盖关心的方法
+     */
+    class Forwarding implements ChatResponseStream {
+
+        protected final ChatResponseStream delegate;
+
+        public Forwarding(ChatResponseStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onContent(String chunk) {
+            delegate.onContent(chunk);
+        }
+
+        @Override
+        public void onReasoning(String chunk) {
+            delegate.onReasoning(chunk);
+        }
+
+        @Override
+        public void onComplete(String fullContent) {
+            delegate.onComplete(fullContent);
+        }
+
+        @Override
+        public void onError(String message) {
+            delegate.onError(message);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 请求管道的末端：发送 HTTP 请求并解析响应
+ * 流式响应按 SSE 逐行解析，非流式响应一次性解析，两者都通过 ChatResponseStream 回调输出。
+ * 请求体超过阈值时以 gzip 压缩发送；响应通过 Accept-Encoding 协商 gzip，并在读取时边读边解压。
+ */
+public final class HttpTransport implements RequestInterceptor.Chain {
+
+    private static final Logger LOG = Logger.getInstance(HttpTransport.class);
+
+    private static final String GZIP = "gzip";
+
+    private final HttpClient httpClient;
+    private final Gson gson;
+    private final IntSupplier compressionThreshold;
+    private final TransportStats stats = new TransportStats();
+
+    public HttpTransport(HttpClient httpClient, Gson gson) {
+        this(httpClient, gson, () -> -1);
+    }
+
+    /**
+     * @param compressionThreshold 请求体压缩阈值（字节），返回负数表示不压缩请求体
+     */
+    public HttpTransport(HttpClient httpClient, Gson gson, IntSupplier compressionThreshold) {
+        this.httpClient = httpClient;
+        this.gson = gson;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public void proceed(ChatRequest request, ChatResponseStream response) throws IOException, InterruptedException {
+        byte[] body = gson.toJson(request.toRequestBody()).getBytes(StandardCharsets.UTF_8);
+        byte[] wireBody = body;
+        long compressionNanos = 0;
+        int threshold = compressionThreshold.getAsInt();
+        boolean compressed = threshold >= 0 && body.length >= threshold;
+        if (compressed) {
+            long start = System.nanoTime();
+            wireBody = gzip(body);
+            compressionNanos = System.nanoTime() - start;
+        }
+        stats.recordRequest(body.length, wireBody.length, compressed, compressionNanos);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(request.getEndpoint()))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + request.getApiKey())
+                .header("Accept-Encoding", GZIP)
+                .timeout(Duration.ofSeconds(request.isStream() ? 120 : 60))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(wireBody));
+        if (compressed) {
+            builder.header("Content-Encoding", GZIP);
+            LOG.debug("请求体已压缩: " + body.length + "B → " + wireBody.length + "B，耗时 " +
+                    compressionNanos / 1_000 + "µs");
+        }
+        if (request.isStream()) {
+            builder.header("Accept", "text/event-stream");
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+
+        HttpResponse<InputStream> httpResponse = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        boolean gzipped = httpResponse.headers().firstValue("Content-Encoding")
+                .map(GZIP::equalsIgnoreCase)
+                .orElse(false);
+        MeteredInputStream wire = new MeteredInputStream(httpResponse.body());
+        long headerNanos = 0;
+        MeteredInputStream decoded = null;
+
+        try (InputStream raw = wire) {
+            InputStream content = raw;
+            if (gzipped) {
+                // GZIPInputStream 构造时会读取 gzip 头，这部分等待网络的时间不计入解压耗时
+                content = new GZIPInputStream(raw);
+                headerNanos = wire.getNanos();
+            }
+            decoded = new MeteredInputStream(content);
+
+            if (httpResponse.statusCode() != 200) {
+                throw new ApiException(httpResponse.statusCode(), new String(decoded.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            if (request.isStream()) {
+                parseEventStream(decoded, response);
+            } else {
+                parseCompletion(new String(decoded.readAllBytes(), StandardCharsets.UTF_8), response);
+            }
+        } finally {
+            long decodedBytes = decoded != null ? decoded.getBytes() : 0;
+            long inflateNanos = decoded != null ? Math.max(0, decoded.getNanos() - (wire.getNanos() - headerNanos)) : 0;
+            stats.recordResponse(decodedBytes, wire.getBytes(), gzipped, inflateNanos);
+        }
+    }
+
+    /**
+     * 传输层统计（线路字节数、压缩/解压耗时）
+     */
+    public TransportStats getStats() {
+        return stats;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解析非流式响应
+     */
+    private void parseCompletion(String responseBody, ChatResponseStream response) {
+        JsonObject jsonResponse;
+        try {
+            jsonResponse = gson.fromJson(responseBody, JsonObject.class);
+        } catch (Exception e) {
+            LOG.error("解析API响应失败", e);
+            response.onError("解析API响应失败: " + e.getMessage());
+            return;
+        }
+
+        if (jsonResponse.has("error")) {
+            response.onError("API错误: " + jsonResponse.getAsJsonObject("error").get("message").getAsString());
+            return;
+        }
+
+        JsonArray choices = jsonResponse.getAsJsonArray("choices");
+        if (choices == null || choices.isEmpty()) {
+            response.onError("API响应中没有找到回复内容");
+            return;
+        }
+
+        JsonObject message = choices.get(0).getAsJsonObject().getAsJsonObject("message");
+        String reasoning = getString(message, "reasoning_content");
+        if (reasoning != null) {
+            response.onReasoning(reasoning);
+        }
+        String content = getString(message, "content");
+        if (content == null) {
+            content = "";
+        }
+        response.onContent(content);
+        response.onComplete(content);
+    }
+
+    /**
+     * 解析 SSE 流式响应（同时处理推理内容和正式内容）
+     */
+    private void parseEventStream(InputStream inputStream, ChatResponseStream response) throws IOException {
+        StringBuilder fullContent = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data: ")) {
+                continue;
+            }
+            String data = line.substring(6); // 移除 "data: " 前缀
+
+            if ("[DONE]".equals(data.trim())) {
+                // 流式响应结束
+                response.onComplete(fullContent.toString());
+                return;
+            }
+
+            JsonObject jsonChunk;
+            try {
+                jsonChunk = gson.fromJson(data, JsonObject.class);
+            } catch (Exception e) {
+                LOG.warn("解析流式响应片段失败: " + data, e);
+                // 继续处理下一个片段
+                continue;
+            }
+
+            if (jsonChunk.has("error")) {
+                response.onError("API错误: " + jsonChunk.getAsJsonObject("error").get("message").getAsString());
+                return;
+            }
+
+            JsonArray choices = jsonChunk.getAsJsonArray("choices");
+            if (choices == null || choices.isEmpty()) {
+                continue;
+            }
+            JsonObject firstChoice = choices.get(0).getAsJsonObject();
+            if (!firstChoice.has("delta")) {
+                continue;
+            }
+            JsonObject delta = firstChoice.getAsJsonObject("delta");
+
+            // 处理推理内容
+            String reasoning = getString(delta, "reasoning_content");
+            if (reasoning != null) {
+                response.onReasoning(reasoning);
+            }
+
+            // 处理正式内容
+            String content = getString(delta, "content");
+            if (content != null) {
+                fullContent.append(content);
+                response.onContent(content);
+            }
+        }
+
+        // 如果没有收到 [DONE] 信号，也要调用完成回调
+        response.onComplete(fullContent.toString());
+    }
+
+    private static String getString(JsonObject object, String member) {
+        if (object == null) {
+            return null;
+        }
+        JsonElement element = object.get(member);
+        return element != null && !element.isJsonNull() ? element.getAsString() : null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 指标拦截器
+ * 统计请求数、失败数、首字节时间（TTFT）与总耗时
+ */
+public final class MetricsInterceptor implements RequestInterceptor {
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong ttftSamples = new AtomicLong();
+    private final AtomicLong totalTtftNanos = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private volatile long lastTtftNanos = -1;
+    private volatile long lastLatencyNanos = -1;
+
+    @Override
+    public void intercept(ChatRequest request, ChatResponseStream response, Chain chain)
+            throws IOException, InterruptedException {
+        requestCount.incrementAndGet();
+        long start = System.nanoTime();
+        AtomicBoolean firstChunk = new AtomicBoolean(true);
+
+        try {
+            chain.proceed(request, new ChatResponseStream.Forwarding(response) {
+                @Override
+                public void onContent(String chunk) {
+                    recordFirstChunk();
+                    super.onContent(chunk);
+                }
+
+                @Override
+                public void onReasoning(String chunk) {
+                    recordFirstChunk();
+                    super.onReasoning(chunk);
+                }
+
+                @Override
+                public void onError(String message) {
+                    failureCount.incrementAndGet();
+                    super.onError(message);
+                }
+
+                private void recordFirstChunk() {
+                    if (firstChunk.compareAndSet(true, false)) {
+                        long ttft = System.nanoTime() - start;
+                        lastTtftNanos = ttft;
+                        totalTtftNanos.addAndGet(ttft);
+                        ttftSamples.incrementAndGet();
+                    }
+                }
+            });
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            failureCount.incrementAndGet();
+            throw e;
+        } finally {
+            long latency = System.nanoTime() - start;
+            lastLatencyNanos = latency;
+            totalLatencyNanos.addAndGet(latency);
+            completedCount.incrementAndGet();
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * 最近一次请求的首字节时间（毫秒），尚无数据时为 -1
+     */
+    public long getLastTtftMillis() {
+        return lastTtftNanos < 0 ? -1 : lastTtftNanos / 1_000_000;
+    }
+
+    public long getLastLatencyMillis() {
+        return lastLatencyNanos < 0 ? -1 : lastLatencyNanos / 1_000_000;
+    }
+
+    public long getAverageTtftMillis() {
+        long samples = ttftSamples.get();
+        return samples == 0 ? -1 : totalTtftNanos.get() / samples / 1_000_000;
+    }
+
+    public long getAverageLatencyMillis() {
+        long completed = completedCount.get();
+        return completed == 0 ? -1 : totalLatencyNanos.get() / completed / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return "请求 " + getRequestCount() + " 次，失败 " + getFailureCount() +
+                " 次，平均首字节 " + getAverageTtftMillis() + "ms，平均耗时 " + getAverageLatencyMillis() + "ms";
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 限流拦截器
+ * 限制同时进行的请求数，并保证相邻两次请求的发起间隔不小于设定值。
+ * 等待发生在网络虚拟线程上，不会阻塞 UI 或共享线程池。
+ */
+public final class RateLimitInterceptor implements RequestInterceptor {
+
+    private final Semaphore concurrency;
+    private final long minIntervalNanos;
+    private long nextAllowedNanos = System.nanoTime();
+
+    public RateLimitInterceptor(int maxConcurrentRequests, long minIntervalMillis) {
+        this.concurrency = new Semaphore(maxConcurrentRequests, true);
+        this.minIntervalNanos = minIntervalMillis * 1_000_000;
+    }
+
+    @Override
+    public void intercept(ChatRequest request, ChatResponseStream response, Chain chain)
+            throws IOException, InterruptedException {
+        concurrency.acquire();
+        try {
+            awaitSlot();
+            chain.proceed(request, response);
+        } finally {
+            concurrency.release();
+        }
+    }
+
+    private void awaitSlot() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextAllowedNanos);
+            nextAllowedNanos = slot + minIntervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    /**
+     * 正在等待许可的请求数
+     */
+    public int getWaitingCount() {
+        return concurrency.getQueueLength();
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 脱敏拦截器
+ * 发送前将消息中形似密钥的内容（API Key、AWS Access Key、PEM 私钥）替换为占位符，
+ * 避免附件或粘贴的日志把凭据带给远端服务
+ */
+public final class RedactionInterceptor implements RequestInterceptor {
+
+    public static final String PLACEHOLDER = "[REDACTED]";
+
+    private static final List<Pattern> SECRET_PATTERNS = List.of(
+            Pattern.compile("\\bsk-[A-Za-z0-9]{20,}\\b"),
+            Pattern.compile("\\bAKIA[0-9A-Z]{16}\\b"),
+            Pattern.compile("-----BEGIN [A-Z ]*PRIVATE KEY-----[\\s\\S]*?-----END [A-Z ]*PRIVATE KEY-----")
+    );
+
+    @Override
+    public void intercept(ChatRequest request, ChatResponseStream response, Chain chain)
+            throws IOException, InterruptedException {
+        JsonArray messages = request.getMessages();
+        boolean changed = false;
+
+        for (JsonElement element : messages) {
+            if (!element.isJsonObject()) {
+                continue;
+            }
+            JsonObject message = element.getAsJsonObject();
+            JsonElement content = message.get("content");
+            if (content == null || content.isJsonNull()) {
+                continue;
+            }
+            String original = content.getAsString();
+            String redacted = redact(original);
+            if (!redacted.equals(original)) {
+                message.addProperty("content", redacted);
+                changed = true;
+            }
+        }
+
+        chain.proceed(changed ? request.withMessages(messages) : request, response);
+    }
+
+    /**
+     * 替换文本中的密钥
+     */
+    public static String redact(String text) {
+        String result = text;
+        for (Pattern pattern : SECRET_PATTERNS) {
+            result = pattern.matcher(result).replaceAll(PLACEHOLDER);
+        }
+        return result;
+    }
+}
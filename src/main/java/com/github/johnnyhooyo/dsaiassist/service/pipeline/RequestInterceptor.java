@@ -0,0 +1,20 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import java.io.IOException;
+
+/**
+ * 请求拦截器
+ * 拦截器按顺序组成调用链，可以改写请求、包装响应流，或直接返回结果而不继续调用下游（如缓存命中）。
+ */
+public interface RequestInterceptor {
+
+    void intercept(ChatRequest request, ChatResponseStream response, Chain chain)
+            throws IOException, InterruptedException;
+
+    /**
+     * 调用链中的下一环
+     */
+    interface Chain {
+        void proceed(ChatRequest request, ChatResponseStream response) throws IOException, InterruptedException;
+    }
+}
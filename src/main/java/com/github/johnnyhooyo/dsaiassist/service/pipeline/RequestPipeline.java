@@ -0,0 +1,89 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 请求管道
+ * 按顺序执行拦截器，最后交给 HttpTransport 发送请求。
+ * 拦截器可在运行时增删、调整顺序，便于单独启用和对比各项优化。
+ */
+public final class RequestPipeline {
+
+    private final List<RequestInterceptor> interceptors = new CopyOnWriteArrayList<>();
+    private final RequestInterceptor.Chain transport;
+
+    public RequestPipeline(RequestInterceptor.Chain transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * 在调用链末尾（最靠近传输层处）添加拦截器
+     */
+    public RequestPipeline addInterceptor(RequestInterceptor interceptor) {
+        interceptors.add(interceptor);
+        return this;
+    }
+
+    /**
+     * 在指定位置插入拦截器，0 表示最外层
+     */
+    public RequestPipeline addInterceptor(int index, RequestInterceptor interceptor) {
+        interceptors.add(index, interceptor);
+        return this;
+    }
+
+    public boolean removeInterceptor(RequestInterceptor interceptor) {
+        return interceptors.remove(interceptor);
+    }
+
+    /**
+     * 按类型查找拦截器
+     */
+    public <T extends RequestInterceptor> T getInterceptor(Class<T> type) {
+        for (RequestInterceptor interceptor : interceptors) {
+            if (type.isInstance(interceptor)) {
+                return type.cast(interceptor);
+            }
+        }
+        return null;
+    }
+
+    public List<RequestInterceptor> getInterceptors() {
+        return new ArrayList<>(interceptors);
+    }
+
+    /**
+     * 执行请求，阻塞直到响应结束
+     */
+    public void execute(ChatRequest request, ChatResponseStream response) throws IOException, InterruptedException {
+        // 取快照，避免执行期间拦截器列表变化
+        List<RequestInterceptor> snapshot = getInterceptors();
+        new RealChain(snapshot, 0, transport).proceed(request, response);
+    }
+
+    private static final class RealChain implements RequestInterceptor.Chain {
+
+        private final List<RequestInterceptor> interceptors;
+        private final int index;
+        private final RequestInterceptor.Chain transport;
+
+        RealChain(List<RequestInterceptor> interceptors, int index, RequestInterceptor.Chain transport) {
+            this.interceptors = interceptors;
+            this.index = index;
+            this.transport = transport;
+        }
+
+        @Override
+        public void proceed(ChatRequest request, ChatResponseStream response) throws IOException, InterruptedException {
+            if (index >= interceptors.size()) {
+                transport.proceed(request, response);
+                return;
+            }
+            RealChain next = new RealChain(interceptors, index + 1, transport);
+            interceptors.get(index).intercept(request, response, next);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+
+/**
+ * 重试拦截器
+ * 网络异常、限流（429）和服务端临时错误（5xx）时按指数退避重试。
+ * 一旦已有内容输出给下游就不再重试，避免界面上出现重复片段。
+ */
+public final class RetryInterceptor implements RequestInterceptor {
+
+    private static final Logger LOG = Logger.getInstance(RetryInterceptor.class);
+
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+
+    public RetryInterceptor(int maxRetries, long initialBackoffMillis) {
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    @Override
+    public void intercept(ChatRequest request, ChatResponseStream response, Chain chain)
+            throws IOException, InterruptedException {
+        long backoff = initialBackoffMillis;
+
+        for (int attempt = 0; ; attempt++) {
+            EmissionTracker tracker = new EmissionTracker(response);
+            try {
+                chain.proceed(request, tracker);
+                return;
+            } catch (IOException e) {
+                if (attempt >= maxRetries || tracker.emitted || !isRetryable(e)) {
+                    throw e;
+                }
+                LOG.info("DeepSeek 请求失败，" + backoff + "ms 后进行第 " + (attempt + 1) + " 次重试: " + e.getMessage());
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    private static boolean isRetryable(IOException e) {
+        if (e instanceof ApiException) {
+            return ((ApiException) e).isRetryable();
+        }
+        // 读超时说明服务端可能已在处理，重复发送会浪费 token
+        return !(e instanceof HttpTimeoutException);
+    }
+
+    /**
+     * 记录是否已经向下游输出过内容
+     */
+    private static final class EmissionTracker extends ChatResponseStream.Forwarding {
+
+        volatile boolean emitted;
+
+        EmissionTracker(ChatResponseStream delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void onContent(String chunk) {
+            emitted = true;
+            super.onContent(chunk);
+        }
+
+        @Override
+        public void onReasoning(String chunk) {
+            emitted = true;
+            super.onReasoning(chunk);
+        }
+
+        @Override
+        public void onComplete(String fullContent) {
+            emitted = true;
+            super.onComplete(fullContent);
+        }
+
+        @Override
+        public void onError(String message) {
+            emitted = true;
+            super.onError(message);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * 请求追踪拦截器
+ * 为每个请求分配 X-Request-Id，并在调试日志中记录请求的开始、结束和耗时
+ */
+public final class TracingInterceptor implements RequestInterceptor {
+
+    private static final Logger LOG = Logger.getInstance(TracingInterceptor.class);
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    @Override
+    public void intercept(ChatRequest request, ChatResponseStream response, Chain chain)
+            throws IOException, InterruptedException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null) {
+            requestId = UUID.randomUUID().toString();
+            request = request.withHeader(REQUEST_ID_HEADER, requestId);
+        }
+
+        String traceId = requestId;
+        long start = System.nanoTime();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("[" + traceId + "] → " + request);
+        }
+
+        try {
+            chain.proceed(request, new ChatResponseStream.Forwarding(response) {
+                @Override
+                public void onComplete(String fullContent) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("[" + traceId + "] ← 完成，" + fullContent.length() + " 字符，耗时 " + elapsedMillis(start) + "ms");
+                    }
+                    super.onComplete(fullContent);
+                }
+
+                @Override
+                public void onError(String message) {
+                    LOG.debug("[" + traceId + "] ← 错误（" + elapsedMillis(start) + "ms）: " + message);
+                    super.onError(message);
+                }
+            });
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            LOG.debug("[" + traceId + "] ← 异常（" + elapsedMillis(start) + "ms）: " + e);
+            throw e;
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 传输层统计
+ * 记录请求体压缩前后的字节数、响应在线路上与解码后的字节数，以及压缩/解压消耗的 CPU 时间，
+ * 用于调整请求体压缩阈值。
+ */
+public final class TransportStats {
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder compressedRequestCount = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder requestWireBytes = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+    private final LongAdder compressedResponseCount = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder responseWireBytes = new LongAdder();
+    private final LongAdder decompressionNanos = new LongAdder();
+
+    void recordRequest(long rawBytes, long wireBytes, boolean compressed, long nanos) {
+        requestCount.increment();
+        requestBytes.add(rawBytes);
+        requestWireBytes.add(wireBytes);
+        if (compressed) {
+            compressedRequestCount.increment();
+            compressionNanos.add(nanos);
+        }
+    }
+
+    void recordResponse(long decodedBytes, long wireBytes, boolean compressed, long nanos) {
+        responseBytes.add(decodedBytes);
+        responseWireBytes.add(wireBytes);
+        if (compressed) {
+            compressedResponseCount.increment();
+            decompressionNanos.add(nanos);
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getCompressedRequestCount() {
+        return compressedRequestCount.sum();
+    }
+
+    public long getRequestBytes() {
+        return requestBytes.sum();
+    }
+
+    public long getRequestWireBytes() {
+        return requestWireBytes.sum();
+    }
+
+    public long getCompressionNanos() {
+        return compressionNanos.sum();
+    }
+
+    public long getCompressedResponseCount() {
+        return compressedResponseCount.sum();
+    }
+
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    public long getResponseWireBytes() {
+        return responseWireBytes.sum();
+    }
+
+    public long getDecompressionNanos() {
+        return decompressionNanos.sum();
+    }
+
+    public void reset() {
+        requestCount.reset();
+        compressedRequestCount.reset();
+        requestBytes.reset();
+        requestWireBytes.reset();
+        compressionNanos.reset();
+        compressedResponseCount.reset();
+        responseBytes.reset();
+        responseWireBytes.reset();
+        decompressionNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("请求 %d 次（压缩 %d 次）：%s → 线路 %s，压缩耗时 %.1fms；" +
+                        "响应（gzip %d 次）：线路 %s → 解码 %s，解压耗时 %.1fms",
+                getRequestCount(), getCompressedRequestCount(),
+                formatBytes(getRequestBytes()), formatBytes(getRequestWireBytes()), getCompressionNanos() / 1e6,
+                getCompressedResponseCount(),
+                formatBytes(getResponseWireBytes()), formatBytes(getResponseBytes()), getDecompressionNanos() / 1e6);
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1fKB", bytes / 1024.0);
+        }
+        return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -24,15 +24,27 @@ public final class PluginSettings implements PersistentStateComponent<PluginSett
     public String deepSeekModel = "deepseek-chat";
     public double temperature = 0.7;
     public int maxTokens = 2048;
+    public boolean enableResponseCache = false;
+    public boolean enableRequestCompression = false;
+    public int compressionThresholdKb = 16;
     
     // 界面设置
     public boolean enableMarkdown = true;
     public boolean enableAutoComplete = true;
     public boolean enableSyntaxHighlight = true;
+    // 超过该行数的文本块和代码块折叠显示开头和结尾，0 表示不折叠
+    public int collapseThresholdLines = 300;
+    public boolean enableSnapshotCache = false;
+    // 轻量聊天记录模式：单个文本面板追加渲染，不创建代码块等组件
+    public boolean lightweightTranscript = false;
     
     // 聊天设置
     public boolean saveHistory = true;
     public int maxHistorySize = 100;
+    // 未选中的标签页空闲多少分钟后休眠，0 表示不休眠
+    public int tabHibernateMinutes = 10;
+    // 超过该大小（KB）的粘贴内容作为附件而不是插入输入框，0 表示不转换
+    public int pasteAsAttachmentKb = 8;
 
     // DeepSeek 推理内容设置
     public boolean showReasoningContent = true;
@@ -84,6 +96,37 @@ public final class PluginSettings implements PersistentStateComponent<PluginSett
         this.maxTokens = Math.max(1, Math.min(4096, maxTokens));
     }
     
+    public boolean isEnableResponseCache() {
+        return enableResponseCache;
+    }
+    
+    public void setEnableResponseCache(boolean enableResponseCache) {
+        this.enableResponseCache = enableResponseCache;
+    }
+    
+    public boolean isEnableRequestCompression() {
+        return enableRequestCompression;
+    }
+    
+    public void setEnableRequestCompression(boolean enableRequestCompression) {
+        this.enableRequestCompression = enableRequestCompression;
+    }
+    
+    public int getCompressionThresholdKb() {
+        return compressionThresholdKb;
+    }
+    
+    public void setCompressionThresholdKb(int compressionThresholdKb) {
+        this.compressionThresholdKb = Math.max(1, Math.min(1024, compressionThresholdKb));
+    }
+    
+    /**
+     * 请求体压缩阈值（字节），未启用压缩时返回 -1
+     */
+    public int getCompressionThresholdBytes() {
+        return enableRequestCompression ? compressionThresholdKb * 1024 : -1;
+    }
+    
     public boolean isEnableMarkdown() {
         return enableMarkdown;
     }
@@ -108,6 +151,30 @@ public final class PluginSettings implements PersistentStateComponent<PluginSett
         this.enableSyntaxHighlight = enableSyntaxHighlight;
     }
     
+    public int getCollapseThresholdLines() {
+        return collapseThresholdLines;
+    }
+
+    public void setCollapseThresholdLines(int collapseThresholdLines) {
+        this.collapseThresholdLines = Math.max(0, Math.min(100_000, collapseThresholdLines));
+    }
+
+    public boolean isEnableSnapshotCache() {
+        return enableSnapshotCache;
+    }
+
+    public void setEnableSnapshotCache(boolean enableSnapshotCache) {
+        this.enableSnapshotCache = enableSnapshotCache;
+    }
+
+    public boolean isLightweightTranscript() {
+        return lightweightTranscript;
+    }
+
+    public void setLightweightTranscript(boolean lightweightTranscript) {
+        this.lightweightTranscript = lightweightTranscript;
+    }
+
     public boolean isSaveHistory() {
         return saveHistory;
     }
@@ -124,6 +191,22 @@ public final class PluginSettings implements PersistentStateComponent<PluginSett
         this.maxHistorySize = Math.max(1, Math.min(1000, maxHistorySize));
     }
 
+    public int getTabHibernateMinutes() {
+        return tabHibernateMinutes;
+    }
+
+    public void setTabHibernateMinutes(int tabHibernateMinutes) {
+        this.tabHibernateMinutes = Math.max(0, Math.min(1440, tabHibernateMinutes));
+    }
+
+    public int getPasteAsAttachmentKb() {
+        return pasteAsAttachmentKb;
+    }
+
+    public void setPasteAsAttachmentKb(int pasteAsAttachmentKb) {
+        this.pasteAsAttachmentKb = Math.max(0, Math.min(10_240, pasteAsAttachmentKb));
+    }
+
     public boolean isShowReasoningContent() {
         return showReasoningContent;
     }
@@ -149,11 +232,19 @@ public final class PluginSettings implements PersistentStateComponent<PluginSett
         deepSeekModel = "deepseek-chat";
         temperature = 0.7;
         maxTokens = 2048;
+        enableResponseCache = false;
+        enableRequestCompression = false;
+        compressionThresholdKb = 16;
         enableMarkdown = true;
         enableAutoComplete = true;
         enableSyntaxHighlight = true;
+        collapseThresholdLines = 300;
+        enableSnapshotCache = false;
+        lightweightTranscript = false;
         saveHistory = true;
         maxHistorySize = 100;
+        tabHibernateMinutes = 10;
+        pasteAsAttachmentKb = 8;
         showReasoningContent = true;
     }
 }
@@ -27,11 +27,20 @@ public class SettingsConfigurable implements Configurable {
     private JBTextField modelField;
     private JSpinner temperatureSpinner;
     private JSpinner maxTokensSpinner;
+    private JBCheckBox enableResponseCacheCheckBox;
+    private JBCheckBox enableRequestCompressionCheckBox;
+    private JSpinner compressionThresholdSpinner;
+    private JBLabel transportStatsLabel;
     private JBCheckBox enableMarkdownCheckBox;
     private JBCheckBox enableAutoCompleteCheckBox;
     private JBCheckBox enableSyntaxHighlightCheckBox;
+    private JSpinner collapseThresholdSpinner;
+    private JBCheckBox enableSnapshotCacheCheckBox;
+    private JBCheckBox lightweightTranscriptCheckBox;
     private JBCheckBox saveHistoryCheckBox;
     private JSpinner maxHistorySizeSpinner;
+    private JSpinner tabHibernateMinutesSpinner;
+    private JSpinner pasteAsAttachmentKbSpinner;
     private JBCheckBox showReasoningContentCheckBox;
     private JButton testConnectionButton;
     
@@ -61,6 +70,12 @@ public class SettingsConfigurable implements Configurable {
         
         temperatureSpinner = new JSpinner(new SpinnerNumberModel(0.7, 0.0, 2.0, 0.1));
         maxTokensSpinner = new JSpinner(new SpinnerNumberModel(2048, 1, 4096, 100));
+        enableResponseCacheCheckBox = new JBCheckBox("缓存相同请求的回复");
+        enableRequestCompressionCheckBox = new JBCheckBox("gzip压缩较大的请求体（需服务端或网关支持）");
+        compressionThresholdSpinner = new JSpinner(new SpinnerNumberModel(16, 1, 1024, 4));
+        enableRequestCompressionCheckBox.addActionListener(e ->
+            compressionThresholdSpinner.setEnabled(enableRequestCompressionCheckBox.isSelected()));
+        transportStatsLabel = new JBLabel();
         
         testConnectionButton = new JButton("测试连接");
         testConnectionButton.addActionListener(this::testConnection);
@@ -69,10 +84,15 @@ public class SettingsConfigurable implements Configurable {
         enableMarkdownCheckBox = new JBCheckBox("启用Markdown渲染");
         enableAutoCompleteCheckBox = new JBCheckBox("启用命令自动完成");
         enableSyntaxHighlightCheckBox = new JBCheckBox("启用语法高亮");
+        collapseThresholdSpinner = new JSpinner(new SpinnerNumberModel(300, 0, 100_000, 50));
+        enableSnapshotCacheCheckBox = new JBCheckBox("缓存已结束消息的位图快照（实验性，滚动更流畅，占用更多内存）");
+        lightweightTranscriptCheckBox = new JBCheckBox("轻量聊天记录模式（纯文本追加渲染，适合低配置机器和远程桌面，新建标签页生效）");
         
         // 聊天设置
         saveHistoryCheckBox = new JBCheckBox("保存聊天历史");
         maxHistorySizeSpinner = new JSpinner(new SpinnerNumberModel(100, 1, 1000, 10));
+        tabHibernateMinutesSpinner = new JSpinner(new SpinnerNumberModel(10, 0, 1440, 5));
+        pasteAsAttachmentKbSpinner = new JSpinner(new SpinnerNumberModel(8, 0, 10_240, 4));
         showReasoningContentCheckBox = new JBCheckBox("显示推理过程（DeepSeek Reasoner）");
     }
     
@@ -109,6 +129,10 @@ public class SettingsConfigurable implements Configurable {
                 .addLabeledComponent("模型:", modelField)
                 .addLabeledComponent("Temperature:", temperatureSpinner)
                 .addLabeledComponent("Max Tokens:", maxTokensSpinner)
+                .addComponent(enableResponseCacheCheckBox)
+                .addComponent(enableRequestCompressionCheckBox)
+                .addLabeledComponent("压缩阈值 (KB):", compressionThresholdSpinner)
+                .addLabeledComponent("传输统计:", transportStatsLabel)
                 .getPanel();
     }
     
@@ -118,6 +142,9 @@ public class SettingsConfigurable implements Configurable {
                 .addComponent(enableMarkdownCheckBox)
                 .addComponent(enableAutoCompleteCheckBox)
                 .addComponent(enableSyntaxHighlightCheckBox)
+                .addLabeledComponent("折叠超长内容 (行，0为不折叠):", collapseThresholdSpinner)
+                .addComponent(enableSnapshotCacheCheckBox)
+                .addComponent(lightweightTranscriptCheckBox)
                 .getPanel();
     }
     
@@ -126,6 +153,8 @@ public class SettingsConfigurable implements Configurable {
                 .addLabeledComponent(new JBLabel("聊天设置"), new JPanel())
                 .addComponent(saveHistoryCheckBox)
                 .addLabeledComponent("最大历史记录数:", maxHistorySizeSpinner)
+                .addLabeledComponent("后台标签页休眠 (分钟，0为不休眠):", tabHibernateMinutesSpinner)
+                .addLabeledComponent("大段粘贴转为附件 (KB，0为不转换):", pasteAsAttachmentKbSpinner)
                 .addComponent(showReasoningContentCheckBox)
                 .getPanel();
     }
@@ -141,15 +170,15 @@ public class SettingsConfigurable implements Configurable {
         testConnectionButton.setText("测试中...");
         
         DeepSeekService service = ApplicationManager.getApplication().getService(DeepSeekService.class);
-        service.testConnection(apiKey).thenAccept(success -> {
+        service.checkHealth(apiKey, true).thenAccept(health -> {
             SwingUtilities.invokeLater(() -> {
                 testConnectionButton.setEnabled(true);
                 testConnectionButton.setText("测试连接");
                 
-                if (success) {
-                    Messages.showInfoMessage("连接成功！", "测试连接");
+                if (health.isHealthy()) {
+                    Messages.showInfoMessage(health.getSummary(), "测试连接");
                 } else {
-                    Messages.showErrorDialog("连接失败，请检查API Key是否正确", "测试连接");
+                    Messages.showErrorDialog(health.getSummary(), "测试连接");
                 }
             });
         });
@@ -163,11 +192,19 @@ public class SettingsConfigurable implements Configurable {
                !settings.getDeepSeekModel().equals(modelField.getText()) ||
                settings.getTemperature() != (Double) temperatureSpinner.getValue() ||
                settings.getMaxTokens() != (Integer) maxTokensSpinner.getValue() ||
+               settings.isEnableResponseCache() != enableResponseCacheCheckBox.isSelected() ||
+               settings.isEnableRequestCompression() != enableRequestCompressionCheckBox.isSelected() ||
+               settings.getCompressionThresholdKb() != (Integer) compressionThresholdSpinner.getValue() ||
                settings.isEnableMarkdown() != enableMarkdownCheckBox.isSelected() ||
                settings.isEnableAutoComplete() != enableAutoCompleteCheckBox.isSelected() ||
                settings.isEnableSyntaxHighlight() != enableSyntaxHighlightCheckBox.isSelected() ||
+               settings.getCollapseThresholdLines() != (Integer) collapseThresholdSpinner.getValue() ||
+               settings.isEnableSnapshotCache() != enableSnapshotCacheCheckBox.isSelected() ||
+               settings.isLightweightTranscript() != lightweightTranscriptCheckBox.isSelected() ||
                settings.isSaveHistory() != saveHistoryCheckBox.isSelected() ||
                settings.getMaxHistorySize() != (Integer) maxHistorySizeSpinner.getValue() ||
+               settings.getTabHibernateMinutes() != (Integer) tabHibernateMinutesSpinner.getValue() ||
+               settings.getPasteAsAttachmentKb() != (Integer) pasteAsAttachmentKbSpinner.getValue() ||
                settings.isShowReasoningContent() != showReasoningContentCheckBox.isSelected();
     }
     
@@ -179,11 +216,19 @@ public class SettingsConfigurable implements Configurable {
         settings.setDeepSeekModel(modelField.getText());
         settings.setTemperature((Double) temperatureSpinner.getValue());
         settings.setMaxTokens((Integer) maxTokensSpinner.getValue());
+        settings.setEnableResponseCache(enableResponseCacheCheckBox.isSelected());
+        settings.setEnableRequestCompression(enableRequestCompressionCheckBox.isSelected());
+        settings.setCompressionThresholdKb((Integer) compressionThresholdSpinner.getValue());
         settings.setEnableMarkdown(enableMarkdownCheckBox.isSelected());
         settings.setEnableAutoComplete(enableAutoCompleteCheckBox.isSelected());
         settings.setEnableSyntaxHighlight(enableSyntaxHighlightCheckBox.isSelected());
+        settings.setCollapseThresholdLines((Integer) collapseThresholdSpinner.getValue());
+        settings.setEnableSnapshotCache(enableSnapshotCacheCheckBox.isSelected());
+        settings.setLightweightTranscript(lightweightTranscriptCheckBox.isSelected());
         settings.setSaveHistory(saveHistoryCheckBox.isSelected());
         settings.setMaxHistorySize((Integer) maxHistorySizeSpinner.getValue());
+        settings.setTabHibernateMinutes((Integer) tabHibernateMinutesSpinner.getValue());
+        settings.setPasteAsAttachmentKb((Integer) pasteAsAttachmentKbSpinner.getValue());
         settings.setShowReasoningContent(showReasoningContentCheckBox.isSelected());
     }
     
@@ -195,11 +240,22 @@ public class SettingsConfigurable implements Configurable {
         modelField.setText(settings.getDeepSeekModel());
         temperatureSpinner.setValue(settings.getTemperature());
         maxTokensSpinner.setValue(settings.getMaxTokens());
+        enableResponseCacheCheckBox.setSelected(settings.isEnableResponseCache());
+        enableRequestCompressionCheckBox.setSelected(settings.isEnableRequestCompression());
+        compressionThresholdSpinner.setValue(settings.getCompressionThresholdKb());
+        compressionThresholdSpinner.setEnabled(settings.isEnableRequestCompression());
+        DeepSeekService service = ApplicationManager.getApplication().getService(DeepSeekService.class);
+        transportStatsLabel.setText(service.getTransportStats().toString());
         enableMarkdownCheckBox.setSelected(settings.isEnableMarkdown());
         enableAutoCompleteCheckBox.setSelected(settings.isEnableAutoComplete());
         enableSyntaxHighlightCheckBox.setSelected(settings.isEnableSyntaxHighlight());
+        collapseThresholdSpinner.setValue(settings.getCollapseThresholdLines());
+        enableSnapshotCacheCheckBox.setSelected(settings.isEnableSnapshotCache());
+        lightweightTranscriptCheckBox.setSelected(settings.isLightweightTranscript());
         saveHistoryCheckBox.setSelected(settings.isSaveHistory());
         maxHistorySizeSpinner.setValue(settings.getMaxHistorySize());
+        tabHibernateMinutesSpinner.setValue(settings.getTabHibernateMinutes());
+        pasteAsAttachmentKbSpinner.setValue(settings.getPasteAsAttachmentKb());
         showReasoningContentCheckBox.setSelected(settings.isShowReasoningContent());
     }
 }
@@ -0,0 +1,227 @@
+package com.github.johnnyhooyo.dsaiassist.toolWindow;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.github.johnnyhooyo.dsaiassist.model.ChatTranscript;
+import com.github.johnnyhooyo.dsaiassist.ui.ChatPanel;
+import com.github.johnnyhooyo.dsaiassist.ui.ThemeUtils;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Disposer;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 聊天标签页的内容组件
+ * 聊天面板在标签页第一次显示时才创建；标签页在后台空闲超过设定时间后休眠：
+ * 会话写入临时文件，聊天面板（历史、输入框、附件、自动完成弹窗）整体释放，只留下一个占位标签，
+ * 再次选中时在后台线程读取文件，读取期间显示占位标签，读完后在 EDT 上重建聊天面板。只在 EDT 上使用。
+ */
+final class ChatTab extends JPanel implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(ChatTab.class);
+
+    private final Supplier<ChatPanel> panelFactory;
+    private final JLabel placeholder;
+
+    private ChatPanel chatPanel;
+    // 休眠的会话：写入文件之前保存在内存中，写入完成后只保留文件
+    private ChatTranscript hibernatedTranscript;
+    private Path snapshotFile;
+    // 正在后台读取快照文件
+    private boolean restoring;
+    private boolean disposed;
+
+    private boolean tabVisible;
+    // 标签页转入后台的时间，可见时为 0
+    private long hiddenSince;
+
+    ChatTab(Supplier<ChatPanel> panelFactory) {
+        super(new BorderLayout());
+        this.panelFactory = panelFactory;
+        placeholder = new JLabel("选中标签页后加载聊天内容", SwingConstants.CENTER);
+        placeholder.setForeground(ThemeUtils.getTimestampColor());
+        add(placeholder, BorderLayout.CENTER);
+
+        // 工具窗口第一次打开时，选中的标签页一显示就创建聊天面板
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+                ensureChatPanel();
+            }
+        });
+    }
+
+    /**
+     * 标签页是否可见（已选中且工具窗口显示），可见时按需创建或恢复聊天面板
+     */
+    void setTabVisible(boolean visible) {
+        tabVisible = visible;
+        if (visible) {
+            hiddenSince = 0;
+            ensureChatPanel();
+            if (chatPanel != null) {
+                chatPanel.setTabVisible(true);
+            }
+        } else {
+            if (hiddenSince == 0) {
+                hiddenSince = System.currentTimeMillis();
+            }
+            if (chatPanel != null) {
+                chatPanel.setTabVisible(false);
+            }
+        }
+    }
+
+    /**
+     * 在后台空闲超过 idleMillis 时休眠
+     */
+    boolean hibernateIfIdle(long now, long idleMillis) {
+        return !tabVisible && hiddenSince != 0 && now - hiddenSince >= idleMillis && hibernate();
+    }
+
+    /**
+     * 保存会话并释放聊天面板；标签页可见、有进行中的请求或未发送的附件时不休眠
+     */
+    boolean hibernate() {
+        if (chatPanel == null || tabVisible || !chatPanel.canHibernate()) {
+            return false;
+        }
+        ChatTranscript transcript = chatPanel.createTranscript();
+        remove(chatPanel);
+        Disposer.dispose(chatPanel);
+        chatPanel = null;
+        hibernatedTranscript = transcript;
+        placeholder.setText("标签页已休眠，选中后恢复");
+        add(placeholder, BorderLayout.CENTER);
+        revalidate();
+        repaint();
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            Path file = null;
+            try {
+                file = Files.createTempFile("dsai-chat-", ".json.gz");
+                transcript.writeTo(file);
+            } catch (IOException e) {
+                // 写入失败时会话继续保存在内存中
+                LOG.warn("Failed to write hibernated chat tab", e);
+                deleteQuietly(file);
+                return;
+            }
+            Path written = file;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (!disposed && hibernatedTranscript == transcript) {
+                    snapshotFile = written;
+                    hibernatedTranscript = null;
+                } else {
+                    // 写入期间已恢复或已关闭
+                    deleteQuietly(written);
+                }
+            });
+        });
+        return true;
+    }
+
+    boolean isHibernated() {
+        return chatPanel == null && (hibernatedTranscript != null || snapshotFile != null);
+    }
+
+    /**
+     * 休眠的会话是否已写入文件
+     */
+    boolean isSnapshotWritten() {
+        return snapshotFile != null;
+    }
+
+    boolean isRestoring() {
+        return restoring;
+    }
+
+    /**
+     * 当前的聊天面板，尚未创建或已休眠时为 null
+     */
+    ChatPanel getChatPanel() {
+        return chatPanel;
+    }
+
+    private void ensureChatPanel() {
+        if (chatPanel != null || disposed || restoring) {
+            return;
+        }
+        if (hibernatedTranscript == null && snapshotFile != null) {
+            restoreFromFile(snapshotFile);
+            return;
+        }
+        ChatTranscript transcript = hibernatedTranscript;
+        hibernatedTranscript = null;
+        showChatPanel(transcript);
+    }
+
+    /**
+     * 在后台线程读取快照文件，读完后在 EDT 上创建聊天面板；读取期间保留占位标签
+     */
+    private void restoreFromFile(Path file) {
+        restoring = true;
+        placeholder.setText("正在恢复聊天内容…");
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            ChatTranscript read;
+            try {
+                read = ChatTranscript.readFrom(file);
+            } catch (IOException e) {
+                LOG.warn("Failed to restore hibernated chat tab", e);
+                read = new ChatTranscript(
+                        List.of(new ChatMessage("❌ 恢复休眠的聊天内容失败：" + e.getMessage(), false)), "");
+            }
+            deleteQuietly(file);
+            ChatTranscript transcript = read;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                restoring = false;
+                if (disposed || snapshotFile != file) {
+                    // 读取期间已关闭
+                    return;
+                }
+                snapshotFile = null;
+                showChatPanel(transcript);
+                chatPanel.setTabVisible(tabVisible);
+            });
+        });
+    }
+
+    private void showChatPanel(ChatTranscript transcript) {
+        chatPanel = panelFactory.get();
+        Disposer.register(this, chatPanel);
+        if (transcript != null) {
+            chatPanel.restoreTranscript(transcript);
+        }
+        remove(placeholder);
+        add(chatPanel, BorderLayout.CENTER);
+        revalidate();
+        repaint();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete chat snapshot " + file, e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // 聊天面板作为子 Disposable 由 Disposer 释放
+        disposed = true;
+        hibernatedTranscript = null;
+        deleteQuietly(snapshotFile);
+        snapshotFile = null;
+    }
+}
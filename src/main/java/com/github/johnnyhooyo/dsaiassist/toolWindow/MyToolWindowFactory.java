@@ -2,11 +2,17 @@ package com.github.johnnyhooyo.dsaiassist.toolWindow;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.openapi.wm.ex.ToolWindowManagerListener;
 import com.intellij.ui.content.Content;
 import com.intellij.ui.content.ContentFactory;
 import com.intellij.ui.content.ContentManager;
+import com.intellij.ui.content.ContentManagerEvent;
+import com.intellij.ui.content.ContentManagerListener;
+import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
 import com.github.johnnyhooyo.dsaiassist.ui.ChatPanel;
 import org.jetbrains.annotations.NotNull;
 
@@ -16,6 +22,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * DS AI 助手工具窗口工厂类
  * 创建右侧聊天界面工具窗口，支持多标签页聊天
+ * 只有选中的标签页在工具窗口可见时渲染，其余标签页的流式输出只更新消息模型；
+ * 后台空闲超过设定时间的标签页休眠，释放聊天面板，再次选中时恢复
  */
 public class MyToolWindowFactory implements ToolWindowFactory {
 
@@ -24,13 +32,38 @@ public class MyToolWindowFactory implements ToolWindowFactory {
     // 用于生成聊天标签页的序号
     private static final AtomicInteger chatCounter = new AtomicInteger(1);
 
+    // 检查后台标签页是否需要休眠的间隔
+    private static final int HIBERNATE_CHECK_MILLIS = 60_000;
+
     public MyToolWindowFactory() {
         LOG.info("DS AI Assistant Tool Window Factory initialized");
     }
 
     @Override
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
-        // 创建第一个聊天标签页
+        // 标签页切换或工具窗口显示/隐藏时暂停或恢复各聊天面板的渲染
+        toolWindow.getContentManager().addContentManagerListener(new ContentManagerListener() {
+            @Override
+            public void selectionChanged(@NotNull ContentManagerEvent event) {
+                updateTabVisibility(toolWindow);
+            }
+        });
+        project.getMessageBus().connect(toolWindow.getDisposable()).subscribe(
+            ToolWindowManagerListener.TOPIC,
+            new ToolWindowManagerListener() {
+                @Override
+                public void stateChanged(@NotNull ToolWindowManager toolWindowManager) {
+                    updateTabVisibility(toolWindow);
+                }
+            }
+        );
+
+        // 定期让空闲的后台标签页休眠
+        Timer hibernateTimer = new Timer(HIBERNATE_CHECK_MILLIS, e -> hibernateIdleTabs(toolWindow));
+        hibernateTimer.start();
+        Disposer.register(toolWindow.getDisposable(), hibernateTimer::stop);
+
+        // 创建第一个聊天标签页（聊天面板在标签页第一次显示时才创建）
         createNewChatTab(project, toolWindow, "AI 助手");
     }
 
@@ -50,6 +83,7 @@ public class MyToolWindowFactory implements ToolWindowFactory {
             false
         );
         content.setCloseable(true); // 允许关闭标签页
+        content.setDisposer(chatToolWindow.getChatTab()); // 关闭标签页时释放聊天面板和休眠快照
 
         ContentManager contentManager = toolWindow.getContentManager();
         contentManager.addContent(content);
@@ -58,6 +92,35 @@ public class MyToolWindowFactory implements ToolWindowFactory {
         LOG.info("Created new chat tab: " + title);
     }
 
+    /**
+     * 按选中状态和工具窗口显示状态更新每个聊天面板是否渲染
+     */
+    static void updateTabVisibility(@NotNull ToolWindow toolWindow) {
+        boolean toolWindowVisible = toolWindow.isVisible();
+        for (Content content : toolWindow.getContentManager().getContents()) {
+            if (content.getComponent() instanceof ChatTab) {
+                ((ChatTab) content.getComponent()).setTabVisible(toolWindowVisible && content.isSelected());
+            }
+        }
+    }
+
+    /**
+     * 让后台空闲超过设定时间的标签页休眠
+     */
+    static void hibernateIdleTabs(@NotNull ToolWindow toolWindow) {
+        int minutes = PluginSettings.getInstance().getTabHibernateMinutes();
+        if (minutes <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Content content : toolWindow.getContentManager().getContents()) {
+            if (content.getComponent() instanceof ChatTab
+                    && ((ChatTab) content.getComponent()).hibernateIfIdle(now, minutes * 60_000L)) {
+                LOG.info("Hibernated chat tab: " + content.getDisplayName());
+            }
+        }
+    }
+
     /**
      * 创建新的聊天会话（由 /newchat 命令调用）
      */
@@ -74,24 +137,28 @@ public class MyToolWindowFactory implements ToolWindowFactory {
 
         private final Project project;
         private final ToolWindow toolWindow;
-        private final ChatPanel chatPanel;
+        private final ChatTab chatTab;
 
         public ChatToolWindow(Project project, ToolWindow toolWindow) {
             this.project = project;
             this.toolWindow = toolWindow;
-            // 传递创建新聊天会话的回调函数
-            this.chatPanel = new ChatPanel(project, () -> createNewChatSession(project, toolWindow));
+            // 聊天面板按需创建，传递创建新聊天会话的回调函数
+            this.chatTab = new ChatTab(() -> new ChatPanel(project, () -> createNewChatSession(project, toolWindow)));
         }
 
         public JComponent getContent() {
-            return chatPanel;
+            return chatTab;
         }
 
         /**
-         * 获取聊天面板实例
+         * 获取聊天面板实例，尚未创建或标签页休眠时为 null
          */
         public ChatPanel getChatPanel() {
-            return chatPanel;
+            return chatTab.getChatPanel();
+        }
+
+        ChatTab getChatTab() {
+            return chatTab;
         }
     }
 }
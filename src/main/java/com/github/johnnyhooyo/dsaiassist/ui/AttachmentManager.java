@@ -9,12 +9,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * 附件管理器 - 管理聊天中的文件附件
+ * 附件管理器 - 管理聊天中的文件附件，以及因过大而作为附件处理的粘贴内容
  */
 public class AttachmentManager {
     
     private final Project project;
     private final List<AttachedFile> attachedFiles = new ArrayList<>();
+    private final List<PastedText> pastedTexts = new ArrayList<>();
     
     public AttachmentManager(Project project) {
         this.project = project;
@@ -56,11 +57,35 @@ public class AttachmentManager {
         return attachedFiles.removeIf(file -> file.getFilePath().equals(filePath));
     }
     
+    /**
+     * 添加粘贴内容附件
+     */
+    public PastedText addPastedText(String text) {
+        PastedText pastedText = new PastedText(text);
+        pastedTexts.add(pastedText);
+        return pastedText;
+    }
+
+    /**
+     * 移除粘贴内容附件
+     */
+    public boolean removePastedText(PastedText pastedText) {
+        return pastedTexts.remove(pastedText);
+    }
+
+    /**
+     * 获取所有粘贴内容附件
+     */
+    public List<PastedText> getPastedTexts() {
+        return new ArrayList<>(pastedTexts);
+    }
+
     /**
      * 清空所有附件
      */
     public void clearAll() {
         attachedFiles.clear();
+        pastedTexts.clear();
     }
     
     /**
@@ -74,26 +99,28 @@ public class AttachmentManager {
      * 获取附件数量
      */
     public int getAttachmentCount() {
-        return attachedFiles.size();
+        return attachedFiles.size() + pastedTexts.size();
     }
     
     /**
      * 检查是否有附件
      */
     public boolean hasAttachments() {
-        return !attachedFiles.isEmpty();
+        return !attachedFiles.isEmpty() || !pastedTexts.isEmpty();
     }
     
     /**
      * 生成附件内容用于发送给AI
      */
     public String generateAttachmentContent() {
-        if (attachedFiles.isEmpty()) {
+        if (!hasAttachments()) {
             return "";
         }
         
         StringBuilder content = new StringBuilder();
-        content.append("\n\n--- 附件文件 ---\n");
+        if (!attachedFiles.isEmpty()) {
+            content.append("\n\n--- 附件文件 ---\n");
+        }
         
         for (AttachedFile file : attachedFiles) {
             content.append("\n文件: ").append(file.getFilePath()).append("\n");
@@ -112,6 +139,18 @@ public class AttachmentManager {
             
             content.append("\n```\n");
         }
+
+        // 粘贴内容是用户有意发送的，不截断
+        for (int i = 0; i < pastedTexts.size(); i++) {
+            PastedText pastedText = pastedTexts.get(i);
+            String fence = pastedText.getFence();
+            content.append("\n\n--- 粘贴内容 ").append(i + 1).append(" ---\n");
+            content.append(fence).append("\n").append(pastedText.getText());
+            if (!pastedText.getText().endsWith("\n")) {
+                content.append("\n");
+            }
+            content.append(fence).append("\n");
+        }
         
         return content.toString();
     }
@@ -176,4 +215,51 @@ public class AttachmentManager {
             return getFileName();
         }
     }
+
+    /**
+     * 粘贴内容附件，行数在创建时统计一次
+     */
+    public static class PastedText {
+        private final String text;
+        private final int lineCount;
+
+        public PastedText(String text) {
+            this.text = text;
+            int lines = 1;
+            for (int i = 0; i < text.length() - 1; i++) {
+                if (text.charAt(i) == '\n') {
+                    lines++;
+                }
+            }
+            this.lineCount = lines;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * 附件标签上显示的摘要，例如 “粘贴内容 · 1200 行 · 96 KB”
+         */
+        public String getLabel() {
+            return "粘贴内容 · " + lineCount + " 行 · " + Math.max(1, (text.length() + 512) / 1024) + " KB";
+        }
+
+        /**
+         * 包裹内容的代码围栏，比内容中最长的连续反引号多一个，避免内容提前结束代码块
+         */
+        String getFence() {
+            int longest = 0;
+            int run = 0;
+            for (int i = 0; i < text.length(); i++) {
+                run = text.charAt(i) == '`' ? run + 1 : 0;
+                longest = Math.max(longest, run);
+            }
+            return "`".repeat(Math.max(3, longest + 1));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.github.johnnyhooyo.dsaiassist.ui;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.components.JBList;
 import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
 
 import javax.swing.*;
 import java.awt.*;
@@ -15,25 +16,37 @@ import java.util.function.Consumer;
 
 /**
  * 自动完成弹出窗口
+ * 列表使用固定行高和行宽，只渲染可见的行，上千条建议也不需要逐行测量；
+ * 更新建议时增量修改列表模型，只有可见行数变化时才重新调整窗口大小。
  */
 public class AutoCompletePopup extends JWindow {
+
+    private static final int POPUP_WIDTH = 300;
+    private static final int ITEM_HEIGHT = 20;
+    private static final int MAX_VISIBLE_ROWS = 8;
     
+    private final SuggestionListModel model = new SuggestionListModel();
     private final JBList<String> suggestionList;
     private final JBScrollPane scrollPane;
     private final Consumer<String> onSelection;
     private final JComponent parentComponent;
+    // 窗口当前按多少行调整的大小
+    private int visibleRows;
     
     public AutoCompletePopup(JComponent parent, Consumer<String> onSelection) {
         super(SwingUtilities.getWindowAncestor(parent));
         this.parentComponent = parent;
         this.onSelection = onSelection;
         
-        suggestionList = new JBList<>();
+        suggestionList = new JBList<>(model);
         suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         suggestionList.setCellRenderer(new SuggestionCellRenderer());
+        // 固定行高和行宽，列表不再为计算尺寸渲染每一行
+        suggestionList.setFixedCellHeight(JBUI.scale(ITEM_HEIGHT));
+        suggestionList.setFixedCellWidth(JBUI.scale(POPUP_WIDTH));
         
         scrollPane = new JBScrollPane(suggestionList);
-        scrollPane.setPreferredSize(new Dimension(300, 150));
+        scrollPane.setPreferredSize(new Dimension(POPUP_WIDTH, 150));
         scrollPane.setBorder(BorderFactory.createLineBorder(JBColor.GRAY));
         
         setupEventHandlers();
@@ -89,24 +102,10 @@ public class AutoCompletePopup extends JWindow {
             return;
         }
         
-        DefaultListModel<String> model = new DefaultListModel<>();
-        for (String suggestion : suggestions) {
-            model.addElement(suggestion);
-        }
-        
-        suggestionList.setModel(model);
+        model.setItems(suggestions);
         suggestionList.setSelectedIndex(0);
-        
-        // 调整窗口大小
-        int itemCount = Math.min(suggestions.size(), 8);
-        int itemHeight = suggestionList.getFixedCellHeight();
-        if (itemHeight <= 0) {
-            itemHeight = 20; // 默认高度
-        }
-        
-        int height = itemCount * itemHeight + 10;
-        scrollPane.setPreferredSize(new Dimension(300, height));
-        pack();
+        suggestionList.ensureIndexIsVisible(0);
+        resizeFor(suggestions.size());
         
         // 设置位置
         setLocation(location);
@@ -116,6 +115,40 @@ public class AutoCompletePopup extends JWindow {
         SwingUtilities.invokeLater(suggestionList::requestFocus);
     }
     
+    /**
+     * 更新已显示的建议列表（例如后台查找到更多文件时），保留当前选中项和窗口位置；弹窗未显示时与 showSuggestions 相同
+     */
+    public void updateSuggestions(List<String> suggestions, Point location) {
+        if (!isVisible()) {
+            showSuggestions(suggestions, location);
+            return;
+        }
+        if (suggestions == null || suggestions.isEmpty()) {
+            setVisible(false);
+            return;
+        }
+
+        String selected = suggestionList.getSelectedValue();
+        model.setItems(suggestions);
+        int index = selected != null ? suggestions.indexOf(selected) : -1;
+        suggestionList.setSelectedIndex(Math.max(0, index));
+        resizeFor(suggestions.size());
+    }
+
+    /**
+     * 按建议数量调整窗口大小，最多显示 {@link #MAX_VISIBLE_ROWS} 行；行数不变时不重新布局窗口
+     */
+    private void resizeFor(int count) {
+        int rows = Math.min(count, MAX_VISIBLE_ROWS);
+        if (rows == visibleRows) {
+            return;
+        }
+        visibleRows = rows;
+        int height = rows * suggestionList.getFixedCellHeight() + 10;
+        scrollPane.setPreferredSize(new Dimension(JBUI.scale(POPUP_WIDTH), height));
+        pack();
+    }
+
     /**
      * 选择当前项
      */
@@ -13,14 +13,26 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * 聊天历史显示面板
+ * 轻量聊天历史面板：所有消息渲染在同一个文本面板中，不创建代码块等组件
+ * 文档只追加：已结束的消息插入一次后不再改动，流式输出时只替换最后一条消息所在的范围；
+ * 更早的消息按身份更新时（例如聊天期间仍在运行的基准测试），从这条消息开始重新渲染到末尾。
+ * 同一帧内的多次更新由 {@link RenderScheduler} 合并。适合低配置机器和远程桌面，在设置中选择。
  */
-public class ChatHistoryPanel extends JPanel implements ThemeAware {
+public class ChatHistoryPanel extends JPanel implements ChatHistoryView, ThemeAware {
     
     private final JTextPane textPane;
     private final JBScrollPane scrollPane;
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
     private final List<ChatMessage> messages = new ArrayList<>();
+    private final RenderScheduler renderScheduler = new RenderScheduler(this::renderFrame);
+
+    // 已插入文档的每条消息在文档中的起始位置，大小即已插入的消息数
+    private final List<Integer> messageStarts = new ArrayList<>();
+    // 需要（重新）渲染的第一条消息下标，没有待渲染的变化时为 -1
+    private int dirtyFrom = -1;
+    // 下一帧是否无条件滚动到底部（用户自己发送消息时）
+    private boolean forceScrollToBottom;
+    private boolean renderingSuspended;
     
     public ChatHistoryPanel() {
         super(new BorderLayout());
@@ -29,6 +41,8 @@ public class ChatHistoryPanel extends JPanel implements ThemeAware {
         textPane.setEditable(false);
         textPane.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         textPane.setEditorKit(new WrapEditorKit()); // 添加自动换行支持
+        // 插入文本时不移动光标，是否滚动到底部由 renderFrame 决定
+        ((DefaultCaret) textPane.getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
 
         scrollPane = new JBScrollPane(textPane);
         scrollPane.setVerticalScrollBarPolicy(JBScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -42,7 +56,17 @@ public class ChatHistoryPanel extends JPanel implements ThemeAware {
         setupLayout();
         updateTheme();
         // 注册主题变化监听
-        ThemeChangeListener.getInstance().registerComponent(this);
+        ThemeChangeListener.getInstance().registerComponent(this, this);
+    }
+
+    @Override
+    public void dispose() {
+        renderScheduler.cancel();
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return this;
     }
     
     private void setupLayout() {
@@ -61,6 +85,12 @@ public class ChatHistoryPanel extends JPanel implements ThemeAware {
                 ThemeUtils.getNoBorder(), // 外部浮动边框
                 JBUI.Borders.empty(10)          // 内部5像素留白
         ));
+        // 文字颜色写在文档的样式属性中，主题变化时整体重新渲染一次
+        if (!messages.isEmpty()) {
+            clearDocument();
+            markDirty(0);
+            requestFrame();
+        }
         // 重新绘制组件
         repaint();
     }
@@ -68,95 +98,185 @@ public class ChatHistoryPanel extends JPanel implements ThemeAware {
     /**
      * 添加聊天消息到历史记录
      */
+    @Override
     public void addMessage(ChatMessage message) {
         messages.add(message);
-        renderAllMessages();
+        markDirty(messages.size() - 1);
+        if (message.isUser()) {
+            forceScrollToBottom = true;
+        }
+        requestFrame();
     }
 
     /**
      * 更新最后一条消息（用于流式更新）
      */
+    @Override
     public void updateLastMessage(ChatMessage message) {
         if (!messages.isEmpty()) {
             // 更新最后一条消息
             messages.set(messages.size() - 1, message);
-            renderAllMessages();
+            markDirty(messages.size() - 1);
+            requestFrame();
         }
     }
 
+    /**
+     * 按身份更新消息，从这条消息开始重新渲染
+     */
+    @Override
+    public void updateMessage(ChatMessage message) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) == message) {
+                markDirty(i);
+                requestFrame();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void setRenderingSuspended(boolean suspended) {
+        if (renderingSuspended == suspended) {
+            return;
+        }
+        renderingSuspended = suspended;
+        if (suspended) {
+            renderScheduler.cancel();
+        } else if (dirtyFrom >= 0) {
+            renderFrame();
+        }
+    }
+
+    @Override
+    public boolean isRenderingSuspended() {
+        return renderingSuspended;
+    }
+
     /**
      * 获取所有消息(用于多轮对话）
      */
+    @Override
     public List<ChatMessage> getAllMessages() {
-        return messages;
+        return new ArrayList<>(messages);
+    }
+
+    int getRenderedMessageCount() {
+        return messageStarts.size();
+    }
+
+    private void markDirty(int index) {
+        dirtyFrom = dirtyFrom < 0 ? index : Math.min(dirtyFrom, index);
+    }
+
+    private void requestFrame() {
+        if (!renderingSuspended) {
+            renderScheduler.requestFrame();
+        }
     }
 
     /**
-     * 渲染所有消息
+     * 每帧执行一次：删除从第一条有变化的消息开始的范围，再把这些消息和新增的消息追加到文档末尾
      */
-    private void renderAllMessages() {
-        textPane.setText(""); // 清空现有内容
-        StyledDocument doc = textPane.getStyledDocument();
+    private void renderFrame() {
+        if (dirtyFrom < 0) {
+            return;
+        }
+        boolean scroll = forceScrollToBottom || isPinnedToBottom();
+        forceScrollToBottom = false;
 
+        StyledDocument doc = textPane.getStyledDocument();
         try {
-            for (ChatMessage message : messages) {
-                String timeStr = message.getTimestamp().format(timeFormatter);
-
-                // 添加时间戳和发送者
-                SimpleAttributeSet timeStyle = new SimpleAttributeSet();
-                StyleConstants.setFontFamily(timeStyle, Font.SANS_SERIF);
-                StyleConstants.setFontSize(timeStyle, 10);
-                StyleConstants.setForeground(timeStyle, ThemeUtils.getTimestampColor());
-
-                String sender = message.isUser() ? "您" : "AI助手";
-                doc.insertString(doc.getLength(), "[" + timeStr + "] " + sender + ":\n", timeStyle);
-
-                // 如果是AI消息且有推理内容，先显示推理内容
-                if (!message.isUser() && message.hasReasoningContent() && PluginSettings.getInstance().isShowReasoningContent()) {
-                    addReasoningContent(message.getReasoningContent());
-                    doc.insertString(doc.getLength(), "\n", null); // 推理内容和正式内容之间的分隔
-                }
+            // 通常只有最后一条消息有变化，它之前的消息保留在文档中
+            if (dirtyFrom < messageStarts.size()) {
+                int start = messageStarts.get(dirtyFrom);
+                doc.remove(start, doc.getLength() - start);
+                messageStarts.subList(dirtyFrom, messageStarts.size()).clear();
+            }
+            for (int i = messageStarts.size(); i < messages.size(); i++) {
+                messageStarts.add(doc.getLength());
+                appendMessage(messages.get(i));
+            }
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        dirtyFrom = -1;
 
-                // 根据设置决定是否使用Markdown渲染
-                if (PluginSettings.getInstance().isEnableMarkdown() && !message.isUser()) {
-                    // AI消息使用Markdown渲染
-                    addMarkdownContent(message.getContent(), message.isUser());
-                } else {
-                    // 用户消息或禁用Markdown时使用普通文本
-                    addPlainTextContent(message.getContent(), message.isUser());
-                }
+        scrollPane.validate();
+        if (scroll) {
+            scrollToBottom();
+        }
+    }
 
-                // 添加空行分隔
-                doc.insertString(doc.getLength(), "\n", null);
-            }
+    /**
+     * 在文档末尾插入一条消息
+     */
+    private void appendMessage(ChatMessage message) throws BadLocationException {
+        StyledDocument doc = textPane.getStyledDocument();
+        String timeStr = message.getTimestamp().format(timeFormatter);
 
-            // 自动滚动到底部
-            SwingUtilities.invokeLater(() -> textPane.setCaretPosition(doc.getLength()));
-        } catch (Exception e) {
+        // 添加时间戳和发送者
+        SimpleAttributeSet timeStyle = new SimpleAttributeSet();
+        StyleConstants.setFontFamily(timeStyle, Font.SANS_SERIF);
+        StyleConstants.setFontSize(timeStyle, 10);
+        StyleConstants.setForeground(timeStyle, ThemeUtils.getTimestampColor());
+
+        String sender = message.isUser() ? "您" : "AI助手";
+        doc.insertString(doc.getLength(), "[" + timeStr + "] " + sender + ":\n", timeStyle);
+
+        // 如果是AI消息且有推理内容，先显示推理内容
+        if (!message.isUser() && message.hasReasoningContent() && PluginSettings.getInstance().isShowReasoningContent()) {
+            addReasoningContent(message.getReasoningContent());
+            doc.insertString(doc.getLength(), "\n", null); // 推理内容和正式内容之间的分隔
+        }
+
+        // 根据设置决定是否使用Markdown渲染
+        if (PluginSettings.getInstance().isEnableMarkdown() && !message.isUser()) {
+            // AI消息使用Markdown渲染
+            addMarkdownContent(message.getContent(), message.isUser());
+        } else {
+            // 用户消息或禁用Markdown时使用普通文本
+            addPlainTextContent(message.getContent(), message.isUser());
+        }
+
+        // 添加空行分隔
+        doc.insertString(doc.getLength(), "\n", null);
+    }
+
+    /**
+     * 视口当前是否停在底部（允许少量误差）
+     */
+    private boolean isPinnedToBottom() {
+        JScrollBar verticalBar = scrollPane.getVerticalScrollBar();
+        return verticalBar.getValue() + verticalBar.getVisibleAmount() >= verticalBar.getMaximum() - JBUI.scale(16);
+    }
+
+    private void scrollToBottom() {
+        JScrollBar verticalBar = scrollPane.getVerticalScrollBar();
+        verticalBar.setValue(verticalBar.getMaximum());
+    }
+
+    private void clearDocument() {
+        StyledDocument doc = textPane.getStyledDocument();
+        try {
+            doc.remove(0, doc.getLength());
+        } catch (BadLocationException e) {
             e.printStackTrace();
         }
+        messageStarts.clear();
     }
 
     /**
      * 添加Markdown内容
      */
     private void addMarkdownContent(String content, boolean isUser) {
+        // 直接渲染到主文档末尾，渲染失败时 MarkdownRenderer 会回退为普通文本
+        StyledDocument doc = textPane.getStyledDocument();
+        MarkdownRenderer.appendMarkdown(content, doc, isUser);
         try {
-            // 创建临时文档用于Markdown渲染
-            StyledDocument tempDoc = new DefaultStyledDocument();
-            MarkdownRenderer.renderMarkdown(content, tempDoc, isUser);
-
-            // 将渲染结果复制到主文档
-            StyledDocument mainDoc = textPane.getStyledDocument();
-            for (int i = 0; i < tempDoc.getLength(); i++) {
-                String text = tempDoc.getText(i, 1);
-                AttributeSet attrs = tempDoc.getCharacterElement(i).getAttributes();
-                mainDoc.insertString(mainDoc.getLength(), text, attrs);
-            }
-        } catch (Exception e) {
+            doc.insertString(doc.getLength(), "\n", null);
+        } catch (BadLocationException e) {
             e.printStackTrace();
-            // 如果Markdown渲染失败，回退到普通文本
-            addPlainTextContent(content, isUser);
         }
     }
 
@@ -215,15 +335,24 @@ public class ChatHistoryPanel extends JPanel implements ThemeAware {
     /**
      * 清空聊天历史
      */
+    @Override
     public void clearHistory() {
+        renderScheduler.cancel();
+        dirtyFrom = -1;
+        forceScrollToBottom = false;
         messages.clear();
-        textPane.setText("");
+        clearDocument();
     }
     
     /**
-     * 获取所有聊天内容
+     * 获取所有聊天内容，尚未渲染的变化先渲染
      */
+    @Override
     public String getAllText() {
+        if (dirtyFrom >= 0) {
+            renderScheduler.cancel();
+            renderFrame();
+        }
         return textPane.getText();
     }
 
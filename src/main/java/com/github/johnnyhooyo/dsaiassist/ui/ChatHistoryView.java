@@ -0,0 +1,49 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.intellij.openapi.Disposable;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * 聊天面板使用的历史记录视图
+ * 默认使用组件化的 {@link EnhancedChatHistoryPanel}；设置中开启轻量模式时使用单文本面板的 {@link ChatHistoryPanel}。
+ */
+interface ChatHistoryView extends Disposable {
+
+    /**
+     * 按设置创建历史记录视图
+     */
+    static ChatHistoryView create(boolean lightweight) {
+        return lightweight ? new ChatHistoryPanel() : new EnhancedChatHistoryPanel();
+    }
+
+    JComponent getComponent();
+
+    void addMessage(ChatMessage message);
+
+    /**
+     * 更新最后一条消息（用于流式更新）
+     */
+    void updateLastMessage(ChatMessage message);
+
+    /**
+     * 按身份更新之前添加的消息，消息已不在历史中（例如已清空）时忽略
+     * 多个请求同时输出时（聊天回复和基准测试），各自只更新自己添加的消息
+     */
+    void updateMessage(ChatMessage message);
+
+    /**
+     * 暂停或恢复渲染，暂停期间的变化在恢复时一次性渲染
+     */
+    void setRenderingSuspended(boolean suspended);
+
+    boolean isRenderingSuspended();
+
+    void clearHistory();
+
+    List<ChatMessage> getAllMessages();
+
+    String getAllText();
+}
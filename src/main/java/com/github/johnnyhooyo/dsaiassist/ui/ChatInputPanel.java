@@ -1,8 +1,11 @@
 package com.github.johnnyhooyo.dsaiassist.ui;
 
 import com.github.johnnyhooyo.dsaiassist.command.CommandProcessor;
+import com.github.johnnyhooyo.dsaiassist.command.FileFinder;
 import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.components.JBTextArea;
@@ -11,16 +14,24 @@ import com.intellij.util.ui.JBUI;
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
 /**
  * 聊天输入面板 - 浮窗样式
+ * 超过设定大小的粘贴内容作为附件显示在输入框上方，不插入输入框；
+ * 命令补全只读取光标所在行，输入框中的文本再长也不会拖慢输入；/@ 文件补全由 {@link FileFinder} 在后台查找。
  */
-public class ChatInputPanel extends JPanel implements ThemeAware {
+public class ChatInputPanel extends JPanel implements ThemeAware, Disposable {
 
     private final Consumer<String> onSendMessage;
     private final Runnable onClearChat;
@@ -34,12 +45,21 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
     private final JButton attachButton;
     private final JComboBox<String> modelComboBox;
     private final JPanel floatingContainer;
+    private final JPanel attachmentChipBar;
     private final CommandProcessor commandProcessor;
     private final AutoCompletePopup autoCompletePopup;
+    private final FileFinder fileFinder;
     private final AttachmentManager attachmentManager;
+    // 已排队、尚未执行的自动完成更新，连续的文档变化只触发一次
+    private boolean autoCompleteQueued;
 
     public ChatInputPanel(Consumer<String> onSendMessage, Runnable onClearChat,
                          Runnable onNewChat, Project project) {
+        this(onSendMessage, onClearChat, onNewChat, args -> {}, project);
+    }
+
+    public ChatInputPanel(Consumer<String> onSendMessage, Runnable onClearChat,
+                         Runnable onNewChat, Consumer<String> onBenchmark, Project project) {
         super(new BorderLayout());
         this.onSendMessage = onSendMessage;
         this.onClearChat = onClearChat;
@@ -50,14 +70,19 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         this.attachmentManager = new AttachmentManager(project);
 
         // 初始化命令处理器
-        this.commandProcessor = new CommandProcessor(project, this::handleClearCommand, onNewChat, this::handleAttachmentCommand);
+        this.commandProcessor = new CommandProcessor(project, this::handleClearCommand, onNewChat,
+                this::handleAttachmentCommand, onBenchmark);
         this.autoCompletePopup = new AutoCompletePopup(this, this::insertSuggestion);
+        this.fileFinder = new FileFinder(project);
+        Disposer.register(this, fileFinder);
         
         inputTextArea = new JBTextArea();
         inputTextArea.setLineWrap(true);
         inputTextArea.setWrapStyleWord(true);
         inputTextArea.setRows(3);
         inputTextArea.setFont(inputTextArea.getFont().deriveFont(12f));
+        inputTextArea.setTransferHandler(new LargePasteTransferHandler(inputTextArea.getTransferHandler(),
+                () -> PluginSettings.getInstance().getPasteAsAttachmentKb() * 1024, this::attachPastedText));
 
         scrollPane = new JBScrollPane(inputTextArea);
         scrollPane.setVerticalScrollBarPolicy(JBScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -102,6 +127,10 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         
         // 内部容器，用于创建浮窗效果
         floatingContainer = new JPanel(new BorderLayout());
+        // 附件标签栏，没有附件时隐藏
+        attachmentChipBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 2));
+        attachmentChipBar.setVisible(false);
+        floatingContainer.add(attachmentChipBar, BorderLayout.NORTH);
         floatingContainer.add(scrollPane, BorderLayout.CENTER);
         floatingContainer.add(bottomBar, BorderLayout.SOUTH);
         floatingContainer.setBorder(ThemeUtils.getFloatingBorder());
@@ -111,7 +140,13 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         setupAutoComplete();
         updateTheme();
         // 注册主题变化监听
-        ThemeChangeListener.getInstance().registerComponent(this);
+        ThemeChangeListener.getInstance().registerComponent(this, this);
+    }
+
+    @Override
+    public void dispose() {
+        // 自动补全弹窗是独立的窗口，需要显式释放
+        autoCompletePopup.dispose();
     }
     
     private void setupLayout() {
@@ -155,49 +190,100 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         inputTextArea.getDocument().addDocumentListener(new DocumentListener() {
             @Override
             public void insertUpdate(DocumentEvent e) {
-                SwingUtilities.invokeLater(() -> updateAutoComplete());
+                scheduleAutoComplete();
             }
 
             @Override
             public void removeUpdate(DocumentEvent e) {
-                SwingUtilities.invokeLater(() -> updateAutoComplete());
+                scheduleAutoComplete();
             }
 
             @Override
             public void changedUpdate(DocumentEvent e) {
-                SwingUtilities.invokeLater(() -> updateAutoComplete());
+                // 纯文本文档没有属性变化
             }
         });
     }
 
+    private void scheduleAutoComplete() {
+        if (autoCompleteQueued) {
+            return;
+        }
+        autoCompleteQueued = true;
+        SwingUtilities.invokeLater(() -> {
+            autoCompleteQueued = false;
+            updateAutoComplete();
+        });
+    }
+
     private void updateAutoComplete() {
-        String text = inputTextArea.getText();
         String currentLine = getCurrentLine();
 
         if (currentLine.startsWith("/")) {
             List<String> suggestions = commandProcessor.getCommandSuggestions(currentLine);
+            String fileQuery = commandProcessor.getFileQuery(currentLine);
+            if (fileQuery != null) {
+                // 文件建议在后台查找，找到后追加在命令建议之后
+                fileFinder.search(fileQuery, files -> showFileSuggestions(currentLine, suggestions, files));
+            } else {
+                fileFinder.cancel();
+            }
             if (!suggestions.isEmpty()) {
                 Point location = getCaretLocation();
                 autoCompletePopup.showSuggestions(suggestions, location);
-            } else {
+            } else if (fileQuery == null) {
                 autoCompletePopup.setVisible(false);;
             }
+            // 文件查找期间保留上一次的文件建议，新结果到达时再替换，避免弹窗闪烁
         } else {
+            fileFinder.cancel();
             autoCompletePopup.setVisible(false);;
         }
     }
 
+    /**
+     * 显示后台查找到的文件建议；查找期间光标所在行已变化时忽略
+     */
+    private void showFileSuggestions(String line, List<String> commandSuggestions, List<String> files) {
+        if (!line.equals(getCurrentLine())) {
+            return;
+        }
+        List<String> suggestions = new ArrayList<>(commandSuggestions);
+        for (String file : files) {
+            suggestions.add("/@" + file);
+        }
+        if (suggestions.isEmpty()) {
+            autoCompletePopup.setVisible(false);
+        } else {
+            autoCompletePopup.updateSuggestions(suggestions, getCaretLocation());
+        }
+    }
+
+    /**
+     * 光标所在行从行首到光标的文本；该行不以 / 开头（不是命令）时直接返回空串
+     */
     private String getCurrentLine() {
         try {
+            Document document = inputTextArea.getDocument();
             int caretPos = inputTextArea.getCaretPosition();
-            String text = inputTextArea.getText();
-            int lineStart = text.lastIndexOf('\n', caretPos - 1) + 1;
-            return text.substring(lineStart, caretPos);
-        } catch (Exception e) {
+            int lineStart = lineStartOffset(document, caretPos);
+            if (caretPos == lineStart || !"/".equals(document.getText(lineStart, 1))) {
+                return "";
+            }
+            return document.getText(lineStart, caretPos - lineStart);
+        } catch (BadLocationException e) {
             return "";
         }
     }
 
+    /**
+     * 偏移所在行的起始偏移，只查找该行对应的文档元素，不复制整个文本
+     */
+    static int lineStartOffset(Document document, int offset) {
+        Element root = document.getDefaultRootElement();
+        return root.getElement(root.getElementIndex(offset)).getStartOffset();
+    }
+
     private Point getCaretLocation() {
         try {
             Rectangle rect = inputTextArea.modelToView(inputTextArea.getCaretPosition());
@@ -215,8 +301,7 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         if (currentLine.startsWith("/")) {
             try {
                 int caretPos = inputTextArea.getCaretPosition();
-                String text = inputTextArea.getText();
-                int lineStart = text.lastIndexOf('\n', caretPos - 1) + 1;
+                int lineStart = lineStartOffset(inputTextArea.getDocument(), caretPos);
 
                 // 替换当前行
                 inputTextArea.replaceRange(suggestion, lineStart, caretPos);
@@ -261,6 +346,9 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
                 1, 0, 0, 0, ThemeUtils.getInputBorderColor() // 顶部细线分隔
         ));
 
+        attachmentChipBar.setBackground(ThemeUtils.getInputBackgroundColor());
+        refreshAttachmentChips();
+
         // 更新浮窗容器主题
         floatingContainer.setBackground(ThemeUtils.getInputBackgroundColor());
         floatingContainer.setBorder(ThemeUtils.getFloatingBorder());
@@ -271,8 +359,10 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
     
     private void sendMessage() {
         String message = inputTextArea.getText().trim();
-        if (!message.isEmpty()) {
+        // 只有粘贴内容附件、输入框为空时也可以发送
+        if (!message.isEmpty() || !attachmentManager.getPastedTexts().isEmpty()) {
             // 隐藏自动完成弹窗
+            fileFinder.cancel();
             autoCompletePopup.setVisible(false);;
 
             // 检查是否为命令
@@ -311,13 +401,17 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         // 简单的附件管理对话框
         StringBuilder message = new StringBuilder("当前附件:\n");
         List<AttachmentManager.AttachedFile> files = attachmentManager.getAttachedFiles();
+        List<AttachmentManager.PastedText> pastedTexts = attachmentManager.getPastedTexts();
 
-        if (files.isEmpty()) {
+        if (files.isEmpty() && pastedTexts.isEmpty()) {
             message.append("无附件");
         } else {
             for (int i = 0; i < files.size(); i++) {
                 message.append((i + 1)).append(". ").append(files.get(i).getFilePath()).append("\n");
             }
+            for (int i = 0; i < pastedTexts.size(); i++) {
+                message.append((files.size() + i + 1)).append(". ").append(pastedTexts.get(i).getLabel()).append("\n");
+            }
         }
 
         message.append("\n使用 /@文件路径 命令添加附件");
@@ -336,6 +430,7 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
     private void handleAttachmentCommand(String filePath) {
         boolean added = attachmentManager.addFile(filePath);
         if (added) {
+            fileFinder.recordAttached(filePath);
             updateAttachmentButton();
             // 可以显示一个简短的提示
             attachButton.setToolTipText("附件 (" + attachmentManager.getAttachmentCount() + ") - 已添加: " + filePath);
@@ -359,6 +454,68 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         } else {
             attachButton.setText("📎");
         }
+        refreshAttachmentChips();
+    }
+
+    /**
+     * 超过阈值的粘贴内容作为附件，输入框中不插入任何文本
+     */
+    private void attachPastedText(String text) {
+        attachmentManager.addPastedText(text);
+        updateAttachmentButton();
+        inputTextArea.requestFocus();
+    }
+
+    /**
+     * 按当前附件重建输入框上方的附件标签，每个标签带一个移除按钮
+     */
+    private void refreshAttachmentChips() {
+        attachmentChipBar.removeAll();
+        for (AttachmentManager.AttachedFile file : attachmentManager.getAttachedFiles()) {
+            attachmentChipBar.add(createAttachmentChip("📄 " + file.getFileName(), file.getFilePath(), () -> {
+                attachmentManager.removeFile(file.getFilePath());
+                updateAttachmentButton();
+            }));
+        }
+        for (AttachmentManager.PastedText pastedText : attachmentManager.getPastedTexts()) {
+            attachmentChipBar.add(createAttachmentChip("📋 " + pastedText.getLabel(), null, () -> {
+                attachmentManager.removePastedText(pastedText);
+                updateAttachmentButton();
+            }));
+        }
+        attachmentChipBar.setVisible(attachmentChipBar.getComponentCount() > 0);
+        attachmentChipBar.revalidate();
+        attachmentChipBar.repaint();
+    }
+
+    private JComponent createAttachmentChip(String text, String toolTip, Runnable onRemove) {
+        JPanel chip = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        chip.setBackground(ThemeUtils.getSelectedBackgroundColor());
+        chip.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(ThemeUtils.getInputBorderColor()),
+                JBUI.Borders.empty(1, 2)
+        ));
+
+        JLabel label = new JLabel(text);
+        label.setFont(label.getFont().deriveFont(11f));
+        label.setForeground(ThemeUtils.getForegroundColor());
+        label.setToolTipText(toolTip);
+
+        JLabel remove = new JLabel("✕");
+        remove.setFont(remove.getFont().deriveFont(10f));
+        remove.setForeground(ThemeUtils.getTimestampColor());
+        remove.setToolTipText("移除附件");
+        remove.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        remove.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                onRemove.run();
+            }
+        });
+
+        chip.add(label);
+        chip.add(remove);
+        return chip;
     }
     
     /**
@@ -382,6 +539,13 @@ public class ChatInputPanel extends JPanel implements ThemeAware {
         inputTextArea.setText(text);
     }
     
+    /**
+     * 是否有已添加但尚未发送的附件
+     */
+    public boolean hasAttachments() {
+        return attachmentManager.hasAttachments();
+    }
+
     /**
      * 清空输入框
      */
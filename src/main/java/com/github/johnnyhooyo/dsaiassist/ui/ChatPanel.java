@@ -1,16 +1,24 @@
 package com.github.johnnyhooyo.dsaiassist.ui;
 
 import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.github.johnnyhooyo.dsaiassist.model.ChatTranscript;
 import com.github.johnnyhooyo.dsaiassist.service.DeepSeekService;
+import com.github.johnnyhooyo.dsaiassist.service.benchmark.BenchmarkConfig;
 import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
 import com.google.gson.JsonArray;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 
 import javax.swing.*;
 import javax.swing.plaf.basic.BasicSplitPaneDivider;
 import javax.swing.plaf.basic.BasicSplitPaneUI;
 import java.awt.*;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
@@ -18,16 +26,21 @@ import java.util.Random;
 /**
  * 主聊天面板，包含聊天历史和输入区域
  * 上方80%显示聊天历史，下方20%显示输入框
+ * 面板随所在标签页一起释放，子面板和主题监听注册都挂在它下面；
+ * 标签页未选中或工具窗口隐藏时由工具窗口工厂暂停历史面板的渲染；
+ * 历史面板按设置选择组件化的增强面板或轻量的单文本面板
  */
-public class ChatPanel extends JPanel implements ThemeAware {
+public class ChatPanel extends JPanel implements ThemeAware, Disposable {
 
-    private final EnhancedChatHistoryPanel chatHistoryPanel;
+    private final ChatHistoryView chatHistoryPanel;
     private final ChatInputPanel chatInputPanel;
     private final JSplitPane splitPane;
     private final Random random = new Random();
     private final Project project;
     private final DeepSeekService deepSeekService;
     private final Runnable onNewChatCallback;
+    // 尚未结束的流式回复和基准测试数，不为 0 时标签页不能休眠
+    private int activeRequests;
 
     public ChatPanel(Project project) {
         this(project, null);
@@ -39,16 +52,17 @@ public class ChatPanel extends JPanel implements ThemeAware {
         this.onNewChatCallback = onNewChatCallback;
         this.deepSeekService = ApplicationManager.getApplication().getService(DeepSeekService.class);
 
-        chatHistoryPanel = new EnhancedChatHistoryPanel();
+        chatHistoryPanel = ChatHistoryView.create(PluginSettings.getInstance().isLightweightTranscript());
         chatInputPanel = new ChatInputPanel(
             this::handleUserMessage,
             this::handleClearCommand,
             this::handleNewChat,
+            this::handleBenchmark,
             project
         );
         
         splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
-        splitPane.setTopComponent(chatHistoryPanel);
+        splitPane.setTopComponent(chatHistoryPanel.getComponent());
         splitPane.setBottomComponent(chatInputPanel);
         splitPane.setOneTouchExpandable(false);
         splitPane.setDividerSize(0); // 隐藏分割线
@@ -73,8 +87,16 @@ public class ChatPanel extends JPanel implements ThemeAware {
         setupLayout();
         addWelcomeMessage();
         updateTheme();
+        // 子面板随本面板释放
+        Disposer.register(this, chatHistoryPanel);
+        Disposer.register(this, chatInputPanel);
         // 注册主题变化监听
-        ThemeChangeListener.getInstance().registerComponent(this);
+        ThemeChangeListener.getInstance().registerComponent(this, this);
+    }
+
+    @Override
+    public void dispose() {
+        // 子面板和主题监听注册由 Disposer 释放
     }
     
     private void setupLayout() {
@@ -134,6 +156,59 @@ public class ChatPanel extends JPanel implements ThemeAware {
         }
     }
 
+    private void handleBenchmark(String args) {
+        PluginSettings settings = PluginSettings.getInstance();
+        String basePath = project != null ? project.getBasePath() : null;
+        Path baseDir = basePath != null ? Path.of(basePath) : null;
+
+        BenchmarkConfig config;
+        try {
+            config = BenchmarkConfig.parse(args, settings.getDeepSeekModel(), deepSeekService.getChatEndpoint(), baseDir);
+        } catch (IllegalArgumentException e) {
+            addLocalMessage(new ChatMessage("❌ " + e.getMessage() + "\n" + BenchmarkConfig.USAGE, false));
+            return;
+        }
+
+        // 未指定 csv 时导出到 IDE 日志目录，不在项目目录中留下文件
+        Path csvFile = config.getCsvFile() != null ? config.getCsvFile() : Path.of(PathManager.getLogPath(), "dsai-bench",
+                "bench-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+
+        String header = "⏱ 延迟基准测试：" + config + "\n";
+        ChatMessage benchMessage = new ChatMessage(header + "运行中...", false);
+        addLocalMessage(benchMessage);
+
+        // 基准测试期间用户可能继续聊天，只按身份更新自己的消息
+        activeRequests++;
+        deepSeekService.runBenchmark(config, settings.getDeepSeekApiKey(), csvFile,
+            progress -> {
+                benchMessage.setContent(header + progress);
+                chatHistoryPanel.updateMessage(benchMessage);
+            },
+            report -> {
+                String result = header + "```\n" + report.toTable() + "```\n";
+                if (report.getCsvFile() != null) {
+                    result += "CSV 已导出: " + report.getCsvFile();
+                }
+                benchMessage.setContent(result);
+                chatHistoryPanel.updateMessage(benchMessage);
+                activeRequests--;
+            },
+            error -> {
+                benchMessage.setContent(header + "❌ " + error);
+                chatHistoryPanel.updateMessage(benchMessage);
+                activeRequests--;
+            }
+        );
+    }
+
+    /**
+     * 添加只在本地显示的消息，不作为对话上下文发送给 API
+     */
+    private void addLocalMessage(ChatMessage message) {
+        message.setLocalOnly(true);
+        chatHistoryPanel.addMessage(message);
+    }
+
     private void sendToDeepSeek(JsonArray message) {
         PluginSettings settings = PluginSettings.getInstance();
         String apiKey = settings.getDeepSeekApiKey();
@@ -145,6 +220,7 @@ public class ChatPanel extends JPanel implements ThemeAware {
         StringBuilder responseBuilder = new StringBuilder();
         StringBuilder reasoningBuilder = new StringBuilder();
 
+        activeRequests++;
         deepSeekService.sendMessageStreamWithReasoning(
             message,
             apiKey,
@@ -152,26 +228,28 @@ public class ChatPanel extends JPanel implements ThemeAware {
                 // 正式内容流式更新
                 responseBuilder.append(chunk);
                 aiMessage.setContent(responseBuilder.toString());
-                chatHistoryPanel.updateLastMessage(aiMessage);
+                chatHistoryPanel.updateMessage(aiMessage);
             },
             reasoningChunk -> {
                 // 推理内容流式更新（仅在启用时）
                 if (settings.isShowReasoningContent()) {
                     reasoningBuilder.append(reasoningChunk);
                     aiMessage.setReasoningContent(reasoningBuilder.toString());
-                    chatHistoryPanel.updateLastMessage(aiMessage);
+                    chatHistoryPanel.updateMessage(aiMessage);
                 }
             },
             fullResponse -> {
                 // 流式完成：确保最终内容正确
                 responseBuilder.append("\n finished!");
                 aiMessage.setContent(responseBuilder.toString());
-                chatHistoryPanel.updateLastMessage(aiMessage);
+                chatHistoryPanel.updateMessage(aiMessage);
+                activeRequests--;
             },
             error -> {
                 // 错误处理：显示错误消息
                 aiMessage.setContent("❌ " + error);
-                chatHistoryPanel.updateLastMessage(aiMessage);
+                chatHistoryPanel.updateMessage(aiMessage);
+                activeRequests--;
             }
         );
     }
@@ -208,6 +286,43 @@ public class ChatPanel extends JPanel implements ThemeAware {
         addWelcomeMessage();
     }
     
+    /**
+     * 标签页可见性变化（选中状态或工具窗口显示状态）
+     * 不可见时流式输出只更新消息模型，重新可见时一次性渲染
+     */
+    public void setTabVisible(boolean visible) {
+        chatHistoryPanel.setRenderingSuspended(!visible);
+    }
+
+    public boolean isTabVisible() {
+        return !chatHistoryPanel.isRenderingSuspended();
+    }
+
+    /**
+     * 是否可以休眠：没有进行中的请求，也没有尚未发送的附件
+     */
+    public boolean canHibernate() {
+        return activeRequests == 0 && !chatInputPanel.hasAttachments();
+    }
+
+    /**
+     * 当前会话的快照（消息和输入框草稿），用于标签页休眠
+     */
+    public ChatTranscript createTranscript() {
+        return new ChatTranscript(chatHistoryPanel.getAllMessages(), chatInputPanel.getCurrentText());
+    }
+
+    /**
+     * 用快照替换当前会话，用于休眠的标签页恢复
+     */
+    public void restoreTranscript(ChatTranscript transcript) {
+        chatHistoryPanel.clearHistory();
+        for (ChatMessage message : transcript.getMessages()) {
+            chatHistoryPanel.addMessage(message);
+        }
+        chatInputPanel.setText(transcript.getDraft());
+    }
+
     /**
      * 设置输入框焦点
      */
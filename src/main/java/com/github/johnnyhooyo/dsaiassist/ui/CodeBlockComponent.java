@@ -1,11 +1,21 @@
 package com.github.johnnyhooyo.dsaiassist.ui;
 
+import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.util.ui.JBUI;
 
 import javax.swing.*;
 import javax.swing.border.Border;
+import javax.swing.plaf.basic.BasicTextAreaUI;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.PlainView;
+import javax.swing.text.Segment;
+import javax.swing.text.Utilities;
+import javax.swing.text.View;
 import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.ActionEvent;
@@ -13,18 +23,49 @@ import java.awt.event.ActionListener;
 
 /**
  * 代码块组件，包含框头、复制按钮和语言标识
+ * 开启语法高亮时，着色区间由 {@link CodeHighlighter} 在后台线程计算，EDT 只负责按区间绘制。
+ * 超过大小阈值的代码块改用 {@link LargeCodeViewer}（只读编辑器，高度固定、内部滚动）。
+ * 以折叠阈值创建的超长代码块先只显示开头和结尾（{@link CollapsedPreview}），展开后才渲染完整代码。
  */
 public class CodeBlockComponent extends JPanel {
+
+    // 超过任一阈值的代码块使用编辑器视图
+    static final int LARGE_BLOCK_LINES = 200;
+    static final int LARGE_BLOCK_CHARS = 20_000;
     
-    private final String code;
+    private final StringBuilder code;
     private final String language;
-    private final JTextArea codeArea;
+    private final HighlightedTextArea codeArea;
+    private final JBScrollPane scrollPane;
+    private LargeCodeViewer viewer;
+    private int lineCount;
+
+    // 折叠时显示的预览；展开后为 null
+    private CollapsedPreview collapsed;
+    private String previewText;
+    private JLabel expandLink;
+    private Runnable onExpanded;
+    // 展开后递增，丢弃针对预览文本计算的高亮结果
+    private int highlightGeneration;
     private JButton copyButton;
     private JBLabel languageLabel;
+
+    // 同一时间只有一个高亮任务，期间的追加和主题变化合并为任务完成后的下一次高亮
+    private boolean highlighting;
+    private boolean highlightPending;
+    private boolean highlightUnsupported;
     
     public CodeBlockComponent(String code, String language) {
-        this.code = code;
+        this(code, language, 0);
+    }
+
+    /**
+     * @param collapseThresholdLines 超过该行数（或按行折算的字符数）时折叠显示，0 表示不折叠
+     */
+    public CodeBlockComponent(String code, String language, int collapseThresholdLines) {
+        this.code = new StringBuilder(code);
         this.language = language != null && !language.trim().isEmpty() ? language.trim() : "text";
+        this.lineCount = countLines(code) + 1;
         
         setLayout(new BorderLayout());
         setBorder(createCodeBlockBorder());
@@ -35,11 +76,23 @@ public class CodeBlockComponent extends JPanel {
         
         // 创建代码区域
         codeArea = createCodeArea();
-        JBScrollPane scrollPane = new JBScrollPane(codeArea);
+        scrollPane = new JBScrollPane(codeArea);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setBorder(JBUI.Borders.empty());
-        add(scrollPane, BorderLayout.CENTER);
+        collapsed = CollapsedPreview.of(code, collapseThresholdLines);
+        if (collapsed != null) {
+            previewText = collapsed.previewText(code);
+            codeArea.setText(previewText);
+            add(scrollPane, BorderLayout.CENTER);
+            expandLink = collapsed.createExpandLink(this::expand);
+            add(expandLink, BorderLayout.SOUTH);
+        } else if (isLarge()) {
+            switchToViewer();
+        } else {
+            codeArea.setText(code);
+            add(scrollPane, BorderLayout.CENTER);
+        }
         
         // 按钮和标签已在createHeaderPanel中创建
         
@@ -83,8 +136,8 @@ public class CodeBlockComponent extends JPanel {
         return button;
     }
     
-    private JTextArea createCodeArea() {
-        JTextArea textArea = new JTextArea(code);
+    private HighlightedTextArea createCodeArea() {
+        HighlightedTextArea textArea = new HighlightedTextArea("");
         textArea.setEditable(false);
         textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
         textArea.setTabSize(4);
@@ -107,7 +160,7 @@ public class CodeBlockComponent extends JPanel {
     
     private void copyCodeToClipboard() {
         try {
-            StringSelection selection = new StringSelection(code);
+            StringSelection selection = new StringSelection(getCode());
             Toolkit.getDefaultToolkit().getSystemClipboard().setContents(selection, null);
             
             // 临时改变按钮文本以提供反馈
@@ -140,6 +193,14 @@ public class CodeBlockComponent extends JPanel {
         if (codeArea != null) {
             codeArea.setBackground(ThemeUtils.getCodeBackgroundColor());
             codeArea.setForeground(ThemeUtils.getCodeTextColor());
+            // 配色方案可能已变化，已是最新结果时不会重新计算
+            requestHighlight();
+        }
+        if (viewer != null) {
+            viewer.updateTheme();
+        }
+        if (expandLink != null) {
+            expandLink.setForeground(ThemeUtils.getTimestampColor());
         }
         
         // 更新框头主题
@@ -162,11 +223,211 @@ public class CodeBlockComponent extends JPanel {
         repaint();
     }
     
+    /**
+     * 在代码末尾追加内容（流式输出时使用），只修改文档末尾，不重建组件
+     */
+    public void appendCode(String delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (collapsed != null) {
+            expand();
+        }
+        code.append(delta);
+        lineCount += countLines(delta);
+        if (viewer != null) {
+            viewer.appendCode(delta);
+            viewer.setViewerHeight(viewerHeight());
+        } else if (isLarge()) {
+            switchToViewer();
+        } else {
+            codeArea.append(delta);
+            requestHighlight();
+        }
+    }
+
+    /**
+     * 展开折叠的代码块，渲染完整代码（超过大小阈值时使用编辑器视图）
+     */
+    void expand() {
+        if (collapsed == null) {
+            return;
+        }
+        collapsed = null;
+        previewText = null;
+        remove(expandLink);
+        expandLink = null;
+        highlightGeneration++;
+        codeArea.highlights = null;
+        if (isLarge()) {
+            switchToViewer();
+        } else {
+            codeArea.setText(code.toString());
+            requestHighlight();
+        }
+        revalidate();
+        repaint();
+        if (onExpanded != null) {
+            onExpanded.run();
+        }
+    }
+
+    /**
+     * 展开后回调（组件高度随之变化）
+     */
+    void setOnExpanded(Runnable onExpanded) {
+        this.onExpanded = onExpanded;
+    }
+
+    boolean isCollapsed() {
+        return collapsed != null;
+    }
+
+    private boolean isLarge() {
+        return lineCount > LARGE_BLOCK_LINES || code.length() > LARGE_BLOCK_CHARS;
+    }
+
+    /**
+     * 切换为编辑器视图，释放文本区域中的内容；流式输出中的代码块越过阈值时也会切换
+     */
+    private void switchToViewer() {
+        remove(scrollPane);
+        codeArea.setText("");
+        codeArea.highlights = null;
+        viewer = new LargeCodeViewer(code, language, viewerHeight());
+        add(viewer, BorderLayout.CENTER);
+        revalidate();
+    }
+
+    private int viewerHeight() {
+        int lineHeight = codeArea.getFontMetrics(codeArea.getFont()).getHeight();
+        return Math.min(JBUI.scale(LargeCodeViewer.MAX_HEIGHT), lineCount * lineHeight + JBUI.scale(20));
+    }
+
+    private static int countLines(String text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 请求在后台重新计算语法高亮；代码只在末尾追加，上一次的结果始终是当前内容的前缀，可以增量继续
+     */
+    private void requestHighlight() {
+        if (viewer != null || highlightUnsupported || !PluginSettings.getInstance().isEnableSyntaxHighlight()) {
+            return;
+        }
+        if (highlighting) {
+            highlightPending = true;
+            return;
+        }
+        // 折叠时高亮的是显示的预览文本
+        CharSequence text = previewText != null ? previewText : code;
+        CodeHighlighter.Highlights current = codeArea.highlights;
+        if (current != null && current.isUpToDate(text.length(),
+                EditorColorsManager.getInstance().getGlobalScheme().getName())) {
+            return;
+        }
+
+        highlighting = true;
+        int generation = highlightGeneration;
+        CodeHighlighter.highlightAsync(language, text.toString(), current, highlights -> {
+            highlighting = false;
+            if (highlights == null) {
+                highlightUnsupported = true;
+                return;
+            }
+            if (generation != highlightGeneration) {
+                // 计算期间预览已展开，按完整代码重新计算
+                highlightPending = false;
+                requestHighlight();
+                return;
+            }
+            if (viewer == null) {
+                codeArea.highlights = highlights;
+                codeArea.repaint();
+            }
+            if (highlightPending) {
+                highlightPending = false;
+                requestHighlight();
+            }
+        });
+    }
+    
     public String getCode() {
-        return code;
+        return code.toString();
     }
     
     public String getLanguage() {
         return language;
     }
+
+    boolean isEditorBacked() {
+        return viewer != null;
+    }
+
+    /**
+     * 按着色区间绘制文本的代码区域，其余行为与 JTextArea 一致（不换行、制表符宽度等）
+     */
+    private static final class HighlightedTextArea extends JTextArea {
+
+        private CodeHighlighter.Highlights highlights;
+
+        HighlightedTextArea(String text) {
+            super(text);
+        }
+
+        @Override
+        public void updateUI() {
+            // 主题切换时外观会重新安装 UI，始终使用带着色视图的 UI
+            setUI(new BasicTextAreaUI() {
+                @Override
+                public View create(Element elem) {
+                    return new HighlightedPlainView(elem);
+                }
+            });
+        }
+    }
+
+    private static final class HighlightedPlainView extends PlainView {
+
+        private final Segment segment = new Segment();
+
+        HighlightedPlainView(Element elem) {
+            super(elem);
+        }
+
+        @Override
+        protected float drawUnselectedText(Graphics2D g, float x, float y, int p0, int p1) throws BadLocationException {
+            CodeHighlighter.Highlights highlights = ((HighlightedTextArea) getContainer()).highlights;
+            if (highlights == null) {
+                return super.drawUnselectedText(g, x, y, p0, p1);
+            }
+            Document doc = getDocument();
+            Color defaultColor = getContainer().getForeground();
+            int index = highlights.indexAfter(p0);
+            int pos = p0;
+            while (pos < p1) {
+                int end;
+                Color color;
+                if (index < highlights.size() && highlights.start(index) <= pos) {
+                    end = Math.min(p1, highlights.end(index));
+                    color = highlights.color(index);
+                    index++;
+                } else {
+                    end = index < highlights.size() ? Math.min(p1, highlights.start(index)) : p1;
+                    color = defaultColor;
+                }
+                g.setColor(color);
+                doc.getText(pos, end - pos, segment);
+                x = Utilities.drawTabbedText(segment, x, y, g, this, pos);
+                pos = end;
+            }
+            return x;
+        }
+    }
 }
@@ -0,0 +1,268 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.colors.EditorColorsScheme;
+import com.intellij.openapi.editor.colors.TextAttributesKey;
+import com.intellij.openapi.editor.markup.TextAttributes;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.fileTypes.FileTypes;
+import com.intellij.openapi.fileTypes.SyntaxHighlighter;
+import com.intellij.openapi.fileTypes.SyntaxHighlighterFactory;
+import com.intellij.psi.tree.IElementType;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 代码块语法高亮
+ * 按代码块的语言标识找到 IDE 对应文件类型的 SyntaxHighlighter，用其词法分析器在后台线程计算着色区间；
+ * 完整结果按（语言、内容哈希、配色方案）缓存，流式输出的代码块从上次结果中最后一个可安全重启的词法位置继续分析。
+ */
+final class CodeHighlighter {
+
+    private static final Logger LOG = Logger.getInstance(CodeHighlighter.class);
+
+    private static final int MAX_CACHE_ENTRIES = 64;
+
+    // 常见的语言标识别名 -> 文件扩展名，其余标识直接当作扩展名查找
+    private static final Map<String, String> EXTENSIONS = new HashMap<>();
+
+    static {
+        EXTENSIONS.put("golang", "go");
+        EXTENSIONS.put("python", "py");
+        EXTENSIONS.put("javascript", "js");
+        EXTENSIONS.put("typescript", "ts");
+        EXTENSIONS.put("bash", "sh");
+        EXTENSIONS.put("shell", "sh");
+        EXTENSIONS.put("zsh", "sh");
+        EXTENSIONS.put("kotlin", "kt");
+        EXTENSIONS.put("yml", "yaml");
+        EXTENSIONS.put("markdown", "md");
+        EXTENSIONS.put("rust", "rs");
+        EXTENSIONS.put("c++", "cpp");
+        EXTENSIONS.put("csharp", "cs");
+    }
+
+    private static final Map<String, Highlights> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Highlights> eldest) {
+            return size() > MAX_CACHE_ENTRIES;
+        }
+    };
+
+    /**
+     * 一段代码的着色结果，构建后不可变；区间按起始位置排序且互不重叠
+     */
+    static final class Highlights {
+        final String language;
+        final String scheme;
+        final int length;
+        private final int[] starts;
+        private final int[] ends;
+        private final Color[] colors;
+        // 词法分析器在此位置处于初始状态，追加内容后可以从这里继续分析，之前的区间保持不变
+        private final int restartOffset;
+        private final int restartSpanCount;
+
+        private Highlights(String language, String scheme, int length, int[] starts, int[] ends, Color[] colors,
+                           int restartOffset, int restartSpanCount) {
+            this.language = language;
+            this.scheme = scheme;
+            this.length = length;
+            this.starts = starts;
+            this.ends = ends;
+            this.colors = colors;
+            this.restartOffset = restartOffset;
+            this.restartSpanCount = restartSpanCount;
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        int start(int index) {
+            return starts[index];
+        }
+
+        int end(int index) {
+            return ends[index];
+        }
+
+        Color color(int index) {
+            return colors[index];
+        }
+
+        /**
+         * 第一个结束位置在 offset 之后的区间下标，没有时返回 size()
+         */
+        int indexAfter(int offset) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        boolean isUpToDate(int length, String scheme) {
+            return this.length == length && this.scheme.equals(scheme);
+        }
+    }
+
+    private CodeHighlighter() {
+    }
+
+    /**
+     * 在后台线程计算着色结果，完成后在 EDT 上回调；语言不支持时回调 null
+     *
+     * @param previous 同一代码块上一次的结果，代码只在末尾追加时用于增量分析，可以为 null
+     */
+    static void highlightAsync(String language, String code, Highlights previous, Consumer<Highlights> onReady) {
+        EditorColorsScheme scheme = EditorColorsManager.getInstance().getGlobalScheme();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            Highlights highlights = null;
+            try {
+                highlights = highlight(language, code, scheme, previous);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to highlight " + language + " code block", e);
+            }
+            Highlights result = highlights;
+            ApplicationManager.getApplication().invokeLater(() -> onReady.accept(result));
+        });
+    }
+
+    /**
+     * 计算着色结果，不访问 Swing 组件，可以在任意线程调用；语言不支持时返回 null
+     */
+    static Highlights highlight(String language, CharSequence code, EditorColorsScheme scheme, Highlights previous) {
+        String schemeName = scheme.getName();
+        boolean incremental = previous != null && previous.language.equals(language)
+                && previous.scheme.equals(schemeName) && previous.length <= code.length();
+        if (incremental && previous.length == code.length()) {
+            return previous;
+        }
+
+        String key = null;
+        if (!incremental) {
+            key = language + '\u0000' + schemeName + '\u0000' + code.length() + '\u0000' + code.toString().hashCode();
+            synchronized (CACHE) {
+                Highlights cached = CACHE.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
+        SyntaxHighlighter highlighter = findHighlighter(language);
+        if (highlighter == null) {
+            return null;
+        }
+        Highlights highlights = lex(highlighter, code, scheme, language, schemeName, incremental ? previous : null);
+        if (key != null) {
+            synchronized (CACHE) {
+                CACHE.put(key, highlights);
+            }
+        }
+        return highlights;
+    }
+
+    /**
+     * 语言标识对应的 IDE 语法高亮器，找不到对应文件类型时返回 null
+     */
+    static SyntaxHighlighter findHighlighter(String language) {
+        FileType fileType = findFileType(language);
+        return fileType != null ? SyntaxHighlighterFactory.getSyntaxHighlighter(fileType, null, null) : null;
+    }
+
+    /**
+     * 语言标识对应的 IDE 文件类型，未知语言和纯文本返回 null
+     */
+    static FileType findFileType(String language) {
+        if (language == null || language.isEmpty() || "text".equals(language)) {
+            return null;
+        }
+        String tag = language.toLowerCase();
+        FileType fileType = FileTypeManager.getInstance().getFileTypeByExtension(EXTENSIONS.getOrDefault(tag, tag));
+        return fileType == FileTypes.UNKNOWN || fileType == FileTypes.PLAIN_TEXT ? null : fileType;
+    }
+
+    private static Highlights lex(SyntaxHighlighter highlighter, CharSequence code, EditorColorsScheme scheme,
+                                  String language, String schemeName, Highlights previous) {
+        int length = code.length();
+        int startOffset = previous != null ? previous.restartOffset : 0;
+        int count = previous != null ? previous.restartSpanCount : 0;
+        int capacity = Math.max(16, count * 2);
+        int[] starts = previous != null ? Arrays.copyOf(previous.starts, capacity) : new int[capacity];
+        int[] ends = previous != null ? Arrays.copyOf(previous.ends, capacity) : new int[capacity];
+        Color[] colors = previous != null ? Arrays.copyOf(previous.colors, capacity) : new Color[capacity];
+
+        // 最后一行可能还不完整，只把之前的位置作为重启点，避免词法分析器的向前查看受未到达内容影响
+        int lastLineStart = length;
+        while (lastLineStart > 0 && code.charAt(lastLineStart - 1) != '\n') {
+            lastLineStart--;
+        }
+        int restartOffset = startOffset;
+        int restartSpanCount = count;
+
+        Map<IElementType, Color> tokenColors = new HashMap<>();
+        Lexer lexer = highlighter.getHighlightingLexer();
+        lexer.start(code, startOffset, length, 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            int tokenStart = lexer.getTokenStart();
+            if (lexer.getState() == 0 && tokenStart <= lastLineStart) {
+                restartOffset = tokenStart;
+                restartSpanCount = count;
+            }
+            Color color;
+            if (tokenColors.containsKey(type)) {
+                color = tokenColors.get(type);
+            } else {
+                color = foreground(highlighter.getTokenHighlights(type), scheme);
+                tokenColors.put(type, color);
+            }
+            if (color != null) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                    colors = Arrays.copyOf(colors, count * 2);
+                }
+                starts[count] = tokenStart;
+                ends[count] = lexer.getTokenEnd();
+                colors[count] = color;
+                count++;
+            }
+            lexer.advance();
+        }
+
+        return new Highlights(language, schemeName, length, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count),
+                Arrays.copyOf(colors, count), restartOffset, restartSpanCount);
+    }
+
+    /**
+     * 多个属性键按顺序叠加，后面的前景色覆盖前面的
+     */
+    private static Color foreground(TextAttributesKey[] keys, EditorColorsScheme scheme) {
+        Color color = null;
+        for (TextAttributesKey key : keys) {
+            TextAttributes attributes = scheme.getAttributes(key);
+            if (attributes != null && attributes.getForegroundColor() != null) {
+                color = attributes.getForegroundColor();
+            }
+        }
+        return color;
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * 超长内容的折叠预览：只保留开头和结尾的若干行，中间部分在用户展开时才渲染
+ * 行数或字符数超过阈值（字符阈值按每行 {@link #CHARS_PER_LINE} 个字符折算）的内容才折叠。
+ * 折叠范围的计算可以在任意线程调用，展开控件只在 EDT 上创建。
+ */
+final class CollapsedPreview {
+
+    static final int HEAD_LINES = 20;
+    static final int TAIL_LINES = 10;
+    // 单行很长（压缩过的 JSON、日志等）时按字符数截断
+    static final int HEAD_CHARS = 2_000;
+    static final int TAIL_CHARS = 1_000;
+    static final int CHARS_PER_LINE = 100;
+
+    final int headEnd;
+    final int tailStart;
+    final int hiddenLines;
+    final int hiddenChars;
+
+    private CollapsedPreview(int headEnd, int tailStart, int hiddenLines, int hiddenChars) {
+        this.headEnd = headEnd;
+        this.tailStart = tailStart;
+        this.hiddenLines = hiddenLines;
+        this.hiddenChars = hiddenChars;
+    }
+
+    /**
+     * 计算折叠范围；阈值不大于 0（未启用）或内容未超过阈值时返回 null
+     */
+    static CollapsedPreview of(CharSequence text, int thresholdLines) {
+        if (thresholdLines <= 0) {
+            return null;
+        }
+        int length = text.length();
+        boolean tooLong = length > (long) thresholdLines * CHARS_PER_LINE;
+        if (!tooLong && countLines(text, 0, length) + 1 <= thresholdLines) {
+            return null;
+        }
+
+        // 开头：前 HEAD_LINES 行（含换行符），最多 HEAD_CHARS 个字符
+        int headEnd = 0;
+        for (int lines = 0; headEnd < length && lines < HEAD_LINES; ) {
+            if (text.charAt(headEnd++) == '\n') {
+                lines++;
+            }
+        }
+        headEnd = Math.min(headEnd, HEAD_CHARS);
+
+        // 结尾：后 TAIL_LINES 行（不计末尾的换行符），最多 TAIL_CHARS 个字符
+        int tailStart = length > 0 && text.charAt(length - 1) == '\n' ? length - 1 : length;
+        for (int lines = 0; tailStart > 0; tailStart--) {
+            if (text.charAt(tailStart - 1) == '\n' && ++lines == TAIL_LINES) {
+                break;
+            }
+        }
+        tailStart = Math.max(tailStart, length - TAIL_CHARS);
+
+        if (tailStart <= headEnd) {
+            return null;
+        }
+        return new CollapsedPreview(headEnd, tailStart, countLines(text, headEnd, tailStart), tailStart - headEnd);
+    }
+
+    /**
+     * 展开控件上的文字
+     */
+    String expandLabel() {
+        return "⋯ 展开其余 " + Math.max(1, hiddenLines) + " 行（" + hiddenChars + " 字）";
+    }
+
+    /**
+     * 创建“展开其余 N 行”控件，点击时回调
+     */
+    JLabel createExpandLink(Runnable onExpand) {
+        JLabel link = new JLabel(expandLabel());
+        link.setFont(new Font(Font.SANS_SERIF, Font.ITALIC, 11));
+        link.setForeground(ThemeUtils.getTimestampColor());
+        link.setBorder(JBUI.Borders.empty(2, 10));
+        link.setAlignmentX(Component.LEFT_ALIGNMENT);
+        link.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        link.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                onExpand.run();
+            }
+        });
+        return link;
+    }
+
+    /**
+     * 开头和结尾之间插入省略行后的预览文本
+     */
+    String previewText(CharSequence text) {
+        return stripTrailingNewline(text.subSequence(0, headEnd)) + "\n⋯\n" + text.subSequence(tailStart, text.length());
+    }
+
+    static String stripTrailingNewline(CharSequence text) {
+        int end = text.length();
+        return end > 0 && text.charAt(end - 1) == '\n' ? text.subSequence(0, end - 1).toString() : text.toString();
+    }
+
+    private static int countLines(CharSequence text, int start, int end) {
+        int lines = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
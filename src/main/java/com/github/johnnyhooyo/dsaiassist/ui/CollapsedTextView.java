@@ -0,0 +1,102 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 折叠显示的超长文本块（例如粘贴的大段堆栈）
+ * 只为开头和结尾创建文本面板，中间的内容在点击“展开”后才插入文档。只在 EDT 上使用。
+ */
+final class CollapsedTextView extends JPanel {
+
+    private final List<MarkdownRenderer.StyledRun> runs;
+    private final MarkdownStyles styles;
+    private final Runnable onExpanded;
+    private final JLabel expandLink;
+    private boolean expanded;
+
+    /**
+     * @param text       样式片段拼接后的文本，折叠范围按它计算
+     * @param onExpanded 展开后回调（组件高度随之变化）
+     */
+    CollapsedTextView(List<MarkdownRenderer.StyledRun> runs, String text, CollapsedPreview preview,
+                      MarkdownStyles styles, Runnable onExpanded) {
+        this.runs = runs;
+        this.styles = styles;
+        this.onExpanded = onExpanded;
+        setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+        setOpaque(false);
+        setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        int headEnd = preview.headEnd;
+        if (headEnd > 0 && text.charAt(headEnd - 1) == '\n') {
+            headEnd--;
+        }
+        add(createPane(slice(runs, 0, headEnd)));
+        expandLink = preview.createExpandLink(this::expand);
+        add(expandLink);
+        add(createPane(slice(runs, preview.tailStart, text.length())));
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+    }
+
+    void expand() {
+        if (expanded) {
+            return;
+        }
+        expanded = true;
+        removeAll();
+        add(createPane(runs));
+        revalidate();
+        repaint();
+        onExpanded.run();
+    }
+
+    boolean isExpanded() {
+        return expanded;
+    }
+
+    void updateTheme() {
+        expandLink.setForeground(ThemeUtils.getTimestampColor());
+    }
+
+    private JTextPane createPane(List<MarkdownRenderer.StyledRun> content) {
+        JTextPane textPane = MessageView.createTextPane();
+        try {
+            MarkdownRenderer.appendRuns(content, textPane.getStyledDocument(), styles);
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        return textPane;
+    }
+
+    /**
+     * 截取样式片段中 [start, end) 范围内的文本，保留各片段的样式
+     */
+    static List<MarkdownRenderer.StyledRun> slice(List<MarkdownRenderer.StyledRun> runs, int start, int end) {
+        List<MarkdownRenderer.StyledRun> sliced = new ArrayList<>();
+        int offset = 0;
+        for (MarkdownRenderer.StyledRun run : runs) {
+            int runStart = offset;
+            int runEnd = offset + run.text.length();
+            offset = runEnd;
+            if (runEnd <= start) {
+                continue;
+            }
+            if (runStart >= end) {
+                break;
+            }
+            int from = Math.max(start, runStart) - runStart;
+            int to = Math.min(end, runEnd) - runStart;
+            sliced.add(from == 0 && to == run.text.length() ? run
+                    : new MarkdownRenderer.StyledRun(run.text.substring(from, to), run.kind));
+        }
+        return sliced;
+    }
+}
@@ -6,39 +6,43 @@ import com.intellij.ui.components.JBScrollPane;
 import com.intellij.util.ui.JBUI;
 
 import javax.swing.*;
-import javax.swing.text.*;
 import java.awt.*;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 增强的聊天历史面板，支持代码块组件
+ * 消息的新增和更新先登记为待渲染，由 {@link RenderScheduler} 每帧合并应用一次；
+ * 只有视口原本停在底部时才自动滚动，用户向上翻阅时不会被拉回底部。
+ * 所在标签页不可见时暂停渲染，变化只累积在消息模型中，重新可见时一次性渲染最终状态。
  */
-public class EnhancedChatHistoryPanel extends JPanel implements ThemeAware {
+public class EnhancedChatHistoryPanel extends JPanel implements ChatHistoryView, ThemeAware {
     
     private final List<ChatMessage> messages = new ArrayList<>();
-    private final JPanel contentPanel;
+    private final VirtualizedMessageList messageList;
     private final JBScrollPane scrollPane;
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-    
-    // 代码块正则表达式
-    private static final Pattern CODE_BLOCK_PATTERN = Pattern.compile("```(\\w*)\\n([\\s\\S]*?)```");
+    private final RenderScheduler renderScheduler = new RenderScheduler(this::renderFrame);
+
+    // 尚未交给消息列表的新消息，以及已在列表中、内容有变化的最后一条消息和更早的消息（按下标）
+    private final List<ChatMessage> pendingMessages = new ArrayList<>();
+    private ChatMessage dirtyLastMessage;
+    private final BitSet dirtyMessages = new BitSet();
+    // 下一帧是否无条件滚动到底部（用户自己发送消息时）
+    private boolean forceScrollToBottom;
+    // 所在标签页或工具窗口不可见时为 true，此时不调度任何渲染帧
+    private boolean renderingSuspended;
     
     public EnhancedChatHistoryPanel() {
         super(new BorderLayout());
 
-        // 创建内容面板
-        contentPanel = new JPanel();
-        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
-
-        // 添加底部弹性空间，确保内容从顶部开始排列
-        addBottomGlue();
+        // 创建虚拟化的消息列表，只为可见范围内的消息创建组件
+        messageList = new VirtualizedMessageList();
 
         // 创建滚动面板
-        scrollPane = new JBScrollPane(contentPanel);
+        scrollPane = new JBScrollPane(messageList);
         scrollPane.setVerticalScrollBarPolicy(JBScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JBScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.setBorder(BorderFactory.createCompoundBorder(
@@ -50,289 +54,182 @@ public class EnhancedChatHistoryPanel extends JPanel implements ThemeAware {
         updateTheme();
 
         // 注册主题变化监听
-        ThemeChangeListener.getInstance().registerComponent(this);
+        ThemeChangeListener.getInstance().registerComponent(this, this);
+    }
+
+    @Override
+    public void dispose() {
+        renderScheduler.cancel();
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return this;
     }
     
     private void setupLayout() {
         add(scrollPane, BorderLayout.CENTER);
         setBorder(ThemeUtils.getNoBorder());
     }
-
-    /**
-     * 添加底部弹性空间，确保内容从顶部开始排列
-     */
-    private void addBottomGlue() {
-        contentPanel.add(Box.createVerticalGlue());
-    }
-
-    /**
-     * 移除底部弹性空间
-     */
-    private void removeBottomGlue() {
-        Component[] components = contentPanel.getComponents();
-        for (int i = components.length - 1; i >= 0; i--) {
-            if (components[i] instanceof Box.Filler) {
-                contentPanel.remove(i);
-                break;
-            }
-        }
-    }
     
     @Override
     public void updateTheme() {
         setBackground(ThemeUtils.getBackgroundColor());
-        contentPanel.setBackground(ThemeUtils.getBackgroundColor());
+        messageList.setBackground(ThemeUtils.getBackgroundColor());
         scrollPane.setBackground(ThemeUtils.getBackgroundColor());
         scrollPane.getViewport().setBackground(ThemeUtils.getBackgroundColor());
         
-        // 更新所有代码块组件的主题
-        updateCodeBlockThemes();
+        // 只更新可见消息中代码块组件的主题
+        messageList.updateTheme();
         
         repaint();
     }
     
-    private void updateCodeBlockThemes() {
-        Component[] components = contentPanel.getComponents();
-        for (Component component : components) {
-            if (component instanceof JPanel) {
-                updatePanelCodeBlocks((JPanel) component);
-            }
-        }
-    }
-    
-    private void updatePanelCodeBlocks(JPanel panel) {
-        Component[] components = panel.getComponents();
-        for (Component component : components) {
-            if (component instanceof CodeBlockComponent) {
-                ((CodeBlockComponent) component).updateTheme();
-            } else if (component instanceof JPanel) {
-                updatePanelCodeBlocks((JPanel) component);
-            }
-        }
-    }
-    
     /**
      * 添加聊天消息到历史记录
      */
     public void addMessage(ChatMessage message) {
         messages.add(message);
-
-        // 移除底部弹性空间
-        removeBottomGlue();
-
-        // 渲染消息
-        renderMessage(message);
-
-        // 重新添加底部弹性空间
-        addBottomGlue();
-
-        scrollToBottom();
+        pendingMessages.add(message);
+        if (message.isUser()) {
+            forceScrollToBottom = true;
+        }
+        requestFrame();
     }
     
     /**
      * 更新最后一条消息
+     * 流式输出时复用最后一条消息的组件，只追加新增内容；同一帧内的多次更新只渲染最后一次
      */
     public void updateLastMessage(ChatMessage message) {
         if (!messages.isEmpty()) {
             messages.set(messages.size() - 1, message);
-
-            // 移除底部弹性空间
-            removeBottomGlue();
-
-            // 移除最后一个消息组件（不包括弹性空间）
-            Component[] components = contentPanel.getComponents();
-            for (int i = components.length - 1; i >= 0; i--) {
-                if (!(components[i] instanceof Box.Filler)) {
-                    contentPanel.remove(i);
-                    break;
-                }
+            if (!pendingMessages.isEmpty()) {
+                // 最后一条消息还没有交给消息列表，直接替换
+                pendingMessages.set(pendingMessages.size() - 1, message);
+            } else {
+                dirtyLastMessage = message;
             }
-
-            // 重新渲染消息
-            renderMessage(message);
-
-            // 重新添加底部弹性空间
-            addBottomGlue();
-
-            scrollToBottom();
+            requestFrame();
         }
     }
-    
+
     /**
-     * 渲染单条消息
+     * 按身份更新消息
+     * 最后一条消息走流式输出的增量路径；更早的、已交给消息列表的消息登记下标，下一帧重新渲染
      */
-    private void renderMessage(ChatMessage message) {
-        JPanel messagePanel = new JPanel();
-        messagePanel.setLayout(new BoxLayout(messagePanel, BoxLayout.Y_AXIS));
-        messagePanel.setBackground(ThemeUtils.getBackgroundColor());
-        messagePanel.setBorder(JBUI.Borders.empty(5, 0));
-
-        // 设置面板对齐方式
-        messagePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        // 添加时间戳和发送者
-        String timeStr = message.getTimestamp().format(timeFormatter);
-        String sender = message.isUser() ? "您" : "AI助手";
-        JLabel headerLabel = new JLabel("[" + timeStr + "] " + sender + ":");
-        headerLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 10));
-        headerLabel.setForeground(ThemeUtils.getTimestampColor());
-        headerLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        messagePanel.add(headerLabel);
-        
-        // 如果是AI消息且有推理内容，先显示推理内容
-        if (!message.isUser() && message.hasReasoningContent() && PluginSettings.getInstance().isShowReasoningContent()) {
-            addReasoningContent(messagePanel, message.getReasoningContent());
+    @Override
+    public void updateMessage(ChatMessage message) {
+        int index = indexOf(message);
+        if (index < 0) {
+            return;
         }
-        
-        // 添加消息内容
-        addMessageContent(messagePanel, message.getContent(), message.isUser());
-
-        // 设置面板最大尺寸，防止垂直拉伸
-        messagePanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, messagePanel.getPreferredSize().height));
-
-        contentPanel.add(messagePanel);
-        contentPanel.revalidate();
-        contentPanel.repaint();
+        if (index == messages.size() - 1) {
+            updateLastMessage(message);
+            return;
+        }
+        if (index < messages.size() - pendingMessages.size()) {
+            dirtyMessages.set(index);
+        }
+        // 还在待渲染列表中的消息渲染时直接读取最新内容
+        requestFrame();
     }
-    
-    /**
-     * 添加推理内容
-     */
-    private void addReasoningContent(JPanel messagePanel, String reasoningContent) {
-        JLabel reasoningLabel = new JLabel("🤔 推理过程：");
-        reasoningLabel.setFont(new Font(Font.SANS_SERIF, Font.ITALIC, 11));
-        reasoningLabel.setForeground(ThemeUtils.getTimestampColor());
-        reasoningLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        messagePanel.add(reasoningLabel);
-        
-        CodeBlockComponent reasoningBlock = new CodeBlockComponent(reasoningContent, "reasoning");
-        reasoningBlock.setAlignmentX(Component.LEFT_ALIGNMENT);
-        reasoningBlock.setMaximumSize(new Dimension(Integer.MAX_VALUE, reasoningBlock.getPreferredSize().height));
-        messagePanel.add(reasoningBlock);
-        
-        // 添加间距
-        messagePanel.add(Box.createVerticalStrut(10));
+
+    private int indexOf(ChatMessage message) {
+        // 通常更新的是最近的消息，从后往前找
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) == message) {
+                return i;
+            }
+        }
+        return -1;
     }
-    
+
     /**
-     * 添加消息内容（支持代码块）
+     * 暂停或恢复渲染
+     * 暂停期间新增和更新的消息只登记，不占用 EDT；恢复时把累积的变化合并为一帧立即渲染
      */
-    private void addMessageContent(JPanel messagePanel, String content, boolean isUser) {
-        if (content == null || content.trim().isEmpty()) {
+    public void setRenderingSuspended(boolean suspended) {
+        if (renderingSuspended == suspended) {
             return;
         }
-        
-        // 解析代码块
-        List<ContentPart> parts = parseContentWithCodeBlocks(content);
-        
-        for (ContentPart part : parts) {
-            if (part.isCodeBlock) {
-                // 添加代码块组件
-                CodeBlockComponent codeBlock = new CodeBlockComponent(part.content, part.language);
-                codeBlock.setAlignmentX(Component.LEFT_ALIGNMENT);
-                codeBlock.setMaximumSize(new Dimension(Integer.MAX_VALUE, codeBlock.getPreferredSize().height));
-                messagePanel.add(codeBlock);
-                messagePanel.add(Box.createVerticalStrut(5));
-            } else {
-                // 添加普通文本
-                if (!part.content.trim().isEmpty()) {
-                    JTextPane textPane = createTextPane(part.content, isUser);
-                    textPane.setAlignmentX(Component.LEFT_ALIGNMENT);
-                    messagePanel.add(textPane);
-                    messagePanel.add(Box.createVerticalStrut(5));
-                }
-            }
+        renderingSuspended = suspended;
+        if (suspended) {
+            // 已登记的变化保留，恢复时再渲染
+            renderScheduler.cancel();
+        } else if (!pendingMessages.isEmpty() || dirtyLastMessage != null || !dirtyMessages.isEmpty()) {
+            renderFrame();
         }
     }
-    
+
+    public boolean isRenderingSuspended() {
+        return renderingSuspended;
+    }
+
+    int getRenderedMessageCount() {
+        return messageList.getMessageCount();
+    }
+
+    private void requestFrame() {
+        if (!renderingSuspended) {
+            renderScheduler.requestFrame();
+        }
+    }
+
     /**
-     * 解析内容，分离代码块和普通文本
+     * 每帧执行一次：应用登记的变化，布局一次，按需滚动到底部
      */
-    private List<ContentPart> parseContentWithCodeBlocks(String content) {
-        List<ContentPart> parts = new ArrayList<>();
-        Matcher matcher = CODE_BLOCK_PATTERN.matcher(content);
-        int lastEnd = 0;
-        
-        while (matcher.find()) {
-            // 添加代码块前的文本
-            if (matcher.start() > lastEnd) {
-                String textContent = content.substring(lastEnd, matcher.start());
-                if (!textContent.trim().isEmpty()) {
-                    parts.add(new ContentPart(textContent, false, null));
-                }
-            }
-            
-            // 添加代码块
-            String language = matcher.group(1);
-            String codeContent = matcher.group(2);
-            parts.add(new ContentPart(codeContent, true, language));
-            
-            lastEnd = matcher.end();
+    private void renderFrame() {
+        boolean scroll = forceScrollToBottom || isPinnedToBottom();
+        forceScrollToBottom = false;
+
+        for (int i = dirtyMessages.nextSetBit(0); i >= 0; i = dirtyMessages.nextSetBit(i + 1)) {
+            messageList.updateMessage(i, messages.get(i));
         }
-        
-        // 添加剩余文本
-        if (lastEnd < content.length()) {
-            String textContent = content.substring(lastEnd);
-            if (!textContent.trim().isEmpty()) {
-                parts.add(new ContentPart(textContent, false, null));
-            }
+        dirtyMessages.clear();
+        if (dirtyLastMessage != null) {
+            messageList.updateLastMessage(dirtyLastMessage);
+            dirtyLastMessage = null;
         }
-        
-        // 如果没有代码块，整个内容作为文本
-        if (parts.isEmpty()) {
-            parts.add(new ContentPart(content, false, null));
+        for (ChatMessage message : pendingMessages) {
+            messageList.addMessage(message);
+        }
+        pendingMessages.clear();
+
+        // 本帧唯一的一次布局，之后滚动条范围已是最新
+        scrollPane.validate();
+        if (scroll) {
+            scrollToBottom();
         }
-        
-        return parts;
     }
-    
+
     /**
-     * 创建文本面板
+     * 视口当前是否停在底部（允许少量误差）
      */
-    private JTextPane createTextPane(String content, boolean isUser) {
-        JTextPane textPane = new JTextPane();
-        textPane.setEditable(false);
-        textPane.setOpaque(false);
-        textPane.setBorder(JBUI.Borders.empty(5));
-        
-        // 设置样式
-        StyledDocument doc = textPane.getStyledDocument();
-        SimpleAttributeSet style = new SimpleAttributeSet();
-        StyleConstants.setFontFamily(style, Font.SANS_SERIF);
-        StyleConstants.setFontSize(style, 12);
-        StyleConstants.setForeground(style, isUser ? ThemeUtils.getUserMessageColor() : ThemeUtils.getAIMessageColor());
-        
-        try {
-            doc.insertString(0, content, style);
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-        
-        return textPane;
+    boolean isPinnedToBottom() {
+        JScrollBar verticalBar = scrollPane.getVerticalScrollBar();
+        return verticalBar.getValue() + verticalBar.getVisibleAmount() >= verticalBar.getMaximum() - JBUI.scale(16);
     }
     
     /**
      * 滚动到底部
      */
     private void scrollToBottom() {
-        SwingUtilities.invokeLater(() -> {
-            JScrollBar verticalBar = scrollPane.getVerticalScrollBar();
-            verticalBar.setValue(verticalBar.getMaximum());
-        });
+        JScrollBar verticalBar = scrollPane.getVerticalScrollBar();
+        verticalBar.setValue(verticalBar.getMaximum());
     }
-    
+
     /**
      * 清空聊天历史
      */
     public void clearHistory() {
+        renderScheduler.cancel();
+        pendingMessages.clear();
+        dirtyLastMessage = null;
+        dirtyMessages.clear();
+        forceScrollToBottom = false;
         messages.clear();
-        contentPanel.removeAll();
-
-        // 重新添加底部弹性空间
-        addBottomGlue();
-
-        contentPanel.revalidate();
-        contentPanel.repaint();
+        messageList.clear();
     }
     
     /**
@@ -360,19 +257,4 @@ public class EnhancedChatHistoryPanel extends JPanel implements ThemeAware {
         }
         return sb.toString();
     }
-    
-    /**
-     * 内容部分类
-     */
-    private static class ContentPart {
-        final String content;
-        final boolean isCodeBlock;
-        final String language;
-        
-        ContentPart(String content, boolean isCodeBlock, String language) {
-            this.content = content;
-            this.isCodeBlock = isCodeBlock;
-            this.language = language;
-        }
-    }
 }
@@ -0,0 +1,137 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.EditorSettings;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.highlighter.EditorHighlighterFactory;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * 大代码块的只读编辑器视图
+ * 高度固定（内部滚动），编辑器在第一次绘制（即滚动进可见区域）时才创建，移出组件树时释放；
+ * 大文档的渲染、折叠和语法高亮交给平台编辑器完成。只在 EDT 上使用。
+ */
+final class LargeCodeViewer extends JPanel {
+
+    static final int MAX_HEIGHT = 400;
+
+    // 与 CodeBlockComponent 共享的代码内容，只在末尾追加
+    private final CharSequence code;
+    private final String language;
+    private int viewerHeight;
+
+    private EditorEx editor;
+    private boolean creationScheduled;
+
+    LargeCodeViewer(CharSequence code, String language, int viewerHeight) {
+        super(new BorderLayout());
+        this.code = code;
+        this.language = language;
+        this.viewerHeight = viewerHeight;
+        setBackground(ThemeUtils.getCodeBackgroundColor());
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        // 高度不依赖文本测量，大代码块不会拖慢整个历史面板的布局
+        return new Dimension(0, viewerHeight);
+    }
+
+    void setViewerHeight(int viewerHeight) {
+        if (this.viewerHeight != viewerHeight) {
+            this.viewerHeight = viewerHeight;
+            revalidate();
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (editor == null && !creationScheduled) {
+            // 只有进入可见区域的组件才会被绘制，此时再创建编辑器
+            creationScheduled = true;
+            ApplicationManager.getApplication().invokeLater(this::createEditor);
+        }
+    }
+
+    private void createEditor() {
+        creationScheduled = false;
+        if (editor != null || !isShowing()) {
+            return;
+        }
+        EditorFactory factory = EditorFactory.getInstance();
+        Document document = factory.createDocument(StringUtil.convertLineSeparators(code.toString()));
+        editor = (EditorEx) factory.createViewer(document);
+
+        EditorSettings settings = editor.getSettings();
+        settings.setLineNumbersShown(true);
+        settings.setFoldingOutlineShown(true);
+        settings.setLineMarkerAreaShown(false);
+        settings.setGutterIconsShown(false);
+        settings.setAdditionalLinesCount(0);
+        settings.setAdditionalColumnsCount(0);
+        settings.setCaretRowShown(false);
+        settings.setRightMarginShown(false);
+        settings.setUseSoftWraps(false);
+
+        FileType fileType = CodeHighlighter.findFileType(language);
+        if (fileType != null && PluginSettings.getInstance().isEnableSyntaxHighlight()) {
+            editor.setHighlighter(EditorHighlighterFactory.getInstance().createEditorHighlighter(null, fileType));
+        }
+        editor.setBorder(JBUI.Borders.empty());
+        editor.setBackgroundColor(ThemeUtils.getCodeBackgroundColor());
+
+        add(editor.getComponent(), BorderLayout.CENTER);
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * 流式输出时追加代码；编辑器尚未创建时只需等创建时读取完整内容
+     */
+    void appendCode(String delta) {
+        if (editor == null) {
+            return;
+        }
+        Document document = editor.getDocument();
+        String text = StringUtil.convertLineSeparators(delta);
+        ApplicationManager.getApplication().runWriteAction(
+                () -> document.insertString(document.getTextLength(), text));
+    }
+
+    void updateTheme() {
+        setBackground(ThemeUtils.getCodeBackgroundColor());
+        if (editor != null) {
+            editor.setBackgroundColor(ThemeUtils.getCodeBackgroundColor());
+            editor.reinitSettings();
+        }
+    }
+
+    boolean hasEditor() {
+        return editor != null;
+    }
+
+    @Override
+    public void removeNotify() {
+        // 移出组件树（消息被虚拟列表回收、重新排列等）时立即释放编辑器，再次显示时重新创建
+        releaseEditor();
+        super.removeNotify();
+    }
+
+    private void releaseEditor() {
+        if (editor == null) {
+            return;
+        }
+        remove(editor.getComponent());
+        EditorFactory.getInstance().releaseEditor(editor);
+        editor = null;
+    }
+}
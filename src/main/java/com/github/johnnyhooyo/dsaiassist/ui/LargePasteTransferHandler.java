@@ -0,0 +1,67 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import javax.swing.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.InputEvent;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * 输入框的粘贴处理：超过阈值的文本（粘贴或拖入）交给回调作为附件，不插入文档
+ * 其余的导入、复制和拖出都交给输入框原有的 TransferHandler。
+ */
+final class LargePasteTransferHandler extends TransferHandler {
+
+    private final TransferHandler delegate;
+    private final IntSupplier thresholdChars;
+    private final Consumer<String> onLargePaste;
+
+    /**
+     * @param thresholdChars 每次粘贴时读取的字符数阈值，不大于 0 时不转换
+     */
+    LargePasteTransferHandler(TransferHandler delegate, IntSupplier thresholdChars, Consumer<String> onLargePaste) {
+        this.delegate = delegate;
+        this.thresholdChars = thresholdChars;
+        this.onLargePaste = onLargePaste;
+    }
+
+    @Override
+    public boolean canImport(TransferSupport support) {
+        return delegate.canImport(support);
+    }
+
+    @Override
+    public boolean importData(TransferSupport support) {
+        int threshold = thresholdChars.getAsInt();
+        if (threshold > 0 && support.isDataFlavorSupported(DataFlavor.stringFlavor)) {
+            try {
+                String text = (String) support.getTransferable().getTransferData(DataFlavor.stringFlavor);
+                if (text != null && text.length() > threshold) {
+                    onLargePaste.accept(text);
+                    return true;
+                }
+            } catch (UnsupportedFlavorException | IOException e) {
+                // 读取失败时按原有方式导入
+            }
+        }
+        return delegate.importData(support);
+    }
+
+    @Override
+    public int getSourceActions(JComponent c) {
+        return delegate.getSourceActions(c);
+    }
+
+    @Override
+    public void exportAsDrag(JComponent comp, InputEvent e, int action) {
+        delegate.exportAsDrag(comp, e, action);
+    }
+
+    @Override
+    public void exportToClipboard(JComponent comp, Clipboard clip, int action) throws IllegalStateException {
+        delegate.exportToClipboard(comp, clip, action);
+    }
+}
@@ -0,0 +1,384 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 面向流式输出的增量 Markdown 块解析器
+ * 把文本切分为段落、标题、列表和围栏代码块。已经结束的块（稳定前缀）解析一次后缓存，
+ * 之后每次追加内容只从尚未结束的末尾块开始重新解析。
+ * <p>
+ * 只有完整的行（以换行结尾）才能结束前面的块；最后一行不完整时只做临时解析，
+ * 看起来可能是代码块围栏的不完整行会暂缓输出，避免围栏先以普通文本闪现。
+ */
+class MarkdownBlockParser {
+
+    enum BlockType {
+        PARAGRAPH, HEADING, LIST, CODE
+    }
+
+    /**
+     * 解析出的块，不可变
+     */
+    static final class Block {
+        final BlockType type;
+        final String text;
+        final String language;
+        final int start;
+        final boolean closed;
+        final boolean blankLineBefore;
+
+        Block(BlockType type, String text, String language, int start, boolean closed, boolean blankLineBefore) {
+            this.type = type;
+            this.text = text;
+            this.language = language;
+            this.start = start;
+            this.closed = closed;
+            this.blankLineBefore = blankLineBefore;
+        }
+
+        boolean isCode() {
+            return type == BlockType.CODE;
+        }
+
+        /**
+         * 内容是否相同（不比较在原文中的位置，内容被编辑后位置通常会移动）
+         */
+        boolean sameContent(Block other) {
+            return type == other.type && closed == other.closed && blankLineBefore == other.blankLineBefore
+                    && text.equals(other.text) && Objects.equals(language, other.language);
+        }
+
+        int contentHash() {
+            return Objects.hash(type, text, language, closed, blankLineBefore);
+        }
+
+        @Override
+        public String toString() {
+            return type + (language != null && !language.isEmpty() ? "(" + language + ")" : "") +
+                    (closed ? "" : "*") + ":" + text;
+        }
+    }
+
+    private static final String FENCE = "```";
+
+    private final StringBuilder source = new StringBuilder();
+    private final List<Block> stableBlocks = new ArrayList<>();
+    private List<Block> tailBlocks = Collections.emptyList();
+
+    // 末尾块在 source 中的起始位置，以及它前面是否有空行
+    private int tailStart;
+    private boolean tailAfterBlankLine;
+
+    // 未关闭的代码块可能很长，已解析的完整行保留下来，下次从未解析的位置继续
+    private BlockBuilder openCode;
+    private int openCodeResume;
+
+    MarkdownBlockParser() {
+    }
+
+    /**
+     * 复制解析状态：在后台线程解析后交给 EDT 继续增量解析时使用
+     */
+    MarkdownBlockParser(MarkdownBlockParser other) {
+        source.append(other.source);
+        stableBlocks.addAll(other.stableBlocks);
+        tailBlocks = other.tailBlocks;
+        tailStart = other.tailStart;
+        tailAfterBlankLine = other.tailAfterBlankLine;
+        openCode = other.openCode != null ? other.openCode.copy() : null;
+        openCodeResume = other.openCodeResume;
+    }
+
+    /**
+     * 一次性解析完整文本
+     */
+    static List<Block> parse(String text) {
+        MarkdownBlockParser parser = new MarkdownBlockParser();
+        parser.append(text);
+        return parser.getBlocks();
+    }
+
+    /**
+     * 按消息的最新完整内容更新：新内容以已解析内容为前缀时只解析增量，否则从头解析
+     */
+    void update(String content) {
+        if (isPrefixOf(content)) {
+            appendRest(content);
+        } else {
+            reset();
+            append(content);
+        }
+    }
+
+    /**
+     * 追加 content 中已解析内容之后的部分，调用方已确认 {@link #isPrefixOf(String)}
+     */
+    void appendRest(String content) {
+        if (content.length() > source.length()) {
+            source.append(content, source.length(), content.length());
+            parseTail();
+        }
+    }
+
+    void append(String delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        source.append(delta);
+        parseTail();
+    }
+
+    void reset() {
+        source.setLength(0);
+        stableBlocks.clear();
+        tailBlocks = Collections.emptyList();
+        tailStart = 0;
+        tailAfterBlankLine = false;
+        openCode = null;
+        openCodeResume = 0;
+    }
+
+    /**
+     * 已经结束、不会再变化的块
+     */
+    List<Block> getStableBlocks() {
+        return Collections.unmodifiableList(stableBlocks);
+    }
+
+    /**
+     * 尚未结束的末尾块（0 到 2 个），随后续输入变化
+     */
+    List<Block> getTailBlocks() {
+        return tailBlocks;
+    }
+
+    List<Block> getBlocks() {
+        List<Block> blocks = new ArrayList<>(stableBlocks.size() + tailBlocks.size());
+        blocks.addAll(stableBlocks);
+        blocks.addAll(tailBlocks);
+        return blocks;
+    }
+
+    int getSourceLength() {
+        return source.length();
+    }
+
+    /**
+     * content 是否以已解析的内容开头
+     * 逐字比较全部已解析内容，不创建字符串；从末尾往前比较，原地改写的内容（重新生成、基准测试进度）通常在靠后的位置就能发现不同。
+     */
+    boolean isPrefixOf(String content) {
+        int length = source.length();
+        if (content.length() < length) {
+            return false;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            if (source.charAt(i) != content.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从末尾块的起始位置重新解析
+     */
+    private void parseTail() {
+        BlockBuilder current = null;
+        boolean blankLineBefore = tailAfterBlankLine;
+        int position = tailStart;
+        if (openCode != null) {
+            current = openCode;
+            position = openCodeResume;
+            blankLineBefore = false;
+        }
+
+        while (position < source.length()) {
+            int newline = source.indexOf("\n", position);
+            boolean complete = newline >= 0;
+            int lineEnd = complete ? newline : source.length();
+            String line = source.substring(position, lineEnd);
+
+            if (!complete) {
+                // 不完整的末尾行：只做临时解析，结果不进入稳定前缀
+                tailBlocks = tentativeTail(current, line, position, blankLineBefore);
+                return;
+            }
+
+            int nextLine = newline + 1;
+            if (current != null && current.type == BlockType.CODE) {
+                if (isClosingFence(line)) {
+                    stableBlocks.add(current.build(true));
+                    current = null;
+                    openCode = null;
+                    markStable(nextLine, false);
+                    blankLineBefore = false;
+                } else {
+                    current.appendCodeLine(line);
+                    openCodeResume = nextLine;
+                }
+            } else if (line.trim().isEmpty()) {
+                if (current != null) {
+                    stableBlocks.add(current.build(true));
+                    current = null;
+                }
+                markStable(nextLine, true);
+                blankLineBefore = true;
+            } else if (line.stripLeading().startsWith(FENCE)) {
+                if (current != null) {
+                    stableBlocks.add(current.build(true));
+                }
+                current = BlockBuilder.code(position, fenceLanguage(line), blankLineBefore);
+                openCode = current;
+                openCodeResume = nextLine;
+                markStable(position, blankLineBefore);
+                blankLineBefore = false;
+            } else if (isHeading(line)) {
+                if (current != null) {
+                    stableBlocks.add(current.build(true));
+                    current = null;
+                }
+                stableBlocks.add(new Block(BlockType.HEADING, line, null, position, true, blankLineBefore));
+                markStable(nextLine, false);
+                blankLineBefore = false;
+            } else if (isListItem(line)) {
+                if (current == null || current.type != BlockType.LIST) {
+                    if (current != null) {
+                        stableBlocks.add(current.build(true));
+                    }
+                    current = new BlockBuilder(BlockType.LIST, position, null, blankLineBefore);
+                    markStable(position, blankLineBefore);
+                    blankLineBefore = false;
+                }
+                current.appendTextLine(line);
+            } else if (current != null && (current.type == BlockType.PARAGRAPH
+                    || (current.type == BlockType.LIST && Character.isWhitespace(line.charAt(0))))) {
+                // 段落续行，或列表项的缩进续行
+                current.appendTextLine(line);
+            } else {
+                if (current != null) {
+                    stableBlocks.add(current.build(true));
+                }
+                current = new BlockBuilder(BlockType.PARAGRAPH, position, null, blankLineBefore);
+                markStable(position, blankLineBefore);
+                blankLineBefore = false;
+                current.appendTextLine(line);
+            }
+            position = nextLine;
+        }
+
+        tailBlocks = current != null ? List.of(current.build(false)) : Collections.emptyList();
+    }
+
+    private List<Block> tentativeTail(BlockBuilder current, String line, int position, boolean blankLineBefore) {
+        List<Block> tail = new ArrayList<>(2);
+        if (current != null && current.type == BlockType.CODE) {
+            // 可能是结束围栏的不完整行先不输出；openCode 会跨调用保留，这里不能修改它
+            String text = isPossibleFence(line) ? current.text.toString() : current.text + line;
+            tail.add(new Block(BlockType.CODE, text, current.language, current.start, false, current.blankLineBefore));
+            return tail;
+        }
+        if (isPossibleFence(line) || line.trim().isEmpty()) {
+            if (current != null) {
+                tail.add(current.build(false));
+            }
+            return tail;
+        }
+
+        boolean startsNewBlock = isHeading(line)
+                || (isListItem(line) && (current == null || current.type != BlockType.LIST));
+        if (current != null && !startsNewBlock) {
+            current.appendTextLine(line);
+            tail.add(current.build(false));
+            return tail;
+        }
+        if (current != null) {
+            tail.add(current.build(false));
+        }
+        BlockType type = isHeading(line) ? BlockType.HEADING
+                : isListItem(line) ? BlockType.LIST : BlockType.PARAGRAPH;
+        tail.add(new Block(type, line, null, position, false, current == null && blankLineBefore));
+        return tail;
+    }
+
+    private void markStable(int start, boolean afterBlankLine) {
+        tailStart = start;
+        tailAfterBlankLine = afterBlankLine;
+    }
+
+    private static boolean isHeading(String line) {
+        return MarkdownTokenizer.headingContentStart(line, 0, line.length()) >= 0;
+    }
+
+    private static boolean isListItem(String line) {
+        return MarkdownTokenizer.listItemContentStart(line, 0, line.length()) >= 0;
+    }
+
+    private static boolean isClosingFence(String line) {
+        String trimmed = line.trim();
+        return trimmed.startsWith(FENCE) && trimmed.chars().allMatch(c -> c == '`');
+    }
+
+    /**
+     * 不完整的行是否可能是代码块围栏：只含反引号（最多三个），或以 ``` 开头
+     */
+    private static boolean isPossibleFence(String line) {
+        String trimmed = line.stripLeading();
+        if (trimmed.startsWith(FENCE)) {
+            return true;
+        }
+        return !trimmed.isEmpty() && trimmed.length() < FENCE.length() && trimmed.chars().allMatch(c -> c == '`');
+    }
+
+    private static String fenceLanguage(String line) {
+        String info = line.stripLeading().substring(FENCE.length()).trim();
+        int space = info.indexOf(' ');
+        return space >= 0 ? info.substring(0, space) : info;
+    }
+
+    /**
+     * 解析过程中的可变块
+     */
+    private static final class BlockBuilder {
+        final BlockType type;
+        final int start;
+        final String language;
+        final boolean blankLineBefore;
+        final StringBuilder text = new StringBuilder();
+
+        BlockBuilder(BlockType type, int start, String language, boolean blankLineBefore) {
+            this.type = type;
+            this.start = start;
+            this.language = language;
+            this.blankLineBefore = blankLineBefore;
+        }
+
+        static BlockBuilder code(int start, String language, boolean blankLineBefore) {
+            return new BlockBuilder(BlockType.CODE, start, language, blankLineBefore);
+        }
+
+        void appendTextLine(String line) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(line);
+        }
+
+        void appendCodeLine(String line) {
+            text.append(line).append('\n');
+        }
+
+        BlockBuilder copy() {
+            BlockBuilder copy = new BlockBuilder(type, start, language, blankLineBefore);
+            copy.text.append(text);
+            return copy;
+        }
+
+        Block build(boolean closed) {
+            return new Block(type, text.toString(), language, start, closed, blankLineBefore);
+        }
+    }
+}
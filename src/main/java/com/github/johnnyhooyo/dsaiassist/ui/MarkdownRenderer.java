@@ -1,24 +1,17 @@
 package com.github.johnnyhooyo.dsaiassist.ui;
 
 import javax.swing.text.*;
-import java.awt.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Markdown渲染器 - 将Markdown文本转换为富文本样式
+ * 块级结构由 {@link MarkdownBlockParser} 切分，行内格式由 {@link MarkdownTokenizer} 单遍扫描；
+ * 文本属性来自按主题缓存的 {@link MarkdownStyles}，渲染时不再向文档添加样式。
  */
 public class MarkdownRenderer {
-    
-    // Markdown模式
-    private static final Pattern BOLD_PATTERN = Pattern.compile("\\*\\*(.*?)\\*\\*");
-    private static final Pattern ITALIC_PATTERN = Pattern.compile("\\*(.*?)\\*");
-    private static final Pattern CODE_INLINE_PATTERN = Pattern.compile("`(.*?)`");
-    private static final Pattern CODE_BLOCK_PATTERN = Pattern.compile("```(.*?)```", Pattern.DOTALL);
-    private static final Pattern HEADER_PATTERN = Pattern.compile("^(#{1,6})\\s+(.*)$", Pattern.MULTILINE);
-    private static final Pattern LIST_PATTERN = Pattern.compile("^[\\s]*[-*+]\\s+(.*)$", Pattern.MULTILINE);
-    private static final Pattern NUMBERED_LIST_PATTERN = Pattern.compile("^[\\s]*\\d+\\.\\s+(.*)$", Pattern.MULTILINE);
-    
+
     /**
      * 将Markdown文本渲染到StyledDocument
      */
@@ -26,214 +19,157 @@ public class MarkdownRenderer {
         try {
             // 清空文档
             doc.remove(0, doc.getLength());
-            
-            // 创建基础样式
-            Style baseStyle = createBaseStyle(doc, isUser);
-            Style boldStyle = createBoldStyle(doc, isUser);
-            Style italicStyle = createItalicStyle(doc, isUser);
-            Style codeStyle = createCodeStyle(doc, isUser);
-            Style headerStyle = createHeaderStyle(doc, isUser);
-            Style listStyle = createListStyle(doc, isUser);
-            
-            // 处理代码块（优先处理，避免被其他格式干扰）
-            String processedText = processCodeBlocks(markdown, doc, codeStyle);
-            
-            // 处理其他格式
-            processFormatting(processedText, doc, baseStyle, boldStyle, italicStyle, codeStyle, headerStyle, listStyle);
-            
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        appendMarkdown(markdown, doc, isUser);
+    }
+
+    /**
+     * 将Markdown文本追加到StyledDocument末尾
+     */
+    public static void appendMarkdown(String markdown, StyledDocument doc, boolean isUser) {
+        appendMarkdown(markdown, doc, MarkdownStyles.of(isUser));
+    }
+
+    static void appendMarkdown(String markdown, StyledDocument doc, MarkdownStyles styles) {
+        int start = doc.getLength();
+        try {
+            for (MarkdownBlockParser.Block block : MarkdownBlockParser.parse(markdown)) {
+                if (doc.getLength() > start) {
+                    doc.insertString(doc.getLength(), block.blankLineBefore ? "\n\n" : "\n", styles.base);
+                }
+                if (block.isCode()) {
+                    doc.insertString(doc.getLength(), block.text, styles.code);
+                } else {
+                    appendBlock(block, doc, styles);
+                }
+            }
         } catch (BadLocationException e) {
             // 如果渲染失败，回退到纯文本
             try {
-                doc.remove(0, doc.getLength());
-                doc.insertString(0, markdown, createBaseStyle(doc, isUser));
+                doc.remove(start, doc.getLength() - start);
+                doc.insertString(start, markdown, styles.base);
             } catch (BadLocationException ex) {
                 ex.printStackTrace();
             }
         }
     }
-    
+
     /**
-     * 处理代码块
+     * 把一个文本块（段落、标题、列表）追加到文档末尾；代码块由调用方渲染为独立组件
      */
-    private static String processCodeBlocks(String text, StyledDocument doc, Style codeStyle) {
-        Matcher matcher = CODE_BLOCK_PATTERN.matcher(text);
-        StringBuilder result = new StringBuilder();
-        int lastEnd = 0;
-        
-        while (matcher.find()) {
-            // 添加代码块前的文本
-            result.append(text, lastEnd, matcher.start());
-            
-            // 添加代码块标记（稍后处理）
-            result.append("__CODE_BLOCK_").append(matcher.group(1)).append("__");
-            
-            lastEnd = matcher.end();
-        }
-        
-        result.append(text.substring(lastEnd));
-        return result.toString();
+    static void appendBlock(MarkdownBlockParser.Block block, StyledDocument doc, MarkdownStyles styles) throws BadLocationException {
+        appendRuns(toRuns(block), doc, styles);
     }
-    
+
     /**
-     * 处理其他格式
+     * 把样式片段依次追加到文档末尾
      */
-    private static void processFormatting(String text, StyledDocument doc, Style baseStyle, 
-                                        Style boldStyle, Style italicStyle, Style codeStyle,
-                                        Style headerStyle, Style listStyle) throws BadLocationException {
-        
-        String[] lines = text.split("\n");
-        
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i];
-            
-            // 处理标题
-            Matcher headerMatcher = HEADER_PATTERN.matcher(line);
-            if (headerMatcher.matches()) {
-                String headerText = headerMatcher.group(2);
-                doc.insertString(doc.getLength(), headerText + "\n", headerStyle);
-                continue;
-            }
-            
-            // 处理列表
-            Matcher listMatcher = LIST_PATTERN.matcher(line);
-            Matcher numberedListMatcher = NUMBERED_LIST_PATTERN.matcher(line);
-            if (listMatcher.matches()) {
-                doc.insertString(doc.getLength(), "• " + listMatcher.group(1) + "\n", listStyle);
-                continue;
-            } else if (numberedListMatcher.matches()) {
-                doc.insertString(doc.getLength(), "• " + numberedListMatcher.group(1) + "\n", listStyle);
-                continue;
-            }
-            
-            // 处理代码块标记
-            if (line.startsWith("__CODE_BLOCK_")) {
-                String codeContent = line.substring(13, line.length() - 2); // 移除标记
-                doc.insertString(doc.getLength(), codeContent + "\n", codeStyle);
-                continue;
-            }
-            
-            // 处理行内格式
-            processInlineFormatting(line, doc, baseStyle, boldStyle, italicStyle, codeStyle);
-            
-            // 添加换行（除了最后一行）
-            if (i < lines.length - 1) {
-                doc.insertString(doc.getLength(), "\n", baseStyle);
-            }
+    static void appendRuns(List<StyledRun> runs, StyledDocument doc, MarkdownStyles styles) throws BadLocationException {
+        for (StyledRun run : runs) {
+            doc.insertString(doc.getLength(), run.text, styles.get(run.kind));
         }
     }
-    
+
     /**
-     * 处理行内格式
+     * 把文本块转换为样式片段，不访问文档和主题，可以在后台线程调用
      */
-    private static void processInlineFormatting(String line, StyledDocument doc, Style baseStyle,
-                                              Style boldStyle, Style italicStyle, Style codeStyle) throws BadLocationException {
-        
-        int pos = 0;
-        
-        // 简化处理：按顺序查找各种格式
-        while (pos < line.length()) {
-            int nextBold = findNext(line, pos, BOLD_PATTERN);
-            int nextItalic = findNext(line, pos, ITALIC_PATTERN);
-            int nextCode = findNext(line, pos, CODE_INLINE_PATTERN);
-            
-            // 找到最近的格式
-            int nextFormat = Math.min(Math.min(nextBold, nextItalic), nextCode);
-            
-            if (nextFormat == Integer.MAX_VALUE) {
-                // 没有更多格式，添加剩余文本
-                doc.insertString(doc.getLength(), line.substring(pos), baseStyle);
-                break;
+    static List<StyledRun> toRuns(MarkdownBlockParser.Block block) {
+        RunBuilder runs = new RunBuilder();
+        String text = block.text;
+        switch (block.type) {
+            case HEADING -> {
+                int contentStart = MarkdownTokenizer.headingContentStart(text, 0, text.length());
+                runs.add(contentStart >= 0 ? text.substring(contentStart) : text, MarkdownStyles.Kind.HEADER);
             }
-            
-            // 添加格式前的普通文本
-            if (nextFormat > pos) {
-                doc.insertString(doc.getLength(), line.substring(pos, nextFormat), baseStyle);
-            }
-            
-            // 处理格式化文本
-            if (nextFormat == nextBold) {
-                Matcher matcher = BOLD_PATTERN.matcher(line.substring(nextFormat));
-                if (matcher.find()) {
-                    doc.insertString(doc.getLength(), matcher.group(1), boldStyle);
-                    pos = nextFormat + matcher.end();
-                }
-            } else if (nextFormat == nextItalic) {
-                Matcher matcher = ITALIC_PATTERN.matcher(line.substring(nextFormat));
-                if (matcher.find()) {
-                    doc.insertString(doc.getLength(), matcher.group(1), italicStyle);
-                    pos = nextFormat + matcher.end();
+            case LIST -> {
+                int lineStart = 0;
+                while (lineStart <= text.length()) {
+                    int lineEnd = lineEnd(text, lineStart);
+                    if (lineStart > 0) {
+                        runs.add("\n", MarkdownStyles.Kind.LIST);
+                    }
+                    int contentStart = MarkdownTokenizer.listItemContentStart(text, lineStart, lineEnd);
+                    if (contentStart >= 0) {
+                        runs.add("• " + text.substring(contentStart, lineEnd), MarkdownStyles.Kind.LIST);
+                    } else {
+                        // 列表项的缩进续行
+                        runs.add(text.substring(lineStart, lineEnd).trim(), MarkdownStyles.Kind.LIST);
+                    }
+                    lineStart = lineEnd + 1;
                 }
-            } else if (nextFormat == nextCode) {
-                Matcher matcher = CODE_INLINE_PATTERN.matcher(line.substring(nextFormat));
-                if (matcher.find()) {
-                    doc.insertString(doc.getLength(), matcher.group(1), codeStyle);
-                    pos = nextFormat + matcher.end();
+            }
+            default -> {
+                int lineStart = 0;
+                while (lineStart <= text.length()) {
+                    int lineEnd = lineEnd(text, lineStart);
+                    if (lineStart > 0) {
+                        runs.add("\n", MarkdownStyles.Kind.BASE);
+                    }
+                    // 处理行内格式
+                    MarkdownTokenizer.scanInline(text, lineStart, lineEnd, (type, spanStart, spanEnd) -> runs.add(
+                            text.substring(spanStart, spanEnd),
+                            switch (type) {
+                                case BOLD -> MarkdownStyles.Kind.BOLD;
+                                case ITALIC -> MarkdownStyles.Kind.ITALIC;
+                                case CODE -> MarkdownStyles.Kind.CODE;
+                                default -> MarkdownStyles.Kind.BASE;
+                            }));
+                    lineStart = lineEnd + 1;
                 }
             }
         }
+        return runs.build();
+    }
+
+    private static int lineEnd(String text, int lineStart) {
+        int newline = text.indexOf('\n', lineStart);
+        return newline >= 0 ? newline : text.length();
     }
-    
+
     /**
-     * 查找下一个匹配位置
+     * 带样式类别的文本片段，不可变
      */
-    private static int findNext(String text, int start, Pattern pattern) {
-        Matcher matcher = pattern.matcher(text.substring(start));
-        return matcher.find() ? start + matcher.start() : Integer.MAX_VALUE;
-    }
-    
-    // 样式创建方法
-    private static Style createBaseStyle(StyledDocument doc, boolean isUser) {
-        Style style = doc.addStyle("base", null);
-        StyleConstants.setFontFamily(style, Font.SANS_SERIF);
-        StyleConstants.setFontSize(style, 12);
-        StyleConstants.setForeground(style, isUser ? ThemeUtils.getUserMessageColor() : ThemeUtils.getAIMessageColor());
-        return style;
-    }
-    
-    private static Style createBoldStyle(StyledDocument doc, boolean isUser) {
-        Style style = doc.addStyle("bold", null);
-        StyleConstants.setFontFamily(style, Font.SANS_SERIF);
-        StyleConstants.setFontSize(style, 12);
-        StyleConstants.setBold(style, true);
-        StyleConstants.setForeground(style, isUser ? ThemeUtils.getUserMessageColor() : ThemeUtils.getAIMessageColor());
-        return style;
-    }
-    
-    private static Style createItalicStyle(StyledDocument doc, boolean isUser) {
-        Style style = doc.addStyle("italic", null);
-        StyleConstants.setFontFamily(style, Font.SANS_SERIF);
-        StyleConstants.setFontSize(style, 12);
-        StyleConstants.setItalic(style, true);
-        StyleConstants.setForeground(style, isUser ? ThemeUtils.getUserMessageColor() : ThemeUtils.getAIMessageColor());
-        return style;
-    }
-    
-    private static Style createCodeStyle(StyledDocument doc, boolean isUser) {
-        Style style = doc.addStyle("code", null);
-        StyleConstants.setFontFamily(style, Font.MONOSPACED);
-        StyleConstants.setFontSize(style, 11);
-        StyleConstants.setBackground(style, ThemeUtils.isDarkTheme() ? 
-            new Color(40, 40, 40) : new Color(245, 245, 245));
-        StyleConstants.setForeground(style, ThemeUtils.isDarkTheme() ? 
-            new Color(200, 200, 200) : new Color(50, 50, 50));
-        return style;
-    }
-    
-    private static Style createHeaderStyle(StyledDocument doc, boolean isUser) {
-        Style style = doc.addStyle("header", null);
-        StyleConstants.setFontFamily(style, Font.SANS_SERIF);
-        StyleConstants.setFontSize(style, 14);
-        StyleConstants.setBold(style, true);
-        StyleConstants.setForeground(style, isUser ? ThemeUtils.getUserMessageColor() : ThemeUtils.getAIMessageColor());
-        return style;
+    static final class StyledRun {
+        final String text;
+        final MarkdownStyles.Kind kind;
+
+        StyledRun(String text, MarkdownStyles.Kind kind) {
+            this.text = text;
+            this.kind = kind;
+        }
     }
-    
-    private static Style createListStyle(StyledDocument doc, boolean isUser) {
-        Style style = doc.addStyle("list", null);
-        StyleConstants.setFontFamily(style, Font.SANS_SERIF);
-        StyleConstants.setFontSize(style, 12);
-        StyleConstants.setLeftIndent(style, 20);
-        StyleConstants.setForeground(style, isUser ? ThemeUtils.getUserMessageColor() : ThemeUtils.getAIMessageColor());
-        return style;
+
+    /**
+     * 收集样式片段，相邻的同类片段合并，减少插入文档的次数
+     */
+    private static final class RunBuilder {
+        private final List<StyledRun> runs = new ArrayList<>();
+        private final StringBuilder pending = new StringBuilder();
+        private MarkdownStyles.Kind pendingKind;
+
+        void add(String text, MarkdownStyles.Kind kind) {
+            if (text.isEmpty()) {
+                return;
+            }
+            if (kind != pendingKind) {
+                flush();
+                pendingKind = kind;
+            }
+            pending.append(text);
+        }
+
+        List<StyledRun> build() {
+            flush();
+            return Collections.unmodifiableList(runs);
+        }
+
+        private void flush() {
+            if (pending.length() > 0) {
+                runs.add(new StyledRun(pending.toString(), pendingKind));
+                pending.setLength(0);
+            }
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.*;
+
+/**
+ * Markdown 渲染使用的文本属性
+ * 每个主题只为用户消息和 AI 消息各构建一次，在所有文档之间共享，构建后不再修改；
+ * 主题变化时由 {@link ThemeChangeListener} 清除缓存，下次使用时按新主题重建。
+ */
+final class MarkdownStyles {
+
+    /**
+     * 文本片段的样式类别，渲染模型只记录类别，由 EDT 在插入文档时换成当前主题的属性
+     */
+    enum Kind {
+        BASE, BOLD, ITALIC, CODE, HEADER, LIST
+    }
+
+    private static volatile MarkdownStyles userStyles;
+    private static volatile MarkdownStyles aiStyles;
+
+    final AttributeSet base;
+    final AttributeSet bold;
+    final AttributeSet italic;
+    final AttributeSet code;
+    final AttributeSet header;
+    final AttributeSet list;
+
+    MarkdownStyles(Color textColor, Color codeBackground, Color codeForeground) {
+        base = textStyle(textColor, 12);
+
+        SimpleAttributeSet boldStyle = textStyle(textColor, 12);
+        StyleConstants.setBold(boldStyle, true);
+        bold = boldStyle;
+
+        SimpleAttributeSet italicStyle = textStyle(textColor, 12);
+        StyleConstants.setItalic(italicStyle, true);
+        italic = italicStyle;
+
+        SimpleAttributeSet codeStyle = new SimpleAttributeSet();
+        StyleConstants.setFontFamily(codeStyle, Font.MONOSPACED);
+        StyleConstants.setFontSize(codeStyle, 11);
+        StyleConstants.setBackground(codeStyle, codeBackground);
+        StyleConstants.setForeground(codeStyle, codeForeground);
+        code = codeStyle;
+
+        SimpleAttributeSet headerStyle = textStyle(textColor, 14);
+        StyleConstants.setBold(headerStyle, true);
+        header = headerStyle;
+
+        SimpleAttributeSet listStyle = textStyle(textColor, 12);
+        StyleConstants.setLeftIndent(listStyle, 20);
+        list = listStyle;
+    }
+
+    /**
+     * 当前主题下用户消息或 AI 消息的样式
+     */
+    static MarkdownStyles of(boolean isUser) {
+        MarkdownStyles styles = isUser ? userStyles : aiStyles;
+        if (styles == null) {
+            boolean dark = ThemeUtils.isDarkTheme();
+            styles = new MarkdownStyles(
+                    isUser ? ThemeUtils.getUserMessageColor() : ThemeUtils.getAIMessageColor(),
+                    dark ? new Color(40, 40, 40) : new Color(245, 245, 245),
+                    dark ? new Color(200, 200, 200) : new Color(50, 50, 50));
+            if (isUser) {
+                userStyles = styles;
+            } else {
+                aiStyles = styles;
+            }
+        }
+        return styles;
+    }
+
+    AttributeSet get(Kind kind) {
+        return switch (kind) {
+            case BOLD -> bold;
+            case ITALIC -> italic;
+            case CODE -> code;
+            case HEADER -> header;
+            case LIST -> list;
+            default -> base;
+        };
+    }
+
+    /**
+     * 主题变化后清除缓存
+     */
+    static void invalidate() {
+        userStyles = null;
+        aiStyles = null;
+    }
+
+    private static SimpleAttributeSet textStyle(Color color, int fontSize) {
+        SimpleAttributeSet style = new SimpleAttributeSet();
+        StyleConstants.setFontFamily(style, Font.SANS_SERIF);
+        StyleConstants.setFontSize(style, fontSize);
+        StyleConstants.setForeground(style, color);
+        return style;
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+/**
+ * 手写的单遍 Markdown 词法扫描器
+ * 行内格式（粗体、斜体、行内代码）和块级标记（标题、列表项）都直接在原始文本上按下标扫描，
+ * 不创建子串和正则 Matcher；调用方通过下标区间取用结果。
+ */
+final class MarkdownTokenizer {
+
+    enum InlineType {
+        TEXT, BOLD, ITALIC, CODE
+    }
+
+    /**
+     * 接收行内扫描结果，区间为 [start, end)
+     */
+    interface InlineHandler {
+        void span(InlineType type, int start, int end);
+    }
+
+    private MarkdownTokenizer() {
+    }
+
+    /**
+     * 扫描 [start, end) 区间内的行内格式
+     * 规则与原正则实现一致：**粗体**、*斜体*、`代码`，同一位置粗体优先；找不到结束标记的符号按普通文本输出。
+     * 每种结束标记查找失败后记录下来，之后不再重复查找，保证整行扫描是线性的。
+     */
+    static void scanInline(CharSequence text, int start, int end, InlineHandler handler) {
+        int textStart = start;
+        int pos = start;
+        boolean noBoldClose = false;
+        boolean noStarClose = false;
+        boolean noTickClose = false;
+
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c == '*') {
+                if (!noBoldClose && pos + 1 < end && text.charAt(pos + 1) == '*') {
+                    int close = indexOf(text, "**", pos + 2, end);
+                    if (close >= 0) {
+                        emitText(handler, textStart, pos);
+                        handler.span(InlineType.BOLD, pos + 2, close);
+                        pos = close + 2;
+                        textStart = pos;
+                        continue;
+                    }
+                    noBoldClose = true;
+                }
+                if (!noStarClose) {
+                    int close = indexOf(text, '*', pos + 1, end);
+                    if (close >= 0) {
+                        emitText(handler, textStart, pos);
+                        handler.span(InlineType.ITALIC, pos + 1, close);
+                        pos = close + 1;
+                        textStart = pos;
+                        continue;
+                    }
+                    noStarClose = true;
+                }
+            } else if (c == '`' && !noTickClose) {
+                int close = indexOf(text, '`', pos + 1, end);
+                if (close >= 0) {
+                    emitText(handler, textStart, pos);
+                    handler.span(InlineType.CODE, pos + 1, close);
+                    pos = close + 1;
+                    textStart = pos;
+                    continue;
+                }
+                noTickClose = true;
+            }
+            pos++;
+        }
+        emitText(handler, textStart, end);
+    }
+
+    /**
+     * 标题行（1 到 6 个 # 后跟空白）的正文起始下标，不是标题时返回 -1
+     */
+    static int headingContentStart(CharSequence line, int start, int end) {
+        int pos = start;
+        while (pos < end && line.charAt(pos) == '#') {
+            pos++;
+        }
+        int level = pos - start;
+        if (level < 1 || level > 6) {
+            return -1;
+        }
+        return skipRequiredWhitespace(line, pos, end);
+    }
+
+    /**
+     * 列表项（-、*、+ 或 "数字." 后跟空白，允许前导空白）的正文起始下标，不是列表项时返回 -1
+     */
+    static int listItemContentStart(CharSequence line, int start, int end) {
+        int pos = start;
+        while (pos < end && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= end) {
+            return -1;
+        }
+        char c = line.charAt(pos);
+        if (c == '-' || c == '*' || c == '+') {
+            return skipRequiredWhitespace(line, pos + 1, end);
+        }
+        int digits = pos;
+        while (pos < end && Character.isDigit(line.charAt(pos))) {
+            pos++;
+        }
+        if (pos == digits || pos >= end || line.charAt(pos) != '.') {
+            return -1;
+        }
+        return skipRequiredWhitespace(line, pos + 1, end);
+    }
+
+    private static int skipRequiredWhitespace(CharSequence line, int pos, int end) {
+        if (pos >= end || !Character.isWhitespace(line.charAt(pos))) {
+            return -1;
+        }
+        while (pos < end && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static void emitText(InlineHandler handler, int start, int end) {
+        if (end > start) {
+            handler.span(InlineType.TEXT, start, end);
+        }
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence text, String marker, int from, int end) {
+        int last = end - marker.length();
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < marker.length(); j++) {
+                if (text.charAt(i + j) != marker.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
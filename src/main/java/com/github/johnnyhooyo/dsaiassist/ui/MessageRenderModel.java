@@ -0,0 +1,126 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 消息内容的渲染模型，构建后不可变
+ * 代码块切分、Markdown 词法扫描和代码语言识别都在构建时完成，可以放在后台线程执行；
+ * EDT 只需要把模型中的块转换为组件，大消息不会再阻塞编辑器输入。
+ */
+final class MessageRenderModel {
+
+    /**
+     * 单个块的渲染数据：文本块带有样式片段，代码块带有识别后的语言
+     */
+    static final class RenderBlock {
+        final MarkdownBlockParser.Block block;
+        final List<MarkdownRenderer.StyledRun> runs;
+        final String language;
+
+        private RenderBlock(MarkdownBlockParser.Block block, List<MarkdownRenderer.StyledRun> runs, String language) {
+            this.block = block;
+            this.runs = runs;
+            this.language = language;
+        }
+    }
+
+    final String content;
+    final boolean markdown;
+    final List<RenderBlock> stableBlocks;
+    final List<RenderBlock> tailBlocks;
+
+    // 解析器状态只读保留，EDT 通过 newParser() 取得副本继续增量解析
+    private final MarkdownBlockParser parser;
+
+    private MessageRenderModel(String content, boolean markdown, MarkdownBlockParser parser) {
+        this.content = content;
+        this.markdown = markdown;
+        this.parser = parser;
+        this.stableBlocks = prepareAll(parser.getStableBlocks(), markdown);
+        this.tailBlocks = prepareAll(parser.getTailBlocks(), markdown);
+    }
+
+    /**
+     * 构建渲染模型，不访问 Swing 组件和主题，可以在任意线程调用
+     */
+    static MessageRenderModel build(String content, boolean markdown) {
+        MarkdownBlockParser parser = new MarkdownBlockParser();
+        parser.update(content);
+        return new MessageRenderModel(content, markdown, parser);
+    }
+
+    /**
+     * 在后台线程构建渲染模型，完成后在 EDT 上回调
+     */
+    static void buildAsync(String content, boolean markdown, Consumer<MessageRenderModel> onReady) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            MessageRenderModel model = build(content, markdown);
+            ApplicationManager.getApplication().invokeLater(() -> onReady.accept(model));
+        });
+    }
+
+    /**
+     * 准备单个块的渲染数据（流式输出时增量解析出的新块使用）
+     */
+    static RenderBlock prepare(MarkdownBlockParser.Block block, boolean markdown) {
+        if (block.isCode()) {
+            // 未标注语言的代码块在关闭后才识别，避免流式输出过程中识别结果来回变化
+            String language = block.language != null && !block.language.isEmpty() ? block.language
+                    : block.closed ? detectLanguage(block.text) : "";
+            return new RenderBlock(block, Collections.emptyList(), language);
+        }
+        List<MarkdownRenderer.StyledRun> runs = markdown
+                ? MarkdownRenderer.toRuns(block)
+                : List.of(new MarkdownRenderer.StyledRun(block.text, MarkdownStyles.Kind.BASE));
+        return new RenderBlock(block, runs, null);
+    }
+
+    /**
+     * 与模型内容一致的解析器副本，用于在 EDT 上继续增量解析后续内容
+     */
+    MarkdownBlockParser newParser() {
+        return new MarkdownBlockParser(parser);
+    }
+
+    private static List<RenderBlock> prepareAll(List<MarkdownBlockParser.Block> blocks, boolean markdown) {
+        List<RenderBlock> prepared = new ArrayList<>(blocks.size());
+        for (MarkdownBlockParser.Block block : blocks) {
+            prepared.add(prepare(block, markdown));
+        }
+        return Collections.unmodifiableList(prepared);
+    }
+
+    /**
+     * 围栏没有标注语言时按代码特征粗略识别，识别不出返回空字符串
+     */
+    static String detectLanguage(String code) {
+        String trimmed = code.stripLeading();
+        if (trimmed.startsWith("package ") || code.contains("func ") || code.contains(":= ")) {
+            return code.contains("public class ") || code.contains("import java.") ? "java" : "go";
+        }
+        if (code.contains("public class ") || code.contains("import java.") || code.contains("System.out.")) {
+            return "java";
+        }
+        if ((code.contains("def ") && code.contains(":\n")) || (trimmed.startsWith("import ") && !code.contains(";"))) {
+            return "python";
+        }
+        if (code.contains("function ") || code.contains("const ") || code.contains("=> ")) {
+            return "javascript";
+        }
+        if (trimmed.startsWith("#!/bin/") || trimmed.startsWith("$ ")) {
+            return "bash";
+        }
+        if ((trimmed.startsWith("{") || trimmed.startsWith("[")) && code.contains("\":")) {
+            return "json";
+        }
+        if (trimmed.regionMatches(true, 0, "select ", 0, 7) || trimmed.regionMatches(true, 0, "create table", 0, 12)) {
+            return "sql";
+        }
+        return "";
+    }
+}
@@ -0,0 +1,669 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import javax.swing.text.*;
+import java.awt.*;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单条聊天消息的视图
+ * 内容由 {@link MarkdownBlockParser} 增量解析：已经结束的块只渲染一次，流式输出时每次只撤销并重绘
+ * 尚未结束的末尾块。相邻的文本块共用一个文本面板；未关闭的代码块渲染为可追加的代码块组件，
+ * 后续片段直接追加到该组件中。
+ * <p>
+ * 绑定超长消息（例如恢复的会话中几千行的回复）时，解析和 Markdown 词法扫描在后台线程完成并生成
+ * {@link MessageRenderModel}，EDT 只负责把模型转换为组件，期间先显示占位文本。
+ * <p>
+ * 消息结束后（{@link #finish()}）文本面板被替换为轻量的 {@link PaintedTextView}，只有正在输出的消息使用 JTextPane。
+ * <p>
+ * 超过折叠阈值的文本块和已关闭的代码块只渲染开头和结尾（{@link CollapsedPreview}），用户展开后才渲染完整内容。
+ */
+class MessageView {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    // 超过该长度（字符数）的消息在后台线程准备渲染模型
+    static final int ASYNC_RENDER_THRESHOLD = 20_000;
+
+    private final JPanel panel;
+    private final JLabel headerLabel;
+    private boolean isUser;
+    private MarkdownStyles styles;
+    private ChatMessage message;
+
+    // 推理内容组件（默认折叠）
+    private ReasoningView reasoningView;
+    private int contentStartIndex;
+    private String renderedReasoning = "";
+
+    private MarkdownBlockParser parser = new MarkdownBlockParser();
+    private boolean markdown;
+
+    // 后台准备渲染模型的代次；重新绑定或清空内容后，过期的准备结果被丢弃
+    private int renderGeneration;
+    private boolean preparing;
+    private Runnable onContentReady;
+
+    // 文本面板是否已替换为绘制文本组件；准备渲染模型期间请求的替换在准备完成后执行
+    private boolean finished;
+    private boolean finishRequested;
+
+    // 已渲染的稳定块数量，以及稳定部分结束时的组件数量和最后一个文本面板的文档长度
+    private int renderedStableBlocks;
+    private int stableComponentCount;
+    private JTextPane stableText;
+    private int stableTextLength;
+
+    // 稳定部分及其包含的块，内容被整体替换时据此复用组件
+    private final List<RenderedPart> stableParts = new ArrayList<>();
+
+    // 当前接收文本块的面板；末尾块使用的文本面板和未关闭代码块，下次更新时复用
+    private JTextPane currentText;
+    private JTextPane tailText;
+    private JTextPane spareText;
+    private CodeBlockComponent tailCode;
+    private int tailCodeStart = -1;
+    private String tailCodeLanguage;
+
+    // 用户已展开的折叠块（按块在内容中的起始位置），重新渲染时不再折叠
+    private final Set<Integer> expandedBlocks = new HashSet<>();
+
+    MessageView(ChatMessage message) {
+        panel = new JPanel() {
+            @Override
+            public Dimension getMaximumSize() {
+                // 防止垂直拉伸，高度随内容增长
+                return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+            }
+        };
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBackground(ThemeUtils.getBackgroundColor());
+        panel.setBorder(JBUI.Borders.empty(5, 0));
+        panel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        // 添加时间戳和发送者
+        headerLabel = new JLabel();
+        headerLabel.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+        headerLabel.setForeground(ThemeUtils.getTimestampColor());
+        headerLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        panel.add(headerLabel);
+        contentStartIndex = panel.getComponentCount();
+
+        bind(message);
+    }
+
+    JPanel getComponent() {
+        return panel;
+    }
+
+    ChatMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * 后台准备的内容渲染完成后回调（组件高度随之变化，所在列表需要重新测量）
+     */
+    void setOnContentReady(Runnable onContentReady) {
+        this.onContentReady = onContentReady;
+    }
+
+    /**
+     * 绑定到另一条消息（视图回收复用时使用），保留面板和消息头组件，重建内容
+     */
+    void bind(ChatMessage message) {
+        this.message = message;
+        isUser = message.isUser();
+        styles = MarkdownStyles.of(isUser);
+
+        String timeStr = message.getTimestamp().format(TIME_FORMATTER);
+        String sender = isUser ? "您" : "AI助手";
+        headerLabel.setText("[" + timeStr + "] " + sender + ":");
+
+        removeReasoning();
+        renderedReasoning = "";
+        expandedBlocks.clear();
+        clearContent();
+
+        String content = message.getContent() != null ? message.getContent() : "";
+        if (content.length() >= ASYNC_RENDER_THRESHOLD) {
+            markdown = isMarkdownEnabled();
+            updateReasoning(message);
+            renderAsync(content);
+        } else {
+            update(message);
+        }
+    }
+
+    /**
+     * 按消息的最新内容更新视图
+     * 新内容以已解析内容为前缀时只解析和渲染增量；否则（编辑、重新生成、出错时内容被替换）
+     * 重新解析整条内容，并按内容复用没有变化的文本面板和代码块组件。
+     */
+    void update(ChatMessage message) {
+        this.message = message;
+        updateReasoning(message);
+        if (preparing) {
+            // 后台准备完成后会补上最新内容
+            return;
+        }
+
+        String content = message.getContent() != null ? message.getContent() : "";
+        boolean markdownEnabled = isMarkdownEnabled();
+        if (markdownEnabled != markdown) {
+            clearContent();
+            markdown = markdownEnabled;
+        }
+        // 每次更新只校验一次前缀
+        boolean appended = parser.isPrefixOf(content);
+        if (appended && parser.getSourceLength() == content.length()) {
+            return;
+        }
+        if (finished) {
+            // 已结束的消息内容又有变化（重新生成等），恢复为文本面板后完整重绘；解析器清空后整条内容都是追加
+            clearContent();
+            appended = true;
+        }
+        if (!appended) {
+            replaceContent(content);
+            return;
+        }
+
+        parser.appendRest(content);
+        List<MarkdownBlockParser.Block> stable = parser.getStableBlocks();
+        List<MessageRenderModel.RenderBlock> newStable = new ArrayList<>(stable.size() - renderedStableBlocks);
+        for (int i = renderedStableBlocks; i < stable.size(); i++) {
+            newStable.add(MessageRenderModel.prepare(stable.get(i), markdown));
+        }
+        List<MessageRenderModel.RenderBlock> tail = new ArrayList<>(2);
+        for (MarkdownBlockParser.Block block : parser.getTailBlocks()) {
+            tail.add(MessageRenderModel.prepare(block, markdown));
+        }
+        renderBlocks(newStable, tail);
+    }
+
+    /**
+     * 内容被整体替换：解析新内容后与已渲染的部分按内容对比，未变化的组件原样保留
+     */
+    private void replaceContent(String content) {
+        if (content.length() < ASYNC_RENDER_THRESHOLD) {
+            reconcile(MessageRenderModel.build(content, markdown));
+            return;
+        }
+        // 大消息在后台解析，期间保留旧内容
+        int generation = ++renderGeneration;
+        preparing = true;
+        MessageRenderModel.buildAsync(content, markdown, model -> {
+            if (generation != renderGeneration) {
+                return;
+            }
+            preparing = false;
+            reconcile(model);
+            update(message);
+            if (finishRequested) {
+                finish();
+            }
+            panel.revalidate();
+            panel.repaint();
+            if (onContentReady != null) {
+                onContentReady.run();
+            }
+        });
+    }
+
+    /**
+     * 按模型重建内容组件，内容相同的稳定部分复用原有组件
+     */
+    private void reconcile(MessageRenderModel model) {
+        // 撤销末尾块后，已渲染的稳定部分与其内容一一对应，作为复用候选
+        rollbackTail();
+        Map<Integer, List<RenderedPart>> reusable = new HashMap<>();
+        for (RenderedPart part : stableParts) {
+            reusable.computeIfAbsent(part.contentHash(), hash -> new ArrayList<>()).add(part);
+        }
+        JTextPane reusableTail = tailText;
+        clearContent();
+        markdown = model.markdown;
+        parser = model.newParser();
+
+        List<MessageRenderModel.RenderBlock> blocks = model.stableBlocks;
+        int i = 0;
+        while (i < blocks.size()) {
+            // 一个部分：单个代码块，或连续的文本块（共用一个文本面板）
+            int end = i + 1;
+            if (!blocks.get(i).block.isCode()) {
+                while (end < blocks.size() && !blocks.get(end).block.isCode()) {
+                    end++;
+                }
+            }
+            List<MessageRenderModel.RenderBlock> group = blocks.subList(i, end);
+            RenderedPart reused = takeMatching(reusable, group);
+            if (reused != null) {
+                panel.add(reused.component);
+                panel.add(Box.createVerticalStrut(5));
+                stableParts.add(reused);
+                currentText = reused.component instanceof JTextPane ? (JTextPane) reused.component : null;
+            } else {
+                for (MessageRenderModel.RenderBlock block : group) {
+                    renderStableBlock(block);
+                }
+            }
+            i = end;
+        }
+        renderedStableBlocks = blocks.size();
+        stableComponentCount = panel.getComponentCount();
+        stableText = currentText;
+        stableTextLength = currentText != null ? currentText.getStyledDocument().getLength() : 0;
+
+        tailText = reusableTail;
+        renderBlocks(Collections.emptyList(), model.tailBlocks);
+    }
+
+    private static RenderedPart takeMatching(Map<Integer, List<RenderedPart>> reusable, List<MessageRenderModel.RenderBlock> group) {
+        List<RenderedPart> candidates = reusable.get(RenderedPart.contentHash(group));
+        if (candidates == null) {
+            return null;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i).matches(group)) {
+                return candidates.remove(i);
+            }
+        }
+        return null;
+    }
+
+    private boolean isMarkdownEnabled() {
+        return !isUser && PluginSettings.getInstance().isEnableMarkdown();
+    }
+
+    /**
+     * 在后台线程准备渲染模型，完成后在 EDT 上一次性转换为组件
+     */
+    private void renderAsync(String content) {
+        int generation = ++renderGeneration;
+        preparing = true;
+        JTextPane placeholder = createTextPane();
+        try {
+            placeholder.getStyledDocument().insertString(0, "正在渲染…", styles.base);
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        addTextPane(placeholder);
+        stableComponentCount = panel.getComponentCount();
+        currentText = null;
+
+        MessageRenderModel.buildAsync(content, markdown, model -> {
+            if (generation != renderGeneration) {
+                return;
+            }
+            preparing = false;
+            applyModel(model);
+            // 准备期间消息可能继续变化，按增量补齐
+            update(message);
+            if (finishRequested) {
+                finish();
+            }
+            panel.revalidate();
+            panel.repaint();
+            if (onContentReady != null) {
+                onContentReady.run();
+            }
+        });
+    }
+
+    private void applyModel(MessageRenderModel model) {
+        clearContent();
+        markdown = model.markdown;
+        parser = model.newParser();
+        renderBlocks(model.stableBlocks, model.tailBlocks);
+    }
+
+    private void updateReasoning(ChatMessage message) {
+        String reasoning = !isUser && message.hasReasoningContent() && PluginSettings.getInstance().isShowReasoningContent()
+                ? message.getReasoningContent() : "";
+        if (reasoning.equals(renderedReasoning)) {
+            return;
+        }
+
+        if (reasoningView != null && reasoning.startsWith(renderedReasoning)) {
+            reasoningView.append(reasoning.substring(renderedReasoning.length()));
+        } else {
+            removeReasoning();
+            if (!reasoning.isEmpty()) {
+                addReasoning(reasoning);
+            }
+        }
+        renderedReasoning = reasoning;
+    }
+
+    private void addReasoning(String reasoningContent) {
+        reasoningView = new ReasoningView(reasoningContent, this::sizeChanged);
+
+        // 推理内容位于消息头之后、正式内容之前
+        panel.add(reasoningView, 1);
+        panel.add(Box.createVerticalStrut(10), 2);
+        contentStartIndex = 3;
+        stableComponentCount += 2;
+    }
+
+    /**
+     * 展开或折叠后消息高度变化，所在列表需要重新测量
+     */
+    private void sizeChanged() {
+        panel.revalidate();
+        if (onContentReady != null) {
+            onContentReady.run();
+        }
+    }
+
+    private void removeReasoning() {
+        if (reasoningView == null) {
+            return;
+        }
+        for (int i = 0; i < 2; i++) {
+            panel.remove(1);
+        }
+        reasoningView = null;
+        contentStartIndex = 1;
+        stableComponentCount -= 2;
+    }
+
+    ReasoningView getReasoningView() {
+        return reasoningView;
+    }
+
+    /**
+     * 清空内容组件（消息头和推理内容保持不变）
+     */
+    private void clearContent() {
+        while (panel.getComponentCount() > contentStartIndex) {
+            panel.remove(panel.getComponentCount() - 1);
+        }
+        parser.reset();
+        renderGeneration++;
+        preparing = false;
+        renderedStableBlocks = 0;
+        stableParts.clear();
+        stableComponentCount = panel.getComponentCount();
+        stableText = null;
+        stableTextLength = 0;
+        currentText = null;
+        tailText = null;
+        spareText = null;
+        tailCode = null;
+        tailCodeStart = -1;
+        tailCodeLanguage = null;
+        finished = false;
+        finishRequested = false;
+    }
+
+    /**
+     * 消息已结束输出：把文本面板替换为轻量的绘制文本组件，内容再变化时会恢复为文本面板重新渲染
+     */
+    void finish() {
+        if (finished) {
+            return;
+        }
+        if (preparing) {
+            finishRequested = true;
+            return;
+        }
+        finishRequested = false;
+        finished = true;
+        for (int i = contentStartIndex; i < panel.getComponentCount(); i++) {
+            Component component = panel.getComponent(i);
+            if (component instanceof JTextPane) {
+                panel.remove(i);
+                panel.add(PaintedTextView.of((JTextPane) component), i);
+            }
+        }
+        // 文本面板已移除，不再复用
+        stableText = null;
+        currentText = null;
+        tailText = null;
+        spareText = null;
+        panel.revalidate();
+        panel.repaint();
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 撤销上次渲染的末尾块，渲染新增的稳定块，再渲染当前的末尾块
+     */
+    private void renderBlocks(List<MessageRenderModel.RenderBlock> newStable, List<MessageRenderModel.RenderBlock> tail) {
+        rollbackTail();
+        // 上次末尾块独占的文本面板留作备用，新的文本块需要面板时优先复用，避免每个片段都新建面板
+        spareText = tailText;
+        tailText = null;
+
+        for (MessageRenderModel.RenderBlock block : newStable) {
+            renderStableBlock(block);
+        }
+        renderedStableBlocks += newStable.size();
+        stableComponentCount = panel.getComponentCount();
+        stableText = currentText;
+        stableTextLength = currentText != null ? currentText.getStyledDocument().getLength() : 0;
+
+        for (MessageRenderModel.RenderBlock block : tail) {
+            renderBlock(block);
+        }
+        tailText = currentText != stableText ? currentText : null;
+    }
+
+    /**
+     * 撤销末尾块：移除其组件，并把共用文本面板截断到稳定部分的长度
+     */
+    private void rollbackTail() {
+        while (panel.getComponentCount() > stableComponentCount) {
+            panel.remove(panel.getComponentCount() - 1);
+        }
+        if (stableText != null) {
+            StyledDocument doc = stableText.getStyledDocument();
+            try {
+                doc.remove(stableTextLength, doc.getLength() - stableTextLength);
+            } catch (BadLocationException e) {
+                e.printStackTrace();
+            }
+        }
+        currentText = stableText;
+    }
+
+    /**
+     * 渲染稳定块并记录它所属的部分：新建的组件开始一个新部分，追加到已有文本面板的块并入最后一个部分
+     */
+    private void renderStableBlock(MessageRenderModel.RenderBlock block) {
+        JTextPane before = currentText;
+        renderBlock(block);
+        if (block.block.isCode() || currentText == null) {
+            // 代码块或折叠显示的文本块，各自是独立的组件
+            stableParts.add(new RenderedPart((JComponent) panel.getComponent(panel.getComponentCount() - 2)));
+        } else if (currentText != before) {
+            stableParts.add(new RenderedPart(currentText));
+        }
+        stableParts.get(stableParts.size() - 1).blocks.add(block.block);
+    }
+
+    private void renderBlock(MessageRenderModel.RenderBlock block) {
+        if (block.block.isCode()) {
+            renderCodeBlock(block);
+            return;
+        }
+        if (renderCollapsedText(block)) {
+            return;
+        }
+
+        boolean newPane = currentText == null;
+        if (newPane) {
+            JTextPane textPane = spareText != null ? spareText : createTextPane();
+            spareText = null;
+            clearText(textPane);
+            addTextPane(textPane);
+        }
+        StyledDocument doc = currentText.getStyledDocument();
+        try {
+            if (!newPane && doc.getLength() > 0) {
+                doc.insertString(doc.getLength(), block.block.blankLineBefore ? "\n\n" : "\n", styles.base);
+            }
+            MarkdownRenderer.appendRuns(block.runs, doc, styles);
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 超过折叠阈值的文本块渲染为独立的折叠组件，返回是否已折叠渲染
+     */
+    private boolean renderCollapsedText(MessageRenderModel.RenderBlock block) {
+        int threshold = PluginSettings.getInstance().getCollapseThresholdLines();
+        // 先按原文粗略判断，绝大多数块不需要拼接渲染后的文本
+        if (expandedBlocks.contains(block.block.start) || CollapsedPreview.of(block.block.text, threshold) == null) {
+            return false;
+        }
+        StringBuilder text = new StringBuilder();
+        for (MarkdownRenderer.StyledRun run : block.runs) {
+            text.append(run.text);
+        }
+        CollapsedPreview preview = CollapsedPreview.of(text, threshold);
+        if (preview == null) {
+            return false;
+        }
+        int start = block.block.start;
+        CollapsedTextView view = new CollapsedTextView(block.runs, text.toString(), preview, styles, () -> {
+            expandedBlocks.add(start);
+            sizeChanged();
+        });
+        panel.add(view);
+        panel.add(Box.createVerticalStrut(5));
+        currentText = null;
+        return true;
+    }
+
+    /**
+     * 渲染代码块；与上次末尾的未关闭代码块是同一个块时复用该组件，只追加新增的代码
+     * 新建的已关闭代码块超过折叠阈值时折叠显示；流式输出中的代码块不折叠，超大时由编辑器视图承载。
+     */
+    private void renderCodeBlock(MessageRenderModel.RenderBlock renderBlock) {
+        MarkdownBlockParser.Block block = renderBlock.block;
+        CodeBlockComponent codeBlock = null;
+        if (tailCode != null && tailCodeStart == block.start && renderBlock.language.equals(tailCodeLanguage)
+                && block.text.startsWith(tailCode.getCode())) {
+            codeBlock = tailCode;
+            String delta = block.text.substring(codeBlock.getCode().length());
+            if (!delta.isEmpty()) {
+                codeBlock.appendCode(delta);
+            }
+        }
+        if (codeBlock == null) {
+            boolean collapsible = block.closed && !expandedBlocks.contains(block.start);
+            codeBlock = new CodeBlockComponent(block.text, renderBlock.language,
+                    collapsible ? PluginSettings.getInstance().getCollapseThresholdLines() : 0);
+            codeBlock.setAlignmentX(Component.LEFT_ALIGNMENT);
+            if (codeBlock.isCollapsed()) {
+                CodeBlockComponent expandable = codeBlock;
+                int start = block.start;
+                codeBlock.setOnExpanded(() -> {
+                    expandedBlocks.add(start);
+                    refreshMaximumSize(expandable);
+                    sizeChanged();
+                });
+            }
+        }
+        refreshMaximumSize(codeBlock);
+        panel.add(codeBlock);
+        panel.add(Box.createVerticalStrut(5));
+        currentText = null;
+
+        if (block.closed) {
+            tailCode = null;
+            tailCodeStart = -1;
+            tailCodeLanguage = null;
+        } else {
+            tailCode = codeBlock;
+            tailCodeStart = block.start;
+            tailCodeLanguage = renderBlock.language;
+        }
+    }
+
+    private void addTextPane(JTextPane textPane) {
+        panel.add(textPane);
+        panel.add(Box.createVerticalStrut(5));
+        currentText = textPane;
+    }
+
+    private static void clearText(JTextPane textPane) {
+        StyledDocument doc = textPane.getStyledDocument();
+        try {
+            doc.remove(0, doc.getLength());
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 创建文本面板
+     */
+    static JTextPane createTextPane() {
+        JTextPane textPane = new JTextPane();
+        textPane.setEditable(false);
+        textPane.setOpaque(false);
+        textPane.setBorder(JBUI.Borders.empty(5));
+        textPane.setAlignmentX(Component.LEFT_ALIGNMENT);
+        return textPane;
+    }
+
+    private static void refreshMaximumSize(JComponent component) {
+        component.setMaximumSize(new Dimension(Integer.MAX_VALUE, component.getPreferredSize().height));
+    }
+
+    /**
+     * 已渲染的稳定部分：一个代码块组件，或承载连续文本块的文本面板
+     */
+    private static final class RenderedPart {
+        final JComponent component;
+        final List<MarkdownBlockParser.Block> blocks = new ArrayList<>();
+
+        RenderedPart(JComponent component) {
+            this.component = component;
+        }
+
+        int contentHash() {
+            int hash = 1;
+            for (MarkdownBlockParser.Block block : blocks) {
+                hash = 31 * hash + block.contentHash();
+            }
+            return hash;
+        }
+
+        static int contentHash(List<MessageRenderModel.RenderBlock> group) {
+            int hash = 1;
+            for (MessageRenderModel.RenderBlock block : group) {
+                hash = 31 * hash + block.block.contentHash();
+            }
+            return hash;
+        }
+
+        boolean matches(List<MessageRenderModel.RenderBlock> group) {
+            if (group.size() != blocks.size()) {
+                return false;
+            }
+            for (int i = 0; i < blocks.size(); i++) {
+                if (!blocks.get(i).sameContent(group.get(i).block)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.ide.ui.UISettings;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已结束消息的轻量只读文本组件
+ * 文本和样式在创建时固定下来，按宽度换行为 TextLayout 行并缓存，宽度不变时布局和绘制都不再重新计算；
+ * 没有 StyledDocument 和视图树，内存和布局开销远小于 JTextPane。支持鼠标选择和复制（Ctrl/Cmd+C）。
+ * 只在 EDT 上使用。
+ */
+final class PaintedTextView extends JComponent {
+
+    private final String text;
+    private final AttributedString attributed;
+    // 每个段落（以换行分隔）的起止位置
+    private final int[] paragraphStarts;
+    private final int[] paragraphEnds;
+    private final Font defaultFont;
+    private final Color defaultColor;
+
+    // 按宽度缓存的换行结果
+    private int layoutWidth = -1;
+    private List<Line> lines = List.of();
+    private int layoutHeight;
+
+    private int selectionAnchor;
+    private int selectionStart;
+    private int selectionEnd;
+
+    /**
+     * 一个显示行：所在段落内的一段文本，空段落没有 TextLayout
+     */
+    private static final class Line {
+        final TextLayout layout;
+        final int start;
+        final int end;
+        final int top;
+        final int height;
+        final float ascent;
+
+        Line(TextLayout layout, int start, int end, int top, int height, float ascent) {
+            this.layout = layout;
+            this.start = start;
+            this.end = end;
+            this.top = top;
+            this.height = height;
+            this.ascent = ascent;
+        }
+    }
+
+    private PaintedTextView(String text, AttributedString attributed, Font defaultFont, Color defaultColor) {
+        this.text = text;
+        this.attributed = attributed;
+        this.defaultFont = defaultFont;
+        this.defaultColor = defaultColor;
+
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '\n') {
+                starts.add(start);
+                ends.add(i);
+                start = i + 1;
+            }
+        }
+        paragraphStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+        paragraphEnds = ends.stream().mapToInt(Integer::intValue).toArray();
+
+        setOpaque(false);
+        setFocusable(true);
+        setBorder(JBUI.Borders.empty(5));
+        setAlignmentX(Component.LEFT_ALIGNMENT);
+        setCursor(Cursor.getPredefinedCursor(Cursor.TEXT_CURSOR));
+        installSelection();
+    }
+
+    /**
+     * 按文本面板当前的内容和字符样式创建
+     */
+    static PaintedTextView of(JTextPane textPane) {
+        StyledDocument doc = textPane.getStyledDocument();
+        String text;
+        try {
+            text = doc.getText(0, doc.getLength());
+        } catch (BadLocationException e) {
+            text = "";
+        }
+        Font defaultFont = textPane.getFont();
+        AttributedString attributed = new AttributedString(text);
+        if (!text.isEmpty()) {
+            attributed.addAttribute(TextAttribute.FONT, defaultFont);
+            Map<String, Font> fonts = new HashMap<>();
+            Element root = doc.getDefaultRootElement();
+            for (int p = 0; p < root.getElementCount(); p++) {
+                Element paragraph = root.getElement(p);
+                for (int r = 0; r < paragraph.getElementCount(); r++) {
+                    Element run = paragraph.getElement(r);
+                    int start = run.getStartOffset();
+                    int end = Math.min(run.getEndOffset(), text.length());
+                    if (start < end) {
+                        applyStyle(attributed, run.getAttributes(), start, end, defaultFont, fonts);
+                    }
+                }
+            }
+        }
+        return new PaintedTextView(text, attributed, defaultFont, textPane.getForeground());
+    }
+
+    private static void applyStyle(AttributedString attributed, AttributeSet attributes, int start, int end,
+                                   Font defaultFont, Map<String, Font> fonts) {
+        String family = (String) attributes.getAttribute(StyleConstants.FontFamily);
+        Integer size = (Integer) attributes.getAttribute(StyleConstants.FontSize);
+        int style = (StyleConstants.isBold(attributes) ? Font.BOLD : 0)
+                | (StyleConstants.isItalic(attributes) ? Font.ITALIC : 0);
+        String fontFamily = family != null ? family : defaultFont.getFamily();
+        int fontSize = size != null ? size : defaultFont.getSize();
+        Font font = fonts.computeIfAbsent(fontFamily + '|' + style + '|' + fontSize,
+                key -> new Font(fontFamily, style, fontSize));
+        attributed.addAttribute(TextAttribute.FONT, font, start, end);
+
+        Object foreground = attributes.getAttribute(StyleConstants.Foreground);
+        if (foreground instanceof Color) {
+            attributed.addAttribute(TextAttribute.FOREGROUND, foreground, start, end);
+        }
+        Object background = attributes.getAttribute(StyleConstants.Background);
+        if (background instanceof Color) {
+            attributed.addAttribute(TextAttribute.BACKGROUND, background, start, end);
+        }
+    }
+
+    String getText() {
+        return text;
+    }
+
+    String getSelectedText() {
+        return text.substring(selectionStart, selectionEnd);
+    }
+
+    void select(int start, int end) {
+        selectionAnchor = Math.max(0, Math.min(start, text.length()));
+        updateSelection(end);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Insets insets = getInsets();
+        ensureLayout();
+        int width = getWidth() > 0 ? getWidth() : insets.left + insets.right + naturalWidth();
+        return new Dimension(width, insets.top + insets.bottom + layoutHeight);
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        ensureLayout();
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            UISettings.setupAntialiasing(g2);
+            Insets insets = getInsets();
+            Rectangle clip = g2.getClipBounds();
+            for (Line line : lines) {
+                int top = insets.top + line.top;
+                if (clip != null && (top + line.height < clip.y || top > clip.y + clip.height)) {
+                    continue;
+                }
+                if (line.layout == null) {
+                    continue;
+                }
+                int selStart = Math.max(selectionStart, line.start);
+                int selEnd = Math.min(selectionEnd, line.end);
+                if (selStart < selEnd) {
+                    Shape highlight = line.layout.getLogicalHighlightShape(selStart - line.start, selEnd - line.start);
+                    g2.setColor(ThemeUtils.getSelectedBackgroundColor());
+                    g2.fill(AffineTransform.getTranslateInstance(insets.left, top + line.ascent)
+                            .createTransformedShape(highlight));
+                }
+                g2.setColor(defaultColor);
+                line.layout.draw(g2, insets.left, top + line.ascent);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * 宽度变化时重新换行；同一宽度下直接使用缓存的行
+     */
+    private void ensureLayout() {
+        Insets insets = getInsets();
+        int width = getWidth() > 0 ? Math.max(1, getWidth() - insets.left - insets.right) : Integer.MAX_VALUE;
+        if (width == layoutWidth) {
+            return;
+        }
+        layoutWidth = width;
+
+        FontRenderContext frc = getFontMetrics(defaultFont).getFontRenderContext();
+        List<Line> newLines = new ArrayList<>();
+        int y = 0;
+        for (int p = 0; p < paragraphStarts.length; p++) {
+            int start = paragraphStarts[p];
+            int end = paragraphEnds[p];
+            if (start == end) {
+                // 空段落按默认字体占一行
+                FontMetrics metrics = getFontMetrics(defaultFont);
+                newLines.add(new Line(null, start, end, y, metrics.getHeight(), metrics.getAscent()));
+                y += metrics.getHeight();
+                continue;
+            }
+            AttributedCharacterIterator iterator = attributed.getIterator(null, start, end);
+            LineBreakMeasurer measurer = new LineBreakMeasurer(iterator, frc);
+            while (measurer.getPosition() < end) {
+                int lineStart = measurer.getPosition();
+                TextLayout layout = measurer.nextLayout(width);
+                int height = (int) Math.ceil(layout.getAscent() + layout.getDescent() + layout.getLeading());
+                newLines.add(new Line(layout, lineStart, measurer.getPosition(), y, height, layout.getAscent()));
+                y += height;
+            }
+        }
+        lines = newLines;
+        layoutHeight = y;
+    }
+
+    private int naturalWidth() {
+        float width = 0;
+        for (Line line : lines) {
+            if (line.layout != null) {
+                width = Math.max(width, line.layout.getAdvance());
+            }
+        }
+        return (int) Math.ceil(width);
+    }
+
+    /**
+     * 坐标对应的字符位置（插入点）
+     */
+    int offsetAt(Point point) {
+        ensureLayout();
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        Insets insets = getInsets();
+        int y = point.y - insets.top;
+        if (y < 0) {
+            return 0;
+        }
+        for (Line line : lines) {
+            if (y < line.top + line.height) {
+                if (line.layout == null) {
+                    return line.start;
+                }
+                int index = line.layout.hitTestChar(point.x - insets.left, y - line.top - line.ascent).getInsertionIndex();
+                return Math.min(line.end, line.start + index);
+            }
+        }
+        return text.length();
+    }
+
+    private void installSelection() {
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                if (e.isShiftDown()) {
+                    updateSelection(offsetAt(e.getPoint()));
+                } else {
+                    select(offsetAt(e.getPoint()), offsetAt(e.getPoint()));
+                }
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                updateSelection(offsetAt(e.getPoint()));
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+
+        // Ctrl 与 Cmd 两种快捷键都绑定，不依赖图形环境查询菜单快捷键
+        for (int mask : new int[]{InputEvent.CTRL_DOWN_MASK, InputEvent.META_DOWN_MASK}) {
+            getInputMap(WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_C, mask), "copy");
+            getInputMap(WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_A, mask), "select-all");
+        }
+        getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (selectionStart < selectionEnd) {
+                    Toolkit.getDefaultToolkit().getSystemClipboard()
+                            .setContents(new StringSelection(getSelectedText()), null);
+                }
+            }
+        });
+        getActionMap().put("select-all", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                select(0, text.length());
+            }
+        });
+    }
+
+    private void updateSelection(int offset) {
+        int clamped = Math.max(0, Math.min(offset, text.length()));
+        selectionStart = Math.min(selectionAnchor, clamped);
+        selectionEnd = Math.max(selectionAnchor, clamped);
+        repaint();
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * 推理内容视图，默认折叠为一行摘要
+ * 流式输出时只累加文本并更新摘要中的字数和估算 token 数；完整内容的代码块组件在用户展开时才创建，
+ * 折叠时移除并释放。只在 EDT 上使用。
+ */
+final class ReasoningView extends JPanel {
+
+    private final StringBuilder reasoning = new StringBuilder();
+    private final JLabel summaryLabel;
+    private final Runnable onSizeChanged;
+
+    // 摘要计数按追加的片段增量累加
+    private int asciiChars;
+    private int otherChars;
+
+    private boolean expanded;
+    private CodeBlockComponent contentBlock;
+
+    /**
+     * @param onSizeChanged 展开或折叠导致高度变化后回调
+     */
+    ReasoningView(String reasoning, Runnable onSizeChanged) {
+        super(new BorderLayout());
+        this.onSizeChanged = onSizeChanged;
+        setOpaque(false);
+        setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        summaryLabel = new JLabel();
+        summaryLabel.setFont(new Font(Font.SANS_SERIF, Font.ITALIC, 11));
+        summaryLabel.setBorder(JBUI.Borders.emptyBottom(4));
+        summaryLabel.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        summaryLabel.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                setExpanded(!expanded);
+            }
+        });
+        add(summaryLabel, BorderLayout.NORTH);
+
+        append(reasoning);
+        updateTheme();
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+    }
+
+    /**
+     * 追加推理内容；折叠时只更新摘要
+     */
+    void append(String delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        reasoning.append(delta);
+        for (int i = 0; i < delta.length(); i++) {
+            if (delta.charAt(i) < 128) {
+                asciiChars++;
+            } else {
+                otherChars++;
+            }
+        }
+        if (contentBlock != null) {
+            contentBlock.appendCode(delta);
+        }
+        updateSummary();
+    }
+
+    void setExpanded(boolean expanded) {
+        if (this.expanded == expanded) {
+            return;
+        }
+        this.expanded = expanded;
+        if (expanded) {
+            contentBlock = new CodeBlockComponent(reasoning.toString(), "reasoning");
+            add(contentBlock, BorderLayout.CENTER);
+        } else {
+            remove(contentBlock);
+            contentBlock = null;
+        }
+        updateSummary();
+        revalidate();
+        repaint();
+        onSizeChanged.run();
+    }
+
+    boolean isExpanded() {
+        return expanded;
+    }
+
+    String getReasoning() {
+        return reasoning.toString();
+    }
+
+    CodeBlockComponent getContentBlock() {
+        return contentBlock;
+    }
+
+    String getSummary() {
+        return summaryLabel.getText();
+    }
+
+    void updateTheme() {
+        summaryLabel.setForeground(ThemeUtils.getTimestampColor());
+        if (contentBlock != null) {
+            contentBlock.updateTheme();
+        }
+    }
+
+    private void updateSummary() {
+        summaryLabel.setText((expanded ? "▼ " : "▶ ") + "🤔 推理过程（" + reasoning.length() + " 字，约 "
+                + estimateTokens(asciiChars, otherChars) + " tokens）");
+    }
+
+    /**
+     * 粗略估算 token 数：英文等 ASCII 字符约 0.3 个 token，中文等其他字符约 0.6 个 token
+     */
+    static int estimateTokens(int asciiChars, int otherChars) {
+        return (int) Math.ceil(asciiChars * 0.3 + otherChars * 0.6);
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import javax.swing.*;
+
+/**
+ * 聊天面板的渲染调度器
+ * 消息变化只登记为待渲染，每个动画帧（约 16ms）最多执行一次渲染回调，
+ * 流式输出时大量的小片段被合并为每帧一次更新、一次布局。只在 EDT 上使用。
+ */
+final class RenderScheduler {
+
+    static final int FRAME_MILLIS = 16;
+
+    private final Timer timer;
+
+    RenderScheduler(Runnable renderFrame) {
+        this.timer = new Timer(FRAME_MILLIS, e -> renderFrame.run());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * 请求在下一帧渲染；同一帧内的多次请求只触发一次
+     */
+    void requestFrame() {
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * 取消尚未执行的渲染
+     */
+    void cancel() {
+        timer.stop();
+    }
+
+    boolean isFramePending() {
+        return timer.isRunning();
+    }
+}
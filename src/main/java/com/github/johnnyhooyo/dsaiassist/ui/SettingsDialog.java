@@ -115,15 +115,15 @@ public class SettingsDialog extends DialogWrapper {
         testConnectionButton.setText("测试中...");
         
         DeepSeekService service = ApplicationManager.getApplication().getService(DeepSeekService.class);
-        service.testConnection(apiKey).thenAccept(success -> {
+        service.checkHealth(apiKey, true).thenAccept(health -> {
             SwingUtilities.invokeLater(() -> {
                 testConnectionButton.setEnabled(true);
                 testConnectionButton.setText("测试连接");
                 
-                if (success) {
-                    Messages.showInfoMessage("连接成功！", "测试连接");
+                if (health.isHealthy()) {
+                    Messages.showInfoMessage(health.getSummary(), "测试连接");
                 } else {
-                    Messages.showErrorDialog("连接失败，请检查API Key是否正确", "测试连接");
+                    Messages.showErrorDialog(health.getSummary(), "测试连接");
                 }
             });
         });
@@ -0,0 +1,149 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 已结束消息的位图快照缓存
+ * 消息面板按当前宽度和主题绘制到与屏幕缩放一致（HiDPI）的图像中，再次进入可见范围时直接绘制图像，
+ * 不需要重新绑定、布局和绘制整棵组件树。快照按最近使用顺序保留，总像素内存超过预算时淘汰最久未用的。
+ * 只在 EDT 上使用。
+ */
+final class SnapshotCache {
+
+    /**
+     * 单条消息的快照，记录绘制时的逻辑尺寸和主题
+     */
+    static final class Snapshot {
+        final BufferedImage image;
+        final int width;
+        final int height;
+        final String theme;
+
+        Snapshot(BufferedImage image, int width, int height, String theme) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+            this.theme = theme;
+        }
+
+        long bytes() {
+            return (long) image.getWidth() * image.getHeight() * 4;
+        }
+    }
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Object, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    SnapshotCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * 取得宽度和主题都一致的快照；不一致的快照已过期，直接丢弃
+     */
+    Snapshot get(Object key, int width, String theme) {
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            return null;
+        }
+        if (snapshot.width != width || !snapshot.theme.equals(theme)) {
+            remove(key);
+            return null;
+        }
+        return snapshot;
+    }
+
+    void put(Object key, Snapshot snapshot) {
+        remove(key);
+        if (snapshot.bytes() > budgetBytes) {
+            return;
+        }
+        snapshots.put(key, snapshot);
+        usedBytes += snapshot.bytes();
+        Iterator<Map.Entry<Object, Snapshot>> eldest = snapshots.entrySet().iterator();
+        while (usedBytes > budgetBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+        }
+    }
+
+    void remove(Object key) {
+        Snapshot removed = snapshots.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.bytes();
+        }
+    }
+
+    void clear() {
+        snapshots.clear();
+        usedBytes = 0;
+    }
+
+    int size() {
+        return snapshots.size();
+    }
+
+    long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * 把已布局的组件绘制为快照，图像分辨率按组件所在屏幕的缩放比例放大
+     */
+    static Snapshot capture(JComponent component, String theme) {
+        int width = component.getWidth();
+        int height = component.getHeight();
+        GraphicsConfiguration configuration = component.getGraphicsConfiguration();
+        double scale = configuration != null ? configuration.getDefaultTransform().getScaleX() : 1.0;
+        BufferedImage image = new BufferedImage((int) Math.ceil(width * scale), (int) Math.ceil(height * scale),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setTransform(AffineTransform.getScaleInstance(scale, scale));
+            component.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return new Snapshot(image, width, height, theme);
+    }
+
+    /**
+     * 代替消息面板显示快照的组件；鼠标移入或按下时回调，由列表换回可交互的真实组件
+     */
+    static final class SnapshotView extends JComponent {
+
+        private final Snapshot snapshot;
+
+        SnapshotView(Snapshot snapshot, Runnable onActivate) {
+            this.snapshot = snapshot;
+            setOpaque(true);
+            MouseAdapter activator = new MouseAdapter() {
+                @Override
+                public void mouseEntered(MouseEvent e) {
+                    onActivate.run();
+                }
+
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    onActivate.run();
+                }
+            };
+            addMouseListener(activator);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            // 按逻辑尺寸绘制，HiDPI 屏幕上图像像素与设备像素一一对应
+            g.drawImage(snapshot.image, 0, 0, snapshot.width, snapshot.height, null);
+        }
+    }
+}
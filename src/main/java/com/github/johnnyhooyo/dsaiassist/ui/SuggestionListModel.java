@@ -0,0 +1,60 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自动完成弹窗的列表模型
+ * 替换建议时只比较新旧列表相同的开头和结尾，对中间变化的部分发出一次增删或修改事件，
+ * 后台查找不断推送排名时列表不会整体重建。只在 EDT 上使用。
+ */
+final class SuggestionListModel extends AbstractListModel<String> {
+
+    private List<String> items = new ArrayList<>();
+
+    @Override
+    public int getSize() {
+        return items.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return items.get(index);
+    }
+
+    List<String> getItems() {
+        return items;
+    }
+
+    void setItems(List<String> newItems) {
+        List<String> oldItems = items;
+        items = new ArrayList<>(newItems);
+
+        int oldSize = oldItems.size();
+        int newSize = items.size();
+        int prefix = 0;
+        int maxPrefix = Math.min(oldSize, newSize);
+        while (prefix < maxPrefix && oldItems.get(prefix).equals(items.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix && oldItems.get(oldSize - 1 - suffix).equals(items.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        // [prefix, 旧/新大小 - suffix) 是变化的区间
+        int oldEnd = oldSize - suffix;
+        int newEnd = newSize - suffix;
+        int common = Math.min(oldEnd, newEnd);
+        if (common > prefix) {
+            fireContentsChanged(this, prefix, common - 1);
+        }
+        if (newEnd > oldEnd) {
+            fireIntervalAdded(this, oldEnd, newEnd - 1);
+        } else if (oldEnd > newEnd) {
+            fireIntervalRemoved(this, newEnd, oldEnd - 1);
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package com.github.johnnyhooyo.dsaiassist.ui;
 
 import com.intellij.ide.ui.LafManagerListener;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.util.Disposer;
 
+import javax.swing.*;
+import java.awt.event.HierarchyEvent;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * 主题变化监听器
- * 当IDE主题发生变化时，通知所有注册的组件更新主题
+ * 当IDE主题发生变化时，通知所有注册的组件更新主题。
+ * 注册随传入的 Disposable（例如聊天标签页）一起注销，注册表本身只弱引用组件，
+ * 忘记注销的组件也不会被一直持有；不可见的组件（后台标签页）推迟到重新显示时再更新。
+ * 只在 EDT 上使用。
  */
-public class ThemeChangeListener {
-    
-    private static final ThemeChangeListener INSTANCE = new ThemeChangeListener();
-    private final List<ThemeAware> themeAwareComponents = new ArrayList<>();
-    
-    private ThemeChangeListener() {
-        // 注册主题变化监听器
-        ApplicationManager.getApplication().getMessageBus().connect().subscribe(
+@Service
+public final class ThemeChangeListener implements Disposable {
+
+    // 组件 -> 是否有尚未应用的主题变化
+    private final Map<ThemeAware, Boolean> themeAwareComponents = new WeakHashMap<>();
+
+    public ThemeChangeListener() {
+        // 注册主题变化监听器，连接随服务一起释放
+        ApplicationManager.getApplication().getMessageBus().connect(this).subscribe(
             LafManagerListener.TOPIC,
             source -> {
                 // 主题变化时通知所有组件
@@ -25,38 +35,77 @@ public class ThemeChangeListener {
             }
         );
     }
-    
+
     public static ThemeChangeListener getInstance() {
-        return INSTANCE;
+        return ApplicationManager.getApplication().getService(ThemeChangeListener.class);
     }
-    
+
     /**
-     * 注册需要主题更新的组件
+     * 注册需要主题更新的组件，parent 释放时自动注销
+     */
+    public void registerComponent(ThemeAware component, Disposable parent) {
+        registerComponent(component);
+        Disposer.register(parent, () -> unregisterComponent(component));
+    }
+
+    /**
+     * 注册需要主题更新的组件（只弱引用，不随任何 Disposable 注销）
      */
     public void registerComponent(ThemeAware component) {
-        themeAwareComponents.add(component);
+        themeAwareComponents.put(component, Boolean.FALSE);
+        if (component instanceof JComponent) {
+            // 重新显示时补上隐藏期间错过的主题变化
+            JComponent jComponent = (JComponent) component;
+            jComponent.addHierarchyListener(e -> {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && jComponent.isShowing()
+                        && Boolean.TRUE.equals(themeAwareComponents.get(component))) {
+                    themeAwareComponents.put(component, Boolean.FALSE);
+                    updateTheme(component);
+                }
+            });
+        }
     }
-    
+
     /**
      * 取消注册组件
      */
     public void unregisterComponent(ThemeAware component) {
         themeAwareComponents.remove(component);
     }
-    
+
+    int getRegisteredCount() {
+        return themeAwareComponents.size();
+    }
+
     /**
      * 通知所有注册的组件主题已变化
      */
-    private void notifyThemeChanged() {
-        for (ThemeAware component : themeAwareComponents) {
-            try {
-                component.updateTheme();
-            } catch (Exception e) {
-                // 忽略更新失败的组件
-                e.printStackTrace();
+    void notifyThemeChanged() {
+        // 先清除按主题缓存的 Markdown 样式，组件更新时会按新主题重建
+        MarkdownStyles.invalidate();
+        for (ThemeAware component : new ArrayList<>(themeAwareComponents.keySet())) {
+            if (component instanceof JComponent && !((JComponent) component).isShowing()) {
+                themeAwareComponents.put(component, Boolean.TRUE);
+            } else {
+                themeAwareComponents.put(component, Boolean.FALSE);
+                updateTheme(component);
             }
         }
     }
+
+    private static void updateTheme(ThemeAware component) {
+        try {
+            component.updateTheme();
+        } catch (Exception e) {
+            // 忽略更新失败的组件
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        themeAwareComponents.clear();
+    }
 }
 
 /**
@@ -0,0 +1,621 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 虚拟化的消息列表
+ * 只为视口及其上下一屏范围内的消息创建 Swing 组件，其余消息只保留高度（已测量的真实高度或按文本估算的高度）。
+ * 离开可见范围的视图先放入 LRU 缓存，来回滚动时直接复用；被缓存淘汰的视图进入回收池，
+ * 下次通过 {@link MessageView#bind(ChatMessage)} 绑定到其他消息。
+ * 因此滚动、重新布局和切换主题的开销只与可见消息数量有关，与历史长度无关。
+ * <p>
+ * 开启位图快照缓存后，已结束的消息离开可见范围时绘制为快照（{@link SnapshotCache}），
+ * 宽度和主题不变时再次进入可见范围直接显示快照；鼠标移入快照时换回真实组件，以便选择文本和复制。
+ */
+class VirtualizedMessageList extends JPanel implements Scrollable {
+
+    // 视口上下额外渲染的范围（以视口高度为单位）
+    private static final double OVERSCAN_RATIO = 1.0;
+    private static final int DETACHED_CACHE_SIZE = 24;
+    private static final int RECYCLE_POOL_SIZE = 8;
+    private static final long SNAPSHOT_BUDGET_BYTES = 48L * 1024 * 1024;
+
+    private static final int HEADER_HEIGHT = 24;
+    private static final int LINE_HEIGHT = 18;
+    private static final int CODE_BLOCK_OVERHEAD = 48;
+    private static final int DEFAULT_CHAR_WIDTH = 7;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Entry, MessageView> attached = new IdentityHashMap<>();
+    private final LinkedHashMap<Entry, MessageView> detached = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<MessageView> recyclePool = new ArrayDeque<>();
+    private final SnapshotCache snapshots = new SnapshotCache(SNAPSHOT_BUDGET_BYTES);
+    private final Map<Entry, SnapshotCache.SnapshotView> snapshotViews = new IdentityHashMap<>();
+    private final ChangeListener viewportListener = e -> layoutVisible();
+
+    // offsets[i] 是第 i 条消息的顶部位置，offsets[size] 是总高度
+    private int[] offsets = new int[1];
+    private boolean offsetsDirty;
+    private int measuredWidth = -1;
+    private int charWidth = DEFAULT_CHAR_WIDTH;
+    private JViewport viewport;
+    private boolean layingOut;
+    private boolean relayoutRequested;
+
+    VirtualizedMessageList() {
+        super(null);
+    }
+
+    /**
+     * 追加一条消息
+     */
+    void addMessage(ChatMessage message) {
+        if (!entries.isEmpty()) {
+            // 之前的最后一条消息不会再流式输出，换成轻量的绘制文本
+            Entry previous = entries.get(entries.size() - 1);
+            MessageView view = attached.get(previous);
+            if (view != null) {
+                view.finish();
+                previous.measured = previous.measured && !view.isFinished();
+            }
+        }
+        entries.add(new Entry(message));
+        offsetsDirty = true;
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * 更新最后一条消息（流式输出）
+     */
+    void updateLastMessage(ChatMessage message) {
+        if (!entries.isEmpty()) {
+            updateMessage(entries.size() - 1, message);
+        }
+    }
+
+    /**
+     * 更新指定位置的消息
+     * 视图已创建时增量更新，否则只重新估算高度，等滚动到可见范围时再渲染；旧的快照不再可用。
+     * 不是最后一条的消息更新后仍换成轻量的绘制文本。
+     */
+    void updateMessage(int index, ChatMessage message) {
+        Entry entry = entries.get(index);
+        entry.message = message;
+        snapshots.remove(entry);
+        removeSnapshotView(entry);
+
+        MessageView view = attached.get(entry);
+        if (view == null) {
+            view = detached.remove(entry);
+            if (view != null) {
+                // 缓存中的视图已过期，下次进入可见范围时重新绑定
+                recycle(view);
+            }
+            entry.height = estimateHeight(message);
+        } else {
+            view.update(message);
+            if (index < entries.size() - 1) {
+                view.finish();
+            }
+        }
+        entry.measured = false;
+        offsetsDirty = true;
+        revalidate();
+        repaint();
+    }
+
+    void clear() {
+        for (MessageView view : attached.values()) {
+            remove(view.getComponent());
+        }
+        for (SnapshotCache.SnapshotView view : snapshotViews.values()) {
+            remove(view);
+        }
+        snapshotViews.clear();
+        snapshots.clear();
+        attached.clear();
+        detached.clear();
+        recyclePool.clear();
+        entries.clear();
+        offsetsDirty = true;
+        revalidate();
+        repaint();
+    }
+
+    int getMessageCount() {
+        return entries.size();
+    }
+
+    /**
+     * 当前创建了组件的消息数
+     */
+    int getAttachedCount() {
+        return attached.size();
+    }
+
+    /**
+     * 当前显示快照的消息数
+     */
+    int getSnapshotCount() {
+        return snapshotViews.size();
+    }
+
+    /**
+     * 对可见的代码块刷新主题；屏幕外缓存的视图和快照直接丢弃，下次可见时按新主题重建
+     */
+    void updateTheme() {
+        detached.clear();
+        recyclePool.clear();
+        snapshots.clear();
+        for (SnapshotCache.SnapshotView view : snapshotViews.values()) {
+            remove(view);
+        }
+        snapshotViews.clear();
+        for (MessageView view : attached.values()) {
+            view.getComponent().setBackground(ThemeUtils.getBackgroundColor());
+            updateCodeBlockThemes(view.getComponent());
+        }
+        charWidth = DEFAULT_CHAR_WIDTH;
+        measuredWidth = -1;
+        revalidate();
+    }
+
+    private static void updateCodeBlockThemes(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof CodeBlockComponent) {
+                ((CodeBlockComponent) component).updateTheme();
+            } else if (component instanceof ReasoningView) {
+                ((ReasoningView) component).updateTheme();
+            } else if (component instanceof CollapsedTextView) {
+                ((CollapsedTextView) component).updateTheme();
+            } else if (component instanceof Container) {
+                updateCodeBlockThemes((Container) component);
+            }
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            viewport = (JViewport) parent;
+            viewport.addChangeListener(viewportListener);
+        }
+        FontMetrics metrics = getFontMetrics(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        charWidth = Math.max(1, metrics.charWidth('中') / 2 + 1);
+    }
+
+    @Override
+    public void removeNotify() {
+        if (viewport != null) {
+            viewport.removeChangeListener(viewportListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        ensureOffsets();
+        int width = viewport != null ? viewport.getExtentSize().width : super.getPreferredSize().width;
+        return new Dimension(width, offsets[entries.size()]);
+    }
+
+    @Override
+    public void doLayout() {
+        layoutVisible();
+    }
+
+    /**
+     * 为可见范围内的消息创建/复用组件并放置到正确位置，其余组件移出
+     */
+    private void layoutVisible() {
+        if (layingOut) {
+            // 布局过程中调整滚动位置会再次触发，结束后补一次
+            relayoutRequested = true;
+            return;
+        }
+        layingOut = true;
+        try {
+            int width = getWidth();
+            if (width <= 0) {
+                return;
+            }
+            if (width != measuredWidth) {
+                // 宽度变化后已测量的高度失效，保留旧值作为估算
+                for (Entry entry : entries) {
+                    entry.measured = false;
+                }
+                measuredWidth = width;
+                offsetsDirty = true;
+            }
+            ensureOffsets();
+
+            Rectangle visible = getVisibleRect();
+            int overscan = (int) (visible.height * OVERSCAN_RATIO);
+            int top = Math.max(0, visible.y - overscan);
+            int bottom = visible.y + visible.height + overscan;
+
+            // 锚点：视口顶部所在的消息及其内部偏移，测量后高度变化时保持视觉位置不跳动
+            int anchor = indexAt(visible.y);
+            int anchorOffset = anchor >= 0 ? visible.y - offsets[anchor] : 0;
+            boolean pinnedToBottom = visible.y + visible.height >= offsets[entries.size()];
+
+            int first = Math.max(0, indexAt(top));
+            int last = entries.isEmpty() ? -1 : indexAt(Math.min(bottom, offsets[entries.size()] - 1));
+            if (last < 0) {
+                last = entries.size() - 1;
+            }
+
+            detachOutside(first, last);
+            boolean heightsChanged = false;
+            String theme = snapshotsEnabled() ? currentTheme() : null;
+            for (int i = first; i <= last && i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                SnapshotCache.Snapshot snapshot = theme != null ? usableSnapshot(entry, width, theme) : null;
+                if (snapshot != null) {
+                    showSnapshot(entry, snapshot);
+                } else {
+                    removeSnapshotView(entry);
+                    heightsChanged |= attachAndMeasure(entry, width);
+                }
+            }
+
+            if (heightsChanged) {
+                offsetsDirty = true;
+                ensureOffsets();
+            }
+            for (int i = first; i <= last && i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                MessageView view = attached.get(entry);
+                JComponent component = view != null ? view.getComponent() : snapshotViews.get(entry);
+                component.setBounds(0, offsets[i], width, entry.height);
+            }
+
+            if (heightsChanged) {
+                revalidateScrollPane();
+                if (viewport != null && !pinnedToBottom && anchor >= 0 && anchor < entries.size()) {
+                    int y = Math.max(0, offsets[anchor] + anchorOffset);
+                    viewport.setViewPosition(new Point(0, y));
+                }
+            }
+        } finally {
+            layingOut = false;
+        }
+        if (relayoutRequested) {
+            relayoutRequested = false;
+            SwingUtilities.invokeLater(this::layoutVisible);
+        }
+    }
+
+    private void detachOutside(int first, int last) {
+        List<Entry> outside = new ArrayList<>();
+        for (Entry entry : attached.keySet()) {
+            int index = entry.index;
+            if (index < first || index > last) {
+                outside.add(entry);
+            }
+        }
+        String theme = snapshotsEnabled() ? currentTheme() : null;
+        for (Entry entry : outside) {
+            MessageView view = attached.remove(entry);
+            if (theme != null) {
+                // 离开可见范围时组件仍是布局好的状态，顺便绘制快照
+                captureSnapshot(entry, view, theme);
+            }
+            remove(view.getComponent());
+            detached.put(entry, view);
+        }
+        snapshotViews.entrySet().removeIf(snapshotView -> {
+            int index = snapshotView.getKey().index;
+            if (index >= first && index <= last) {
+                return false;
+            }
+            remove(snapshotView.getValue());
+            return true;
+        });
+        while (detached.size() > DETACHED_CACHE_SIZE) {
+            Map.Entry<Entry, MessageView> eldest = detached.entrySet().iterator().next();
+            detached.remove(eldest.getKey());
+            recycle(eldest.getValue());
+        }
+    }
+
+    private static boolean snapshotsEnabled() {
+        return PluginSettings.getInstance().isEnableSnapshotCache();
+    }
+
+    /**
+     * 快照的主题标识：外观、面板背景色和编辑器配色方案
+     */
+    private static String currentTheme() {
+        return UIManager.getLookAndFeel().getName() + '/' + ThemeUtils.getBackgroundColor().getRGB() + '/'
+                + EditorColorsManager.getInstance().getGlobalScheme().getName();
+    }
+
+    /**
+     * 可以直接显示的快照：消息已结束、当前没有真实组件，且快照的宽度、主题和高度都与当前一致
+     */
+    private SnapshotCache.Snapshot usableSnapshot(Entry entry, int width, String theme) {
+        if (attached.containsKey(entry) || !entry.measured || entry == entries.get(entries.size() - 1)) {
+            return null;
+        }
+        SnapshotCache.Snapshot snapshot = snapshots.get(entry, width, theme);
+        return snapshot != null && snapshot.height == entry.height ? snapshot : null;
+    }
+
+    private void showSnapshot(Entry entry, SnapshotCache.Snapshot snapshot) {
+        if (!snapshotViews.containsKey(entry)) {
+            SnapshotCache.SnapshotView view = new SnapshotCache.SnapshotView(snapshot, () -> activate(entry));
+            snapshotViews.put(entry, view);
+            add(view);
+        }
+    }
+
+    private void removeSnapshotView(Entry entry) {
+        SnapshotCache.SnapshotView view = snapshotViews.remove(entry);
+        if (view != null) {
+            remove(view);
+        }
+    }
+
+    /**
+     * 用户要与消息交互（鼠标移入、点击）：把快照换回真实组件
+     */
+    private void activate(Entry entry) {
+        if (!snapshotViews.containsKey(entry)) {
+            return;
+        }
+        removeSnapshotView(entry);
+        attachAndMeasure(entry, measuredWidth);
+        // 绑定后的组件按当前宽度重新测量一次，高度与快照不同时由布局保持视觉位置
+        entry.measured = false;
+        layoutVisible();
+        repaint();
+    }
+
+    private void captureSnapshot(Entry entry, MessageView view, String theme) {
+        JComponent component = view.getComponent();
+        if (!view.isFinished() || !entry.measured || entry == entries.get(entries.size() - 1)
+                || component.getWidth() != measuredWidth || component.getHeight() != entry.height
+                || snapshots.get(entry, measuredWidth, theme) != null || hasPendingEditor(component)) {
+            return;
+        }
+        snapshots.put(entry, SnapshotCache.capture(component, theme));
+    }
+
+    /**
+     * 是否包含尚未创建编辑器的大代码块（此时绘制出的只是空白占位）
+     */
+    private static boolean hasPendingEditor(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof LargeCodeViewer) {
+                if (!((LargeCodeViewer) component).hasEditor()) {
+                    return true;
+                }
+            } else if (component instanceof Container && hasPendingEditor((Container) component)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recycle(MessageView view) {
+        if (recyclePool.size() < RECYCLE_POOL_SIZE) {
+            recyclePool.push(view);
+        }
+    }
+
+    /**
+     * 确保消息有对应的组件并测量真实高度
+     * @return 高度是否发生变化
+     */
+    private boolean attachAndMeasure(Entry entry, int width) {
+        MessageView view = attached.get(entry);
+        if (view == null) {
+            view = detached.remove(entry);
+            if (view == null) {
+                view = recyclePool.poll();
+                if (view != null) {
+                    view.bind(entry.message);
+                } else {
+                    view = new MessageView(entry.message);
+                    MessageView created = view;
+                    created.setOnContentReady(() -> onContentReady(created));
+                }
+            }
+            attached.put(entry, view);
+            add(view.getComponent());
+        }
+        if (!view.isFinished() && entry != entries.get(entries.size() - 1)) {
+            // 只有最后一条消息可能还在流式输出，其余消息使用轻量的绘制文本
+            view.finish();
+            // 后台准备中的视图会在准备完成后替换并触发重新测量
+            entry.measured = entry.measured && !view.isFinished();
+        }
+        if (entry.measured) {
+            return false;
+        }
+
+        JComponent component = view.getComponent();
+        component.setBounds(0, 0, width, Math.max(entry.height, 1));
+        component.validate();
+        int height = component.getPreferredSize().height;
+        if (height != entry.height) {
+            // 文本换行取决于宽度，按新高度再布局一次
+            component.setSize(width, height);
+            component.validate();
+            height = component.getPreferredSize().height;
+        }
+        entry.measured = true;
+        if (height != entry.height) {
+            entry.height = height;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 视图在后台准备的内容渲染完成，高度已变化，重新测量
+     */
+    private void onContentReady(MessageView view) {
+        for (Map.Entry<Entry, MessageView> attachedEntry : attached.entrySet()) {
+            if (attachedEntry.getValue() == view) {
+                attachedEntry.getKey().measured = false;
+                layoutVisible();
+                return;
+            }
+        }
+        // 视图已离开可见范围：下次进入可见范围时重新测量
+        for (Map.Entry<Entry, MessageView> detachedEntry : detached.entrySet()) {
+            if (detachedEntry.getValue() == view) {
+                detachedEntry.getKey().measured = false;
+                return;
+            }
+        }
+    }
+
+    private void revalidateScrollPane() {
+        if (viewport != null) {
+            viewport.revalidate();
+        }
+    }
+
+    /**
+     * 包含 y 坐标的消息序号（二分查找），没有消息时返回 -1
+     */
+    private int indexAt(int y) {
+        int size = entries.size();
+        if (size == 0) {
+            return -1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= y) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void ensureOffsets() {
+        if (!offsetsDirty && offsets.length == entries.size() + 1) {
+            return;
+        }
+        if (offsets.length != entries.size() + 1) {
+            offsets = new int[entries.size() + 1];
+        }
+        int y = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            entry.index = i;
+            offsets[i] = y;
+            y += entry.height;
+        }
+        offsets[entries.size()] = y;
+        offsetsDirty = false;
+    }
+
+    /**
+     * 按文本估算消息高度：考虑自动换行后的行数和代码块的框头开销
+     */
+    private int estimateHeight(ChatMessage message) {
+        int width = Math.max(200, measuredWidth > 0 ? measuredWidth : 600);
+        int charsPerLine = Math.max(20, width / charWidth);
+        int lines = countWrappedLines(message.getContent(), charsPerLine);
+        if (message.hasReasoningContent()) {
+            // 推理内容默认折叠为一行摘要
+            lines += 2;
+        }
+        int fences = countFences(message.getContent());
+        return HEADER_HEIGHT + lines * LINE_HEIGHT + (fences / 2) * CODE_BLOCK_OVERHEAD;
+    }
+
+    static int countWrappedLines(String text, int charsPerLine) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int lines = 0;
+        int lineLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines += 1 + lineLength / charsPerLine;
+                lineLength = 0;
+            } else {
+                lineLength++;
+            }
+        }
+        return lines + 1 + lineLength / charsPerLine;
+    }
+
+    private static int countFences(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = text.indexOf("```"); i >= 0; i = text.indexOf("```", i + 3)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return LINE_HEIGHT;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * 消息条目：消息本身和它的高度
+     */
+    private final class Entry {
+        ChatMessage message;
+        int height;
+        boolean measured;
+        int index;
+
+        Entry(ChatMessage message) {
+            this.message = message;
+            this.height = estimateHeight(message);
+            this.index = entries.size();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.johnnyhooyo.dsaiassist.command;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * FileFinder 文件排名测试类
+ */
+public class FileFinderTest {
+
+    private static List<String> rank(String query, int limit, Map<String, Integer> boosts, String... paths) {
+        FileFinder.Matches matches = new FileFinder.Matches(query, limit, boosts);
+        for (String path : paths) {
+            assertTrue("排名需要看过所有文件", matches.test(path));
+        }
+        return matches.snapshot();
+    }
+
+    @Test
+    public void testRanksFileNameMatchesFirst() {
+        List<String> ranked = rank("handler", 10, Map.of(),
+                "handler/util.go", "internal/http/handler.go", "cmd/server/main.go", "pkg/api/UserHandler_test.go");
+
+        assertEquals("internal/http/handler.go", ranked.get(0));
+        assertEquals("pkg/api/UserHandler_test.go", ranked.get(1));
+        // 只在目录名中匹配的排在最后，完全不匹配的不出现
+        assertEquals("handler/util.go", ranked.get(2));
+        assertEquals(3, ranked.size());
+    }
+
+    @Test
+    public void testKeepsOnlyTopK() {
+        List<String> ranked = rank("", 2, Map.of(), "a/bb/ccc.go", "a.go", "bb.go", "a/b.go");
+
+        // 查询为空时同分，按路径长度排列
+        assertEquals(List.of("a.go", "bb.go"), ranked);
+    }
+
+    @Test
+    public void testBoostsOpenAndRecentFiles() {
+        Map<String, Integer> boosts = FileFinder.boosts(List.of("pkg/server/server.go"), List.of("docs/readme.md"));
+        List<String> ranked = rank("", 10, boosts, "main.go", "pkg/server/server.go", "docs/readme.md");
+
+        assertEquals(List.of("docs/readme.md", "pkg/server/server.go", "main.go"), ranked);
+    }
+
+    @Test
+    public void testRelativePath() {
+        assertEquals("src/main.go", ProjectFileCache.relativePath("/work/repo", "/work/repo/src/main.go"));
+        assertEquals("/work/repo2/main.go", ProjectFileCache.relativePath("/work/repo", "/work/repo2/main.go"));
+        assertEquals("/tmp/a.go", ProjectFileCache.relativePath(null, "/tmp/a.go"));
+    }
+
+    @Test
+    public void testEventScopeIsLimitedToContentRoots() {
+        List<String> roots = List.of("/work/repo", "/work/shared/lib");
+
+        assertTrue(ProjectFileCache.isUnder("/work/repo", roots));
+        assertTrue(ProjectFileCache.isUnder("/work/repo/src/main.go", roots));
+        assertTrue(ProjectFileCache.isUnder("/work/shared/lib/util.go", roots));
+        assertFalse("同名前缀的其他目录", ProjectFileCache.isUnder("/work/repo2/main.go", roots));
+        assertFalse(ProjectFileCache.isUnder("/work/shared/other.go", roots));
+        assertFalse(ProjectFileCache.isUnder("/tmp/a.go", List.of()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.johnnyhooyo.dsaiassist.command;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * FuzzyMatcher 模糊匹配评分测试类
+ */
+public class FuzzyMatcherTest {
+
+    @Test
+    public void testSubsequenceIgnoringCase() {
+        FuzzyMatcher matcher = new FuzzyMatcher("usrh");
+        assertNotEquals(FuzzyMatcher.NO_MATCH, matcher.scorePath("api/UserHandler.go"));
+        assertEquals(FuzzyMatcher.NO_MATCH, matcher.scorePath("api/HandlerUser.go"));
+        assertEquals(FuzzyMatcher.NO_MATCH, new FuzzyMatcher("toolong").score("tool", 0));
+    }
+
+    @Test
+    public void testCamelHumpsBeatMidWordMatches() {
+        FuzzyMatcher matcher = new FuzzyMatcher("uh");
+        assertTrue(matcher.scorePath("UserHandler.go") > matcher.scorePath("pushhook.go"));
+    }
+
+    @Test
+    public void testConsecutiveAndPrefixMatchesRankHigher() {
+        FuzzyMatcher matcher = new FuzzyMatcher("serv");
+        int prefix = matcher.scorePath("server.go");
+        int scattered = matcher.scorePath("sshkeyreview.go");
+        assertTrue(prefix > scattered);
+        // 驼峰边界上的连续匹配优于单词中间的连续匹配
+        assertTrue(matcher.scorePath("UserService.go") > matcher.scorePath("observer.go"));
+    }
+
+    @Test
+    public void testPathSegments() {
+        FuzzyMatcher matcher = new FuzzyMatcher("ihh");
+        // 文件名不匹配时按路径各段开头匹配
+        assertTrue(matcher.scorePath("internal/http/handler.go") > matcher.scorePath("internal/httpheaders.go"));
+
+        FuzzyMatcher withSlash = new FuzzyMatcher("http/han");
+        assertNotEquals(FuzzyMatcher.NO_MATCH, withSlash.scorePath("internal/http/handler.go"));
+        assertEquals(FuzzyMatcher.NO_MATCH, withSlash.scorePath("internal/handler.go"));
+    }
+
+    @Test
+    public void testCommandSuggestionsAreRanked() {
+        CommandProcessor processor = new CommandProcessor(null, () -> {}, () -> {}, path -> {});
+        List<String> suggestions = processor.getCommandSuggestions("/nc");
+
+        // 驼峰和分隔符之外的零散匹配也保留，但排在后面
+        assertTrue(suggestions.get(0).startsWith("/newchat"));
+        assertTrue(processor.getCommandSuggestions("/cl").get(0).startsWith("/clear"));
+        assertTrue(processor.getCommandSuggestions("/@main").isEmpty());
+    }
+
+    @Test
+    public void testFileNameMatchBeatsDirectoryMatch() {
+        FuzzyMatcher matcher = new FuzzyMatcher("conf");
+        assertTrue(matcher.scorePath("app/config.go") > matcher.scorePath("config/app.go"));
+    }
+}
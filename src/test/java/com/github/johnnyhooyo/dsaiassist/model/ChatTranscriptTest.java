@@ -0,0 +1,54 @@
+package com.github.johnnyhooyo.dsaiassist.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * ChatTranscript 读写测试类
+ */
+public class ChatTranscriptTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ChatMessage question = new ChatMessage("如何读取文件？", true, LocalDateTime.of(2024, 5, 1, 10, 30, 15));
+        ChatMessage answer = new ChatMessage("```java\nFiles.readString(path);\n```", false,
+                LocalDateTime.of(2024, 5, 1, 10, 30, 20));
+        answer.setReasoningContent("用户想读取文件");
+        ChatMessage benchmark = new ChatMessage("⏱ 延迟基准测试", false, LocalDateTime.of(2024, 5, 1, 10, 31, 0));
+        benchmark.setLocalOnly(true);
+        ChatTranscript transcript = new ChatTranscript(List.of(question, answer, benchmark), "草稿");
+
+        Path file = Files.createTempFile("transcript", ".json.gz");
+        try {
+            transcript.writeTo(file);
+            ChatTranscript restored = ChatTranscript.readFrom(file);
+
+            assertEquals("草稿", restored.getDraft());
+            assertEquals(List.of(question, answer, benchmark), restored.getMessages());
+            assertNull(restored.getMessages().get(0).getReasoningContent());
+            assertEquals("用户想读取文件", restored.getMessages().get(1).getReasoningContent());
+            assertFalse(restored.getMessages().get(1).isLocalOnly());
+            assertTrue(restored.getMessages().get(2).isLocalOnly());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptFileIsReportedAsIOException() throws IOException {
+        Path file = Files.createTempFile("transcript", ".json.gz");
+        try {
+            Files.writeString(file, "not gzip");
+            ChatTranscript.readFrom(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.johnnyhooyo.dsaiassist.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * ConnectionHealthProbe 探测与缓存测试类（使用本地 HttpServer）
+ */
+public class ConnectionHealthProbeTest {
+
+    private static final String MODELS = "{\"object\":\"list\",\"data\":[{\"id\":\"deepseek-chat\"}]}";
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/models", exchange -> {
+            requests.incrementAndGet();
+            boolean authorized = "Bearer sk-good".equals(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] payload = (authorized ? MODELS : "{\"error\":\"invalid key\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(authorized ? 200 : 401, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/models";
+    }
+
+    @Test
+    public void testHealthyResultIsCachedPerKey() {
+        ConnectionHealthProbe probe = new ConnectionHealthProbe(httpClient, endpoint());
+
+        ConnectionHealth health = probe.probe("sk-good", false);
+        assertTrue(health.isHealthy());
+        assertTrue(health.getHeadersMillis() >= 0);
+        assertTrue(health.getTotalMillis() >= health.getHeadersMillis());
+        assertSame("有效期内复用缓存", health, probe.probe("sk-good", false));
+        assertSame(health, probe.getCached("sk-good"));
+        assertEquals(1, requests.get());
+
+        ConnectionHealth rejected = probe.probe("sk-bad", false);
+        assertTrue(rejected.isReachable());
+        assertTrue(rejected.isUnauthorized());
+        assertEquals("不同的 API Key 分别缓存", 2, requests.get());
+    }
+
+    @Test
+    public void testForceRefreshAndInvalidate() {
+        ConnectionHealthProbe probe = new ConnectionHealthProbe(httpClient, endpoint());
+        ConnectionHealth first = probe.probe("sk-good", false);
+
+        assertNotSame(first, probe.probe("sk-good", true));
+        assertEquals(2, requests.get());
+
+        probe.invalidate();
+        assertNull(probe.getCached("sk-good"));
+        probe.probe("sk-good", false);
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testExpiredResultIsProbedAgain() throws InterruptedException {
+        ConnectionHealthProbe probe = new ConnectionHealthProbe(httpClient, endpoint(), 1);
+        probe.probe("sk-good", false);
+        Thread.sleep(20);
+
+        assertNull(probe.getCached("sk-good"));
+        probe.probe("sk-good", false);
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testUnreachableEndpointIsReportedAsFailure() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ConnectionHealthProbe probe = new ConnectionHealthProbe(httpClient, "http://127.0.0.1:" + port + "/models");
+
+        ConnectionHealth health = probe.probe("sk-good", false);
+        assertFalse(health.isReachable());
+        assertNotNull(health.getError());
+        assertEquals(-1, health.getHeadersMillis());
+        assertTrue(health.getSummary().startsWith("连接失败"));
+    }
+}
@@ -1,9 +1,12 @@
 package com.github.johnnyhooyo.dsaiassist.service;
 
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
 import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
+import com.google.gson.JsonArray;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -63,4 +66,19 @@ public class DeepSeekServiceStreamTest extends BasePlatformTestCase {
         assertFalse("Short API key should be invalid", service.isValidApiKey("sk-123"));
         assertTrue("Valid API key should be accepted", service.isValidApiKey("sk-1234567890abcdef"));
     }
+
+    @Test
+    public void testParseMessagesSkipsLocalOnlyMessages() {
+        DeepSeekService service = new DeepSeekService();
+        ChatMessage question = new ChatMessage("你好", true);
+        ChatMessage benchmark = new ChatMessage("⏱ 延迟基准测试", false);
+        benchmark.setLocalOnly(true);
+        ChatMessage answer = new ChatMessage("你好！", false);
+
+        JsonArray parsed = service.parseMessages(List.of(question, benchmark, answer));
+
+        assertEquals(2, parsed.size());
+        assertEquals("user", parsed.get(0).getAsJsonObject().get("role").getAsString());
+        assertEquals("你好！", parsed.get(1).getAsJsonObject().get("content").getAsString());
+    }
 }
@@ -0,0 +1,104 @@
+package com.github.johnnyhooyo.dsaiassist.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * NetworkExecutor 指标与关闭测试类
+ */
+public class NetworkExecutorTest {
+
+    private NetworkExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new NetworkExecutor("Test-IO-");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGaugesTrackRunningAndCompletedTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+        }
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(3, executor.getActiveTaskCount());
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(0, executor.getCompletedTaskCount());
+
+        release.countDown();
+        assertEquals("done", executor.supply(() -> "done").get(5, TimeUnit.SECONDS));
+        waitUntil(() -> executor.getCompletedTaskCount() == 4);
+        assertEquals(0, executor.getActiveTaskCount());
+    }
+
+    @Test
+    public void testTaskRunsOnNamedVirtualThread() throws Exception {
+        Thread thread = executor.supply(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertTrue(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("Test-IO-"));
+    }
+
+    @Test
+    public void testShutdownNowInterruptsWithoutWaiting() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        executor.shutdownNow();
+        assertTrue("关闭不应等待进行中的任务", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertTrue(executor.isShutdown());
+        assertTrue("进行中的任务应被中断", interrupted.await(5, TimeUnit.SECONDS));
+
+        try {
+            executor.execute(() -> { });
+            fail("RejectedExecutionException expected");
+        } catch (RejectedExecutionException e) {
+            assertEquals("被拒绝的任务不计入排队数", 0, executor.getQueueDepth());
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
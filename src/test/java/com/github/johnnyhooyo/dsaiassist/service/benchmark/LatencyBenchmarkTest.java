@@ -0,0 +1,152 @@
+package com.github.johnnyhooyo.dsaiassist.service.benchmark;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 延迟基准测试（配置解析、分位数统计、并发控制）测试类
+ */
+public class LatencyBenchmarkTest {
+
+    private static final String ENDPOINT = "https://api.deepseek.com/v1/chat/completions";
+
+    @Test
+    public void testParseDefaults() {
+        BenchmarkConfig config = BenchmarkConfig.parse("", "deepseek-chat", ENDPOINT, null);
+
+        assertEquals(List.of("deepseek-chat"), config.getModels());
+        assertEquals(List.of(ENDPOINT), config.getEndpoints());
+        assertEquals(BenchmarkConfig.DEFAULT_PROMPTS, config.getPrompts());
+    }
+
+    @Test
+    public void testParseOptionsAndPrompt() {
+        BenchmarkConfig config = BenchmarkConfig.parse("n=3 c=4 models=deepseek-chat,deepseek-reasoner 你好 世界",
+                "deepseek-chat", ENDPOINT, null);
+
+        assertEquals(3, config.getRuns());
+        assertEquals(4, config.getConcurrency());
+        assertEquals(List.of("deepseek-chat", "deepseek-reasoner"), config.getModels());
+        assertEquals(List.of("你好 世界"), config.getPrompts());
+        assertEquals(3, config.getRequestsPerTarget());
+    }
+
+    @Test
+    public void testParseCsvFileRelativeToBaseDir() {
+        Path baseDir = Path.of("/work/project");
+        assertNull(BenchmarkConfig.parse("", "deepseek-chat", ENDPOINT, baseDir).getCsvFile());
+        assertEquals(baseDir.resolve("out/bench.csv"),
+                BenchmarkConfig.parse("csv=out/bench.csv", "deepseek-chat", ENDPOINT, baseDir).getCsvFile());
+    }
+
+    @Test
+    public void testPromptsFileIsReadOnLoad() throws IOException {
+        Path dir = Files.createTempDirectory("bench-prompts");
+        try {
+            Path file = dir.resolve("prompts.txt");
+            Files.writeString(file, "第一条\n\n  第二条  \n");
+            BenchmarkConfig config = BenchmarkConfig.parse("n=2 prompts=prompts.txt", "deepseek-chat", ENDPOINT, dir);
+
+            assertEquals("解析参数时不读取文件", file, config.getPromptsFile());
+            assertTrue(config.getPrompts().isEmpty());
+            BenchmarkConfig loaded = config.loadPrompts();
+            assertNull(loaded.getPromptsFile());
+            assertEquals(List.of("第一条", "第二条"), loaded.getPrompts());
+            assertEquals(4, loaded.getRequestsPerTarget());
+
+            try {
+                BenchmarkConfig.parse("prompts=missing.txt", "deepseek-chat", ENDPOINT, dir).loadPrompts();
+                fail("IOException expected");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().startsWith("无法读取提示词文件"));
+            }
+            BenchmarkConfig inline = BenchmarkConfig.parse("prompts=missing.txt 你好", "deepseek-chat", ENDPOINT, dir);
+            assertNull("行内提示词优先于文件", inline.getPromptsFile());
+            assertEquals(List.of("你好"), inline.loadPrompts().getPrompts());
+        } finally {
+            Files.deleteIfExists(dir.resolve("prompts.txt"));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testParseRejectsInvalidValues() {
+        try {
+            BenchmarkConfig.parse("c=0", "deepseek-chat", ENDPOINT, null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("c "));
+        }
+        try {
+            BenchmarkConfig.parse("foo=1", "deepseek-chat", ENDPOINT, null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(BenchmarkConfig.USAGE));
+        }
+    }
+
+    @Test
+    public void testNearestRankPercentiles() {
+        double[] values = new double[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 - i; // 乱序输入
+        }
+        LatencyStats stats = LatencyStats.of(values);
+
+        assertEquals(50.0, stats.getP50(), 0.0);
+        assertEquals(90.0, stats.getP90(), 0.0);
+        assertEquals(99.0, stats.getP99(), 0.0);
+        assertEquals(50.5, stats.getMean(), 1e-9);
+        assertEquals(0, LatencyStats.of(new double[0]).getCount());
+    }
+
+    @Test
+    public void testRunRespectsConcurrencyAndCollectsSamples() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            LatencyBenchmark benchmark = new LatencyBenchmark((request, response) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                    response.onContent("a");
+                    response.onContent("b");
+                    response.onComplete("ab");
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }, executor);
+
+            BenchmarkConfig config = new BenchmarkConfig(List.of("m1", "m2"), List.of(ENDPOINT),
+                    List.of("p1", "p2"), 3, 2);
+            BenchmarkReport report = benchmark.run(config, "sk-test", 16, 0.0, progress -> {});
+
+            assertEquals(12, report.getSamples().size());
+            assertTrue(maxInFlight.get() <= 2);
+            assertEquals("m1", report.getSamples().get(0).getModel());
+            assertEquals(2, report.getSamples().get(0).getChunkCount());
+            assertTrue(report.getSamples().get(0).getTtftMillis() >= 0);
+            assertEquals(2, report.groupByTarget().size());
+            assertTrue(report.toTable().contains("6/6"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCsvEscaping() {
+        assertEquals("plain", BenchmarkReport.csv("plain"));
+        assertEquals("\"a,b\"", BenchmarkReport.csv("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", BenchmarkReport.csv("say \"hi\""));
+    }
+}
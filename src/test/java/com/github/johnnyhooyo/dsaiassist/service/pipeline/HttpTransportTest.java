@@ -0,0 +1,128 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * HttpTransport 压缩协商测试类（使用本地 HttpServer）
+ */
+public class HttpTransportTest {
+
+    private static final String COMPLETION =
+            "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"你好\"}}]}";
+
+    private HttpServer server;
+    private volatile String receivedEncoding;
+    private volatile String receivedBody;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chat", exchange -> {
+            receivedEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream in = exchange.getRequestBody();
+            if ("gzip".equals(receivedEncoding)) {
+                in = new GZIPInputStream(in);
+            }
+            receivedBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+
+            byte[] payload = COMPLETION.getBytes(StandardCharsets.UTF_8);
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                    gzip.write(payload);
+                }
+                payload = buffer.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private ChatRequest request(String content) {
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/chat";
+        return new ChatRequest(endpoint, "sk-test", "deepseek-chat",
+                ChatRequest.singleUserMessage(content), 2048, 0.7, false);
+    }
+
+    @Test
+    public void testLargeBodyIsCompressedAndResponseDecoded() throws Exception {
+        HttpTransport transport = new HttpTransport(HttpClient.newHttpClient(), new Gson(), () -> 1024);
+        String prompt = "public class Foo {}\n".repeat(500);
+        StringBuilder completed = new StringBuilder();
+
+        transport.proceed(request(prompt), new ChatResponseStream() {
+            @Override
+            public void onContent(String chunk) {
+            }
+
+            @Override
+            public void onComplete(String fullContent) {
+                completed.append(fullContent);
+            }
+
+            @Override
+            public void onError(String message) {
+                fail(message);
+            }
+        });
+
+        assertEquals("gzip", receivedEncoding);
+        assertTrue(receivedBody.contains("public class Foo"));
+        assertEquals("你好", completed.toString());
+
+        TransportStats stats = transport.getStats();
+        assertEquals(1, stats.getCompressedRequestCount());
+        assertTrue(stats.getRequestWireBytes() < stats.getRequestBytes());
+        assertEquals(1, stats.getCompressedResponseCount());
+        assertEquals(COMPLETION.getBytes(StandardCharsets.UTF_8).length, stats.getResponseBytes());
+    }
+
+    @Test
+    public void testSmallBodyIsSentUncompressed() throws Exception {
+        HttpTransport transport = new HttpTransport(HttpClient.newHttpClient(), new Gson(), () -> 1024);
+
+        transport.proceed(request("hi"), new ChatResponseStream() {
+            @Override
+            public void onContent(String chunk) {
+            }
+
+            @Override
+            public void onComplete(String fullContent) {
+            }
+
+            @Override
+            public void onError(String message) {
+                fail(message);
+            }
+        });
+
+        assertNull(receivedEncoding);
+        assertEquals(0, transport.getStats().getCompressedRequestCount());
+        assertEquals(transport.getStats().getRequestBytes(), transport.getStats().getRequestWireBytes());
+    }
+}
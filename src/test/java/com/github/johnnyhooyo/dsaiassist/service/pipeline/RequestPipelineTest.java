@@ -0,0 +1,176 @@
+package com.github.johnnyhooyo.dsaiassist.service.pipeline;
+
+import com.google.gson.JsonArray;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * RequestPipeline 及内置拦截器测试类
+ */
+public class RequestPipelineTest {
+
+    private static ChatRequest request(String content) {
+        return new ChatRequest("https://example.invalid/v1/chat/completions", "sk-test", "deepseek-chat",
+                ChatRequest.singleUserMessage(content), 2048, 0.7, true);
+    }
+
+    private static String lastMessageContent(ChatRequest request) {
+        JsonArray messages = request.getMessages();
+        return messages.get(messages.size() - 1).getAsJsonObject().get("content").getAsString();
+    }
+
+    @Test
+    public void testInterceptorsRunInOrder() throws Exception {
+        List<String> calls = new ArrayList<>();
+        RequestPipeline pipeline = new RequestPipeline((request, response) -> {
+            calls.add("transport");
+            response.onComplete("");
+        });
+        pipeline.addInterceptor((request, response, chain) -> {
+            calls.add("first");
+            chain.proceed(request, response);
+        });
+        pipeline.addInterceptor((request, response, chain) -> {
+            calls.add("second");
+            chain.proceed(request, response);
+        });
+
+        pipeline.execute(request("hi"), new RecordingStream());
+
+        assertEquals(List.of("first", "second", "transport"), calls);
+    }
+
+    @Test
+    public void testRetryBeforeFirstChunk() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        RequestPipeline pipeline = new RequestPipeline((request, response) -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ApiException(503, "busy");
+            }
+            response.onContent("ok");
+            response.onComplete("ok");
+        }).addInterceptor(new RetryInterceptor(2, 1));
+
+        RecordingStream stream = new RecordingStream();
+        pipeline.execute(request("hi"), stream);
+
+        assertEquals(3, attempts.get());
+        assertEquals("ok", stream.completed);
+    }
+
+    @Test
+    public void testNoRetryAfterContentEmitted() {
+        AtomicInteger attempts = new AtomicInteger();
+        RequestPipeline pipeline = new RequestPipeline((request, response) -> {
+            attempts.incrementAndGet();
+            response.onContent("partial");
+            throw new IOException("connection reset");
+        }).addInterceptor(new RetryInterceptor(2, 1));
+
+        try {
+            pipeline.execute(request("hi"), new RecordingStream());
+            fail("IOException expected");
+        } catch (Exception e) {
+            assertTrue(e instanceof IOException);
+        }
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void testNoRetryForClientError() {
+        AtomicInteger attempts = new AtomicInteger();
+        RequestPipeline pipeline = new RequestPipeline((request, response) -> {
+            attempts.incrementAndGet();
+            throw new ApiException(401, "unauthorized");
+        }).addInterceptor(new RetryInterceptor(2, 1));
+
+        try {
+            pipeline.execute(request("hi"), new RecordingStream());
+            fail("ApiException expected");
+        } catch (Exception e) {
+            assertEquals(401, ((ApiException) e).getStatusCode());
+        }
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void testRedactionRewritesOutgoingMessages() throws Exception {
+        List<String> sent = new ArrayList<>();
+        RequestPipeline pipeline = new RequestPipeline((request, response) -> {
+            sent.add(lastMessageContent(request));
+            response.onComplete("");
+        }).addInterceptor(new RedactionInterceptor());
+
+        pipeline.execute(request("key=sk-abcdefghijklmnopqrstuvwxyz123456 end"), new RecordingStream());
+
+        assertEquals("key=" + RedactionInterceptor.PLACEHOLDER + " end", sent.get(0));
+    }
+
+    @Test
+    public void testCacheReplaysCompletedResponse() throws Exception {
+        AtomicInteger transportCalls = new AtomicInteger();
+        CacheInterceptor cache = new CacheInterceptor(() -> true);
+        RequestPipeline pipeline = new RequestPipeline((request, response) -> {
+            transportCalls.incrementAndGet();
+            response.onReasoning("thinking");
+            response.onContent("answer");
+            response.onComplete("answer");
+        }).addInterceptor(cache);
+
+        pipeline.execute(request("same"), new RecordingStream());
+        RecordingStream second = new RecordingStream();
+        pipeline.execute(request("same"), second);
+
+        assertEquals(1, transportCalls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals("thinking", second.reasoning.toString());
+        assertEquals("answer", second.completed);
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysProceeds() throws Exception {
+        AtomicInteger transportCalls = new AtomicInteger();
+        RequestPipeline pipeline = new RequestPipeline((request, response) -> {
+            transportCalls.incrementAndGet();
+            response.onComplete("answer");
+        }).addInterceptor(new CacheInterceptor(() -> false));
+
+        pipeline.execute(request("same"), new RecordingStream());
+        pipeline.execute(request("same"), new RecordingStream());
+
+        assertEquals(2, transportCalls.get());
+    }
+
+    private static final class RecordingStream implements ChatResponseStream {
+        final StringBuilder content = new StringBuilder();
+        final StringBuilder reasoning = new StringBuilder();
+        String completed;
+        String error;
+
+        @Override
+        public void onContent(String chunk) {
+            content.append(chunk);
+        }
+
+        @Override
+        public void onReasoning(String chunk) {
+            reasoning.append(chunk);
+        }
+
+        @Override
+        public void onComplete(String fullContent) {
+            completed = fullContent;
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    }
+}
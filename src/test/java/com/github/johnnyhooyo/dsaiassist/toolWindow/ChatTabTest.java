@@ -0,0 +1,72 @@
+package com.github.johnnyhooyo.dsaiassist.toolWindow;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.github.johnnyhooyo.dsaiassist.ui.ChatPanel;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+/**
+ * ChatTab 延迟创建和休眠测试类
+ */
+public class ChatTabTest extends BasePlatformTestCase {
+
+    private ChatTab tab;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tab = new ChatTab(() -> new ChatPanel(getProject()));
+        Disposer.register(getTestRootDisposable(), tab);
+    }
+
+    @Test
+    public void testChatPanelIsCreatedWhenTabIsShown() {
+        assertNull(tab.getChatPanel());
+
+        tab.setTabVisible(true);
+        assertNotNull(tab.getChatPanel());
+    }
+
+    @Test
+    public void testHibernatedTabRestoresConversation() {
+        tab.setTabVisible(true);
+        tab.getChatPanel().addMessage(new ChatMessage("问题", true));
+        tab.setTabVisible(false);
+
+        // 尚未空闲足够长时间
+        assertFalse(tab.hibernateIfIdle(System.currentTimeMillis(), 60_000));
+        assertTrue(tab.hibernateIfIdle(System.currentTimeMillis() + 60_000, 60_000));
+        assertTrue(tab.isHibernated());
+        assertNull(tab.getChatPanel());
+
+        tab.setTabVisible(true);
+        assertFalse(tab.isHibernated());
+        assertEquals("问题", tab.getChatPanel().createTranscript().getMessages().get(1).getContent());
+    }
+
+    @Test
+    public void testSnapshotFileIsReadInBackground() {
+        tab.setTabVisible(true);
+        tab.getChatPanel().addMessage(new ChatMessage("问题", true));
+        tab.setTabVisible(false);
+        assertTrue(tab.hibernate());
+        PlatformTestUtil.waitWithEventsDispatching("会话未写入文件", tab::isSnapshotWritten, 10);
+
+        tab.setTabVisible(true);
+        assertTrue("读取文件时不阻塞 EDT", tab.isRestoring());
+        assertNull(tab.getChatPanel());
+
+        PlatformTestUtil.waitWithEventsDispatching("会话未恢复", () -> tab.getChatPanel() != null, 10);
+        assertFalse(tab.isHibernated());
+        assertEquals("问题", tab.getChatPanel().createTranscript().getMessages().get(1).getContent());
+    }
+
+    @Test
+    public void testVisibleTabIsNotHibernated() {
+        tab.setTabVisible(true);
+        assertFalse(tab.hibernate());
+        assertNotNull(tab.getChatPanel());
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+
+/**
+ * ChatHistoryPanel 轻量模式追加渲染测试类
+ */
+public class ChatHistoryPanelTest extends BasePlatformTestCase {
+
+    private ChatHistoryPanel panel;
+    private Document document;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        panel = new ChatHistoryPanel();
+        Disposer.register(getTestRootDisposable(), panel);
+        JScrollPane scrollPane = (JScrollPane) panel.getComponent(0);
+        document = ((JTextPane) scrollPane.getViewport().getView()).getDocument();
+    }
+
+    @Test
+    public void testStreamingOnlyReplacesLastMessage() {
+        panel.addMessage(new ChatMessage("问题", true));
+        panel.addMessage(new ChatMessage("第一个回答", false));
+        panel.getAllText();
+        int finalizedLength = document.getLength();
+
+        int[] lowestRemoval = {Integer.MAX_VALUE};
+        document.addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                lowestRemoval[0] = Math.min(lowestRemoval[0], e.getOffset());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+
+        ChatMessage streaming = new ChatMessage("", false);
+        panel.addMessage(streaming);
+        for (int i = 0; i < 20; i++) {
+            streaming.setContent(streaming.getContent() + "片段" + i);
+            panel.updateLastMessage(streaming);
+            panel.getAllText();
+        }
+
+        assertTrue("已结束的消息不应被重新渲染", lowestRemoval[0] >= finalizedLength);
+        assertEquals(3, panel.getRenderedMessageCount());
+        String text = panel.getAllText();
+        assertTrue(text.contains("第一个回答"));
+        assertTrue(text.contains("片段0片段1"));
+        assertTrue(text.contains("片段19"));
+        assertEquals("每条消息只出现一次", text.indexOf("片段0"), text.lastIndexOf("片段0"));
+    }
+
+    @Test
+    public void testUpdateEarlierMessageByIdentity() {
+        ChatMessage benchmark = new ChatMessage("基准测试运行中", false);
+        panel.addMessage(benchmark);
+        ChatMessage question = new ChatMessage("问题", true);
+        panel.addMessage(question);
+        panel.getAllText();
+
+        benchmark.setContent("基准测试完成");
+        panel.updateMessage(benchmark);
+
+        assertSame(question, panel.getAllMessages().get(1));
+        String text = panel.getAllText();
+        assertTrue(text.contains("基准测试完成"));
+        assertFalse(text.contains("运行中"));
+        assertTrue("后面的消息保留", text.indexOf("问题") > text.indexOf("基准测试完成"));
+        assertEquals(2, panel.getRenderedMessageCount());
+    }
+
+    @Test
+    public void testSuspendedPanelRendersOnResume() {
+        panel.setRenderingSuspended(true);
+        panel.addMessage(new ChatMessage("问题", true));
+        panel.addMessage(new ChatMessage("回答", false));
+        assertEquals(0, panel.getRenderedMessageCount());
+
+        panel.setRenderingSuspended(false);
+        assertEquals(2, panel.getRenderedMessageCount());
+    }
+
+    @Test
+    public void testClearHistory() {
+        panel.addMessage(new ChatMessage("问题", true));
+        panel.getAllText();
+        panel.clearHistory();
+
+        assertEquals(0, document.getLength());
+        assertTrue(panel.getAllMessages().isEmpty());
+        assertEquals(0, panel.getRenderedMessageCount());
+    }
+}
@@ -1,8 +1,11 @@
 package com.github.johnnyhooyo.dsaiassist.ui;
 
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.ui.JBUI;
 import org.junit.Test;
 
+import java.awt.*;
+
 /**
  * CodeBlockComponent 测试类
  */
@@ -46,6 +49,42 @@ public class CodeBlockComponentTest extends BasePlatformTestCase {
         assertEquals("Language should default to 'text'", "text", codeBlock.getLanguage());
     }
 
+    @Test
+    public void testLargeCodeBlockUsesEditorViewer() {
+        // 超过行数阈值的代码块使用编辑器视图，编辑器在显示前不会创建
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i <= CodeBlockComponent.LARGE_BLOCK_LINES; i++) {
+            code.append("fmt.Println(").append(i).append(")\n");
+        }
+
+        CodeBlockComponent codeBlock = new CodeBlockComponent(code.toString(), "go");
+
+        assertTrue("Large block should be editor backed", codeBlock.isEditorBacked());
+        assertEquals("Code content should match", code.toString(), codeBlock.getCode());
+        LargeCodeViewer viewer = (LargeCodeViewer) ((BorderLayout) codeBlock.getLayout())
+                .getLayoutComponent(BorderLayout.CENTER);
+        assertFalse("Editor should be created lazily", viewer.hasEditor());
+        assertTrue("Viewer height should be capped",
+                viewer.getPreferredSize().height <= JBUI.scale(LargeCodeViewer.MAX_HEIGHT));
+    }
+
+    @Test
+    public void testStreamingCodeBlockSwitchesToEditorViewer() {
+        // 流式输出中的代码块越过阈值后切换为编辑器视图，内容保持完整
+        CodeBlockComponent codeBlock = new CodeBlockComponent("", "go");
+        assertFalse("Small block should use text area", codeBlock.isEditorBacked());
+
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i <= CodeBlockComponent.LARGE_BLOCK_LINES; i++) {
+            String line = "x := " + i + "\n";
+            code.append(line);
+            codeBlock.appendCode(line);
+        }
+
+        assertTrue("Block should switch after crossing threshold", codeBlock.isEditorBacked());
+        assertEquals("Code content should match", code.toString(), codeBlock.getCode());
+    }
+
     @Test
     public void testEnhancedChatHistoryPanel() {
         // 测试增强聊天历史面板的创建
@@ -0,0 +1,62 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.colors.EditorColorsScheme;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+/**
+ * CodeHighlighter 语法高亮测试类
+ */
+public class CodeHighlighterTest extends BasePlatformTestCase {
+
+    private static final String GO_CODE = "package main\n\n/* 多行\n   注释 */\nfunc main() {\n\ts := \"hello\"\n\treturn\n}\n";
+
+    @Test
+    public void testGoCodeIsHighlighted() {
+        CodeHighlighter.Highlights highlights = CodeHighlighter.highlight("go", GO_CODE, scheme(), null);
+
+        assertNotNull("Go 代码块应能找到高亮器", highlights);
+        assertTrue(highlights.size() > 0);
+        assertEquals(GO_CODE.length(), highlights.length);
+    }
+
+    @Test
+    public void testUnsupportedLanguageIsNotHighlighted() {
+        assertNull(CodeHighlighter.highlight("text", GO_CODE, scheme(), null));
+        assertNull(CodeHighlighter.highlight("", GO_CODE, scheme(), null));
+    }
+
+    @Test
+    public void testStreamedHighlightMatchesFullHighlight() {
+        // 按小片段增量高亮，每一步的结果都应与整段重新分析一致
+        EditorColorsScheme scheme = scheme();
+        CodeHighlighter.Highlights streamed = null;
+        for (int i = 1; i <= GO_CODE.length(); i += 3) {
+            String prefix = GO_CODE.substring(0, i);
+            streamed = CodeHighlighter.highlight("go", prefix, scheme, streamed);
+            assertEquals(describe(CodeHighlighter.highlight("go", prefix, scheme, null)), describe(streamed));
+        }
+    }
+
+    @Test
+    public void testFullHighlightIsCached() {
+        EditorColorsScheme scheme = scheme();
+
+        assertSame(CodeHighlighter.highlight("go", GO_CODE, scheme, null),
+                CodeHighlighter.highlight("go", GO_CODE, scheme, null));
+    }
+
+    private static EditorColorsScheme scheme() {
+        return EditorColorsManager.getInstance().getGlobalScheme();
+    }
+
+    private static String describe(CodeHighlighter.Highlights highlights) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < highlights.size(); i++) {
+            sb.append(highlights.start(i)).append('-').append(highlights.end(i))
+                    .append(':').append(highlights.color(i).getRGB()).append(' ');
+        }
+        return sb.toString();
+    }
+}
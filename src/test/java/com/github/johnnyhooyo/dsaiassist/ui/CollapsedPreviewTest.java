@@ -0,0 +1,63 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * CollapsedPreview 折叠范围测试类
+ */
+public class CollapsedPreviewTest {
+
+    private static String lines(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testShortContentIsNotCollapsed() {
+        assertNull(CollapsedPreview.of(lines(100), 300));
+        assertNull("阈值为 0 时不折叠", CollapsedPreview.of(lines(1000), 0));
+    }
+
+    @Test
+    public void testKeepsHeadAndTailLines() {
+        String text = lines(1000);
+        CollapsedPreview preview = CollapsedPreview.of(text, 300);
+
+        assertNotNull(preview);
+        assertEquals(lines(CollapsedPreview.HEAD_LINES), text.substring(0, preview.headEnd));
+        assertTrue(text.substring(preview.tailStart).startsWith("line 990\n"));
+        assertEquals(1000 - CollapsedPreview.HEAD_LINES - CollapsedPreview.TAIL_LINES, preview.hiddenLines);
+        assertTrue(preview.expandLabel().contains("970 行"));
+    }
+
+    @Test
+    public void testSingleHugeLineIsCollapsedByChars() {
+        String text = "x".repeat(50_000);
+        CollapsedPreview preview = CollapsedPreview.of(text, 300);
+
+        assertNotNull(preview);
+        assertEquals(CollapsedPreview.HEAD_CHARS, preview.headEnd);
+        assertEquals(text.length() - CollapsedPreview.TAIL_CHARS, preview.tailStart);
+    }
+
+    @Test
+    public void testSliceKeepsRunStyles() {
+        List<MarkdownRenderer.StyledRun> runs = List.of(
+                new MarkdownRenderer.StyledRun("abc", MarkdownStyles.Kind.BASE),
+                new MarkdownRenderer.StyledRun("def", MarkdownStyles.Kind.BOLD));
+
+        List<MarkdownRenderer.StyledRun> sliced = CollapsedTextView.slice(runs, 2, 5);
+        assertEquals(2, sliced.size());
+        assertEquals("c", sliced.get(0).text);
+        assertEquals(MarkdownStyles.Kind.BASE, sliced.get(0).kind);
+        assertEquals("de", sliced.get(1).text);
+        assertEquals(MarkdownStyles.Kind.BOLD, sliced.get(1).kind);
+    }
+}
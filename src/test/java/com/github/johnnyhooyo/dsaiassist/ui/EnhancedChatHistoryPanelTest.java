@@ -0,0 +1,64 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+/**
+ * EnhancedChatHistoryPanel 渲染暂停测试类
+ */
+public class EnhancedChatHistoryPanelTest extends BasePlatformTestCase {
+
+    private EnhancedChatHistoryPanel panel;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        panel = new EnhancedChatHistoryPanel();
+        Disposer.register(getTestRootDisposable(), panel);
+    }
+
+    @Test
+    public void testSuspendedPanelOnlyUpdatesModel() {
+        panel.setRenderingSuspended(true);
+        ChatMessage message = new ChatMessage("", false);
+        panel.addMessage(message);
+        for (int i = 0; i < 100; i++) {
+            message.setContent(message.getContent() + "片段" + i);
+            panel.updateLastMessage(message);
+        }
+
+        assertEquals(1, panel.getAllMessages().size());
+        assertEquals(0, panel.getRenderedMessageCount());
+    }
+
+    @Test
+    public void testResumeRendersFinalStateAtOnce() {
+        panel.addMessage(new ChatMessage("问题", true));
+        // 暂停前已登记、尚未渲染的帧也保留到恢复时
+        panel.setRenderingSuspended(true);
+        panel.addMessage(new ChatMessage("回答", false));
+        assertEquals(0, panel.getRenderedMessageCount());
+
+        panel.setRenderingSuspended(false);
+        assertFalse(panel.isRenderingSuspended());
+        assertEquals(2, panel.getRenderedMessageCount());
+    }
+
+    @Test
+    public void testUpdateMessageDoesNotReplaceLaterMessages() {
+        ChatMessage benchmark = new ChatMessage("基准测试运行中", false);
+        panel.addMessage(benchmark);
+        ChatMessage question = new ChatMessage("问题", true);
+        panel.addMessage(question);
+
+        benchmark.setContent("基准测试完成");
+        panel.updateMessage(benchmark);
+        panel.updateMessage(new ChatMessage("不在历史中", false));
+
+        assertEquals(2, panel.getAllMessages().size());
+        assertSame(benchmark, panel.getAllMessages().get(0));
+        assertSame(question, panel.getAllMessages().get(1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Test;
+
+import javax.swing.*;
+import javax.swing.text.PlainDocument;
+import java.awt.datatransfer.StringSelection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * LargePasteTransferHandler 大段粘贴测试类
+ */
+public class LargePasteTransferHandlerTest {
+
+    private final List<String> attached = new ArrayList<>();
+
+    private JTextArea createTextArea(int thresholdChars) {
+        JTextArea textArea = new JTextArea();
+        textArea.setTransferHandler(new LargePasteTransferHandler(textArea.getTransferHandler(),
+                () -> thresholdChars, attached::add));
+        return textArea;
+    }
+
+    private static boolean paste(JTextArea textArea, String text) {
+        return textArea.getTransferHandler().importData(
+                new TransferHandler.TransferSupport(textArea, new StringSelection(text)));
+    }
+
+    @Test
+    public void testLargePasteBecomesAttachment() {
+        JTextArea textArea = createTextArea(100);
+        String log = "at com.example.Foo.bar(Foo.java:42)\n".repeat(10);
+
+        assertTrue(paste(textArea, log));
+        assertEquals("", textArea.getText());
+        assertEquals(List.of(log), attached);
+    }
+
+    @Test
+    public void testSmallPasteIsInserted() {
+        JTextArea textArea = createTextArea(100);
+
+        assertTrue(paste(textArea, "hello"));
+        assertEquals("hello", textArea.getText());
+        assertTrue(attached.isEmpty());
+    }
+
+    @Test
+    public void testZeroThresholdDisablesConversion() {
+        JTextArea textArea = createTextArea(0);
+        String log = "x".repeat(10_000);
+
+        assertTrue(paste(textArea, log));
+        assertEquals(log, textArea.getText());
+        assertTrue(attached.isEmpty());
+    }
+
+    @Test
+    public void testLineStartOffsetUsesDocumentElements() throws Exception {
+        PlainDocument document = new PlainDocument();
+        document.insertString(0, "first line\n/he", null);
+
+        assertEquals(0, ChatInputPanel.lineStartOffset(document, 5));
+        assertEquals(11, ChatInputPanel.lineStartOffset(document, 11));
+        assertEquals(11, ChatInputPanel.lineStartOffset(document, document.getLength()));
+    }
+
+    @Test
+    public void testPastedTextAttachment() {
+        AttachmentManager manager = new AttachmentManager(null);
+        AttachmentManager.PastedText pastedText = manager.addPastedText("a\n```\nb\n");
+
+        assertEquals(3, pastedText.getLineCount());
+        assertEquals(1, manager.getAttachmentCount());
+        assertTrue(manager.hasAttachments());
+        String content = manager.generateAttachmentContent();
+        assertTrue("围栏应长于内容中的反引号", content.contains("````\na\n```\nb\n````\n"));
+        assertFalse(content.contains("附件文件"));
+
+        assertTrue(manager.removePastedText(pastedText));
+        assertFalse(manager.hasAttachments());
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * MarkdownBlockParser 增量解析测试类
+ */
+public class MarkdownBlockParserTest {
+
+    private static final String CONTENT = "# 标题\n\n第一段\n第二行\n\n- 项目一\n- 项目二\n\n```go\nfunc main() {\n}\n```\n结尾文本\n```py\nprint(1)\n";
+
+    @Test
+    public void testBlocksOfCompleteText() {
+        List<MarkdownBlockParser.Block> blocks = MarkdownBlockParser.parse(CONTENT);
+
+        assertEquals(6, blocks.size());
+        assertEquals(MarkdownBlockParser.BlockType.HEADING, blocks.get(0).type);
+        assertEquals("第一段\n第二行", blocks.get(1).text);
+        assertTrue(blocks.get(1).blankLineBefore);
+        assertEquals(MarkdownBlockParser.BlockType.LIST, blocks.get(2).type);
+        assertEquals("- 项目一\n- 项目二", blocks.get(2).text);
+        assertEquals("go", blocks.get(3).language);
+        assertEquals("func main() {\n}\n", blocks.get(3).text);
+        assertTrue(blocks.get(3).closed);
+        assertEquals("结尾文本", blocks.get(4).text);
+        assertEquals("py", blocks.get(5).language);
+        assertFalse("末尾的代码块尚未关闭", blocks.get(5).closed);
+    }
+
+    @Test
+    public void testIncrementalParseMatchesFullParse() {
+        String expected = MarkdownBlockParser.parse(CONTENT).toString();
+        for (int step = 1; step <= 7; step++) {
+            MarkdownBlockParser parser = new MarkdownBlockParser();
+            for (int i = 0; i < CONTENT.length(); i += step) {
+                parser.update(CONTENT.substring(0, Math.min(CONTENT.length(), i + step)));
+            }
+            assertEquals("片段长度 " + step, expected, parser.getBlocks().toString());
+        }
+    }
+
+    @Test
+    public void testStableBlocksAreNotReparsed() {
+        MarkdownBlockParser parser = new MarkdownBlockParser();
+        parser.update("第一段\n\n第二段");
+        List<MarkdownBlockParser.Block> stable = parser.getStableBlocks();
+        assertEquals(1, stable.size());
+        MarkdownBlockParser.Block first = stable.get(0);
+
+        parser.update("第一段\n\n第二段继续输出");
+
+        assertSame(first, parser.getStableBlocks().get(0));
+        assertEquals("第二段继续输出", parser.getTailBlocks().get(0).text);
+    }
+
+    @Test
+    public void testPartialFenceIsHeldBack() {
+        MarkdownBlockParser parser = new MarkdownBlockParser();
+        parser.update("说明\n``");
+
+        assertEquals("[PARAGRAPH*:说明]", parser.getBlocks().toString());
+
+        parser.update("说明\n```java\nint a");
+        List<MarkdownBlockParser.Block> tail = parser.getTailBlocks();
+        assertEquals(1, tail.size());
+        assertTrue(tail.get(0).isCode());
+        assertEquals("java", tail.get(0).language);
+        assertEquals("int a", tail.get(0).text);
+
+        // 结束围栏输出到一半时不应出现在代码中
+        parser.update("说明\n```java\nint a = 1;\n``");
+        assertEquals("int a = 1;\n", parser.getTailBlocks().get(0).text);
+    }
+
+    @Test
+    public void testReplacedContentIsReparsed() {
+        MarkdownBlockParser parser = new MarkdownBlockParser();
+        parser.update("部分回复\n\n更多");
+        parser.update("❌ 请求失败");
+
+        assertEquals("[PARAGRAPH*:❌ 请求失败]", parser.getBlocks().toString());
+    }
+
+    @Test
+    public void testPrefixCheckOnLongContent() {
+        String body = "很长的段落。".repeat(100);
+        MarkdownBlockParser parser = new MarkdownBlockParser();
+        parser.update(body);
+
+        assertTrue(parser.isPrefixOf(body + "继续"));
+        assertFalse("开头不同", parser.isPrefixOf("新" + body.substring(1)));
+        assertFalse("结尾不同", parser.isPrefixOf(body.substring(0, body.length() - 1) + "！继续"));
+        assertFalse("比已解析内容短", parser.isPrefixOf(body.substring(1)));
+
+        String regenerated = body.substring(0, body.length() - 1) + "！";
+        parser.update(regenerated);
+        assertEquals("[PARAGRAPH*:" + regenerated + "]", parser.getBlocks().toString());
+    }
+
+    @Test
+    public void testMiddleChangeIsNotTreatedAsAppend() {
+        String head = "开头的段落。".repeat(30) + "\n\n";
+        String tail = "\n\n" + "结尾的段落。".repeat(30);
+        MarkdownBlockParser parser = new MarkdownBlockParser();
+        parser.update(head + "旧的中间部分" + tail);
+
+        String sameLength = head + "新的中间部分" + tail;
+        assertFalse("长度不变、只改中间", parser.isPrefixOf(sameLength));
+        assertFalse("变长、只改中间", parser.isPrefixOf(head + "新的中间部分" + tail + "继续"));
+
+        parser.update(sameLength);
+        assertEquals(MarkdownBlockParser.parse(sameLength).toString(), parser.getBlocks().toString());
+        assertEquals("新的中间部分", parser.getStableBlocks().get(1).text);
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * MarkdownTokenizer 单遍扫描测试类
+ */
+public class MarkdownTokenizerTest {
+
+    private static String inline(String text) {
+        StringBuilder sb = new StringBuilder();
+        MarkdownTokenizer.scanInline(text, 0, text.length(),
+                (type, start, end) -> sb.append(type).append('(').append(text, start, end).append(')'));
+        return sb.toString();
+    }
+
+    @Test
+    public void testInlineFormats() {
+        assertEquals("TEXT(a )BOLD(b)TEXT( )ITALIC(c)TEXT( )CODE(d)TEXT( e)", inline("a **b** *c* `d` e"));
+    }
+
+    @Test
+    public void testBoldWinsOverItalicAtSamePosition() {
+        assertEquals("BOLD(x)", inline("**x**"));
+        assertEquals("ITALIC()TEXT(x)", inline("**x"));
+    }
+
+    @Test
+    public void testUnclosedMarkersAreText() {
+        assertEquals("TEXT(a * b ` c)", inline("a * b ` c"));
+        assertEquals("", inline(""));
+    }
+
+    @Test
+    public void testScanRespectsRange() {
+        String text = "xx**b**yy";
+        StringBuilder sb = new StringBuilder();
+        MarkdownTokenizer.scanInline(text, 2, 7, (type, start, end) -> sb.append(type).append(start).append(end));
+        assertEquals("BOLD45", sb.toString());
+    }
+
+    @Test
+    public void testHeading() {
+        assertEquals(2, MarkdownTokenizer.headingContentStart("# 标题", 0, 4));
+        assertEquals(4, MarkdownTokenizer.headingContentStart("##  x", 0, 5));
+        assertEquals(-1, MarkdownTokenizer.headingContentStart("#标题", 0, 3));
+        assertEquals(-1, MarkdownTokenizer.headingContentStart("####### x", 0, 9));
+    }
+
+    @Test
+    public void testListItem() {
+        assertEquals(2, MarkdownTokenizer.listItemContentStart("- a", 0, 3));
+        assertEquals(4, MarkdownTokenizer.listItemContentStart("  * a", 0, 5));
+        assertEquals(4, MarkdownTokenizer.listItemContentStart("12. a", 0, 5));
+        assertEquals(-1, MarkdownTokenizer.listItemContentStart("**a**", 0, 5));
+        assertEquals(-1, MarkdownTokenizer.listItemContentStart("12.a", 0, 4));
+        assertEquals(-1, MarkdownTokenizer.listItemContentStart("-", 0, 1));
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * MessageRenderModel 渲染模型测试类
+ */
+public class MessageRenderModelTest {
+
+    @Test
+    public void testModelContainsPreparedBlocks() {
+        MessageRenderModel model = MessageRenderModel.build("# 标题\n说明 **重点**\n```\npackage main\n```\n", true);
+
+        List<MessageRenderModel.RenderBlock> blocks = model.stableBlocks;
+        assertEquals(3, blocks.size());
+        assertEquals("标题", blocks.get(0).runs.get(0).text);
+        assertEquals(MarkdownStyles.Kind.HEADER, blocks.get(0).runs.get(0).kind);
+        assertEquals(2, blocks.get(1).runs.size());
+        assertEquals(MarkdownStyles.Kind.BOLD, blocks.get(1).runs.get(1).kind);
+        assertEquals("未标注语言的代码块应被识别", "go", blocks.get(2).language);
+        assertTrue(model.tailBlocks.isEmpty());
+    }
+
+    @Test
+    public void testPlainTextModelKeepsRawText() {
+        MessageRenderModel model = MessageRenderModel.build("说明 **重点**", false);
+
+        assertEquals(1, model.tailBlocks.size());
+        assertEquals("说明 **重点**", model.tailBlocks.get(0).runs.get(0).text);
+        assertEquals(MarkdownStyles.Kind.BASE, model.tailBlocks.get(0).runs.get(0).kind);
+    }
+
+    @Test
+    public void testOpenCodeBlockLanguageIsNotGuessed() {
+        MessageRenderModel model = MessageRenderModel.build("```\nfunc main() {\n", true);
+
+        assertEquals("", model.tailBlocks.get(0).language);
+    }
+
+    @Test
+    public void testParserCopyContinuesIncrementally() {
+        String content = "第一段\n\n```go\nfunc a() {}\n";
+        MessageRenderModel model = MessageRenderModel.build(content, true);
+
+        MarkdownBlockParser parser = model.newParser();
+        parser.update(content + "```\n结尾");
+
+        assertEquals(MarkdownBlockParser.parse(content + "```\n结尾").toString(), parser.getBlocks().toString());
+        assertEquals("模型中的解析器状态不应被修改", 1, model.stableBlocks.size());
+    }
+
+    @Test
+    public void testDetectLanguage() {
+        assertEquals("java", MessageRenderModel.detectLanguage("public class A {}\n"));
+        assertEquals("python", MessageRenderModel.detectLanguage("def f():\n    pass\n"));
+        assertEquals("json", MessageRenderModel.detectLanguage("{\"a\": 1}\n"));
+        assertEquals("", MessageRenderModel.detectLanguage("hello\n"));
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MessageView 流式增量渲染测试类
+ */
+public class MessageViewTest extends BasePlatformTestCase {
+
+    private static final String CONTENT = "Hello\n```go\nfunc main() {\n}\n```\nafter text\n```py\nprint(1)\n";
+
+    @Test
+    public void testStreamedRenderMatchesFullRender() {
+        // 按小片段流式输出，最终组件结构应与一次性渲染完全一致
+        ChatMessage message = new ChatMessage("", false);
+        MessageView streamed = new MessageView(message);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < CONTENT.length(); i += 3) {
+            content.append(CONTENT, i, Math.min(CONTENT.length(), i + 3));
+            message.setContent(content.toString());
+            streamed.update(message);
+        }
+
+        MessageView full = new MessageView(new ChatMessage(CONTENT, false));
+
+        assertEquals(describe(full.getComponent()), describe(streamed.getComponent()));
+    }
+
+    @Test
+    public void testAppendReusesTailComponent() {
+        ChatMessage message = new ChatMessage("第一段", false);
+        MessageView view = new MessageView(message);
+        Component tail = lastContentComponent(view.getComponent());
+
+        message.setContent("第一段，继续输出");
+        view.update(message);
+
+        assertSame("追加普通文本时应复用末尾文本面板", tail, lastContentComponent(view.getComponent()));
+        assertEquals("第一段，继续输出", ((JTextPane) tail).getText());
+    }
+
+    @Test
+    public void testReplacedContentIsRebuilt() {
+        ChatMessage message = new ChatMessage("部分回复", false);
+        MessageView view = new MessageView(message);
+
+        message.setContent("❌ 请求失败");
+        view.update(message);
+
+        assertEquals("[text:❌ 请求失败]", describe(view.getComponent()));
+    }
+
+    @Test
+    public void testOpenCodeBlockIsAppendedInPlace() {
+        ChatMessage message = new ChatMessage("说明\n```java\nint a = 1;\n", false);
+        MessageView view = new MessageView(message);
+        Component code = lastContentComponent(view.getComponent());
+
+        message.setContent(message.getContent() + "int b = 2;\n");
+        view.update(message);
+
+        assertSame("未关闭的代码块应原地追加", code, lastContentComponent(view.getComponent()));
+        assertEquals("int a = 1;\nint b = 2;\n", ((CodeBlockComponent) code).getCode());
+    }
+
+    @Test
+    public void testReplacedContentKeepsUnchangedParts() {
+        ChatMessage message = new ChatMessage("说明\n```go\nx := 1\n```\n中间\n```py\nprint(1)\n```\n", false);
+        MessageView view = new MessageView(message);
+        List<Component> before = Arrays.asList(view.getComponent().getComponents());
+        CodeBlockComponent goBlock = (CodeBlockComponent) before.stream()
+                .filter(c -> c instanceof CodeBlockComponent).findFirst().orElseThrow();
+
+        String regenerated = "新的说明\n```go\nx := 1\n```\n中间\n```py\nprint(2)\n```\n";
+        message.setContent(regenerated);
+        view.update(message);
+
+        List<Component> after = Arrays.asList(view.getComponent().getComponents());
+        assertTrue("内容未变化的代码块应保留", after.contains(goBlock));
+        assertEquals(describe(new MessageView(new ChatMessage(regenerated, false)).getComponent()),
+                describe(view.getComponent()));
+    }
+
+    @Test
+    public void testMiddleRewriteIsRebuilt() {
+        // 基准测试进度在原地改写：开头和结尾不变、长度也不变
+        String header = "基准测试说明。".repeat(20) + "\n\n";
+        String footer = "\n\n" + "结果汇总在完成后给出。".repeat(20);
+        ChatMessage message = new ChatMessage(header + "进度 1/9" + footer, false);
+        MessageView view = new MessageView(message);
+
+        String rewritten = header + "进度 2/9" + footer;
+        message.setContent(rewritten);
+        view.update(message);
+
+        assertEquals(describe(new MessageView(new ChatMessage(rewritten, false)).getComponent()),
+                describe(view.getComponent()));
+    }
+
+    @Test
+    public void testReasoningIsCollapsedUntilExpanded() {
+        ChatMessage message = new ChatMessage("回答", false);
+        message.setReasoningContent("先分析问题");
+        MessageView view = new MessageView(message);
+        ReasoningView reasoning = view.getReasoningView();
+
+        assertNotNull(reasoning);
+        assertFalse("推理内容默认折叠", reasoning.isExpanded());
+        assertNull("折叠时不创建完整内容组件", reasoning.getContentBlock());
+
+        message.setReasoningContent("先分析问题，再给出结论");
+        view.update(message);
+        assertSame("流式追加时复用推理视图", reasoning, view.getReasoningView());
+        assertTrue(reasoning.getSummary().contains("11 字"));
+
+        reasoning.setExpanded(true);
+        assertEquals("先分析问题，再给出结论", reasoning.getContentBlock().getCode());
+
+        reasoning.setExpanded(false);
+        assertNull("折叠后释放完整内容组件", reasoning.getContentBlock());
+    }
+
+    @Test
+    public void testFinishReplacesTextPanes() {
+        ChatMessage message = new ChatMessage(CONTENT, false);
+        MessageView view = new MessageView(message);
+
+        view.finish();
+        assertTrue(view.isFinished());
+        for (Component component : view.getComponent().getComponents()) {
+            assertFalse("结束的消息不应再使用文本面板", component instanceof JTextPane);
+        }
+
+        message.setContent(CONTENT + "```\n继续");
+        view.update(message);
+        assertFalse("内容变化后应恢复为可增量更新的视图", view.isFinished());
+        assertEquals(describe(new MessageView(new ChatMessage(CONTENT + "```\n继续", false)).getComponent()),
+                describe(view.getComponent()));
+    }
+
+    @Test
+    public void testHugeBlocksAreCollapsedUntilExpanded() {
+        StringBuilder trace = new StringBuilder("java.lang.IllegalStateException: boom\n");
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            trace.append("\tat Foo.bar(Foo.java:").append(i).append(")\n");
+            code.append("int a").append(i).append(";\n");
+        }
+        String content = trace + "\n```java\n" + code + "```\n";
+        assertTrue("内容应同步渲染", content.length() < MessageView.ASYNC_RENDER_THRESHOLD);
+        MessageView view = new MessageView(new ChatMessage(content, false));
+
+        CollapsedTextView collapsedText = null;
+        CodeBlockComponent codeBlock = null;
+        for (Component component : view.getComponent().getComponents()) {
+            if (component instanceof CollapsedTextView) {
+                collapsedText = (CollapsedTextView) component;
+            } else if (component instanceof CodeBlockComponent) {
+                codeBlock = (CodeBlockComponent) component;
+            }
+        }
+        assertNotNull("超长文本块应折叠显示", collapsedText);
+        assertNotNull(codeBlock);
+        assertTrue("超长代码块应折叠显示", codeBlock.isCollapsed());
+        assertEquals("复制的仍是完整代码", code.toString(), codeBlock.getCode());
+
+        collapsedText.expand();
+        codeBlock.expand();
+        assertTrue(collapsedText.isExpanded());
+        assertFalse(codeBlock.isCollapsed());
+    }
+
+    private static Component lastContentComponent(JPanel panel) {
+        Component[] components = panel.getComponents();
+        for (int i = components.length - 1; i >= 0; i--) {
+            if (components[i] instanceof JTextPane || components[i] instanceof CodeBlockComponent) {
+                return components[i];
+            }
+        }
+        return null;
+    }
+
+    private static String describe(JPanel panel) {
+        StringBuilder sb = new StringBuilder();
+        for (Component component : panel.getComponents()) {
+            if (component instanceof CodeBlockComponent) {
+                CodeBlockComponent code = (CodeBlockComponent) component;
+                sb.append("[code:").append(code.getLanguage()).append(':').append(code.getCode()).append(']');
+            } else if (component instanceof JTextPane) {
+                sb.append("[text:").append(((JTextPane) component).getText()).append(']');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+import javax.swing.*;
+
+/**
+ * PaintedTextView 绘制文本组件测试类
+ */
+public class PaintedTextViewTest extends BasePlatformTestCase {
+
+    private static final String MARKDOWN = "# 标题\n说明 **重点** 和 `code`，这一段文字足够长，在较窄的宽度下会自动换行显示。\n\n结尾";
+
+    @Test
+    public void testTextMatchesTextPane() {
+        JTextPane textPane = createTextPane();
+
+        PaintedTextView view = PaintedTextView.of(textPane);
+
+        assertEquals(textPane.getText(), view.getText());
+    }
+
+    @Test
+    public void testNarrowerWidthWrapsIntoMoreLines() {
+        PaintedTextView view = PaintedTextView.of(createTextPane());
+
+        view.setSize(600, 10);
+        int wide = view.getPreferredSize().height;
+        view.setSize(150, 10);
+        int narrow = view.getPreferredSize().height;
+
+        assertTrue("较窄的宽度下应换行为更多行", narrow > wide);
+        view.setSize(600, 10);
+        assertEquals("同一宽度下高度应保持一致", wide, view.getPreferredSize().height);
+    }
+
+    @Test
+    public void testSelection() {
+        PaintedTextView view = PaintedTextView.of(createTextPane());
+
+        view.select(0, 2);
+        assertEquals("标题", view.getSelectedText());
+
+        view.select(5, 3);
+        assertEquals("反向选择应得到同样的区间", view.getText().substring(3, 5), view.getSelectedText());
+    }
+
+    private static JTextPane createTextPane() {
+        JTextPane textPane = new JTextPane();
+        MarkdownRenderer.renderMarkdown(MARKDOWN, textPane.getStyledDocument(), false);
+        return textPane;
+    }
+}
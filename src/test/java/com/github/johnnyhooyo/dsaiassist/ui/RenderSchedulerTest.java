@@ -0,0 +1,49 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Test;
+
+import javax.swing.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * RenderScheduler 帧合并测试类
+ */
+public class RenderSchedulerTest {
+
+    @Test
+    public void testRequestsWithinFrameAreCoalesced() throws Exception {
+        AtomicInteger frames = new AtomicInteger();
+        CountDownLatch rendered = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> {
+            RenderScheduler scheduler = new RenderScheduler(() -> {
+                frames.incrementAndGet();
+                rendered.countDown();
+            });
+            for (int i = 0; i < 100; i++) {
+                scheduler.requestFrame();
+            }
+            assertTrue(scheduler.isFramePending());
+        });
+
+        assertTrue(rendered.await(2, TimeUnit.SECONDS));
+        Thread.sleep(RenderScheduler.FRAME_MILLIS * 3);
+        assertEquals(1, frames.get());
+    }
+
+    @Test
+    public void testCancelDropsPendingFrame() throws Exception {
+        AtomicInteger frames = new AtomicInteger();
+        SwingUtilities.invokeAndWait(() -> {
+            RenderScheduler scheduler = new RenderScheduler(frames::incrementAndGet);
+            scheduler.requestFrame();
+            scheduler.cancel();
+        });
+
+        Thread.sleep(RenderScheduler.FRAME_MILLIS * 3);
+        assertEquals(0, frames.get());
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Test;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * SnapshotCache 快照缓存测试类
+ */
+public class SnapshotCacheTest {
+
+    private static SnapshotCache.Snapshot snapshot(int width, int height, String theme) {
+        return new SnapshotCache.Snapshot(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), width, height, theme);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedOverBudget() {
+        // 每个快照 100x100x4 = 40000 字节，预算只够两个
+        SnapshotCache cache = new SnapshotCache(100_000);
+        Object a = new Object();
+        Object b = new Object();
+        Object c = new Object();
+        cache.put(a, snapshot(100, 100, "light"));
+        cache.put(b, snapshot(100, 100, "light"));
+        assertNotNull(cache.get(a, 100, "light"));
+        cache.put(c, snapshot(100, 100, "light"));
+
+        assertEquals(2, cache.size());
+        assertNotNull("最近使用过的快照应保留", cache.get(a, 100, "light"));
+        assertNull(cache.get(b, 100, "light"));
+        assertEquals(80_000, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testWidthOrThemeChangeInvalidates() {
+        SnapshotCache cache = new SnapshotCache(1_000_000);
+        Object key = new Object();
+        cache.put(key, snapshot(100, 50, "light"));
+
+        assertNull(cache.get(key, 100, "dark"));
+        assertEquals(0, cache.size());
+        cache.put(key, snapshot(100, 50, "light"));
+        assertNull(cache.get(key, 120, "light"));
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testCaptureKeepsLogicalSize() {
+        JPanel panel = new JPanel();
+        panel.setBackground(Color.RED);
+        panel.setSize(40, 20);
+
+        SnapshotCache.Snapshot captured = SnapshotCache.capture(panel, "light");
+        assertEquals(40, captured.width);
+        assertEquals(20, captured.height);
+        assertEquals(Color.RED.getRGB(), captured.image.getRGB(1, 1));
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * SuggestionListModel 增量更新测试类
+ */
+public class SuggestionListModelTest {
+
+    private final SuggestionListModel model = new SuggestionListModel();
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add("+" + e.getIndex0() + ".." + e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add("-" + e.getIndex0() + ".." + e.getIndex1());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add("~" + e.getIndex0() + ".." + e.getIndex1());
+            }
+        });
+    }
+
+    @Test
+    public void testAppendOnlyFiresAdded() {
+        model.setItems(List.of("a", "b"));
+        events.clear();
+        model.setItems(List.of("a", "b", "c", "d"));
+
+        assertEquals(List.of("+2..3"), events);
+        assertEquals(List.of("a", "b", "c", "d"), model.getItems());
+    }
+
+    @Test
+    public void testInsertInMiddle() {
+        model.setItems(List.of("a", "c"));
+        events.clear();
+        model.setItems(List.of("a", "b", "c"));
+
+        assertEquals(List.of("+1..1"), events);
+    }
+
+    @Test
+    public void testReplaceAndShrink() {
+        model.setItems(List.of("a", "b", "c", "d"));
+        events.clear();
+        model.setItems(List.of("a", "x"));
+
+        assertEquals(List.of("~1..1", "-2..3"), events);
+        assertEquals("x", model.getElementAt(1));
+    }
+
+    @Test
+    public void testUnchangedFiresNothing() {
+        model.setItems(List.of("a", "b"));
+        events.clear();
+        model.setItems(List.of("a", "b"));
+
+        assertTrue(events.isEmpty());
+        assertEquals(2, model.getSize());
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ThemeChangeListener 注册表测试类
+ */
+public class ThemeChangeListenerTest extends BasePlatformTestCase {
+
+    @Test
+    public void testRegistrationIsRemovedWithParent() {
+        ThemeChangeListener listener = ThemeChangeListener.getInstance();
+        int before = listener.getRegisteredCount();
+        Disposable parent = Disposer.newDisposable();
+        ThemeAware component = () -> { };
+
+        listener.registerComponent(component, parent);
+        assertEquals(before + 1, listener.getRegisteredCount());
+
+        Disposer.dispose(parent);
+        assertEquals("释放父级后应自动注销", before, listener.getRegisteredCount());
+    }
+
+    @Test
+    public void testHiddenComponentIsUpdatedLater() {
+        ThemeChangeListener listener = ThemeChangeListener.getInstance();
+        Disposable parent = Disposer.newDisposable();
+        AtomicInteger visibleUpdates = new AtomicInteger();
+        AtomicInteger hiddenUpdates = new AtomicInteger();
+        ThemeAware visible = visibleUpdates::incrementAndGet;
+        HiddenPanel hidden = new HiddenPanel(hiddenUpdates);
+
+        try {
+            listener.registerComponent(visible, parent);
+            listener.registerComponent(hidden, parent);
+            listener.notifyThemeChanged();
+
+            assertEquals(1, visibleUpdates.get());
+            assertEquals("不可见的组件应推迟更新", 0, hiddenUpdates.get());
+        } finally {
+            Disposer.dispose(parent);
+        }
+    }
+
+    private static final class HiddenPanel extends JPanel implements ThemeAware {
+        private final AtomicInteger updates;
+
+        HiddenPanel(AtomicInteger updates) {
+            this.updates = updates;
+        }
+
+        @Override
+        public void updateTheme() {
+            updates.incrementAndGet();
+        }
+    }
+}
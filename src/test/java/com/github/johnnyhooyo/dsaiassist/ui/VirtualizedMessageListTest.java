@@ -0,0 +1,108 @@
+package com.github.johnnyhooyo.dsaiassist.ui;
+
+import com.github.johnnyhooyo.dsaiassist.model.ChatMessage;
+import com.github.johnnyhooyo.dsaiassist.settings.PluginSettings;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * VirtualizedMessageList 虚拟化测试类
+ */
+public class VirtualizedMessageListTest extends BasePlatformTestCase {
+
+    private VirtualizedMessageList list;
+    private JViewport viewport;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        list = new VirtualizedMessageList();
+        viewport = new JViewport();
+        viewport.setView(list);
+        viewport.setSize(400, 600);
+        for (int i = 0; i < 500; i++) {
+            list.addMessage(new ChatMessage("消息 " + i + "\n```java\nint a = " + i + ";\n```\n", i % 2 == 0));
+        }
+        layout();
+    }
+
+    private void layout() {
+        list.setSize(400, list.getPreferredSize().height);
+        list.doLayout();
+    }
+
+    @Test
+    public void testOnlyMessagesNearViewportAreAttached() {
+        assertEquals(500, list.getMessageCount());
+        assertTrue("只应为视口附近的消息创建组件", list.getAttachedCount() < 50);
+        assertEquals(list.getAttachedCount(), list.getComponentCount());
+    }
+
+    @Test
+    public void testScrollingKeepsAttachedCountBounded() {
+        int total = list.getPreferredSize().height;
+        for (int y = 0; y < total; y += 2000) {
+            viewport.setViewPosition(new Point(0, y));
+            list.doLayout();
+            assertTrue(list.getAttachedCount() < 50);
+        }
+    }
+
+    @Test
+    public void testStreamingUpdatesLastMessage() {
+        ChatMessage last = new ChatMessage("", false);
+        list.addMessage(last);
+        layout();
+        viewport.setViewPosition(new Point(0, Math.max(0, list.getPreferredSize().height - 600)));
+        list.doLayout();
+
+        for (int i = 0; i < 20; i++) {
+            last.setContent(last.getContent() + "token" + i + " ");
+            list.updateLastMessage(last);
+        }
+        list.doLayout();
+
+        assertEquals(501, list.getMessageCount());
+        assertTrue(list.getAttachedCount() < 50);
+    }
+
+    @Test
+    public void testFinishedMessagesAreShownAsSnapshotsWhenEnabled() {
+        PluginSettings settings = PluginSettings.getInstance();
+        settings.setEnableSnapshotCache(true);
+        try {
+            viewport.setViewPosition(new Point(0, 20000));
+            layout();
+            viewport.setViewPosition(new Point(0, 0));
+            list.doLayout();
+            assertTrue("回到顶部时应显示离开时绘制的快照", list.getSnapshotCount() > 0);
+
+            Component snapshot = list.getComponentAt(10, 10);
+            assertTrue(snapshot instanceof SnapshotCache.SnapshotView);
+            Rectangle bounds = snapshot.getBounds();
+            snapshot.dispatchEvent(new java.awt.event.MouseEvent(snapshot, java.awt.event.MouseEvent.MOUSE_ENTERED,
+                    0, 0, 5, 5, 0, false));
+            assertFalse("鼠标移入后应换回真实组件", list.getComponentAt(10, 10) instanceof SnapshotCache.SnapshotView);
+            assertEquals(bounds, list.getComponentAt(10, 10).getBounds());
+        } finally {
+            settings.setEnableSnapshotCache(false);
+        }
+    }
+
+    @Test
+    public void testWrappedLineEstimate() {
+        assertEquals(0, VirtualizedMessageList.countWrappedLines("", 10));
+        assertEquals(1, VirtualizedMessageList.countWrappedLines("short", 10));
+        assertEquals(3, VirtualizedMessageList.countWrappedLines("0123456789ab\nxy", 10));
+    }
+
+    @Test
+    public void testClear() {
+        list.clear();
+        assertEquals(0, list.getMessageCount());
+        assertEquals(0, list.getComponentCount());
+    }
+}